@@ -0,0 +1,98 @@
+package bunniesv3;
+
+import battlecode.common.*;
+import harness.FixtureRobotController;
+import harness.FixtureWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Wall-time benchmarks of the bunniesv3 hot paths against fixed fixtures (see harness.FixtureWorld).
+ * Run with ./gradlew jmh, which also adds the perfnorm profiler on Linux for instructions per call.
+ *
+ * Wall time on a JIT-compiled JVM is only a proxy for the bytecode count the instrumenter charges, but
+ * relative changes between two versions of the same method usually point the same way.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+    static final long SEED = 25;
+
+    @Param({"Pathfinding0", "towerTesting"})
+    public String map;
+
+    FixtureWorld world;
+    FixtureRobotController splasher;
+    FixtureRobotController mopper;
+    FixtureRobotController soldier;
+    MapLocation start;
+    MapLocation pathfinderDest;
+    MapInfo[] nearbyTiles;
+    RobotInfo[] nearbyRobots;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        world = FixtureWorld.load(map, FixtureWorld.DEFAULT_MAP_DIR).scatterPaint(SEED, 0.5).scatterRobots(SEED, 40);
+        start = world.freeTileNearCenter();
+        // one controller per unit type on the same tile, each benchmark's reset() makes its own the occupant
+        splasher = world.controllerFor(UnitType.SPLASHER, Team.A, start);
+        mopper = world.controllerFor(UnitType.MOPPER, Team.A, start);
+        soldier = world.controllerFor(UnitType.SOLDIER, Team.A, start);
+        pathfinderDest = new MapLocation(world.width - 1 - start.x / 2, world.height - 1 - start.y / 2);
+        nearbyTiles = splasher.rc.senseNearbyMapInfos();
+        nearbyRobots = splasher.rc.senseNearbyRobots();
+        // paint requests from a few robots, and a message with two enemy tower sightings from each
+        for (int i = 0; i < 4; i++) {
+            world.addMessage(MessageCodec.pack(MessageCodec.REQUEST, MessageCodec.REQUEST_PAINT, i, i + 1), 10000 + i, 1);
+            world.addMessage(MessageCodec.pack(MessageCodec.TOWER, i, i, MapMemory.ENEMY_PAINT_TOWER)
+                    | (MessageCodec.pack(MessageCodec.TOWER, i + 2, i, MapMemory.ENEMY_MONEY_TOWER)
+                    << MessageCodec.RECORD_WIDTHS[MessageCodec.TOWER]), 10000 + i, 1);
+        }
+    }
+
+    // the threshold is out of reach so that only the scoring is measured, never an attack
+    @Benchmark
+    public MapLocation splasherConvolution() {
+        splasher.reset(start);
+        return SplasherConvolution.computeAndAttack(splasher.rc, nearbyTiles, nearbyRobots, 1000f);
+    }
+
+    @Benchmark
+    public MapLocation splasherConvolutionUnrolled() {
+        splasher.reset(start);
+        return SplasherConvolutionUnrolled.computeAndAttack(splasher.rc, nearbyRobots, 1000f);
+    }
+
+    @Benchmark
+    public MapLocation splasherPlanner() throws GameActionException {
+        splasher.reset(start);
+        // every call is the first of its turn, so it senses again
+        Sense.invalidate();
+        return SplasherPlanner.planAndAttack(splasher.rc, nearbyRobots, 1000f, true);
+    }
+
+    @Benchmark
+    public MapLocation orbitPathfinderStep() {
+        soldier.reset(start);
+        RobotPlayer.path.clear();
+        new OrbitPathfinder(soldier.rc, pathfinderDest).step();
+        return soldier.location;
+    }
+
+    @Benchmark
+    public int[] mopperSwingValues() {
+        mopper.reset(start);
+        Sense.invalidate();
+        return Mopper.getSwingValues(mopper.rc);
+    }
+
+    @Benchmark
+    public int messageReceive() {
+        return MessageCodec.receive(soldier.rc);
+    }
+}
@@ -0,0 +1,254 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Navigator that follows a BFS distance field grown outwards from the destination over the terrain in MapMemory.
+ * Tiles that have never been seen are assumed to be walkable.
+ *
+ * The BFS only runs while more than BUDGET_RESERVE bytecodes are left in the turn, and picks up where it stopped
+ * on the next turn. It stops as soon as it reaches the robot's tile, since every tile on a shortest path from there
+ * is already settled. Until then the robot just takes a greedy step. Fields are cached per destination
+ * (CACHE_SIZE of them), so once a field reaches the robot, each step is a lookup of the 8 neighbors.
+ * A field is thrown away when a tile it already went through turns out to be a wall or a ruin.
+ *
+ * The two slots' arrays are allocated once. Resetting a slot only moves it to a new generation: distances are
+ * stored as the generation's base plus the distance, so every value from an older generation reads as not reached.
+ */
+public class BfsPathfinder implements Navigator {
+    static final int WIDTH = MapMemory.WIDTH;
+    static final int CACHE_SIZE = 2;
+    static final int BUDGET_RESERVE = 2500;
+    // more than any distance on the map, the stride between generations
+    static final int GENERATION_STRIDE = WIDTH * WIDTH + 1;
+
+    // cached fields: dist is base + 1 at the destination and grows by 1 per step, and at most base for tiles the
+    // BFS has not reached yet
+    static int[] cachedDest = new int[] {-1, -1};
+    static int[][] cachedDist = new int[CACHE_SIZE][WIDTH * WIDTH];
+    static int[][] cachedQueue = new int[CACHE_SIZE][WIDTH * WIDTH];
+    static int[] fieldBase = new int[CACHE_SIZE];
+    static int generation = 0;
+    static int[] queueHead = new int[CACHE_SIZE];
+    static int[] queueTail = new int[CACHE_SIZE];
+    static int[] lastUsed = new int[CACHE_SIZE];
+
+    // where the terrain was last read, to only read the tiles that entered vision since then
+    static MapLocation lastTerrainLocation = null;
+    // the tile of the robot's last downhill step, never stepped back onto sideways
+    static int previousIndex = -1;
+
+    private final RobotController rc;
+    private final MapLocation dest;
+    private final int destIndex;
+
+    public BfsPathfinder(RobotController rc, MapLocation dest) {
+        this.rc = rc;
+        this.dest = dest;
+        destIndex = dest.x * WIDTH + dest.y;
+    }
+
+    public void step() {
+        if (Profiler.ENABLED) Profiler.begin(Profiler.PATHFINDING);
+        try {
+            updateTerrain(rc);
+            if (rc.isMovementReady() && !rc.getLocation().equals(dest)) {
+                int slot = findOrCreateField();
+                MapLocation rcLoc = rc.getLocation();
+                int rcIndex = rcLoc.x * WIDTH + rcLoc.y;
+                int[] dist = cachedDist[slot];
+                int base = fieldBase[slot];
+                if (dist[rcIndex] <= base) {
+                    expand(slot, rcIndex);
+                }
+                if (dist[rcIndex] <= base || !stepDownhill(dist, base, rcLoc, rcIndex)) {
+                    stepGreedy(rcLoc);
+                }
+            }
+        } catch (GameActionException ignored) { }
+        if (Profiler.ENABLED) Profiler.end(Profiler.PATHFINDING);
+    }
+
+    public MapLocation getDest() {
+        return dest;
+    }
+
+    /*
+     * Moves to the neighbor closest to the destination. Only when a robot stands on a closer neighbor is it walked
+     * around through a neighbor with the same distance, and never back onto the tile of the last step, so that two
+     * robots do not swap sideways forever. Returns false if no neighbor is better than standing still.
+     */
+    private boolean stepDownhill(int[] dist, int base, MapLocation rcLoc, int rcIndex) throws GameActionException {
+        int rcDist = dist[rcIndex];
+        Direction best = null;
+        int bestDist = rcDist;
+        Direction sideways = null;
+        boolean downhillOccupied = false;
+        for (Direction direction : Constants.directions) {
+            MapLocation next = rcLoc.add(direction);
+            if (next.x < 0 || next.y < 0 || next.x >= WIDTH || next.y >= WIDTH) {
+                continue;
+            }
+            int nextIndex = next.x * WIDTH + next.y;
+            int nextDist = dist[nextIndex];
+            if (nextDist <= base || nextDist > rcDist) {
+                continue;
+            }
+            if (!rc.canMove(direction)) {
+                if (nextDist < rcDist && rc.isLocationOccupied(next)) {
+                    downhillOccupied = true;
+                }
+            } else if (nextDist < bestDist) {
+                best = direction;
+                bestDist = nextDist;
+            } else if (nextDist == rcDist && nextIndex != previousIndex) {
+                sideways = direction;
+            }
+        }
+        if (best == null) {
+            if (!downhillOccupied || sideways == null) {
+                return false;
+            }
+            best = sideways;
+        }
+        previousIndex = rcIndex;
+        rc.move(best);
+        RobotPlayer.path.addLast(rc.getLocation());
+        return true;
+    }
+
+    private void stepGreedy(MapLocation rcLoc) throws GameActionException {
+        Direction direction = rcLoc.directionTo(dest);
+        if (rc.canMove(direction)) {
+            rc.move(direction);
+        } else if (rc.canMove(direction.rotateLeft())) {
+            rc.move(direction.rotateLeft());
+        } else if (rc.canMove(direction.rotateRight())) {
+            rc.move(direction.rotateRight());
+        } else {
+            return;
+        }
+        RobotPlayer.path.addLast(rc.getLocation());
+    }
+
+    private int findOrCreateField() {
+        int round = rc.getRoundNum();
+        for (int slot = 0; slot < CACHE_SIZE; slot++) {
+            if (cachedDest[slot] == destIndex) {
+                lastUsed[slot] = round;
+                return slot;
+            }
+        }
+        int slot = lastUsed[0] <= lastUsed[1] ? 0 : 1;
+        resetField(slot, destIndex);
+        lastUsed[slot] = round;
+        return slot;
+    }
+
+    private static void resetField(int slot, int destIndex) {
+        int base = ++generation * GENERATION_STRIDE;
+        fieldBase[slot] = base;
+        cachedDist[slot][destIndex] = base + 1;
+        cachedQueue[slot][0] = destIndex;
+        cachedDest[slot] = destIndex;
+        queueHead[slot] = 0;
+        queueTail[slot] = 1;
+    }
+
+    /*
+     * Grows the field until it reaches targetIndex, runs out of tiles, or the bytecode budget runs out.
+     * The eight neighbor expansions are written out instead of looping over a direction table.
+     */
+    private void expand(int slot, int targetIndex) {
+        int[] dist = cachedDist[slot];
+        int[] queue = cachedQueue[slot];
+        int base = fieldBase[slot];
+        int[] terrain = MapMemory.tiles;
+        int head = queueHead[slot];
+        int tail = queueTail[slot];
+        int maxX = rc.getMapWidth() - 1;
+        int maxY = rc.getMapHeight() - 1;
+        while (head < tail && dist[targetIndex] <= base && Clock.getBytecodesLeft() > BUDGET_RESERVE) {
+            int cell = queue[head++];
+            int next = dist[cell] + 1;
+            int x = cell / WIDTH;
+            int y = cell % WIDTH;
+            int n;
+            if (x > 0) {
+                n = cell - WIDTH;
+                if (dist[n] <= base && (terrain[n] & MapMemory.BLOCKED) == 0) { dist[n] = next; queue[tail++] = n; }
+                if (y > 0) {
+                    n = cell - WIDTH - 1;
+                    if (dist[n] <= base && (terrain[n] & MapMemory.BLOCKED) == 0) { dist[n] = next; queue[tail++] = n; }
+                }
+                if (y < maxY) {
+                    n = cell - WIDTH + 1;
+                    if (dist[n] <= base && (terrain[n] & MapMemory.BLOCKED) == 0) { dist[n] = next; queue[tail++] = n; }
+                }
+            }
+            if (x < maxX) {
+                n = cell + WIDTH;
+                if (dist[n] <= base && (terrain[n] & MapMemory.BLOCKED) == 0) { dist[n] = next; queue[tail++] = n; }
+                if (y > 0) {
+                    n = cell + WIDTH - 1;
+                    if (dist[n] <= base && (terrain[n] & MapMemory.BLOCKED) == 0) { dist[n] = next; queue[tail++] = n; }
+                }
+                if (y < maxY) {
+                    n = cell + WIDTH + 1;
+                    if (dist[n] <= base && (terrain[n] & MapMemory.BLOCKED) == 0) { dist[n] = next; queue[tail++] = n; }
+                }
+            }
+            if (y > 0) {
+                n = cell - 1;
+                if (dist[n] <= base && (terrain[n] & MapMemory.BLOCKED) == 0) { dist[n] = next; queue[tail++] = n; }
+            }
+            if (y < maxY) {
+                n = cell + 1;
+                if (dist[n] <= base && (terrain[n] & MapMemory.BLOCKED) == 0) { dist[n] = next; queue[tail++] = n; }
+            }
+        }
+        queueHead[slot] = head;
+        queueTail[slot] = tail;
+    }
+
+    /*
+     * Reads walls and ruins into MapMemory and ResourcePatterns: the whole vision disk after a jump, otherwise only
+     * the tiles that entered vision. Fields that went through a tile that turned out to be blocked are restarted.
+     */
+    static void updateTerrain(RobotController rc) throws GameActionException {
+        MapLocation rcLoc = rc.getLocation();
+        if (lastTerrainLocation == null || !VisionDelta.isStep(lastTerrainLocation, rcLoc)) {
+            for (MapInfo tile : Sense.tiles(rc)) {
+                if (MapMemory.rememberTerrain(tile)) {
+                    invalidateFieldsThrough(tile.getMapLocation());
+                }
+                ResourcePatterns.observe(tile);
+            }
+        } else {
+            int edge = VisionDelta.edgeIndex(lastTerrainLocation, rcLoc);
+            int[] edgeX = VisionDelta.EDGE_DX[edge];
+            int[] edgeY = VisionDelta.EDGE_DY[edge];
+            for (int i = edgeX.length; --i >= 0;) {
+                MapLocation tileLocation = rcLoc.translate(edgeX[i], edgeY[i]);
+                if (rc.onTheMap(tileLocation)) {
+                    MapInfo tile = Sense.tile(rc, tileLocation);
+                    if (MapMemory.rememberTerrain(tile)) {
+                        invalidateFieldsThrough(tileLocation);
+                    }
+                    ResourcePatterns.observe(tile);
+                }
+            }
+        }
+        lastTerrainLocation = rcLoc;
+    }
+
+    static void invalidateFieldsThrough(MapLocation blocked) {
+        int index = blocked.x * WIDTH + blocked.y;
+        for (int slot = 0; slot < CACHE_SIZE; slot++) {
+            // the destination itself may be blocked (a tower), the field is still valid then
+            if (cachedDest[slot] != -1 && cachedDist[slot][index] > fieldBase[slot] && cachedDest[slot] != index) {
+                resetField(slot, cachedDest[slot]);
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Snapshot of the 9x9 window around the robot as bitboards, so that scans over the vision disk become a few long
+ * operations instead of a getPaint()/getMark()/isPassable() call per tile.
+ *
+ * The tile at offset (dx, dy) from the robot is bit (dx + 4) * 9 + dy + 4, so a column of the window is 9
+ * consecutive bits. The 81 bits do not fit in one long: every layer is two longs, lo for bits 0-63 and hi for bits
+ * 64-80. Layer L lives at layers[2 * L] and layers[2 * L + 1]. Java only uses the low 6 bits of a long shift
+ * count, so for any bit b, (1L << b) is the right mask in layers[2 * L + (b >>> 6)].
+ *
+ * update() builds the snapshot from the Sense cache, and rebuilds it whenever that cache was refilled. Masks built
+ * by disc() and square() are returned in maskLo / maskHi.
+ */
+public class Bitboard {
+    static final int RADIUS = 4;
+    static final int SIZE = 2 * RADIUS + 1;
+    static final int CENTER_BIT = RADIUS * SIZE + RADIUS;
+    static final int VISION_RADIUS_SQUARED = VisionDelta.VISION_RADIUS_SQUARED;
+
+    // Layers
+    static final int SEEN = 0;           // sensed this snapshot, i.e. on the map and in vision
+    static final int PASSABLE = 1;
+    static final int EMPTY = 2;          // no paint
+    static final int ALLY_PRIMARY = 3;
+    static final int ALLY_SECONDARY = 4;
+    static final int ENEMY_PAINT = 5;
+    static final int MARK_PRIMARY = 6;
+    static final int MARK_SECONDARY = 7;
+    static final int ALLY_ROBOT = 8;
+    static final int ENEMY_ROBOT = 9;
+    static final int LAYER_COUNT = 10;
+    static final long[] ZERO = new long[2 * LAYER_COUNT];
+
+    static long[] layers = new long[2 * LAYER_COUNT];
+    static int builtStamp = -1;
+    static MapLocation center = null;
+
+    static long maskLo;
+    static long maskHi;
+
+    // disc masks around the window center, filled on first use
+    static long[] discLo = new long[VISION_RADIUS_SQUARED + 1];
+    static long[] discHi = new long[VISION_RADIUS_SQUARED + 1];
+    static boolean[] discReady = new boolean[VISION_RADIUS_SQUARED + 1];
+
+    // squared distances that occur inside the vision disk, nearest first
+    static final int[] DISTANCES = new int[] {0, 1, 2, 4, 5, 8, 9, 10, 13, 16, 17, 18, 20};
+
+    /*
+     * Rebuilds the snapshot unless it is already up to date with Sense.
+     */
+    static void update(RobotController rc) {
+        MapInfo[] tiles = Sense.tiles(rc);
+        RobotInfo[] robots = Sense.robots(rc);
+        if (builtStamp == Sense.stamp) {
+            return;
+        }
+        build(rc, tiles, robots);
+        builtStamp = Sense.stamp;
+    }
+
+    static void build(RobotController rc, MapInfo[] tiles, RobotInfo[] robots) {
+        MapLocation loc = rc.getLocation();
+        center = loc;
+        long[] l = layers;
+        System.arraycopy(ZERO, 0, l, 0, 2 * LAYER_COUNT);
+        int baseX = loc.x - RADIUS;
+        int baseY = loc.y - RADIUS;
+        for (int i = tiles.length; --i >= 0;) {
+            MapInfo tile = tiles[i];
+            MapLocation tileLoc = tile.getMapLocation();
+            int bit = (tileLoc.x - baseX) * SIZE + tileLoc.y - baseY;
+            int half = bit >>> 6;
+            long mask = 1L << bit;
+            l[SEEN * 2 + half] |= mask;
+            if (tile.isPassable()) {
+                l[PASSABLE * 2 + half] |= mask;
+            }
+            switch (tile.getPaint()) {
+                case EMPTY: l[EMPTY * 2 + half] |= mask; break;
+                case ALLY_PRIMARY: l[ALLY_PRIMARY * 2 + half] |= mask; break;
+                case ALLY_SECONDARY: l[ALLY_SECONDARY * 2 + half] |= mask; break;
+                default: l[ENEMY_PAINT * 2 + half] |= mask; break;
+            }
+            PaintType mark = tile.getMark();
+            if (mark == PaintType.ALLY_PRIMARY) {
+                l[MARK_PRIMARY * 2 + half] |= mask;
+            } else if (mark == PaintType.ALLY_SECONDARY) {
+                l[MARK_SECONDARY * 2 + half] |= mask;
+            }
+        }
+        Team team = rc.getTeam();
+        for (int i = robots.length; --i >= 0;) {
+            RobotInfo robot = robots[i];
+            int dx = robot.location.x - baseX;
+            int dy = robot.location.y - baseY;
+            if (dx < 0 || dx >= SIZE || dy < 0 || dy >= SIZE) {
+                continue;
+            }
+            int bit = dx * SIZE + dy;
+            l[(robot.team == team ? ALLY_ROBOT : ENEMY_ROBOT) * 2 + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    // offset from the robot of a bit
+    static MapLocation location(int bit) {
+        return center.translate(bit / SIZE - RADIUS, bit % SIZE - RADIUS);
+    }
+
+    // lowest set bit of a two-long set, or -1 if it is empty
+    static int first(long lo, long hi) {
+        if (lo != 0) {
+            return Long.numberOfTrailingZeros(lo);
+        }
+        return hi != 0 ? 64 + Long.numberOfTrailingZeros(hi) : -1;
+    }
+
+    static int count(long lo, long hi) {
+        return Long.bitCount(lo) + Long.bitCount(hi);
+    }
+
+    /*
+     * Puts the tiles within distanceSquared of the robot in maskLo / maskHi.
+     */
+    static void disc(int distanceSquared) {
+        // -1 means the whole vision disk, like in the sensing methods
+        if (distanceSquared < 0 || distanceSquared > VISION_RADIUS_SQUARED) {
+            distanceSquared = VISION_RADIUS_SQUARED;
+        }
+        if (!discReady[distanceSquared]) {
+            maskLo = 0;
+            maskHi = 0;
+            for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+                int rows = 0;
+                while (rows < RADIUS && dx * dx + (rows + 1) * (rows + 1) <= distanceSquared) {
+                    rows++;
+                }
+                if (dx * dx <= distanceSquared) {
+                    addColumn(dx + RADIUS, RADIUS - rows, RADIUS + rows);
+                }
+            }
+            discLo[distanceSquared] = maskLo;
+            discHi[distanceSquared] = maskHi;
+            discReady[distanceSquared] = true;
+        }
+        maskLo = discLo[distanceSquared];
+        maskHi = discHi[distanceSquared];
+    }
+
+    /*
+     * Puts the (2r + 1) x (2r + 1) square around offset (dx, dy) from the robot, clipped to the window, in
+     * maskLo / maskHi.
+     */
+    static void square(int dx, int dy, int r) {
+        maskLo = 0;
+        maskHi = 0;
+        int y0 = Math.max(dy + RADIUS - r, 0);
+        int y1 = Math.min(dy + RADIUS + r, SIZE - 1);
+        if (y0 > y1) {
+            return;
+        }
+        int x1 = Math.min(dx + RADIUS + r, SIZE - 1);
+        for (int x = Math.max(dx + RADIUS - r, 0); x <= x1; x++) {
+            addColumn(x, y0, y1);
+        }
+    }
+
+    // adds rows [y0, y1] of window column x to the mask
+    static void addColumn(int x, int y0, int y1) {
+        long bits = ((1L << (y1 - y0 + 1)) - 1) << y0;
+        int start = x * SIZE;
+        if (start < 64) {
+            maskLo |= bits << start;
+            if (start + SIZE > 64) {
+                maskHi |= bits >>> (64 - start);
+            }
+        } else {
+            maskHi |= bits << (start - 64);
+        }
+    }
+
+    /*
+     * True if any tile of the layer is within distanceSquared of the robot.
+     */
+    static boolean anyWithin(int layer, int distanceSquared) {
+        disc(distanceSquared);
+        return (layers[2 * layer] & maskLo) != 0 || (layers[2 * layer + 1] & maskHi) != 0;
+    }
+
+    /*
+     * Number of tiles of the layer in the current mask.
+     */
+    static int countInMask(int layer) {
+        return Long.bitCount(layers[2 * layer] & maskLo) + Long.bitCount(layers[2 * layer + 1] & maskHi);
+    }
+
+    /*
+     * Nearest tile of the layer within the vision disk, or null if there is none. Ties go to the lowest bit.
+     */
+    static MapLocation nearest(int layer) {
+        return nearest(layers[2 * layer], layers[2 * layer + 1]);
+    }
+
+    static MapLocation nearest(long lo, long hi) {
+        if (lo == 0 && hi == 0) {
+            return null;
+        }
+        for (int distanceSquared : DISTANCES) {
+            disc(distanceSquared);
+            int bit = first(lo & maskLo, hi & maskHi);
+            if (bit != -1) {
+                return location(bit);
+            }
+        }
+        return null;
+    }
+}
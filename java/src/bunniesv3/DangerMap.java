@@ -0,0 +1,100 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * How many remembered enemy towers can attack each tile, kept up to date as towers are added to and removed from
+ * MapMemory (setStructure calls addTower / removeTower), so "is this tile in tower range" is one array read instead
+ * of a loop over the towers.
+ *
+ * Tiles use the MapMemory index, x * WIDTH + y. A tower covers every tile within RADIUS_SQUARED of it.
+ */
+public class DangerMap {
+    static final int WIDTH = MapMemory.WIDTH;
+    // the attack radius the rest of the code keeps away from
+    static final int RADIUS_SQUARED = 9;
+    // bit d is direction ordinal d, see safeDirections
+    static final int ALL_DIRECTIONS = 0x1ff;
+    static final Direction[] DIRECTIONS = Direction.values();
+
+    static final int[] OFFSET_X;
+    static final int[] OFFSET_Y;
+    static {
+        int n = 0;
+        int[] x = new int[64];
+        int[] y = new int[64];
+        for (int dx = -3; dx <= 3; dx++) {
+            for (int dy = -3; dy <= 3; dy++) {
+                if (dx * dx + dy * dy <= RADIUS_SQUARED) {
+                    x[n] = dx;
+                    y[n] = dy;
+                    n++;
+                }
+            }
+        }
+        OFFSET_X = new int[n];
+        OFFSET_Y = new int[n];
+        System.arraycopy(x, 0, OFFSET_X, 0, n);
+        System.arraycopy(y, 0, OFFSET_Y, 0, n);
+    }
+
+    static short[] coverage = new short[WIDTH * WIDTH];
+    // bumped on every change, so safeDirections can reuse its last answer
+    static int version = 0;
+
+    static MapLocation safeFrom = null;
+    static int safeVersion = -1;
+    static int safeMask = ALL_DIRECTIONS;
+
+    static void addTower(MapLocation tower) {
+        cover(tower, 1);
+    }
+
+    static void removeTower(MapLocation tower) {
+        cover(tower, -1);
+    }
+
+    static void cover(MapLocation tower, int delta) {
+        int tx = tower.x;
+        int ty = tower.y;
+        for (int i = OFFSET_X.length; --i >= 0;) {
+            int x = tx + OFFSET_X[i];
+            int y = ty + OFFSET_Y[i];
+            if (x >= 0 && x < WIDTH && y >= 0 && y < WIDTH) {
+                coverage[x * WIDTH + y] += delta;
+            }
+        }
+        version++;
+    }
+
+    // true if a remembered enemy tower can attack loc. Tiles off the map are never dangerous.
+    static boolean isDangerous(MapLocation loc) {
+        int x = loc.x;
+        int y = loc.y;
+        return x >= 0 && x < WIDTH && y >= 0 && y < WIDTH && coverage[x * WIDTH + y] > 0;
+    }
+
+    /*
+     * Directions from loc whose tile is out of every remembered tower's range, as a mask with bit
+     * dir.ordinal() set for each safe dir (CENTER included, for loc itself). Test it with isSafe.
+     */
+    static int safeDirections(MapLocation loc) {
+        if (version == safeVersion && loc.equals(safeFrom)) {
+            return safeMask;
+        }
+        int mask = 0;
+        for (Direction dir : DIRECTIONS) {
+            if (!isDangerous(loc.add(dir))) {
+                mask |= 1 << dir.ordinal();
+            }
+        }
+        safeFrom = loc;
+        safeVersion = version;
+        safeMask = mask;
+        return mask;
+    }
+
+    static boolean isSafe(int mask, Direction dir) {
+        return (mask & (1 << dir.ordinal())) != 0;
+    }
+}
@@ -0,0 +1,45 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Scores a shot by what the kill is worth, spread over the turns the kill still takes:
+ *   - value: a base value per unit type, plus the paint the enemy carries (denied to it when it dies)
+ *   - turns: 1 if this shot kills it, otherwise this shot plus the turns of AoE and single-target damage needed
+ *     for the rest
+ *   - the enemy shot last turn gets FOCUS_PERCENT more, so damage piles up on one robot instead of spreading
+ * Enemies the AoE already killed score Integer.MIN_VALUE. Only int arithmetic, since towers run it every turn.
+ */
+public class ExpectedValueScorer implements TargetScorer {
+    static final int SCALE = 64;
+    static final int SOLDIER_VALUE = 150;
+    static final int SPLASHER_VALUE = 200;
+    static final int MOPPER_VALUE = 100;
+    static final int FOCUS_PERCENT = 50;
+
+    int lastTargetID = -1;
+
+    public int score(RobotInfo enemy, int aoeDamage, int damage) {
+        int remaining = enemy.health - aoeDamage;
+        if (remaining <= 0) {
+            return Integer.MIN_VALUE;
+        }
+        UnitType type = enemy.type;
+        int value = (type == UnitType.SOLDIER ? SOLDIER_VALUE : type == UnitType.SPLASHER ? SPLASHER_VALUE :
+                type == UnitType.MOPPER ? MOPPER_VALUE : 0) + enemy.paintAmount;
+        int score = value * SCALE;
+        if (remaining > damage) {
+            int perTurn = Math.max(1, damage + aoeDamage);
+            int turns = 1 + (remaining - damage + perTurn - 1) / perTurn;
+            score /= turns;
+        }
+        if (enemy.ID == lastTargetID) {
+            score += score * FOCUS_PERCENT / 100;
+        }
+        return score;
+    }
+
+    public void attacked(RobotInfo enemy) {
+        lastTargetID = enemy == null ? -1 : enemy.ID;
+    }
+}
@@ -0,0 +1,165 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Shares tower sightings through the towers, so that units learn about enemy towers (and friendly towers, and
+ * towers that were destroyed) without walking up to them.
+ *
+ * Units report what their MapMemory knows and the towers do not, as MessageCodec TOWER records, when they are in
+ * message range of a friendly tower. Towers keep the registry in their own MapMemory plus an append-only log of
+ * changes. A change reported by a unit is broadcast once to the other towers, which log it but do not broadcast it
+ * again. Every visiting unit is sent the log entries it has not been sent yet, a few per turn. Units merge what they
+ * receive into their MapMemory.
+ */
+public class Gossip {
+    static final int WIDTH = MapMemory.WIDTH;
+    static final int MAX_LOG = 256;
+    static final int RECORDS_PER_VISIT = 4;
+    // tower sightings that share one message
+    static final int SIGHTINGS_PER_MESSAGE = 32 / MessageCodec.RECORD_WIDTHS[MessageCodec.TOWER];
+    // visitors tracked at once, by ID modulo VISITOR_SLOTS
+    static final int VISITOR_SLOTS = 64;
+    // messages per turn left to RuinClaims.shareWithVisitors, which runs after this
+    static final int CLAIM_RESERVE = 1;
+    // bytecodes to merge one record, with room for a MapMemory list to grow
+    static final int MERGE_COST = 150;
+    static final int SHARED_CATEGORIES = (1 << MapMemory.RUIN) | MapMemory.FRIENDLY_TOWER_MASK |
+            MapMemory.ENEMY_TOWER_MASK;
+
+    // Tower side: registry changes in order, and how far into the log each visitor has been sent. A visitor whose
+    // slot was taken over by another ID starts from the beginning of the log again.
+    static int logSize = 0;
+    static int[] logIndex = new int[MAX_LOG];
+    static int[] logCategory = new int[MAX_LOG];
+    static int[] visitorID = new int[VISITOR_SLOTS];
+    static int[] visitorSentUpTo = new int[VISITOR_SLOTS];
+
+    // Unit side: category + 1 of what the towers are known to have for each tile, 0 if nothing
+    static int[] shared = new int[WIDTH * WIDTH];
+
+    /*
+     * Tower: records a sighting in the registry. New information is logged for visitors, and broadcast to the other
+     * towers if a unit reported it. Sightings relayed by another tower are not broadcast again, since every tower
+     * already got that broadcast.
+     */
+    static void learn(RobotController rc, MapLocation loc, int category, int senderID) throws GameActionException {
+        if (!MapMemory.setStructure(loc, category)) {
+            return;
+        }
+        if (logSize < MAX_LOG) {
+            logIndex[logSize] = loc.x * WIDTH + loc.y;
+            logCategory[logSize] = category;
+            logSize++;
+        }
+        if (fromUnit(rc, senderID)) {
+            MessageCodec.sendTower(MessageCodec.BROADCAST, loc, category);
+        }
+    }
+
+    // true if the sender is a unit: units are in message range, so in vision, while towers send from afar
+    static boolean fromUnit(RobotController rc, int senderID) throws GameActionException {
+        return rc.canSenseRobot(senderID) && !rc.senseRobot(senderID).type.isTowerType();
+    }
+
+    /*
+     * Tower: queues the next few log entries for every friendly unit in message range, as far as the tower's
+     * message limit allows after CLAIM_RESERVE.
+     */
+    static void shareWithVisitors(RobotController rc, RobotInfo[] nearbyRobots) {
+        if (logSize == 0) {
+            return;
+        }
+        Team team = rc.getTeam();
+        for (RobotInfo robot : nearbyRobots) {
+            if (robot.team != team || robot.type.isTowerType()) {
+                continue;
+            }
+            int slot = robot.ID % VISITOR_SLOTS;
+            int next = visitorID[slot] == robot.ID ? visitorSentUpTo[slot] : 0;
+            if (next == logSize || !rc.canSendMessage(robot.location)) {
+                continue;
+            }
+            int room = MessageCodec.towerRoom() - CLAIM_RESERVE;
+            if (room <= 0) {
+                return;
+            }
+            int end = Math.min(logSize, next + Math.min(RECORDS_PER_VISIT, room * SIGHTINGS_PER_MESSAGE));
+            for (int i = next; i < end; i++) {
+                MessageCodec.sendTower(robot.location, MapMemory.location(logIndex[i]), logCategory[i]);
+            }
+            visitorID[slot] = robot.ID;
+            visitorSentUpTo[slot] = end;
+        }
+    }
+
+    /*
+     * Unit: merges the TOWER records decoded by MessageCodec.receive into MapMemory, returns false if it ran out of
+     * budget first. Records up to mergedRound were merged on an earlier turn and may since have been overwritten by
+     * what the unit saw itself. The current round can still get more messages, so it is merged again next turn.
+     * A merge that stopped early continues at mergeNext, or starts over if the slots were replaced in between.
+     */
+    static int mergedRound = -1;
+    static int mergeNext = 0;
+    static int mergeReceiveCount = -1;
+
+    static boolean merge(RobotController rc) {
+        if (mergeReceiveCount != MessageCodec.receiveCount) {
+            mergeReceiveCount = MessageCodec.receiveCount;
+            mergeNext = 0;
+        }
+        for (int i = mergeNext; i < MessageCodec.slotCount; i++) {
+            if (MessageCodec.slotTag[i] != MessageCodec.TOWER || MessageCodec.slotRound[i] <= mergedRound) {
+                continue;
+            }
+            if (!TurnScheduler.hasBudget(MERGE_COST)) {
+                mergeNext = i;
+                return false;
+            }
+            int category = MessageCodec.slotCommand[i];
+            MapMemory.setStructure(new MapLocation(MessageCodec.slotX[i], MessageCodec.slotY[i]), category);
+            shared[MessageCodec.slotX[i] * WIDTH + MessageCodec.slotY[i]] = category + 1;
+        }
+        mergeNext = MessageCodec.slotCount;
+        mergedRound = rc.getRoundNum() - 1;
+        return true;
+    }
+
+    /*
+     * Unit: reports remembered towers the towers do not know about yet to the nearest friendly tower, if it is in
+     * message range and nothing else is being sent this turn. A unit only sends one message per turn, so this is at
+     * most SIGHTINGS_PER_MESSAGE sightings.
+     */
+    static void report(RobotController rc) {
+        if (MessageCodec.pendingCount != 0) {
+            return;
+        }
+        MapLocation rcLoc = rc.getLocation();
+        MapLocation tower = MapMemory.nearest(rcLoc, MapMemory.FRIENDLY_TOWER_MASK);
+        if (tower == null || rcLoc.distanceSquaredTo(tower) > GameConstants.MESSAGE_RADIUS_SQUARED ||
+                !rc.canSendMessage(tower)) {
+            return;
+        }
+        int queued = 0;
+        for (int category = 1; category < MapMemory.CATEGORY_COUNT; category++) {
+            if ((SHARED_CATEGORIES & (1 << category)) == 0 || MapMemory.lists[category] == null) {
+                continue;
+            }
+            int size = MapMemory.compact(category);
+            int[] list = MapMemory.lists[category];
+            for (int i = 0; i < size; i++) {
+                int index = list[i];
+                int known = shared[index];
+                // plain ruins are on the map from the start, they only matter when they replace a tower
+                if (known == category + 1 || (category == MapMemory.RUIN && known == 0)) {
+                    continue;
+                }
+                MessageCodec.sendTower(tower, MapMemory.location(index), category);
+                shared[index] = category + 1;
+                if (++queued == SIGHTINGS_PER_MESSAGE) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * The original targeting: the enemy with the most paint among those one shot kills, otherwise the one with the
+ * lowest health. Kept to compare ExpectedValueScorer against.
+ */
+public class LowestHealthScorer implements TargetScorer {
+    static final int ONE_SHOT = 1 << 20;
+
+    public int score(RobotInfo enemy, int aoeDamage, int damage) {
+        if (enemy.health <= damage) {
+            return ONE_SHOT + enemy.paintAmount;
+        }
+        return -enemy.health;
+    }
+
+    public void attacked(RobotInfo enemy) { }
+}
@@ -0,0 +1,261 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Everything a robot remembers about the map, stored in one preallocated int per tile.
+ * Tiles are indexed by x * WIDTH + y. Each int holds one membership bit per category, and each category also keeps
+ * a compact list of tile indices so that "nearest ruin", "all enemy towers", ... do not scan the whole map.
+ *
+ * Removing a tile only clears its membership bit, which is O(1). The list entry is dropped the next time the list
+ * is compacted (every iteration compacts). A second "listed" bit per category stops a tile that is removed and
+ * re-added before the next compaction from being listed twice.
+ */
+public class MapMemory {
+    static final int WIDTH = GameConstants.MAP_MAX_WIDTH;
+
+    // Categories use the same numbers the old HashMap<MapLocation, Integer> memory used
+    static final int RUIN = 1;
+    static final int FRIENDLY_PAINT_TOWER = 2;
+    static final int FRIENDLY_MONEY_TOWER = 3;
+    static final int FRIENDLY_DEFENSE_TOWER = 4;
+    static final int ENEMY_PAINT_TOWER = 5;
+    static final int ENEMY_MONEY_TOWER = 6;
+    static final int ENEMY_DEFENSE_TOWER = 7;
+    static final int ENEMY_PAINT = 8; // locations where enemy paint was seen
+    static final int CATEGORY_COUNT = 9; // category 0 is unused
+
+    static final int FRIENDLY_TOWER_MASK = (1 << FRIENDLY_PAINT_TOWER) | (1 << FRIENDLY_MONEY_TOWER) |
+            (1 << FRIENDLY_DEFENSE_TOWER);
+    static final int ENEMY_TOWER_MASK = (1 << ENEMY_PAINT_TOWER) | (1 << ENEMY_MONEY_TOWER) |
+            (1 << ENEMY_DEFENSE_TOWER);
+    // a ruin holds at most one of these at a time
+    static final int STRUCTURE_MASK = (1 << RUIN) | FRIENDLY_TOWER_MASK | ENEMY_TOWER_MASK;
+    // bit (LISTED_SHIFT + category) is set while the tile has an entry in that category's list
+    static final int LISTED_SHIFT = 16;
+    // terrain flags, which have no lists: the tile has been seen, and robots can never stand on it (wall or ruin)
+    static final int KNOWN = 1 << 10;
+    static final int BLOCKED = 1 << 11;
+
+    static int[] tiles = new int[WIDTH * WIDTH];
+    static int[][] lists = new int[CATEGORY_COUNT][];
+    static int[] sizes = new int[CATEGORY_COUNT];
+
+    static int index(MapLocation loc) {
+        return loc.x * WIDTH + loc.y;
+    }
+
+    static MapLocation location(int index) {
+        return new MapLocation(index / WIDTH, index % WIDTH);
+    }
+
+    static boolean has(MapLocation loc, int category) {
+        return (tiles[loc.x * WIDTH + loc.y] & (1 << category)) != 0;
+    }
+
+    static boolean hasAny(MapLocation loc, int mask) {
+        return (tiles[loc.x * WIDTH + loc.y] & mask) != 0;
+    }
+
+    static void add(int index, int category) {
+        int tile = tiles[index];
+        if ((tile & (1 << category)) != 0) {
+            return;
+        }
+        tile |= 1 << category;
+        if ((tile & (1 << (LISTED_SHIFT + category))) == 0) {
+            tile |= 1 << (LISTED_SHIFT + category);
+            int[] list = lists[category];
+            if (list == null) {
+                list = new int[16];
+                lists[category] = list;
+            } else if (sizes[category] == list.length) {
+                int[] grown = new int[list.length * 2];
+                System.arraycopy(list, 0, grown, 0, list.length);
+                list = grown;
+                lists[category] = list;
+            }
+            list[sizes[category]++] = index;
+        }
+        tiles[index] = tile;
+    }
+
+    static void add(MapLocation loc, int category) {
+        add(loc.x * WIDTH + loc.y, category);
+    }
+
+    static void remove(int index, int category) {
+        tiles[index] &= ~(1 << category);
+    }
+
+    static void remove(MapLocation loc, int category) {
+        tiles[loc.x * WIDTH + loc.y] &= ~(1 << category);
+    }
+
+    /*
+     * Replaces whatever structure (ruin or tower) was remembered on a tile with the given one.
+     * Returns false if that structure was already remembered there. Enemy towers coming and going are passed on
+     * to DangerMap.
+     */
+    static boolean setStructure(MapLocation loc, int category) {
+        int index = loc.x * WIDTH + loc.y;
+        int old = tiles[index] & STRUCTURE_MASK;
+        if (old == 1 << category) {
+            return false;
+        }
+        tiles[index] &= ~old;
+        add(index, category);
+        if ((old & ENEMY_TOWER_MASK) != 0) {
+            DangerMap.removeTower(loc);
+        }
+        if ((ENEMY_TOWER_MASK & (1 << category)) != 0) {
+            DangerMap.addTower(loc);
+        }
+        return true;
+    }
+
+    /*
+     * Records whether a tile can be walked on. Returns true if the tile was not known to be blocked before.
+     */
+    static boolean rememberTerrain(MapInfo tile) {
+        MapLocation loc = tile.getMapLocation();
+        int index = loc.x * WIDTH + loc.y;
+        int old = tiles[index];
+        if (tile.isPassable()) {
+            tiles[index] = (old | KNOWN) & ~BLOCKED;
+            return false;
+        }
+        tiles[index] = old | KNOWN | BLOCKED;
+        return (old & BLOCKED) == 0;
+    }
+
+    static int towerCategory(UnitType type, boolean enemy) {
+        // tower types come in groups of three levels: paint (ordinal 3-5), money (6-8), defense (9-11)
+        int category = FRIENDLY_PAINT_TOWER + type.ordinal() / 3 - 1;
+        return enemy ? category + 3 : category;
+    }
+
+    /*
+     * Drops stale entries from a category list and returns its size.
+     */
+    static int compact(int category) {
+        int[] list = lists[category];
+        int size = sizes[category];
+        int bit = 1 << category;
+        int listedBit = 1 << (LISTED_SHIFT + category);
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int index = list[i];
+            if ((tiles[index] & bit) != 0) {
+                list[kept++] = index;
+            } else {
+                tiles[index] &= ~listedBit;
+            }
+        }
+        sizes[category] = kept;
+        return kept;
+    }
+
+    /*
+     * Returns the nearest remembered tile in any of the categories of mask, or null if there is none.
+     */
+    static MapLocation nearest(MapLocation from, int mask) {
+        int bestIndex = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int category = 1; category < CATEGORY_COUNT; category++) {
+            if ((mask & (1 << category)) == 0 || lists[category] == null) {
+                continue;
+            }
+            int size = compact(category);
+            int[] list = lists[category];
+            for (int i = 0; i < size; i++) {
+                int index = list[i];
+                int dx = index / WIDTH - from.x;
+                int dy = index % WIDTH - from.y;
+                int distance = dx * dx + dy * dy;
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    bestIndex = index;
+                }
+            }
+        }
+        return bestIndex == -1 ? null : location(bestIndex);
+    }
+
+    /*
+     * Returns true if a remembered tile in any of the categories of mask is within distanceSquared of loc.
+     */
+    static boolean anyWithin(MapLocation loc, int mask, int distanceSquared) {
+        for (int category = 1; category < CATEGORY_COUNT; category++) {
+            if ((mask & (1 << category)) == 0 || lists[category] == null) {
+                continue;
+            }
+            int size = compact(category);
+            int[] list = lists[category];
+            for (int i = 0; i < size; i++) {
+                int index = list[i];
+                int dx = index / WIDTH - loc.x;
+                int dy = index % WIDTH - loc.y;
+                if (dx * dx + dy * dy <= distanceSquared) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns the remembered tiles in any of the categories of mask. Allocates, so keep it off the hot path.
+     */
+    static MapLocation[] locations(int mask) {
+        int total = 0;
+        for (int category = 1; category < CATEGORY_COUNT; category++) {
+            if ((mask & (1 << category)) != 0 && lists[category] != null) {
+                total += compact(category);
+            }
+        }
+        MapLocation[] locations = new MapLocation[total];
+        int n = 0;
+        for (int category = 1; category < CATEGORY_COUNT; category++) {
+            if ((mask & (1 << category)) == 0 || lists[category] == null) {
+                continue;
+            }
+            int size = sizes[category];
+            int[] list = lists[category];
+            for (int i = 0; i < size; i++) {
+                locations[n++] = location(list[i]);
+            }
+        }
+        return locations;
+    }
+
+    /*
+     * Records every tower in robots, and forgets remembered towers within vision that are no longer there.
+     */
+    static void updateTowers(RobotController rc, RobotInfo[] robots) throws GameActionException {
+        Team team = rc.getTeam();
+        for (RobotInfo robot : robots) {
+            if (robot.type.isTowerType()) {
+                setStructure(robot.location, towerCategory(robot.type, robot.team != team));
+            }
+        }
+        forgetDestroyedTowers(rc, FRIENDLY_TOWER_MASK | ENEMY_TOWER_MASK);
+    }
+
+    static void forgetDestroyedTowers(RobotController rc, int mask) throws GameActionException {
+        for (int category = 1; category < CATEGORY_COUNT; category++) {
+            if ((mask & (1 << category)) == 0 || lists[category] == null) {
+                continue;
+            }
+            int size = compact(category);
+            int[] list = lists[category];
+            for (int i = 0; i < size; i++) {
+                MapLocation towerLoc = location(list[i]);
+                if (rc.canSenseLocation(towerLoc) && Sense.robotAt(rc, towerLoc) == null) {
+                    // the tower was destroyed, but the ruin is still there
+                    setStructure(towerLoc, RUIN);
+                }
+            }
+        }
+    }
+}
@@ -47,17 +47,20 @@ class MarkRuin {
             UnitType.LEVEL_ONE_DEFENSE_TOWER
     };
     static MapLocation ruinLocation = null;
-    static OrbitPathfinder pathfinder = null;
+    static Navigator pathfinder = null;
+    static int navigationMode = Navigator.ORBIT;
     /*
-     * Bunny looks around for ruins and identifies the first one it sees. If there's a ruin, it checks if it
-     * has been marked. If it's been marked, it attempts to complete the tower pattern. If it hasn't been marked,
-     * Bunny attempts to mark it. If it is unsuccessful, it takes a step towards the tower.
+     * Bunny looks around for ruins and claims the nearest one nobody has marked or claimed (see RuinClaims). If
+     * there's a ruin, it checks if it has been marked. If it's been marked, it attempts to complete the tower
+     * pattern. If it hasn't been marked, Bunny attempts to mark it. If it is unsuccessful, it takes a step towards
+     * the tower.
      * Returns
      * NOT_FOUND if no empty ruin was found
      * FOUND_AND_MARKED if Bunny marked the ruin
      * FOUND_AND_APPROACHING if Bunny cannot mark it, so it decides to step forward
      * FOUND_AND_CANT_MOVE if Bunny cannot move towards the ruin
      * FOUND_AND_BLOCKED if the path Bunny needs to get to the tower is blocked
+     * MARKED_BY_OTHER if the ruin was marked, built on or claimed by someone else on the way
      */
     static int markIfFound(RobotController rc, UnitType towerType)
             throws GameActionException {
@@ -66,31 +69,31 @@ class MarkRuin {
             return NOT_ENOUGH_PAINT;
         }
         if (ruinLocation == null) {
-            // pick a good ruin
-            MapLocation[] ruins = rc.senseNearbyRuins(-1);
-            if (ruins.length == 0) {
-                return NOT_FOUND;
-            }
-            int startIndex = RobotPlayer.rng.nextInt(ruins.length);
-            int index = startIndex;
-            do {
-                MapLocation ruin = ruins[index];
-                if (rc.senseRobotAtLocation(ruin) == null && rc.senseMapInfo(
-                        ruin.add(ruin.directionTo(rcLoc))).getMark() == PaintType.EMPTY) {
+            // pick the nearest free ruin
+            MapLocation[] ruins = Sense.ruins(rc);
+            int nearestDistance = Integer.MAX_VALUE;
+            for (int i = ruins.length; --i >= 0;) {
+                MapLocation ruin = ruins[i];
+                int distance = rcLoc.distanceSquaredTo(ruin);
+                if (distance < nearestDistance && !RuinClaims.claimedByOther(rc, ruin, false) &&
+                        Sense.robotAt(rc, ruin) == null &&
+                        Sense.tile(rc, ruin.add(ruin.directionTo(rcLoc))).getMark() == PaintType.EMPTY) {
                     ruinLocation = ruin;
-                    break;
+                    nearestDistance = distance;
                 }
-                index = (index == ruins.length - 1) ? 0 : index + 1;
-            } while (index != startIndex);
+            }
             if (ruinLocation == null) {
                 return NOT_FOUND;
             }
+            RuinClaims.claim(rc, ruinLocation, false);
         }
-        if (rc.senseRobotAtLocation(ruinLocation) != null || rc.senseMapInfo(
-                ruinLocation.add(ruinLocation.directionTo(rcLoc))).getMark() != PaintType.EMPTY) {
-            // it's been marked or a tower has been added while we were traveling there
+        if (Sense.robotAt(rc, ruinLocation) != null || Sense.tile(rc, 
+                ruinLocation.add(ruinLocation.directionTo(rcLoc))).getMark() != PaintType.EMPTY ||
+                RuinClaims.claimedByOther(rc, ruinLocation, false)) {
+            // it's been marked, claimed or a tower has been added while we were traveling there
             pathfinder = null;
             ruinLocation = null;
+            RuinClaims.release();
             return MARKED_BY_OTHER;
         }
         if (towerType == null) {
@@ -99,15 +102,17 @@ class MarkRuin {
         if (rc.canMarkTowerPattern(towerType, ruinLocation)) {
             // if there's a markable ruin, try to mark it
             rc.markTowerPattern(towerType, ruinLocation);
+            Sense.invalidate();
             pathfinder = null;
             ruinLocation = null;
+            RuinClaims.release();
             return FOUND_AND_MARKED;
         }
         // If the code reaches here, the ruin is markable but cannot be marked from where rc is
         // Try to take a step towards the ruin
         // If (robot loc, ruin loc) is in the set then it's blocked
         if (pathfinder == null) {
-            pathfinder = new OrbitPathfinder(rc, ruinLocation);
+            pathfinder = RobotPlayer.newNavigator(rc, ruinLocation, navigationMode);
         }
         pathfinder.step();
         return FOUND_AND_NAVIGATING;
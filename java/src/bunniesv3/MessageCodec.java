@@ -0,0 +1,266 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Message protocol v2. A message int holds one or more records, packed from the lowest bit up. Every record starts
+ * with a prefix code for its tag (CODES / CODE_LENGTHS, read from the lowest bit) followed by the fields listed for
+ * that tag in FIELD_WIDTHS. The codes are shortest for the records that are sent most: a tower sighting has a 1-bit
+ * code and an order a 3-bit one, so both take 16 bits and two of them share a message. The code 00 ends the message,
+ * so unused high bits are simply left 0.
+ *
+ * Sending: queue records with the send* methods during the turn. flush() runs once at the end of the turn and packs
+ * all records for the same target into as few ints as possible. Robots can only send one message per turn, so
+ * whatever does not fit is dropped.
+ *
+ * Receiving: receive() decodes all messages into the preallocated slot arrays below. Nothing is allocated per
+ * message. Slots are valid until the next receive().
+ */
+public class MessageCodec {
+    // Record tags
+    static final int END = 0;
+    static final int REQUEST = 1;      // bunny -> tower: command, x, y
+    static final int ORDER = 2;        // tower -> bunny: command, x, y
+    static final int PAINT_GRANT = 3;  // tower -> bunny: x, y, amount the bunny may take (0 = unknown)
+    static final int TOWER = 4;        // x, y, tower category (MapMemory numbering)
+    static final int CLAIM = 5;        // claim on a ruin (see RuinClaims): x, y, expiry round / 2, owner
+    // prefix code of each tag, lowest bit first: END 00, TOWER 1, ORDER 010, CLAIM 0110, REQUEST 01110,
+    // PAINT_GRANT 01111
+    static final int[] CODES = new int[] {0, 0b01110, 0b010, 0b11110, 0b1, 0b0110};
+    static final int[] CODE_LENGTHS = new int[] {2, 5, 3, 5, 1, 4};
+    static final int[][] FIELD_WIDTHS = new int[][] {
+            {},
+            {3, 6, 6},
+            {1, 6, 6},
+            {6, 6, 9},
+            {6, 6, 3},
+            {6, 6, 10, 6},
+    };
+    // total width of each record including the code
+    static final int[] RECORD_WIDTHS = recordWidths();
+
+    // Commands from bunny to tower (REQUEST)
+    static final int SAVE_CHIPS = 0;
+    static final int SEND_ROBOTS = 1;
+    static final int SEND_SOLDIERS = 2;
+    static final int SEND_MOPPERS = 3;
+    static final int SEND_SPLASHERS = 4;
+    static final int REQUEST_PAINT = 5;
+
+    // Commands from tower to bunny (ORDER)
+    static final int GO_TO = 0;
+    static final int PAINT_DENIED = 1;
+
+    static final int MAX_PAINT_GRANT = (1 << 9) - 1;
+
+    // target for tower-to-tower broadcasts
+    static final MapLocation BROADCAST = new MapLocation(-1, -1);
+
+    // Decoded records
+    static final int MAX_SLOTS = 128;
+    static int slotCount = 0;
+    static int[] slotTag = new int[MAX_SLOTS];
+    static int[] slotCommand = new int[MAX_SLOTS]; // command, tower category or paint amount
+    static int[] slotX = new int[MAX_SLOTS];
+    static int[] slotY = new int[MAX_SLOTS];
+    static int[] slotSender = new int[MAX_SLOTS]; // sender ID, or the owner of a CLAIM
+    static int[] slotRound = new int[MAX_SLOTS];
+    // bumped by every receive(), so that readers walking the slots over several turns notice they were replaced
+    static int receiveCount = 0;
+
+    // Records queued for the end of the turn
+    static final int MAX_PENDING = 32;
+    static int pendingCount = 0;
+    // messages flush() will send at most: consecutive records for the same target are counted as packed together
+    static int pendingMessages = 0;
+    static MapLocation lastTarget = null;
+    static int lastUsed = 0;
+    static MapLocation[] pendingTarget = new MapLocation[MAX_PENDING];
+    static int[] pendingBits = new int[MAX_PENDING];
+    static int[] pendingTag = new int[MAX_PENDING];
+
+    static int[] recordWidths() {
+        int[] widths = new int[FIELD_WIDTHS.length];
+        for (int tag = 0; tag < FIELD_WIDTHS.length; tag++) {
+            widths[tag] = CODE_LENGTHS[tag];
+            for (int width : FIELD_WIDTHS[tag]) {
+                widths[tag] += width;
+            }
+        }
+        return widths;
+    }
+
+    /*
+     * Packs the code and fields of a record, lowest field first.
+     */
+    static int pack(int tag, int a, int b, int c) {
+        int[] widths = FIELD_WIDTHS[tag];
+        int shift = CODE_LENGTHS[tag];
+        return CODES[tag] | (a << shift) | (b << (shift + widths[0])) | (c << (shift + widths[0] + widths[1]));
+    }
+
+    // the tag of the record in the low bits of word
+    static int tag(int word) {
+        if ((word & 1) != 0) {
+            return TOWER;
+        }
+        if ((word & 2) == 0) {
+            return END;
+        }
+        if ((word & 4) == 0) {
+            return ORDER;
+        }
+        if ((word & 8) == 0) {
+            return CLAIM;
+        }
+        return (word & 16) == 0 ? REQUEST : PAINT_GRANT;
+    }
+
+    /*
+     * Messages a tower can still queue this turn. Records queued past the limit are dropped by flush, so senders
+     * that share the limit check this. Records for one target queued one after another are counted as packed; flush
+     * may pack tighter than that, never looser.
+     */
+    static int towerRoom() {
+        return GameConstants.MAX_MESSAGES_SENT_TOWER - pendingMessages;
+    }
+
+    static void queue(MapLocation target, int tag, int bits) {
+        if (pendingCount == MAX_PENDING) {
+            return;
+        }
+        pendingTarget[pendingCount] = target;
+        pendingTag[pendingCount] = tag;
+        pendingBits[pendingCount] = bits;
+        pendingCount++;
+        int width = RECORD_WIDTHS[tag];
+        if (target.equals(lastTarget) && lastUsed + width <= 32) {
+            lastUsed += width;
+        } else {
+            pendingMessages++;
+            lastTarget = target;
+            lastUsed = width;
+        }
+    }
+
+    static void sendRequest(MapLocation target, int command, MapLocation loc) {
+        queue(target, REQUEST, pack(REQUEST, command, loc.x, loc.y));
+    }
+
+    static void sendOrder(MapLocation target, int command, MapLocation loc) {
+        queue(target, ORDER, pack(ORDER, command, loc.x, loc.y));
+    }
+
+    static void sendOrder(MapLocation target, int command) {
+        queue(target, ORDER, pack(ORDER, command, 0, 0));
+    }
+
+    static void sendPaintGrant(MapLocation target, MapLocation tower, int amount) {
+        queue(target, PAINT_GRANT, pack(PAINT_GRANT, tower.x, tower.y, Math.min(Math.max(amount, 0), MAX_PAINT_GRANT)));
+    }
+
+    // a CLAIM fills all 32 bits, so it always gets a message of its own. The expiry is sent in 2-round steps,
+    // rounded up.
+    static void sendClaim(MapLocation target, MapLocation ruin, int expiry, int owner) {
+        queue(target, CLAIM, pack(CLAIM, ruin.x, ruin.y, (expiry + 1) >> 1) | (owner << (CODE_LENGTHS[CLAIM] + 22)));
+    }
+
+    static void sendTower(MapLocation target, MapLocation tower, int category) {
+        queue(target, TOWER, pack(TOWER, tower.x, tower.y, category));
+    }
+
+    /*
+     * Sends everything queued this turn, one target at a time, and clears the queue.
+     */
+    static void flush(RobotController rc) {
+        for (int i = 0; i < pendingCount; i++) {
+            MapLocation target = pendingTarget[i];
+            if (target == null) {
+                continue;
+            }
+            int word = 0;
+            int used = 0;
+            for (int j = i; j < pendingCount; j++) {
+                if (pendingTarget[j] == null || !pendingTarget[j].equals(target)) {
+                    continue;
+                }
+                int width = RECORD_WIDTHS[pendingTag[j]];
+                if (used + width > 32) {
+                    send(rc, target, word);
+                    word = 0;
+                    used = 0;
+                }
+                word |= pendingBits[j] << used;
+                used += width;
+                pendingTarget[j] = null;
+            }
+            send(rc, target, word);
+        }
+        pendingCount = 0;
+        pendingMessages = 0;
+        lastTarget = null;
+    }
+
+    static void send(RobotController rc, MapLocation target, int word) {
+        try {
+            if (target == BROADCAST) {
+                if (rc.canBroadcastMessage()) {
+                    rc.broadcastMessage(word);
+                }
+            } else if (rc.canSendMessage(target, word)) {
+                rc.sendMessage(target, word);
+            }
+        } catch (GameActionException ignored) { }
+    }
+
+    /*
+     * Decodes the messages of the last rounds into the slots and returns the number of slots used.
+     */
+    static int receive(RobotController rc) {
+        slotCount = 0;
+        receiveCount++;
+        Message[] messages = rc.readMessages(-1);
+        for (int i = 0; i < messages.length; i++) {
+            Message message = messages[i];
+            int word = message.getBytes();
+            int sender = message.getSenderID();
+            int round = message.getRound();
+            while (word != 0 && slotCount < MAX_SLOTS) {
+                int tag = tag(word);
+                if (tag == END) {
+                    break;
+                }
+                int[] widths = FIELD_WIDTHS[tag];
+                int fields = word >>> CODE_LENGTHS[tag];
+                int a = fields & ((1 << widths[0]) - 1);
+                fields >>>= widths[0];
+                int b = fields & ((1 << widths[1]) - 1);
+                fields >>>= widths[1];
+                int c = fields & ((1 << widths[2]) - 1);
+                if (tag == REQUEST || tag == ORDER) {
+                    setSlot(tag, a, b, c, sender, round);
+                } else if (tag == CLAIM) {
+                    // the expiry goes in the command, the owner in place of the sender
+                    fields >>>= widths[2];
+                    setSlot(tag, c << 1, a, b, fields & ((1 << widths[3]) - 1), round);
+                } else {
+                    // PAINT_GRANT and TOWER have the location first
+                    setSlot(tag, c, a, b, sender, round);
+                }
+                int width = RECORD_WIDTHS[tag];
+                word = width >= 32 ? 0 : word >>> width;
+            }
+        }
+        return slotCount;
+    }
+
+    static void setSlot(int tag, int command, int x, int y, int sender, int round) {
+        slotTag[slotCount] = tag;
+        slotCommand[slotCount] = command;
+        slotX[slotCount] = x;
+        slotY[slotCount] = y;
+        slotSender[slotCount] = sender;
+        slotRound[slotCount] = round;
+        slotCount++;
+    }
+}
@@ -1,184 +1,144 @@
 package bunniesv3;
 
-import java.util.HashSet;
-
 import battlecode.common.*;
 
 public class Mopper extends RobotPlayer {
 
+	// Memory updates normally only scan the tiles that entered vision since the last update (see VisionDelta).
+	// The whole vision disk is rescanned every fullRescanInterval rounds, and after any jump of more than one tile.
+	static int fullRescanInterval = 10;
+	static MapLocation lastScanLocation = null;
+	static int lastFullScanRound = -1000;
+
 	public static void updateMapMemory(RobotController rc) throws GameActionException {
-		MapInfo[] allMapInfo = rc.senseNearbyMapInfos();
-		updateMapMemory(rc, allMapInfo);
+		MapLocation currentLocation = rc.getLocation();
+		int round = rc.getRoundNum();
+		RobotInfo[] nearbyRobots = Sense.robots(rc);
+		if (lastScanLocation == null || round - lastFullScanRound >= fullRescanInterval
+				|| !VisionDelta.isStep(lastScanLocation, currentLocation)) {
+			updateMapMemory(rc, Sense.tiles(rc), nearbyRobots);
+			lastFullScanRound = round;
+		} else {
+			updateMapMemoryDelta(rc, lastScanLocation, nearbyRobots);
+		}
+		lastScanLocation = currentLocation;
 	}
 
 	// overloaded to avoid double calculation of rc.senseNearbyMapInfos();
 	public static void updateMapMemory(RobotController rc, MapInfo[] allMapInfo) {
+		updateMapMemory(rc, allMapInfo, Sense.robots(rc));
+	}
+
+	public static void updateMapMemory(RobotController rc, MapInfo[] allMapInfo, RobotInfo[] nearbyRobots) {
+		VisionDelta.markRobots(rc.getLocation(), nearbyRobots);
 		seenEnemyPaint(rc, allMapInfo);
 		for (MapInfo tile : allMapInfo) {
 
-			// if statements skip all other calculations bc they are unnecessary if true
-			if (tile.isWall()) {
+			// towers can only stand on ruins, so every other tile (walls included) is skipped
+			if (!tile.hasRuin()) {
 				continue;
-			} // walls are not important enough to save in memory
-
-			MapLocation tileLocation = tile.getMapLocation();
-
-			int correspondingNum = 1;
-			try {
-				RobotInfo robotOnTile = rc.senseRobotAtLocation(tileLocation);
-				if (robotOnTile == null) {
-	    			continue;
-				}
-
-				else {
-					UnitType robotType = robotOnTile.getType();
-					// System.out.println("ROBOT TYPE: " + robotType.toString());
-					if (robotType.isTowerType()) { // real meat and potatoes of the function, differentiates all tower
-													// types
-
-						// if it is a paint tower
-						if (robotType.equals(UnitType.LEVEL_ONE_PAINT_TOWER)
-								|| robotType.equals(UnitType.LEVEL_TWO_PAINT_TOWER)
-								|| robotType.equals(UnitType.LEVEL_THREE_PAINT_TOWER)) {
-							correspondingNum = 2;
-						} // technically unnecessary since default number is two (scuffed coding)
-
-						// if it is a chip tower
-						else if (robotType.equals(UnitType.LEVEL_ONE_MONEY_TOWER)
-								|| robotType.equals(UnitType.LEVEL_TWO_MONEY_TOWER)
-								|| robotType.equals(UnitType.LEVEL_THREE_MONEY_TOWER)) {
-							correspondingNum = 3;
-						}
-
-						// if it is a defense tower
-						else if (robotType.equals(UnitType.LEVEL_ONE_DEFENSE_TOWER)
-								|| robotType.equals(UnitType.LEVEL_TWO_DEFENSE_TOWER)
-								|| robotType.equals(UnitType.LEVEL_THREE_DEFENSE_TOWER)) {
-							correspondingNum = 4;
-						}
-
-						if (isEnemy(rc, robotOnTile)) {
-							correspondingNum += 3;
-						}
-					}
-
-				}
-
-				// removes old stuff
-				if (mapMemory.keySet().contains(tileLocation)) {
-					int oldNum = mapMemory.get(tileLocation);
-					if (oldNum != correspondingNum) {
-						importantLocations.get(oldNum).remove(tileLocation);
-						mapMemory.put(tileLocation, correspondingNum);
-						importantLocations.get(correspondingNum).add(tileLocation);
-					}
-				}
-
-				else {
-					mapMemory.put(tileLocation, correspondingNum);
-					importantLocations.get(correspondingNum).add(tileLocation);
-				}
-
 			}
 
-			catch (GameActionException e) { // exception "should" never happen as all locations in allMapInfo are within
-											// vision range
+			rememberRuin(rc, tile.getMapLocation());
+		}
+	}
+
+	// Only looks at the tiles on the leading edge of vision after a move from previousLocation.
+	// Towers that were destroyed somewhere else in vision are still noticed, since remembered towers are
+	// checked against the robot list.
+	public static void updateMapMemoryDelta(RobotController rc, MapLocation previousLocation,
+			RobotInfo[] nearbyRobots) throws GameActionException {
+		MapLocation currentLocation = rc.getLocation();
+		VisionDelta.markRobots(currentLocation, nearbyRobots);
+		int edge = VisionDelta.edgeIndex(previousLocation, currentLocation);
+		int[] edgeX = VisionDelta.EDGE_DX[edge];
+		int[] edgeY = VisionDelta.EDGE_DY[edge];
+		boolean isEnemyPaint = false;
+		for (int i = edgeX.length; --i >= 0;) {
+			MapLocation tileLocation = currentLocation.translate(edgeX[i], edgeY[i]);
+			if (!rc.onTheMap(tileLocation)) {
 				continue;
 			}
-//    		}
+			MapInfo tile = Sense.tile(rc, tileLocation);
+			if (tile.hasRuin()) {
+				rememberRuin(rc, tileLocation);
+			} else if (!isEnemyPaint && VisionDelta.robotAt(tileLocation) == null) {
+				PaintType paint = tile.getPaint();
+				isEnemyPaint = paint == PaintType.ENEMY_PRIMARY || paint == PaintType.ENEMY_SECONDARY;
+			}
+		}
+		// only the edge was seen, so the absence of enemy paint there says nothing; full rescans clear it
+		if (isEnemyPaint) {
+			MapMemory.add(currentLocation, MapMemory.ENEMY_PAINT);
+		}
+		MapMemory.updateTowers(rc, nearbyRobots);
+	}
+
+	// uses the robots from the last VisionDelta.markRobots call
+	static void rememberRuin(RobotController rc, MapLocation ruinLocation) {
+		RobotInfo robotOnTile = VisionDelta.robotAt(ruinLocation);
+		if (robotOnTile == null) {
+			MapMemory.setStructure(ruinLocation, MapMemory.RUIN);
+		} else if (robotOnTile.getType().isTowerType()) {
+			MapMemory.setStructure(ruinLocation,
+					MapMemory.towerCategory(robotOnTile.getType(), isEnemy(rc, robotOnTile)));
 		}
 	}
 
 	// updates memory if enemy paint is within view from current location
+	// uses the robots from the last VisionDelta.markRobots call
 	public static void seenEnemyPaint(RobotController rc, MapInfo[] allMapInfo) {
 
 		boolean isEnemyPaint = false;
 		MapLocation currentLocation = rc.getLocation();
 
 		for (MapInfo tile : allMapInfo) {
-			MapLocation tileLocation = tile.getMapLocation();
-			try {
-				RobotInfo robotOnTile = rc.senseRobotAtLocation(tileLocation);
-				if (robotOnTile == null) {
-					if (tile.getPaint().equals(PaintType.ENEMY_PRIMARY)
-							|| tile.getPaint().equals(PaintType.ENEMY_SECONDARY)) {
-						isEnemyPaint = true;
-						break;
-					}
-				}
-			} catch (GameActionException e) {
-				continue;
+			PaintType paint = tile.getPaint();
+			if ((paint == PaintType.ENEMY_PRIMARY || paint == PaintType.ENEMY_SECONDARY)
+					&& VisionDelta.robotAt(tile.getMapLocation()) == null) {
+				isEnemyPaint = true;
+				break;
 			}
-
 		}
 
 		if (isEnemyPaint) {
-			if (mapMemory.keySet().contains(currentLocation)) {
-				int oldNum = mapMemory.get(currentLocation);
-				if (oldNum != 8) { // sneaking suspicion that this if statement is never true
-					importantLocations.get(oldNum).remove(currentLocation);
-					mapMemory.remove(currentLocation);
-
-					importantLocations.get(8).add(currentLocation);
-					mapMemory.put(currentLocation, 8);
-				} else {
-					// do nothing
-				}
-			} else {
-				importantLocations.get(8).add(currentLocation);
-				mapMemory.put(currentLocation, 8);
-			}
-
+			MapMemory.add(currentLocation, MapMemory.ENEMY_PAINT);
 		} else {
-			if (mapMemory.keySet().contains(currentLocation)) {
-				int oldNum = mapMemory.get(currentLocation);
-				if (oldNum == 8) { // might ALWAYS be true
-					importantLocations.get(oldNum).remove(currentLocation);
-					mapMemory.remove(currentLocation);
-
-				} else {
-					// do nothing
-				}
-			}
+			MapMemory.remove(currentLocation, MapMemory.ENEMY_PAINT);
 		}
 	}
 
 	public static Direction nearbyEnemyPaintDirection(RobotController rc, int radiussquared) {
-		try {
-			MapInfo[] nearbyTiles = rc.senseNearbyMapInfos(radiussquared);
-
-			for (MapInfo tile : nearbyTiles) {
-
-				if (tile.getPaint().equals(PaintType.ENEMY_PRIMARY)
-						|| tile.getPaint().equals(PaintType.ENEMY_SECONDARY)) {
-					return rc.getLocation().directionTo(tile.getMapLocation());
-				}
-
-			}
-
-			return Direction.CENTER;
-		} catch (GameActionException e) { // shouldnt ever happen, only here because java will get mad if it's not
+		Bitboard.update(rc);
+		Bitboard.disc(radiussquared);
+		int bit = Bitboard.first(Bitboard.layers[2 * Bitboard.ENEMY_PAINT] & Bitboard.maskLo,
+				Bitboard.layers[2 * Bitboard.ENEMY_PAINT + 1] & Bitboard.maskHi);
+		if (bit == -1) {
 			return Direction.CENTER;
 		}
+		return rc.getLocation().directionTo(Bitboard.location(bit));
 	}
 
 	//ignores paint in enemy tower attack distance
 	public static MapLocation nearbyEnemyPaint(RobotController rc) {
-		MapInfo[] nearbyTiles = rc.senseNearbyMapInfos();
-		HashSet<MapLocation> allEnemyTowers = importantLocations.get(5);
-		allEnemyTowers.addAll(importantLocations.get(6));
-		allEnemyTowers.addAll(importantLocations.get(7));
-		MapLocation nearestEnemyTower = findNearestStructure(rc, allEnemyTowers);
+		Bitboard.update(rc);
+		long lo = Bitboard.layers[2 * Bitboard.ENEMY_PAINT];
+		long hi = Bitboard.layers[2 * Bitboard.ENEMY_PAINT + 1];
 		
-		for (MapInfo tile : nearbyTiles) {
+		// only tiles with enemy paint are looked at, lowest bit first
+		while ((lo | hi) != 0) {
+			int bit = Bitboard.first(lo, hi);
+			if (bit < 64) {
+				lo &= lo - 1;
+			} else {
+				hi &= hi - 1;
+			}
+			MapLocation tileLocation = Bitboard.location(bit);
 			
 			//ignore the tile if its within enemy tower attack radius
-			if (tile.getMapLocation().distanceSquaredTo(nearestEnemyTower) <= 9) {continue;}
-			
-			if (tile.getPaint().equals(PaintType.ENEMY_PRIMARY) || tile.getPaint().equals(PaintType.ENEMY_SECONDARY)) {
-				return tile.getMapLocation();
+			if (!DangerMap.isDangerous(tileLocation)) {
+				return tileLocation;
 			}
-
 		}
 		
 		rc.setIndicatorString("Found Nothing!");
@@ -189,94 +149,33 @@ public class Mopper extends RobotPlayer {
 		return rc.getTeam().opponent().equals(otherRobot.getTeam());
 	}
 
-	// returns current location if no paint towers have been seen yet
+	// returns current location if no structure of that type has been seen yet
 	public static MapLocation findNearestStructure(RobotController rc, int StructID) {
-		MapLocation currentLocation = rc.getLocation();
-		HashSet<MapLocation> allMatchingTiles = importantLocations.get(StructID); // all paint towers seen
-
-		if (allMatchingTiles.isEmpty()) {
-			return currentLocation;
-		}
-
-		// simple "min" algorithm, try optimizing to avoid recalculation!
-		MapLocation nearestLocation = currentLocation;
-		int shortestDistanceSquared = 1000000;
-		for (MapLocation tileLocation : allMatchingTiles) {
-
-			// actual functionality
-			int distanceSquared = currentLocation.distanceSquaredTo(tileLocation);
-			if (distanceSquared < shortestDistanceSquared) {
-				shortestDistanceSquared = distanceSquared;
-				nearestLocation = tileLocation;
-				if (shortestDistanceSquared <= 2) { // if it is literally impossible to find a closer location
-					return nearestLocation;
-				}
-			}
-		}
-
-		return nearestLocation;
+		MapLocation nearestLocation = MapMemory.nearest(rc.getLocation(), 1 << StructID);
+		return nearestLocation == null ? rc.getLocation() : nearestLocation;
 	}
 	
-	// different version where it only looks through elements of the set provided
-		public static MapLocation findNearestStructure(RobotController rc, HashSet<MapLocation> allMatchingTiles) {
-			MapLocation currentLocation = rc.getLocation();
-
-			if (allMatchingTiles.isEmpty()) {
-				return currentLocation;
-			}
-
-			// simple "min" algorithm, try optimizing to avoid recalculation!
-			MapLocation nearestLocation = currentLocation;
-			int shortestDistanceSquared = 1000000;
-			for (MapLocation tileLocation : allMatchingTiles) {
-
-				// actual functionality
-				int distanceSquared = currentLocation.distanceSquaredTo(tileLocation);
-				if (distanceSquared < shortestDistanceSquared) {
-					shortestDistanceSquared = distanceSquared;
-					nearestLocation = tileLocation;
-					if (shortestDistanceSquared <= 2) { // if it is literally impossible to find a closer location
-						return nearestLocation;
-					}
-				}
-			}
-
-			return nearestLocation;
-		}
-	
 	//returns nearest structure thats NOT within enemy tower radius
 	public static MapLocation findNearestSafeStructure(RobotController rc, int StructID) {
 		MapLocation currentLocation = rc.getLocation();
-		HashSet<MapLocation> allMatchingTiles = importantLocations.get(StructID); // all paint towers seen
-		HashSet<MapLocation> allEnemyTowers = importantLocations.get(5);
-		allEnemyTowers.addAll(importantLocations.get(6));
-		allEnemyTowers.addAll(importantLocations.get(7));
-		
-		if (allMatchingTiles.isEmpty()) {
+		if (MapMemory.lists[StructID] == null) {
 			return currentLocation;
 		}
+		int size = MapMemory.compact(StructID);
+		int[] allMatchingTiles = MapMemory.lists[StructID];
 
 		// simple "min" algorithm, try optimizing to avoid recalculation!
 		MapLocation nearestLocation = currentLocation;
 		int shortestDistanceSquared = 1000000;
-		boolean skip = false;
-		for (MapLocation tileLocation : allMatchingTiles) {
+		for (int i = 0; i < size; i++) {
+			MapLocation tileLocation = MapMemory.location(allMatchingTiles[i]);
 
 			// actual functionality
 			int distanceSquared = currentLocation.distanceSquaredTo(tileLocation);
 			if (distanceSquared < shortestDistanceSquared) {
 				
 				//checks if tile is within enemy tower attack radius
-				for (MapLocation towerLoc : allEnemyTowers) {
-					//unsafe location
-					if (tileLocation.distanceSquaredTo(towerLoc) <= 9) {
-						skip = true;
-						break;
-					}
-				}
-				
-				if (skip) {
-					skip = false;
+				if (DangerMap.isDangerous(tileLocation)) {
 					continue;
 				}
 				
@@ -345,69 +244,26 @@ public class Mopper extends RobotPlayer {
 	 * return swingValues; }
 	 */
 
-	// Calculates how many robots are hit in a single swing for all cardinal
-	// directions
+	// Calculates how many enemy robots are hit in a single swing for all cardinal
+	// directions. Each swing covers a 3-wide, 2-deep lane next to the mopper, which is
+	// one box query on a ScoreTable of the enemy robots in vision.
+	static ScoreTable enemyRobotTable = new ScoreTable();
+
 	public static int[] getSwingValues(RobotController rc) {
 		int[] swingValues = { 0, 0, 0, 0 }; // Index 0: NORTH, Index 1: EAST, Index 2: SOUTH, Index 3: WEST
-		MapLocation currentLoc = rc.getLocation();
-
-		// all relative locations hit (e.g. (+1, +1) from current location) for each
-		// cardinal direction
-		int[] NorthRLocsX = { 0, 0, 1, 1, -1, -1 };
-		int[] NorthRLocsY = { 1, 2, 1, 2, 1, 2 };
-		int[] EastRLocsX = { 1, 2, 1, 2, 1, 2 };
-		int[] EastRLocsY = { 0, 0, 1, 1, -1, -1 };
-		int[] SouthRLocsX = { 0, 0, 1, 1, -1, -1 };
-		int[] SouthRLocsY = { -1, -2, -1, -2, -1, -2 };
-		int[] WestRLocsX = { -1, -2, -1, -2, -1, -2 };
-		int[] WestRLocsY = { 0, 0, 1, 1, -1, -1 };
-
-		// each direction has 6 tiles to check
-		for (int i = 0; i < 6; i++) {
-			try {
-				// uses senseRobotAtLocation instead of canSenseRobotAtLocation in case location
-				// is out of bounds
-				boolean isRobotN = rc
-						.senseRobotAtLocation(currentLoc.translate(NorthRLocsX[i], NorthRLocsY[i])) == null;
-				if (isRobotN) {
-					swingValues[0] += 1;
-				}
-			} catch (GameActionException e) {
-				// do nothing
-			}
-			try {
-				// uses senseRobotAtLocation instead of canSenseRobotAtLocation in case location
-				// is out of bounds
-				boolean isRobotE = rc.senseRobotAtLocation(currentLoc.translate(EastRLocsX[i], EastRLocsY[i])) == null;
-				if (isRobotE) {
-					swingValues[1] += 1;
-				}
-			} catch (GameActionException e) {
-				// do nothing
-			}
-			try {
-				// uses senseRobotAtLocation instead of canSenseRobotAtLocation in case location
-				// is out of bounds
-				boolean isRobotS = rc
-						.senseRobotAtLocation(currentLoc.translate(SouthRLocsX[i], SouthRLocsY[i])) == null;
-				if (isRobotS) {
-					swingValues[2] += 1;
-				}
-			} catch (GameActionException e) {
-				// do nothing
-			}
-			try {
-				// uses senseRobotAtLocation instead of canSenseRobotAtLocation in case location
-				// is out of bounds
-				boolean isRobotW = rc.senseRobotAtLocation(currentLoc.translate(WestRLocsX[i], WestRLocsY[i])) == null;
-				if (isRobotW) {
-					swingValues[3] += 1;
-				}
-			} catch (GameActionException e) {
-				// do nothing
-			}
+		int enemyCount = Sense.enemiesWithin(rc, 8);
+		if (enemyCount == 0) {
+			return swingValues;
 		}
-
+		enemyRobotTable.reset(rc.getLocation());
+		for (int i = enemyCount; --i >= 0;) {
+			enemyRobotTable.add(Sense.found[i].location, 1);
+		}
+		enemyRobotTable.build();
+		swingValues[0] = enemyRobotTable.box(-1, 1, 1, 2);
+		swingValues[1] = enemyRobotTable.box(1, -1, 2, 1);
+		swingValues[2] = enemyRobotTable.box(-1, -2, 1, -1);
+		swingValues[3] = enemyRobotTable.box(-2, -1, -1, 1);
 		return swingValues;
 	}
 
@@ -426,39 +282,43 @@ public class Mopper extends RobotPlayer {
 	}
 
 	public static RobotInfo[] findEnemyRobots(RobotController rc) throws GameActionException {
-		RobotInfo[] enemyRobots = rc.senseNearbyRobots(-1, rc.getTeam().opponent());
-		return enemyRobots;
+		return findEnemyRobots(rc, -1);
 	}
 
-	// Overloaded version for checking within a specific radius
+	// Overloaded version for checking within a specific radius, copies out of Sense.found
+	// (use Sense.enemiesWithin directly where only the count matters)
 	public static RobotInfo[] findEnemyRobots(RobotController rc, int radius) throws GameActionException {
-		RobotInfo[] enemyRobots = rc.senseNearbyRobots(radius, rc.getTeam().opponent());
+		int count = Sense.enemiesWithin(rc, radius);
+		RobotInfo[] enemyRobots = new RobotInfo[count];
+		System.arraycopy(Sense.found, 0, enemyRobots, 0, count);
 		return enemyRobots;
 	}
 
 	public static RobotInfo[] findFriendlyRobots(RobotController rc) throws GameActionException {
-		RobotInfo[] friendlyRobots = rc.senseNearbyRobots(-1, rc.getTeam());
-		return friendlyRobots;
+		return findFriendlyRobots(rc, -1);
 	}
 
 	// Overloaded version for checking within a specific radius
 	public static RobotInfo[] findFriendlyRobots(RobotController rc, int radius) throws GameActionException {
-		RobotInfo[] friendlyRobots = rc.senseNearbyRobots(radius, rc.getTeam());
+		int count = Sense.alliesWithin(rc, radius);
+		RobotInfo[] friendlyRobots = new RobotInfo[count];
+		System.arraycopy(Sense.found, 0, friendlyRobots, 0, count);
 		return friendlyRobots;
 	}
 
 	public static MapLocation findNearestFriendlySoldier(RobotController rc) throws GameActionException {
-		RobotInfo[] friendlyRobots = findFriendlyRobots(rc);
+		int friendlyCount = Sense.allyCount(rc);
 		MapLocation currentLocation = rc.getLocation();
 
 		// returns currentLocation if it cannot find any nearby friendly soldiers
-		if (friendlyRobots.length == 0) {
+		if (friendlyCount == 0) {
 			return currentLocation;
 		}
 
 		MapLocation nearestLocation = currentLocation;
 		int shortestDistanceSquared = 100000;
-		for (RobotInfo robot : friendlyRobots) {
+		for (int i = 0; i < friendlyCount; i++) {
+			RobotInfo robot = Sense.allies[i];
 
 			if (robot.getType().equals(UnitType.SOLDIER)) {
 
@@ -479,7 +339,7 @@ public class Mopper extends RobotPlayer {
 
 	public static void transferPaintMoppers(RobotController rc, MapLocation currentLocation, Direction paintTowerDir)
 			throws GameActionException {
-		int paintInTower = rc.senseRobotAtLocation(currentLocation.add(paintTowerDir)).getPaintAmount();
+		int paintInTower = Sense.robotAt(rc, currentLocation.add(paintTowerDir)).getPaintAmount();
 		int transferAmount = Math.max(-paintInTower, rc.getPaint() - 90); // needs to be the lesser magnitude of the
 																			// two; hence the max not min
 		if (rc.canTransferPaint(currentLocation.add(paintTowerDir), transferAmount)) {
@@ -0,0 +1,15 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Common contract of the navigators: every call to step() makes at most one move towards getDest().
+ */
+public interface Navigator {
+    int ORBIT = 0; // OrbitPathfinder, wall following
+    int BFS = 1; // BfsPathfinder, distance field over the remembered map
+
+    void step();
+
+    MapLocation getDest();
+}
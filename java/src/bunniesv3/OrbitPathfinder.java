@@ -1,9 +1,7 @@
 package bunniesv3;
 import battlecode.common.*;
 
-import java.util.HashSet;
-
-public class OrbitPathfinder {
+public class OrbitPathfinder implements Navigator {
     // enum order CENTER, WEST, NORTHWEST, NORTH, NORTHEAST, EAST, SOUTHEAST, SOUTH, SOUTHWEST
     static final Direction[] directions = new Direction[]{
             Direction.EAST,
@@ -17,15 +15,6 @@ public class OrbitPathfinder {
             Direction.EAST
     };
     static final float[] ordToAngle = new float[]{2, 1, 0, 7, 6, 5, 4, 3, Float.NaN};
-    static final int[][] radius3 = new int[][] {
-                                         {-3, 0},
-                     {-2, -2}, {-2, -1}, {-2, 0}, {-2, 1}, {-2, 2},
-                     {-1, -2},                             {-1, 2},
-            {0, -3}, {0, -2},                              {0, 2}, {0, 3},
-                       {1, -2},                            {1, 2},
-                       {2, -2}, {2, -1}, {2, 0}, {2, 1},   {2, 2},
-                                         {3, 0}
-    };
     // an angle-like metric where going counterclockwise increases the metric and one round adds 8
     static float eightAngle(float x, float y) {
         if (x == 0 && y == 0) {
@@ -48,8 +37,10 @@ public class OrbitPathfinder {
     private final MapLocation dest;
     private final RobotController rc;
     private final boolean clockwise;
-    public static HashSet<MapLocation> avoidWithinRadius3 = null;
-    private static HashSet<MapLocation> avoidDueToRadius3 = new HashSet<>();
+    // stay out of the attack radius of every enemy tower in MapMemory (see DangerMap)
+    public static boolean avoidEnemyTowers = false;
+    // directions this step may take, as a DangerMap.safeDirections mask
+    private int allowed = DangerMap.ALL_DIRECTIONS;
 
     private boolean angleTracking = false;
     private float windingNumber = 0;
@@ -69,16 +60,11 @@ public class OrbitPathfinder {
         this(rc, dest, true);
     }
     public void step() {
-        // recalculate bad squares if avoidWithinRadius3
-        if (avoidWithinRadius3 != null) {
-            for (MapLocation tower : avoidWithinRadius3) {
-                for (int[] offset : radius3) {
-                    avoidDueToRadius3.add(new MapLocation(tower.x + offset[0], tower.y + offset[1]));
-                }
-            }
-        } else if (!avoidDueToRadius3.isEmpty()) {
-            avoidDueToRadius3 = new HashSet<>();
-        }
+        if (Profiler.ENABLED) Profiler.begin(Profiler.PATHFINDING);
+        // a robot already in tower range may go anywhere, so that it can get out
+        MapLocation start = rc.getLocation();
+        allowed = avoidEnemyTowers && !DangerMap.isDangerous(start) ?
+                DangerMap.safeDirections(start) : DangerMap.ALL_DIRECTIONS;
 
         if (disturbed || !rc.getLocation().equals(rcLocation)) {
             System.out.println("YOU HAVE DISTURBED THE PATHFINDER! IT WILL NEVER WORK AGAIN!");
@@ -87,6 +73,7 @@ public class OrbitPathfinder {
             stepClockwise();
         }
         stepCounterclockwise();
+        if (Profiler.ENABLED) Profiler.end(Profiler.PATHFINDING);
     }
     private void stepClockwise() {
         if (!rc.isMovementReady()) {
@@ -101,7 +88,7 @@ public class OrbitPathfinder {
         if (!angleTracking) {
             float angle = eightAngle(relativeX, relativeY);
             Direction best = directions[Math.round(angle)];
-            if (rc.canMove(best) && !avoidDueToRadius3.contains(rc.getLocation().add(best))) {
+            if (rc.canMove(best) && DangerMap.isSafe(allowed, best)) {
                 try {
                     rc.move(best);
                     windingNumber += turnJump(best, relativeX, relativeY);
@@ -119,7 +106,7 @@ public class OrbitPathfinder {
         Direction attempt = wall.rotateLeft();
         float attemptAngle = wallAngle + 1;
         for (int i = 0; i < 7; i++) { // try seven directions before giving up
-            if (rc.canMove(attempt) && !avoidDueToRadius3.contains(rc.getLocation().add(attempt))) {
+            if (rc.canMove(attempt) && DangerMap.isSafe(allowed, attempt)) {
                 try {
                     rc.move(attempt);
                     RobotPlayer.path.add(rc.getLocation());
@@ -174,7 +161,7 @@ public class OrbitPathfinder {
         if (!angleTracking) {
             float angle = eightAngle(relativeX, relativeY);
             Direction best = directions[Math.round(angle)];
-            if (rc.canMove(best) && !avoidDueToRadius3.contains(rc.getLocation().add(best))) {
+            if (rc.canMove(best) && DangerMap.isSafe(allowed, best)) {
                 try {
                     rc.move(best);
                     windingNumber += turnJump(best, relativeX, relativeY);
@@ -192,7 +179,7 @@ public class OrbitPathfinder {
         Direction attempt = wall.rotateRight();
         float attemptAngle = wallAngle - 1;
         for (int i = 0; i < 7; i++) { // try seven directions before giving up
-            if (rc.canMove(attempt) && !avoidDueToRadius3.contains(rc.getLocation().add(attempt))) {
+            if (rc.canMove(attempt) && DangerMap.isSafe(allowed, attempt)) {
                 try {
                     rc.move(attempt);
                     RobotPlayer.path.add(rc.getLocation());
@@ -0,0 +1,39 @@
+package bunniesv3;
+
+/*
+ * Tunable constants, written by tools/tournament/ParamTuner.java (./gradlew tune -PapplyParams=true).
+ * ParamTuner starts its search from these values, so editing them by hand is fine; new constants also need an
+ * entry in ParamTuner.PARAMETERS. Rerun ./gradlew generateSplasherConvolution after changing a splash weight.
+ */
+public class Params {
+    // splash score a new splasher needs before it attacks
+    static final float SPLASHER_ATTACK_THRESHOLD = 19.8f;
+    // splash score needed right after an attack
+    static final float SPLASHER_ATTACK_THRESHOLD_AFTER_ATTACK = 18.0f;
+    // splash score needed after refilling paint
+    static final float SPLASHER_ATTACK_THRESHOLD_AFTER_RETREAT = 19.0f;
+    // drop of the needed splash score per turn without an attack
+    static final float SPLASHER_ATTACK_THRESHOLD_DECAY = 0.1f;
+    // the needed splash score does not decay below this
+    static final float SPLASHER_ATTACK_THRESHOLD_MIN = 3.0f;
+    // splashers go refill below this much paint
+    static final int SPLASHER_PAINT_RETREAT_THRESHOLD = 100;
+    // moppers go refill below this much paint
+    static final int MOPPER_PAINT_RETREAT_THRESHOLD = 30;
+    // paint a soldier takes from a tower at once
+    static final int SOLDIER_PAINT_REQUEST = 100;
+    // rounds a splasher skips a paint tower that denied it paint
+    static final int SPLASHER_DENIED_TOWER_COOLDOWN = 50;
+    // splash score of an empty tile on the fringe of a splash
+    static final float SPLASHER_FRINGE_EMPTY = 1.0f;
+    // splash score of an ally secondary tile on the fringe
+    static final float SPLASHER_FRINGE_ALLY_SECONDARY = -0.7f;
+    // splash score of an ally secondary tile on the fringe that is marked secondary
+    static final float SPLASHER_FRINGE_ALLY_SECONDARY_MARKED = -1.5f;
+    // rounds a soldier's claim on a ruin lasts beyond its distance to the ruin
+    static final int RUIN_CLAIM_BUILD_ROUNDS = 30;
+    // rounds a splasher's claim on a ruin lasts beyond its distance to the ruin
+    static final int RUIN_CLAIM_MARK_ROUNDS = 5;
+    // soldiers without a ruin look this far (distance squared) for a resource pattern center
+    static final int RESOURCE_PATTERN_RANGE = 64;
+}
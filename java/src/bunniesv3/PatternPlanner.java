@@ -0,0 +1,218 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Plans a soldier's turn at a 5x5 pattern (a tower pattern around a ruin, or a resource pattern, see
+ * ResourcePatterns), so that the pattern takes as few rounds and as little paint as possible.
+ *
+ * scan() reads the pattern from the Bitboard snapshot once per turn into 25-bit masks, bit (dx + 2) * 5 + dy + 2 for
+ * the cell at (dx, dy) from the center: the cells seen, marked, marked secondary, covered in enemy paint (soldiers
+ * cannot paint over it), and still to paint (marked, not enemy paint, and not painted like the mark). Cells outside
+ * the robot's 9x9 window or vision are simply not seen yet.
+ *
+ * step() then picks where to stand: of the robot's tile and the neighbors it can move to, the one from which the most
+ * cells still to paint are in attack range (REACH), preferring to stay put and to stay off enemy paint. Each turn
+ * paints one cell, so standing where many are in reach is what saves moves over the next few turns. If the soldier is
+ * going to move, it first paints a cell that will be out of reach after the move, if it has one, and otherwise moves
+ * first and paints from the new tile. Only cells that are still wrong get painted, so no paint is spent twice.
+ */
+public class PatternPlanner {
+    static final int CELLS = 25;
+    static final int CENTER_CELL = 12;
+    // REACH[(px + 3) * 7 + py + 3]: the cells within a soldier's attack range (actionRadiusSquared 9) of a robot
+    // standing at (px, py) from the center
+    static final int[] REACH = new int[] {
+            0x0000063, 0x00004e7, 0x00009ef, 0x00013ff, 0x00023de, 0x000439c, 0x0000318,
+            0x0000c67, 0x0009cef, 0x0013dff, 0x0027fff, 0x0047bdf, 0x008739e, 0x000631c,
+            0x0018ce3, 0x0139de7, 0x027bfef, 0x04fffff, 0x08f7bfe, 0x10e73dc, 0x00c6398,
+            0x0319c63, 0x073bce7, 0x0f7fdef, 0x1ffffff, 0x1ef7fde, 0x1ce7b9c, 0x18c7318,
+            0x0338c60, 0x0779ce1, 0x0ffbde2, 0x1ffffe4, 0x1effbc8, 0x1cf7390, 0x18e6300,
+            0x0718c00, 0x0f39c20, 0x1f7bc40, 0x1fffc80, 0x1ff7900, 0x1ee7200, 0x1cc6000,
+            0x0318000, 0x0738400, 0x0f78800, 0x1ff9000, 0x1ef2000, 0x1ce4000, 0x18c0000,
+    };
+
+    // masks of the last scan()
+    static MapLocation center = null;
+    static int seen = 0;
+    static int marked = 0;
+    static int secondary = 0;
+    static int enemyPaint = 0;
+    static int todo = 0;
+
+    static int cell(MapLocation center, MapLocation loc) {
+        return (loc.x - center.x + 2) * 5 + loc.y - center.y + 2;
+    }
+
+    static MapLocation location(MapLocation center, int cell) {
+        return center.translate(cell / 5 - 2, cell % 5 - 2);
+    }
+
+    // the cells in attack range from loc, 0 if loc is too far from the center to reach any
+    static int reach(MapLocation center, MapLocation loc) {
+        int px = loc.x - center.x;
+        int py = loc.y - center.y;
+        if (px < -3 || px > 3 || py < -3 || py > 3) {
+            return 0;
+        }
+        return REACH[(px + 3) * 7 + py + 3];
+    }
+
+    /*
+     * Fills the masks for the pattern around center from the Bitboard snapshot.
+     */
+    static void scan(RobotController rc, MapLocation center) {
+        Bitboard.update(rc);
+        long[] l = Bitboard.layers;
+        MapLocation rcLoc = rc.getLocation();
+        int baseX = center.x - rcLoc.x + Bitboard.RADIUS - 2;
+        int baseY = center.y - rcLoc.y + Bitboard.RADIUS - 2;
+        PatternPlanner.center = center;
+        seen = 0;
+        marked = 0;
+        secondary = 0;
+        enemyPaint = 0;
+        todo = 0;
+        for (int dx = 0; dx < 5; dx++) {
+            int x = baseX + dx;
+            if (x < 0 || x >= Bitboard.SIZE) {
+                continue;
+            }
+            for (int dy = 0; dy < 5; dy++) {
+                int y = baseY + dy;
+                if (y < 0 || y >= Bitboard.SIZE) {
+                    continue;
+                }
+                int bit = x * Bitboard.SIZE + y;
+                int half = bit >>> 6;
+                long mask = 1L << bit;
+                if ((l[2 * Bitboard.SEEN + half] & mask) == 0) {
+                    continue;
+                }
+                int cell = 1 << (dx * 5 + dy);
+                seen |= cell;
+                boolean markSecondary = (l[2 * Bitboard.MARK_SECONDARY + half] & mask) != 0;
+                if (!markSecondary && (l[2 * Bitboard.MARK_PRIMARY + half] & mask) == 0) {
+                    continue;
+                }
+                marked |= cell;
+                if ((l[2 * Bitboard.ENEMY_PAINT + half] & mask) != 0) {
+                    enemyPaint |= cell;
+                } else if (markSecondary) {
+                    secondary |= cell;
+                    if ((l[2 * Bitboard.ALLY_SECONDARY + half] & mask) == 0) {
+                        todo |= cell;
+                    }
+                } else if ((l[2 * Bitboard.ALLY_PRIMARY + half] & mask) == 0) {
+                    todo |= cell;
+                }
+            }
+        }
+    }
+
+    /*
+     * Paints and moves for the pattern of the last scan(). Returns true if the robot painted a cell or moved.
+     * The masks are kept up to date with what it painted.
+     */
+    static boolean step(RobotController rc) throws GameActionException {
+        MapLocation rcLoc = rc.getLocation();
+        MapLocation target = rcLoc;
+        int targetReach = reach(center, rcLoc);
+        if (rc.isMovementReady()) {
+            int best = score(rc, rcLoc, targetReach) + 1;
+            for (int i = 8; --i >= 0;) {
+                Direction dir = Constants.directions[i];
+                if (!rc.canMove(dir)) {
+                    continue;
+                }
+                MapLocation loc = rcLoc.add(dir);
+                int reach = reach(center, loc);
+                int score = score(rc, loc, reach);
+                if (score > best) {
+                    best = score;
+                    target = loc;
+                    targetReach = reach;
+                }
+            }
+        }
+        if (target == rcLoc && (todo & targetReach) == 0) {
+            // nothing to paint from here or next door: walk toward the nearest cell left, or to the center to see
+            // the rest of the pattern
+            MapLocation goal = todo != 0 ? location(center, nearest(rcLoc, todo)) : center;
+            Direction dir = Soldier.getShortestPathDir(rc, goal);
+            if (rcLoc.distanceSquaredTo(center) > 2 && dir != Direction.CENTER && rc.canMove(dir)) {
+                rc.move(dir);
+                paint(rc, todo & reach(center, rc.getLocation()));
+                return true;
+            }
+            return false;
+        }
+        boolean acted = false;
+        // paint first what the move would leave out of reach
+        if (target != rcLoc && paint(rc, todo & reach(center, rcLoc) & ~targetReach)) {
+            acted = true;
+        }
+        if (target != rcLoc) {
+            rc.move(rcLoc.directionTo(target));
+            acted = true;
+        }
+        if (paint(rc, todo & targetReach)) {
+            acted = true;
+        }
+        return acted;
+    }
+
+    // how good a place loc is to stand: cells to paint in reach first, then not standing on enemy paint
+    static int score(RobotController rc, MapLocation loc, int reach) throws GameActionException {
+        int score = Integer.bitCount(todo & reach) * 4;
+        PaintType paint = Sense.tile(rc, loc).getPaint();
+        if (paint == PaintType.ENEMY_PRIMARY || paint == PaintType.ENEMY_SECONDARY) {
+            score -= 2;
+        }
+        return score;
+    }
+
+    // the cell of cells nearest to loc
+    static int nearest(MapLocation loc, int cells) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int cell = CELLS; --cell >= 0;) {
+            if ((cells & (1 << cell)) != 0) {
+                int distance = loc.distanceSquaredTo(location(center, cell));
+                if (distance < bestDistance) {
+                    best = cell;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    // paints one of the cells if the action is ready, the one farthest from the center: cells near the center are in
+    // reach from more tiles, so they are easiest to leave for later
+    static boolean paint(RobotController rc, int cells) throws GameActionException {
+        if (cells == 0 || !rc.isActionReady()) {
+            return false;
+        }
+        int best = -1;
+        int bestDistance = -1;
+        for (int cell = CELLS; --cell >= 0;) {
+            if ((cells & (1 << cell)) != 0) {
+                int dx = cell / 5 - 2;
+                int dy = cell % 5 - 2;
+                if (dx * dx + dy * dy > bestDistance) {
+                    best = cell;
+                    bestDistance = dx * dx + dy * dy;
+                }
+            }
+        }
+        MapLocation loc = location(center, best);
+        boolean useSecondary = (secondary & (1 << best)) != 0;
+        if (!rc.canAttack(loc)) {
+            return false;
+        }
+        rc.attack(loc, useSecondary);
+        todo &= ~(1 << best);
+        return true;
+    }
+}
@@ -0,0 +1,354 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Decides what a tower builds, when, and on which tile.
+ *
+ * Income: every tower turn observe() records how much money and paint came in since its last turn, with what the
+ * tower spent itself added back, over a sliding window of WINDOW turns. Money is shared by the team, so its rate
+ * also reflects what the other towers spend; paint is this tower's own. Units withdraw paint during their own turns,
+ * which the tower cannot add back, so a paint sample never counts below 0. From the average rates turnsUntil()
+ * projects when a cost becomes affordable.
+ *
+ * Demand: the tiles and robots in vision (from Sense) give a score per unit type, e.g. unclaimed ruins and empty
+ * tiles want soldiers, enemy paint and enemy units want moppers, large paintable areas want splashers, and units of
+ * the same type already nearby lower the score. Each type also gets a target location, the tile its demand comes
+ * from.
+ *
+ * Decision: the best scoring type is built as soon as it is affordable. If it is affordable within HORIZON turns
+ * the tower saves for it; otherwise it falls back to the next type it can afford now. While the money is projected to
+ * reach the tower's upgrade threshold (Tower.upgradeThreshold) within HORIZON turns, that money is not spent on
+ * units, so units do not stall upgrades. Once the money is there the tower upgrades before it builds. The other
+ * builds keep this reserve too, except the opening soldiers and the tower's defensive moppers.
+ *
+ * Spawn tile: the free tile in build range closest to the type's target, avoiding enemy paint.
+ */
+public class ProductionPlanner {
+    static final int WINDOW = 10;
+    static final int HORIZON = 5;
+    // paint kept for refilling units, see Tower.allowPaintRequest
+    static final int PAINT_RESERVE = 100;
+    static final int ENEMY_PAINT_SPAWN_PENALTY = 8;
+
+    // same numbers as Tower.createRobot's robotType
+    static final int SOLDIER = 0;
+    static final int MOPPER = 1;
+    static final int SPLASHER = 2;
+    static final UnitType[] UNITS = new UnitType[] {UnitType.SOLDIER, UnitType.MOPPER, UnitType.SPLASHER};
+
+    // tiles in build range, the tower's own tile excluded
+    static final int[] SPAWN_DX;
+    static final int[] SPAWN_DY;
+    static {
+        int n = 0;
+        int[] x = new int[25];
+        int[] y = new int[25];
+        for (int dx = -2; dx <= 2; dx++) {
+            for (int dy = -2; dy <= 2; dy++) {
+                int d = dx * dx + dy * dy;
+                if (d > 0 && d <= GameConstants.BUILD_ROBOT_RADIUS_SQUARED) {
+                    x[n] = dx;
+                    y[n] = dy;
+                    n++;
+                }
+            }
+        }
+        SPAWN_DX = new int[n];
+        SPAWN_DY = new int[n];
+        System.arraycopy(x, 0, SPAWN_DX, 0, n);
+        System.arraycopy(y, 0, SPAWN_DY, 0, n);
+    }
+
+    // income per turn over the last samples turns, as a ring buffer
+    static int[] moneyIncome = new int[WINDOW];
+    static int[] paintIncome = new int[WINDOW];
+    static int samples = 0;
+    static int next = 0;
+    static int lastRound = -1;
+    static int lastMoney = 0;
+    static int lastPaint = 0;
+    static int spentMoney = 0;
+    static int spentPaint = 0;
+
+    static int[] demand = new int[3];
+    static MapLocation[] target = new MapLocation[3];
+
+    static int built = 0;
+
+    /*
+     * Records the income since the last call. Call once per tower turn, before anything is spent.
+     */
+    static void observe(RobotController rc) {
+        int round = rc.getRoundNum();
+        int money = rc.getMoney();
+        int paint = rc.getPaint();
+        if (lastRound >= 0) {
+            int turns = Math.max(1, round - lastRound);
+            moneyIncome[next] = (money - lastMoney + spentMoney) / turns;
+            paintIncome[next] = Math.max(0, paint - lastPaint + spentPaint) / turns;
+            next = next == WINDOW - 1 ? 0 : next + 1;
+            if (samples < WINDOW) {
+                samples++;
+            }
+        }
+        lastRound = round;
+        lastMoney = money;
+        lastPaint = paint;
+        spentMoney = 0;
+        spentPaint = 0;
+    }
+
+    // everything the tower spends goes through here, so that it is not mistaken for a drop in income
+    static void spent(int money, int paint) {
+        spentMoney += money;
+        spentPaint += paint;
+    }
+
+    static int moneyRate() {
+        return average(moneyIncome);
+    }
+
+    static int paintRate() {
+        return average(paintIncome);
+    }
+
+    static int average(int[] income) {
+        if (samples == 0) {
+            return 0;
+        }
+        int sum = 0;
+        for (int i = samples; --i >= 0;) {
+            sum += income[i];
+        }
+        return Math.max(0, sum / samples);
+    }
+
+    /*
+     * Turns until money and paint cover the costs at the current rates, 0 if they already do, Integer.MAX_VALUE if
+     * they never will.
+     */
+    static int turnsUntil(RobotController rc, int moneyCost, int paintCost) {
+        int turns = 0;
+        int missingMoney = moneyCost - rc.getMoney();
+        if (missingMoney > 0) {
+            int rate = moneyRate();
+            if (rate == 0) {
+                return Integer.MAX_VALUE;
+            }
+            turns = (missingMoney + rate - 1) / rate;
+        }
+        int missingPaint = paintCost - rc.getPaint();
+        if (missingPaint > 0) {
+            int rate = paintRate();
+            if (rate == 0) {
+                return Integer.MAX_VALUE;
+            }
+            turns = Math.max(turns, (missingPaint + rate - 1) / rate);
+        }
+        return turns;
+    }
+
+    // money that has to stay in the bank for the next upgrade: the upgrade threshold while it is at most HORIZON
+    // turns away, 0 if it is further, or already reached (the tower upgrades then)
+    static int upgradeReserve(RobotController rc) throws GameActionException {
+        if (Tower.getTowerLevel(rc) == 3) {
+            return 0;
+        }
+        int threshold = Tower.upgradeThreshold(rc);
+        int turns = turnsUntil(rc, threshold, 0);
+        return turns > 0 && turns <= HORIZON ? threshold : 0;
+    }
+
+    // paint a paint tower keeps for refilling units
+    static int paintReserve(RobotController rc) throws GameActionException {
+        return Tower.getTowerType(rc) == "Paint" ? PAINT_RESERVE : 0;
+    }
+
+    /*
+     * Scores the demand for each unit type from what the tower sees.
+     */
+    static void readDemand(RobotController rc) throws GameActionException {
+        MapLocation rcLoc = rc.getLocation();
+        int enemyPaint = 0;
+        int emptyTiles = 0;
+        int freeRuins = 0;
+        int enemyPaintX = 0;
+        int enemyPaintY = 0;
+        int emptyX = 0;
+        int emptyY = 0;
+        MapLocation nearestRuin = null;
+        MapInfo[] tiles = Sense.tiles(rc);
+        for (int i = tiles.length; --i >= 0;) {
+            MapInfo tile = tiles[i];
+            MapLocation loc = tile.getMapLocation();
+            if (tile.hasRuin()) {
+                if (!loc.equals(rcLoc) && Sense.robotAt(rc, loc) == null) {
+                    freeRuins++;
+                    if (nearestRuin == null || rcLoc.distanceSquaredTo(loc) < rcLoc.distanceSquaredTo(nearestRuin)) {
+                        nearestRuin = loc;
+                    }
+                }
+                continue;
+            }
+            if (!tile.isPassable()) {
+                continue;
+            }
+            PaintType paint = tile.getPaint();
+            if (paint == PaintType.EMPTY) {
+                emptyTiles++;
+                emptyX += loc.x;
+                emptyY += loc.y;
+            } else if (paint == PaintType.ENEMY_PRIMARY || paint == PaintType.ENEMY_SECONDARY) {
+                enemyPaint++;
+                enemyPaintX += loc.x;
+                enemyPaintY += loc.y;
+            }
+        }
+
+        int enemyUnits = 0;
+        int allySoldiers = 0;
+        int allyMoppers = 0;
+        int allySplashers = 0;
+        MapLocation nearestEnemy = null;
+        Team team = rc.getTeam();
+        RobotInfo[] robots = Sense.robots(rc);
+        for (int i = robots.length; --i >= 0;) {
+            RobotInfo robot = robots[i];
+            if (robot.type.isTowerType()) {
+                continue;
+            }
+            if (robot.team == team) {
+                if (robot.type == UnitType.SOLDIER) {
+                    allySoldiers++;
+                } else if (robot.type == UnitType.MOPPER) {
+                    allyMoppers++;
+                } else {
+                    allySplashers++;
+                }
+            } else {
+                enemyUnits++;
+                if (nearestEnemy == null || rcLoc.distanceSquaredTo(robot.location) <
+                        rcLoc.distanceSquaredTo(nearestEnemy)) {
+                    nearestEnemy = robot.location;
+                }
+            }
+        }
+
+        demand[SOLDIER] = 4 + 6 * freeRuins + emptyTiles / 4 - 3 * allySoldiers;
+        demand[MOPPER] = enemyPaint + 6 * enemyUnits - 4 * allyMoppers;
+        demand[SPLASHER] = (emptyTiles + 2 * enemyPaint) / 3 - 4 * allySplashers;
+
+        MapLocation center = new MapLocation(rc.getMapWidth() / 2, rc.getMapHeight() / 2);
+        target[SOLDIER] = nearestRuin != null ? nearestRuin :
+                emptyTiles > 0 ? new MapLocation(emptyX / emptyTiles, emptyY / emptyTiles) : center;
+        target[MOPPER] = nearestEnemy != null ? nearestEnemy :
+                enemyPaint > 0 ? new MapLocation(enemyPaintX / enemyPaint, enemyPaintY / enemyPaint) : center;
+        int splashTiles = emptyTiles + enemyPaint;
+        target[SPLASHER] = splashTiles > 0 ?
+                new MapLocation((emptyX + enemyPaintX) / splashTiles, (emptyY + enemyPaintY) / splashTiles) : center;
+    }
+
+    /*
+     * One production decision. Returns the built robot, or null if the tower saves this turn.
+     */
+    static RobotInfo run(RobotController rc) throws GameActionException {
+        if (!rc.isActionReady()) {
+            return null;
+        }
+        readDemand(rc);
+        int moneyReserve = upgradeReserve(rc);
+        int paintReserve = paintReserve(rc);
+
+        // types from most to least wanted
+        int first = 0;
+        for (int type = 1; type < 3; type++) {
+            if (demand[type] > demand[first]) {
+                first = type;
+            }
+        }
+        for (int rank = 0; rank < 3; rank++) {
+            int type = rank == 0 ? first : nextBest(first, rank);
+            if (demand[type] <= 0) {
+                continue;
+            }
+            UnitType unit = UNITS[type];
+            int wait = turnsUntil(rc, unit.moneyCost + moneyReserve, unit.paintCost + paintReserve);
+            if (wait == 0) {
+                return build(rc, type, true);
+            }
+            if (rank == 0 && wait <= HORIZON) {
+                // worth waiting for
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // the type ranked rank (1 or 2) after first, by demand
+    static int nextBest(int first, int rank) {
+        int a = first == 0 ? 1 : 0;
+        int b = first == 2 ? 1 : 2;
+        if (demand[b] > demand[a]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        return rank == 1 ? a : b;
+    }
+
+    /*
+     * Builds a robot of the type on the best free tile towards its target. Returns it, or null if no tile is free or,
+     * with keepReserves, the reserves do not allow it.
+     */
+    static RobotInfo build(RobotController rc, int type, boolean keepReserves) throws GameActionException {
+        if (target[type] == null) {
+            readDemand(rc);
+        }
+        return buildToward(rc, type, target[type], keepReserves);
+    }
+
+    // same as build, with the caller's target
+    static RobotInfo buildToward(RobotController rc, int type, MapLocation towards, boolean keepReserves)
+            throws GameActionException {
+        UnitType unit = UNITS[type];
+        if (keepReserves && (rc.getMoney() < unit.moneyCost + upgradeReserve(rc) ||
+                rc.getPaint() < unit.paintCost + paintReserve(rc))) {
+            return null;
+        }
+        MapLocation spawn = spawnTile(rc, unit, towards);
+        if (spawn == null) {
+            return null;
+        }
+        spent(unit.moneyCost, unit.paintCost);
+        rc.buildRobot(unit, spawn);
+        built++;
+        // the cached robots do not have the new one yet
+        Sense.invalidate();
+        rc.setIndicatorString("BUILT A " + unit + " (" + built + " so far)");
+        return rc.senseRobotAtLocation(spawn);
+    }
+
+    // the free tile in build range closest to target, enemy paint counting as further
+    static MapLocation spawnTile(RobotController rc, UnitType unit, MapLocation target) throws GameActionException {
+        MapLocation rcLoc = rc.getLocation();
+        MapLocation best = null;
+        int bestScore = Integer.MAX_VALUE;
+        for (int i = SPAWN_DX.length; --i >= 0;) {
+            MapLocation loc = rcLoc.translate(SPAWN_DX[i], SPAWN_DY[i]);
+            if (!rc.canBuildRobot(unit, loc)) {
+                continue;
+            }
+            int score = loc.distanceSquaredTo(target);
+            PaintType paint = Sense.tile(rc, loc).getPaint();
+            if (paint == PaintType.ENEMY_PRIMARY || paint == PaintType.ENEMY_SECONDARY) {
+                score += ENEMY_PAINT_SPAWN_PENALTY;
+            }
+            if (score < bestScore) {
+                bestScore = score;
+                best = loc;
+            }
+        }
+        return best;
+    }
+}
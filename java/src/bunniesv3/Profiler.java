@@ -0,0 +1,111 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Bytecode profiler that brackets named phases of a turn with Clock.getBytecodeNum().
+ * Every call site is written as
+ *     if (Profiler.ENABLED) Profiler.begin(Profiler.SENSE);
+ * so that javac removes the call completely when ENABLED is false and production builds pay nothing.
+ *
+ * Statics are not shared between robots, so each robot keeps its own totals and prints them tagged with its
+ * unit type. Grep the match output for "[prof]" and group by the second column to get per-unit-type numbers.
+ */
+public class Profiler {
+    static final boolean ENABLED = false;
+
+    // Phases. TURN wraps the whole turn, the others can be nested inside it (and inside each other).
+    static final int TURN = 0;
+    static final int SENSE = 1;
+    static final int MEMORY_UPDATE = 2;
+    static final int MESSAGES = 3;
+    static final int CONVOLUTION = 4;
+    static final int PATHFINDING = 5;
+    static final int ATTACK = 6;
+    static final int RUIN = 7;
+    static final String[] PHASE_NAMES = new String[] {
+            "TURN", "SENSE", "MEMORY_UPDATE", "MESSAGES", "CONVOLUTION", "PATHFINDING", "ATTACK", "RUIN"
+    };
+    static final int PHASE_COUNT = PHASE_NAMES.length;
+
+    // histogram buckets are BUCKET_SIZE bytecodes wide, the last bucket collects everything above
+    static final int BUCKET_SIZE = 1000;
+    static final int BUCKET_COUNT = 16;
+    // robots can die or the match can end early, so also print a checkpoint every DUMP_INTERVAL rounds
+    static final int DUMP_INTERVAL = 500;
+
+    static int[] phaseStart = new int[PHASE_COUNT];
+    static int[] phaseTotal = new int[PHASE_COUNT];
+    static int[] phaseCalls = new int[PHASE_COUNT];
+    static int[] phaseMax = new int[PHASE_COUNT];
+    // phase ended after a Clock.yield() or a bytecode overflow, so the measurement is meaningless
+    static int[] phaseOverflows = new int[PHASE_COUNT];
+    static int[][] phaseHistogram = new int[PHASE_COUNT][BUCKET_COUNT];
+
+    static int lastRound = -1;
+    static int turns = 0;
+    static int skippedTurns = 0;
+
+    static void begin(int phase) {
+        phaseStart[phase] = Clock.getBytecodeNum();
+    }
+
+    static void end(int phase) {
+        int used = Clock.getBytecodeNum() - phaseStart[phase];
+        if (used < 0) {
+            phaseOverflows[phase]++;
+            return;
+        }
+        phaseTotal[phase] += used;
+        phaseCalls[phase]++;
+        if (used > phaseMax[phase]) {
+            phaseMax[phase] = used;
+        }
+        int bucket = used / BUCKET_SIZE;
+        phaseHistogram[phase][bucket < BUCKET_COUNT ? bucket : BUCKET_COUNT - 1]++;
+    }
+
+    /*
+     * Called at the top of the turn loop. Detects turns that were skipped because the previous turn ran
+     * out of bytecodes.
+     */
+    static void startTurn(RobotController rc) {
+        int round = rc.getRoundNum();
+        if (lastRound >= 0 && round - lastRound > 1) {
+            skippedTurns += round - lastRound - 1;
+        }
+        lastRound = round;
+        turns++;
+        begin(TURN);
+    }
+
+    /*
+     * Called right before Clock.yield(). Prints the summary on checkpoint rounds and on the last round.
+     */
+    static void endTurn(RobotController rc) {
+        end(TURN);
+        int round = rc.getRoundNum();
+        if (round % DUMP_INTERVAL == 0 || round >= GameConstants.GAME_MAX_NUMBER_OF_ROUNDS - 1) {
+            dump(rc);
+        }
+    }
+
+    static void dump(RobotController rc) {
+        String tag = "[prof] " + rc.getType() + " #" + rc.getID() + " r" + rc.getRoundNum();
+        System.out.println(tag + " turns=" + turns + " skipped=" + skippedTurns);
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            int calls = phaseCalls[phase];
+            if (calls == 0 && phaseOverflows[phase] == 0) {
+                continue;
+            }
+            StringBuilder histogram = new StringBuilder();
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                if (bucket > 0) histogram.append(',');
+                histogram.append(phaseHistogram[phase][bucket]);
+            }
+            System.out.println(tag + " " + PHASE_NAMES[phase] + " calls=" + calls +
+                    " avg=" + (calls == 0 ? 0 : phaseTotal[phase] / calls) + " max=" + phaseMax[phase] +
+                    " overflows=" + phaseOverflows[phase] + " hist=" + histogram);
+        }
+    }
+}
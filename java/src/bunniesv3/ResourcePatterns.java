@@ -0,0 +1,159 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Special resource patterns: where soldiers can put them, which are done, and the soldier's turn at one.
+ *
+ * Pattern centers lie on a fixed lattice, x and y both 2 modulo 5, so the 5x5 patterns of neighboring centers tile
+ * the map without overlapping and every soldier picks the same centers without talking about it. Each tile belongs to
+ * exactly one lattice window, at bit (x % 5) * 5 + y % 5 (PatternPlanner's cell order), so the sliding-window check
+ * "all 25 tiles on the map, passable and away from ruins" is kept incrementally: observe() sets a window's bit when
+ * one of its tiles is seen passable, and blocks the window when it sees a wall in it or a ruin within Chebyshev
+ * distance 4 of its center (the ruin's tower pattern would overlap). A window is usable once all 25 bits are set.
+ *
+ * A usable window is DONE once a soldier completed it or a tile seen later says its center is an active pattern,
+ * and open again if its center is seen without one (enemy paint broke it). Windows with enemy paint inside are
+ * skipped for RETRY_ROUNDS, since soldiers cannot paint over it. Done and skipped windows get no paint.
+ */
+public class ResourcePatterns {
+    static final int LATTICE = GameConstants.PATTERN_SIZE;
+    static final int COLUMNS = (GameConstants.MAP_MAX_WIDTH + LATTICE - 1) / LATTICE;
+    static final int ALL_CELLS = (1 << PatternPlanner.CELLS) - 1;
+    // rounds a window with enemy paint in it is left alone
+    static final int RETRY_ROUNDS = 50;
+    // soldiers walk to the center until it is within this distance, then PatternPlanner takes over
+    static final int APPROACH_DISTANCE_SQUARED = 8;
+
+    static final int OPEN = 0;
+    static final int BLOCKED = 1;
+    static final int DONE = 2;
+
+    // per window: the cells seen passable, the state, and the round until which it is skipped
+    static int[] freeCells = new int[COLUMNS * COLUMNS];
+    static int[] state = new int[COLUMNS * COLUMNS];
+    static int[] retryRound = new int[COLUMNS * COLUMNS];
+
+    // the center this soldier is working on, or null
+    static MapLocation target = null;
+
+    static int window(int x, int y) {
+        return (x / LATTICE) * COLUMNS + y / LATTICE;
+    }
+
+    static MapLocation center(int window) {
+        return new MapLocation((window / COLUMNS) * LATTICE + 2, (window % COLUMNS) * LATTICE + 2);
+    }
+
+    /*
+     * Records a tile that came into vision (called from BfsPathfinder.updateTerrain).
+     */
+    static void observe(MapInfo tile) {
+        MapLocation loc = tile.getMapLocation();
+        if (tile.hasRuin()) {
+            // block every window whose center is within Chebyshev distance 4 of the ruin
+            int minX = Math.max(0, Math.floorDiv(loc.x - 6 + LATTICE - 1, LATTICE));
+            int maxX = Math.min(COLUMNS - 1, Math.floorDiv(loc.x + 2, LATTICE));
+            int minY = Math.max(0, Math.floorDiv(loc.y - 6 + LATTICE - 1, LATTICE));
+            int maxY = Math.min(COLUMNS - 1, Math.floorDiv(loc.y + 2, LATTICE));
+            for (int wx = minX; wx <= maxX; wx++) {
+                for (int wy = minY; wy <= maxY; wy++) {
+                    state[wx * COLUMNS + wy] = BLOCKED;
+                }
+            }
+            return;
+        }
+        int window = window(loc.x, loc.y);
+        if (state[window] == BLOCKED) {
+            return;
+        }
+        if (!tile.isPassable()) {
+            state[window] = BLOCKED;
+            return;
+        }
+        freeCells[window] |= 1 << ((loc.x % LATTICE) * LATTICE + loc.y % LATTICE);
+        if (loc.x % LATTICE == 2 && loc.y % LATTICE == 2) {
+            state[window] = tile.isResourcePatternCenter() ? DONE : OPEN;
+        }
+    }
+
+    static boolean usable(int window, int round) {
+        return state[window] == OPEN && freeCells[window] == ALL_CELLS && retryRound[window] <= round;
+    }
+
+    /*
+     * The nearest usable center within Params.RESOURCE_PATTERN_RANGE, or null.
+     */
+    static MapLocation nearestCenter(RobotController rc) {
+        MapLocation rcLoc = rc.getLocation();
+        int round = rc.getRoundNum();
+        int range = (int) Math.sqrt(Params.RESOURCE_PATTERN_RANGE);
+        int minX = Math.max(0, (rcLoc.x - range) / LATTICE);
+        int maxX = Math.min(COLUMNS - 1, (rcLoc.x + range) / LATTICE);
+        int minY = Math.max(0, (rcLoc.y - range) / LATTICE);
+        int maxY = Math.min(COLUMNS - 1, (rcLoc.y + range) / LATTICE);
+        MapLocation best = null;
+        int bestDistance = Params.RESOURCE_PATTERN_RANGE + 1;
+        for (int wx = minX; wx <= maxX; wx++) {
+            for (int wy = minY; wy <= maxY; wy++) {
+                int window = wx * COLUMNS + wy;
+                if (!usable(window, round)) {
+                    continue;
+                }
+                int dx = wx * LATTICE + 2 - rcLoc.x;
+                int dy = wy * LATTICE + 2 - rcLoc.y;
+                int distance = dx * dx + dy * dy;
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = center(window);
+                }
+            }
+        }
+        return best;
+    }
+
+    /*
+     * Soldier: walks to the nearest usable center, marks the pattern, paints it with PatternPlanner and completes
+     * it. Returns true if the robot painted or moved for a pattern.
+     */
+    static boolean work(RobotController rc) throws GameActionException {
+        int round = rc.getRoundNum();
+        if (target == null || !usable(window(target.x, target.y), round)) {
+            target = nearestCenter(rc);
+            if (target == null) {
+                return false;
+            }
+        }
+        int window = window(target.x, target.y);
+        MapLocation rcLoc = rc.getLocation();
+        if (rcLoc.distanceSquaredTo(target) > APPROACH_DISTANCE_SQUARED) {
+            new OrbitPathfinder(rc, target).step();
+            return true;
+        }
+        MapInfo centerTile = Sense.tile(rc, target);
+        if (centerTile.isResourcePatternCenter()) {
+            state[window] = DONE;
+            target = null;
+            return false;
+        }
+        if (centerTile.getMark() == PaintType.EMPTY && rc.canMarkResourcePattern(target)) {
+            rc.markResourcePattern(target);
+            // the marks are new, the cached tiles do not have them
+            Sense.invalidate();
+        }
+        PatternPlanner.scan(rc, target);
+        if (PatternPlanner.enemyPaint != 0) {
+            retryRound[window] = round + RETRY_ROUNDS;
+            target = null;
+            return false;
+        }
+        boolean acted = PatternPlanner.step(rc);
+        if (PatternPlanner.todo == 0 && PatternPlanner.marked == ALL_CELLS &&
+                rc.canCompleteResourcePattern(target)) {
+            rc.completeResourcePattern(target);
+            state[window] = DONE;
+            target = null;
+        }
+        return acted;
+    }
+}
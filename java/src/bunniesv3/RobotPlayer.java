@@ -46,18 +46,15 @@ public class RobotPlayer {
     };
     
     static HashMap<Direction, Integer> directionToInteger = new HashMap<>();
-    static HashMap<MapLocation, Integer> mapMemory = new HashMap<>(); 
-    //Each integer represents something different: 1 - ruin, 2 - friendly paint tower, 3 - friendly chip tower, 4 - friendly defense tower, 
-    //5 - enemy paint tower, 6 - enemy chip tower, 7 - enemy defense tower, 8 - locations where enemy paint was seen
-    static HashMap<Integer, HashSet<MapLocation>> importantLocations = new HashMap<>();
-    //Using the same integer pattern as mapMemory, keeps track of all coordinates/tiles with corresponding important structure
+    //What this robot remembers about the map (ruins, towers, enemy paint) lives in MapMemory
     
     static Direction prevDir = Direction.CENTER; //previous direction robot moved (if robot is a bunny)
     static MapLocation prevLoc = new MapLocation(0,0);
     static LinkedList<MapLocation> path = new LinkedList<>();
     static Direction dir = Direction.CENTER;
     static MapLocation targetLoc = null;
-    static OrbitPathfinder navigator = null;
+    static Navigator navigator = null;
+    static int mopperNavigationMode = Navigator.ORBIT;
     
 
     /**
@@ -69,7 +66,41 @@ public class RobotPlayer {
      **/
     @SuppressWarnings("unused")
     public static void run(RobotController rc) throws GameActionException {
-        rng = new Random(RANDOM_SEED + 60 * 60 * rc.getRoundNum() + 60 * rc.getLocation().x + rc.getLocation().y);
+        init(rc);
+        
+        while (true) {
+            // This code runs during the entire lifespan of the robot, which is why it is in an infinite
+            // loop. If we ever leave this loop and return from run(), the robot dies! At the end of the
+            // loop, we call Clock.yield(), signifying that we've done everything we want to do.
+            runTurn(rc);
+            Clock.yield();
+            // End of loop: go back to the top. Clock.yield() has ended, so it's time for another turn!
+        }
+
+        // Your code should never reach here (unless it's intentional)! Self-destruction imminent...
+    }
+
+    /**
+     * RANDOM_SEED, unless the match was started with -Dbc.testing.seed (the engine lets robots read bc.testing.*
+     * properties), which the regression gate uses to play otherwise identical matches differently.
+     */
+    static long gameSeed() {
+        String seed = System.getProperty("bc.testing.seed");
+        if (seed != null) {
+            try {
+                return Long.parseLong(seed);
+            } catch (NumberFormatException e) {
+            }
+        }
+        return RANDOM_SEED;
+    }
+
+    /**
+     * Everything run() does once, before the first turn: seeding, the static tables and the task list of this
+     * robot's TurnScheduler.
+     */
+    static void init(RobotController rc) {
+        rng = new Random(gameSeed() + 60 * 60 * rc.getRoundNum() + 60 * rc.getLocation().x + rc.getLocation().y);
         // Hello world! Standard output is very useful for debugging.
         // Everything you say here will be directly viewable in your terminal when you run a match!
         System.out.println("I'm alive");
@@ -89,63 +120,107 @@ public class RobotPlayer {
         directionToInteger.put(Direction.WEST, 6);
         directionToInteger.put(Direction.NORTHWEST, 7);
         
-        //add empty sets to important locations
-        importantLocations.put(1,  new HashSet<MapLocation>());
-        importantLocations.put(2,  new HashSet<MapLocation>());
-        importantLocations.put(3,  new HashSet<MapLocation>());
-        importantLocations.put(4,  new HashSet<MapLocation>());
-        importantLocations.put(5,  new HashSet<MapLocation>());
-        importantLocations.put(6,  new HashSet<MapLocation>());
-        importantLocations.put(7,  new HashSet<MapLocation>());
-        importantLocations.put(8,  new HashSet<MapLocation>());
-        
         //update prevLoc to be current location
         prevLoc = rc.getLocation();
         path.addLast(prevLoc);
         team = rc.getTeam();
         
-        while (true) {
-            // This code runs during the entire lifespan of the robot, which is why it is in an infinite
-            // loop. If we ever leave this loop and return from run(), the robot dies! At the end of the
-            // loop, we call Clock.yield(), signifying that we've done everything we want to do.
+        // The same run() function is called for every robot on your team, even if they are
+        // different types. Here, we separate the control depending on the UnitType, so we can
+        // use different strategies on different robots. Attacks and moves are critical, the
+        // rest is deferred when the turn runs low on bytecodes.
+        switch (rc.getType()) {
+            case SOLDIER:
+                TurnScheduler.register(TurnScheduler.MOVE, TurnScheduler.CRITICAL, 0, r -> { runSoldier(r); return true; });
+                TurnScheduler.register(TurnScheduler.ATTACK, TurnScheduler.CRITICAL, 0, r -> { paintBeneath(r); return true; });
+                // terrain for the resource pattern windows
+                TurnScheduler.register(TurnScheduler.MEMORY_UPDATE, TurnScheduler.DEFERRABLE, 2000, r -> {
+                    if (Profiler.ENABLED) Profiler.begin(Profiler.MEMORY_UPDATE);
+                    BfsPathfinder.updateTerrain(r);
+                    if (Profiler.ENABLED) Profiler.end(Profiler.MEMORY_UPDATE);
+                    return true;
+                });
+                TurnScheduler.register(TurnScheduler.MESSAGES, TurnScheduler.DEFERRABLE, 600, Gossip::merge);
+                break;
+            case MOPPER:
+                TurnScheduler.register(TurnScheduler.MOVE, TurnScheduler.CRITICAL, 0, r -> { runMopper(r); return true; });
+                TurnScheduler.register(TurnScheduler.ATTACK, TurnScheduler.CRITICAL, 0, r -> { mopperSwing(r); return true; });
+                TurnScheduler.register(TurnScheduler.MEMORY_UPDATE, TurnScheduler.DEFERRABLE, 2500, r -> {
+                    if (Profiler.ENABLED) Profiler.begin(Profiler.MEMORY_UPDATE);
+                    Mopper.updateMapMemory(r);
+                    if (Profiler.ENABLED) Profiler.end(Profiler.MEMORY_UPDATE);
+                    return true;
+                });
+                TurnScheduler.register(TurnScheduler.MESSAGES, TurnScheduler.DEFERRABLE, 600, Gossip::merge);
+                break;
+            case SPLASHER:
+                TurnScheduler.register(TurnScheduler.ATTACK, TurnScheduler.CRITICAL, 0, r -> { runSplasher(r); return true; });
+                TurnScheduler.register(TurnScheduler.MOVE, TurnScheduler.CRITICAL, 0, r -> { splasherMove(r); return true; });
+                TurnScheduler.register(TurnScheduler.MEMORY_UPDATE, TurnScheduler.DEFERRABLE, 1500, r -> {
+                    if (Profiler.ENABLED) Profiler.begin(Profiler.MEMORY_UPDATE);
+                    if (splasherNearbyRobots != null) {
+                        SplasherMemory.updateRobotMemory(r, splasherNearbyRobots);
+                    }
+                    if (Profiler.ENABLED) Profiler.end(Profiler.MEMORY_UPDATE);
+                    return true;
+                });
+                TurnScheduler.register(TurnScheduler.MESSAGES, TurnScheduler.DEFERRABLE, 600, Gossip::merge);
+                TurnScheduler.register(TurnScheduler.BOOKKEEPING, TurnScheduler.DEFERRABLE, 200, RobotPlayer::recordPath);
+                break;
+            default:
+                // towers have the budget for everything, one task keeps their skipped turns counted
+                TurnScheduler.register(TurnScheduler.ATTACK, TurnScheduler.CRITICAL, 0, r -> { runTower(r); return true; });
+                break;
+        }
+    }
 
-            turnCount += 1;  // We have now been alive for one more turn!
+    /**
+     * One turn of the loop in run(), everything except the Clock.yield().
+     */
+    static void runTurn(RobotController rc) {
+        turnCount += 1;  // We have now been alive for one more turn!
+        if (Profiler.ENABLED) Profiler.startTurn(rc);
 
-            // Try/catch blocks stop unhandled exceptions, which cause your robot to explode.
-            try {
-                // The same run() function is called for every robot on your team, even if they are
-                // different types. Here, we separate the control depending on the UnitType, so we can
-                // use different strategies on different robots. If you wish, you are free to rewrite
-                // this into a different control structure!
-                switch (rc.getType()){
-                    case SOLDIER: runSoldier(rc); break; 
-                    case MOPPER: runMopper(rc); break;
-                    case SPLASHER: runSplasher(rc); break; // Consider upgrading examplefuncsplayer to use splashers!
-                    default: runTower(rc); break;
-                    }
-                }
-             catch (GameActionException e) {
-                // Oh no! It looks like we did something illegal in the Battlecode world. You should
-                // handle GameActionExceptions judiciously, in case unexpected events occur in the game
-                // world. Remember, uncaught exceptions cause your robot to explode!
-                System.out.println("GameActionException");
-                e.printStackTrace();
-
-            } catch (Exception e) {
-                // Oh no! It looks like our code tried to do something bad. This isn't a
-                // GameActionException, so it's more likely to be a bug in our code.
-                System.out.println("Exception");
-                e.printStackTrace();
-
-            } finally {
-                // Signify we've done everything we want to do, thereby ending our turn.
-                // This will make our code wait until the next turn, and then perform this loop again.
-                Clock.yield();
+        // Try/catch blocks stop unhandled exceptions, which cause your robot to explode.
+        try {
+            if (!rc.getType().isTowerType()) {
+                // units decode their messages up front (runSplasher needs them before it attacks), towers do
+                // it in runTower. Ruin claims are needed before the unit picks a ruin, merging the tower
+                // sightings is a deferrable task.
+                if (Profiler.ENABLED) Profiler.begin(Profiler.MESSAGES);
+                MessageCodec.receive(rc);
+                RuinClaims.merge(rc);
+                if (Profiler.ENABLED) Profiler.end(Profiler.MESSAGES);
             }
-            // End of loop: go back to the top. Clock.yield() has ended, so it's time for another turn!
+            // exceptions inside a task are caught and printed by the scheduler
+            TurnScheduler.runTurn(rc);
+        } catch (Exception e) {
+            // Oh no! It looks like our code tried to do something bad. This isn't a
+            // GameActionException, so it's more likely to be a bug in our code.
+            System.out.println("Exception");
+            e.printStackTrace();
+
+        } finally {
+            // Signify we've done everything we want to do, thereby ending our turn.
+            // The caller yields, so that this loop can wait until the next turn.
+            if (!rc.getType().isTowerType()) {
+                RuinClaims.report(rc);
+                Gossip.report(rc);
+            }
+            MessageCodec.flush(rc);
+            if (Profiler.ENABLED) Profiler.endTurn(rc);
+            if (TurnScheduler.REPORT) TurnScheduler.endTurn(rc);
         }
+    }
 
-        // Your code should never reach here (unless it's intentional)! Self-destruction imminent...
+    /**
+     * Creates the navigator for the given mode (Navigator.ORBIT or Navigator.BFS).
+     */
+    static Navigator newNavigator(RobotController rc, MapLocation dest, int mode) {
+        if (mode == Navigator.BFS) {
+            return new BfsPathfinder(rc, dest);
+        }
+        return new OrbitPathfinder(rc, dest);
     }
 
     /**
@@ -154,26 +229,34 @@ public class RobotPlayer {
      */
     static void runTower(RobotController rc) throws GameActionException{
     	// Sense information about all visible nearby tiles and robots.
-        MapInfo[] nearbyTiles = rc.senseNearbyMapInfos();
-        RobotInfo[] nearbyRobots = rc.senseNearbyRobots();
+        if (Profiler.ENABLED) Profiler.begin(Profiler.SENSE);
+        MapInfo[] nearbyTiles = Sense.tiles(rc);
+        RobotInfo[] nearbyRobots = Sense.robots(rc);
+        if (Profiler.ENABLED) Profiler.end(Profiler.SENSE);
+        ProductionPlanner.observe(rc);
         
         // Planned turn-based actions
         Tower.runTurnBasedActions(rc);
         
         // Read incoming messages
-        UnpackedMessage[] unpackedMessages = UnpackedMessage.receiveAndDecode(rc);
+        if (Profiler.ENABLED) Profiler.begin(Profiler.MESSAGES);
+        MessageCodec.receive(rc);
         
-        Tower.actOnMessages(rc, unpackedMessages, nearbyTiles, nearbyRobots);
+        Tower.actOnMessages(rc, nearbyTiles, nearbyRobots);
+        Gossip.shareWithVisitors(rc, nearbyRobots);
+        RuinClaims.shareWithVisitors(rc, nearbyRobots);
+        if (Profiler.ENABLED) Profiler.end(Profiler.MESSAGES);
         
+        if (Profiler.ENABLED) Profiler.begin(Profiler.ATTACK);
         Tower.attackPattern0(rc, nearbyTiles, nearbyRobots);
+        if (Profiler.ENABLED) Profiler.end(Profiler.ATTACK);
     	
         if (state == "DEFAULT") { // Run all the default behavior
         	if (turnCount < 3) { //spawns soldiers at the beginning of the game
-        		Tower.createRobot(rc, 0);
+        		ProductionPlanner.build(rc, ProductionPlanner.SOLDIER, false);
+        	} else {
+        		ProductionPlanner.run(rc);
         	}
-    		if (rc.getPaint() >= 400 && rc.getMoney() >= 700) {
-    			Tower.createRobot(rc);
-    		}
         }
         
     }
@@ -186,7 +269,9 @@ public class RobotPlayer {
 
     public static void runSoldier(RobotController rc) throws GameActionException{
     	// Sense information about all visible nearby tiles.
-        MapInfo[] nearbyTiles = rc.senseNearbyMapInfos();
+        if (Profiler.ENABLED) Profiler.begin(Profiler.SENSE);
+        MapInfo[] nearbyTiles = Sense.tiles(rc);
+        if (Profiler.ENABLED) Profiler.end(Profiler.SENSE);
         boolean isMarking = false;
         
         // Search for a nearby ruin to complete.
@@ -194,29 +279,35 @@ public class RobotPlayer {
         MapInfo posRuin = null;
         MapInfo enemyTowerRuin = null;
 
+        if (Profiler.ENABLED) Profiler.begin(Profiler.RUIN);
         for (MapInfo tile : nearbyTiles){
             if (tile.hasRuin()){
             	if (curRuin != null) {
             		if (curRuin.getMapLocation().distanceSquaredTo(rc.getLocation()) > tile.getMapLocation().distanceSquaredTo(rc.getLocation())) {
             			Soldier.checkTowerLoc(rc, tile);
-            			posRuin = Soldier.checkMarking(rc, tile);
+            			// ruins other soldiers claimed are left to them
+            			posRuin = RuinClaims.claimedByOther(rc, tile.getMapLocation(), true) ? null
+            					: Soldier.checkMarking(rc, tile);
                         if (posRuin != null)
                             curRuin = posRuin;
             		}
             	} else {
             		Soldier.checkTowerLoc(rc, tile);
-                    curRuin = Soldier.checkMarking(rc, tile);
+                    curRuin = RuinClaims.claimedByOther(rc, tile.getMapLocation(), true) ? null
+                            : Soldier.checkMarking(rc, tile);
             	}
                 
-                if (rc.senseRobotAtLocation(tile.getMapLocation()) != null) {
-                    if (rc.senseRobotAtLocation(tile.getMapLocation()).getTeam().equals(rc.getTeam().opponent())) {
+                RobotInfo robotOnRuin = Sense.robotAt(rc, tile.getMapLocation());
+                if (robotOnRuin != null) {
+                    if (robotOnRuin.getTeam().equals(rc.getTeam().opponent())) {
                         enemyTowerRuin = tile;
-                        rc.setIndicatorString("" + rc.senseRobotAtLocation(tile.getMapLocation()).getTeam());//.toString());
+                        rc.setIndicatorString("" + robotOnRuin.getTeam());//.toString());
                     }
                 }
                 
             }
         }
+        if (Profiler.ENABLED) Profiler.end(Profiler.RUIN);
 
         //rc.setIndicatorString("Deciding action");
     
@@ -228,7 +319,15 @@ public class RobotPlayer {
             Soldier.retreatForPaint(rc);
         } else if (curRuin != null){
             rc.setIndicatorString("Building tower");
-            isMarking = Soldier.paintNewTower(rc, curRuin);
+            RuinClaims.claim(rc, curRuin.getMapLocation(), true);
+            isMarking = Soldier.paintNewTower(rc, curRuin, nearbyTiles);
+        }
+        if (curRuin == null) {
+            RuinClaims.release();
+            if (enemyTowerRuin == null && rc.getPaint() > 75) {
+                rc.setIndicatorString("Building resource pattern");
+                isMarking = ResourcePatterns.work(rc);
+            }
         }
         
         if (!isMarking) {
@@ -247,15 +346,27 @@ public class RobotPlayer {
                 rc.move(dir);
             }
         }
+        
+        prevLoc = rc.getLocation();
+        prevDir = dir;
+    }
+
+    /**
+     * Soldier attack task, runs after runSoldier has moved.
+     */
+    static void paintBeneath(RobotController rc) throws GameActionException {
         // Try to paint beneath us as we walk to avoid paint penalties.
         // Avoiding wasting paint by re-painting our own tiles.
-        MapInfo currentTile = rc.senseMapInfo(rc.getLocation());
+        // Marked tiles get the color of their mark, so walking over a pattern does not spoil it.
+        MapInfo currentTile = Sense.tile(rc, rc.getLocation());
         if (!currentTile.getPaint().isAlly() && rc.canAttack(rc.getLocation())) {
-            Soldier.attackCheckered(rc, rc.getLocation());
+            PaintType mark = currentTile.getMark();
+            if (mark == PaintType.EMPTY) {
+                Soldier.attackCheckered(rc, rc.getLocation());
+            } else {
+                rc.attack(rc.getLocation(), mark == PaintType.ALLY_SECONDARY);
+            }
         }
-        
-        prevLoc = rc.getLocation();
-        prevDir = dir;
     }
 
     /**
@@ -264,7 +375,7 @@ public class RobotPlayer {
      */
     public static void runMopper(RobotController rc) throws GameActionException{
     	
-    	Mopper.updateMapMemory(rc);
+    	// MapMemory is updated by the deferrable MEMORY_UPDATE task, after the move
     	MapLocation currentLocation = rc.getLocation();
     	dir = prevDir;
     	
@@ -284,7 +395,7 @@ public class RobotPlayer {
         Direction attackDirection = Mopper.nearbyEnemyPaintDirection(rc, 2);
         //Once movement direction is chosen, make sure that spot is NOT an enemy paint tile, if it is:
         try {
-        	PaintType nextLocPaint = rc.senseMapInfo(nextLocation).getPaint();
+        	PaintType nextLocPaint = Sense.tile(rc, nextLocation).getPaint();
 	        if ((nextLocPaint.equals(PaintType.ENEMY_PRIMARY) || nextLocPaint.equals(PaintType.ENEMY_SECONDARY)) && rc.canAttack(nextLocation)){
 	            rc.attack(nextLocation);
 	        }
@@ -301,7 +412,7 @@ public class RobotPlayer {
         //UNCOMMENT OUT UP TO THE ELSE IF STATEMENT IF RETREATING MOPPERS IS WANTED
         MapLocation nearestPaintTowerLoc = Mopper.findNearestStructure(rc, 2);
         Direction paintTowerDir = currentLocation.directionTo(nearestPaintTowerLoc); //direction of nearest paint tower; default = dir if the following if statement is not satisfied
-        boolean isLowOnPaint = rc.getPaint() < 30; //the threshold 50 should be changed to an adjustable variable 
+        boolean isLowOnPaint = rc.getPaint() < Params.MOPPER_PAINT_RETREAT_THRESHOLD;
         boolean isTowerAdjacent = currentLocation.add(paintTowerDir).equals(nearestPaintTowerLoc); 
         boolean useNavigator = false;
         
@@ -312,8 +423,8 @@ public class RobotPlayer {
         
         //low on paint
         else if (isLowOnPaint && !useNavigator) { //retreat case
-    		if (!rc.senseMapInfo(currentLocation.add(paintTowerDir)).isPassable()) {
-    			navigator = new OrbitPathfinder(rc, nearestPaintTowerLoc);
+    		if (!Sense.tile(rc, currentLocation.add(paintTowerDir)).isPassable()) {
+    			navigator = newNavigator(rc, nearestPaintTowerLoc, mopperNavigationMode);
     			navigator.step();
     			useNavigator = true;
     		}
@@ -324,7 +435,7 @@ public class RobotPlayer {
         
         else if (isLowOnPaint && useNavigator) {
         	navigator.step();
-        	useNavigator = !rc.senseMapInfo(currentLocation.add(paintTowerDir)).isPassable();
+        	useNavigator = !Sense.tile(rc, currentLocation.add(paintTowerDir)).isPassable();
         }
         
     	
@@ -335,14 +446,14 @@ public class RobotPlayer {
         	if (useNavigator) {
         		navigator.step();
         		dir = currentLocation.directionTo(nearestEnemyPaint);
-        		useNavigator = !rc.senseMapInfo(currentLocation.add(dir)).isPassable();
+        		useNavigator = !Sense.tile(rc, currentLocation.add(dir)).isPassable();
         	}
         	else if (!nearestEnemyPaint.equals(currentLocation) && attackDirection.equals(Direction.CENTER)) {
 //        		targetLoc = nearestEnemyPaint;
         		dir = currentLocation.directionTo(nearestEnemyPaint);
-        		useNavigator = !rc.senseMapInfo(currentLocation.add(dir)).isPassable();
+        		useNavigator = !Sense.tile(rc, currentLocation.add(dir)).isPassable();
         		if (useNavigator) {
-        			navigator = new OrbitPathfinder(rc, nearestEnemyPaint);
+        			navigator = newNavigator(rc, nearestEnemyPaint, mopperNavigationMode);
         			navigator.step();
         		}
         	}
@@ -354,9 +465,9 @@ public class RobotPlayer {
         		nearestEnemyPaint = Mopper.nearbyEnemyPaint(rc);
         		Direction nearestEnemyPaintDir = currentLocation.directionTo(nearestEnemyPaint);
         		if (!nearestEnemyPaintDir.equals(Direction.CENTER)) { //if can see near enemy paint go there
-        			useNavigator = !rc.senseMapInfo(currentLocation.add(nearestEnemyPaintDir)).isPassable();
+        			useNavigator = !Sense.tile(rc, currentLocation.add(nearestEnemyPaintDir)).isPassable();
         			if (useNavigator) {
-        				navigator = new OrbitPathfinder(rc, nearestEnemyPaint);
+        				navigator = newNavigator(rc, nearestEnemyPaint, mopperNavigationMode);
             			navigator.step();
         			}
         			dir = nearestEnemyPaintDir;
@@ -376,16 +487,16 @@ public class RobotPlayer {
         
         //if there is adjacent friendly paint tiles in the direction of travel, prefer using them
         try {
-			if (!rc.senseMapInfo(nextLocation).getPaint().isAlly()) {
+			if (!Sense.tile(rc, nextLocation).getPaint().isAlly()) {
 		        boolean turnedLeft = false;
 		        try {
-		            if (rc.senseMapInfo(currentLocation.add(dir.rotateLeft())).getPaint().isAlly()) {
+		            if (Sense.tile(rc, currentLocation.add(dir.rotateLeft())).getPaint().isAlly()) {
 		                dir = dir.rotateLeft();
 		                turnedLeft = true;
 		            }
 		        } catch (GameActionException e) { } // exception added in case dir.rotateLeft() is off the map
 		        if (!turnedLeft) { try {
-				    if (rc.senseMapInfo(currentLocation.add(dir.rotateRight())).getPaint().isAlly()) {
+				    if (Sense.tile(rc, currentLocation.add(dir.rotateRight())).getPaint().isAlly()) {
 		                dir = dir.rotateRight();
 		            }
 		        } catch (GameActionException e) { } } // exception added in case dir.rotateRight() is off the map
@@ -416,8 +527,17 @@ public class RobotPlayer {
         
         //END OF MOVEMENT FOR MOPPER
         
-    	RobotInfo[] enemyRobotsInSwingRadius = Mopper.findEnemyRobots(rc, 2); //find all enemy robots within swinging distance
-    	if (enemyRobotsInSwingRadius.length > 0) {
+        prevDir = dir; //update previous direction
+//        updateEnemyRobots(rc);
+        
+    }
+
+    /**
+     * Mopper attack task, swings at enemy robots after runMopper has moved.
+     */
+    static void mopperSwing(RobotController rc) throws GameActionException {
+    	//any enemy robots within swinging distance
+    	if (Sense.enemiesWithin(rc, 2) > 0) {
     		Direction swingDir = Mopper.optimalSwing(rc); //find best direction to swing
         	
         	//if swingDir is center that means no enemies around 
@@ -426,10 +546,6 @@ public class RobotPlayer {
 //        		System.out.println("I did a mop swing and actually hit an enemy...");
         	}
     	}
-    	
-        prevDir = dir; //update previous direction
-//        updateEnemyRobots(rc);
-        
     }
     
     
@@ -440,37 +556,42 @@ public class RobotPlayer {
      * then picks a new direction to move in.
      */
     static Direction splasherDirection = null;
-    static float attackThreshold = 19.8f;
+    static float attackThreshold = Params.SPLASHER_ATTACK_THRESHOLD;
     static boolean isRetreating = false;
-    static int splasherPaintRetreatThreshold = 100;
+    static int splasherPaintRetreatThreshold = Params.SPLASHER_PAINT_RETREAT_THRESHOLD;
+    // shared by the splasher's tasks for the current turn; nearbyRobots is null on turns spent retreating
+    static RobotInfo[] splasherNearbyRobots = null;
+    static int splasherMarkRuinStatus = 0;
     static void runSplasher(RobotController rc) throws GameActionException {
-        if (rc.getRoundNum() >= 103 && rc.getID() == 12569) {
-            int djaf = 0;
-        }
         // Read messages. Currently only processes "take paint" and "paint denied"
-        for (UnpackedMessage message : UnpackedMessage.receiveAndDecode(rc)) {
-            if (message.message.getRound() == rc.getRoundNum()) {
-                if (message.command == UnpackedMessage.TAKE_PAINT) {
-                    if (message.turnInfo == UnpackedMessage.INVALID_ROUND_NUM) {
-                        // guess at a paint amount to take
-                        for (int transfer = 300; transfer > 0; transfer -= 50) {
-                            if (rc.canTransferPaint(message.locInfo, -transfer)) {
-                                rc.transferPaint(message.locInfo, -transfer);
-                            }
-                        }
-                    } else {
-                            // message.turnInfo is the amount that Splasher may take
-                            int transfer = Math.min(message.turnInfo, 300 - rc.getPaint());
-                            if (rc.canTransferPaint(message.locInfo, -transfer)) {
-                                rc.transferPaint(message.locInfo, -transfer);
-                            }
+        if (Profiler.ENABLED) Profiler.begin(Profiler.MESSAGES);
+        // the run loop already decoded this turn's messages
+        for (int i = 0; i < MessageCodec.slotCount; i++) {
+            if (MessageCodec.slotRound[i] != rc.getRoundNum()) {
+                continue;
+            }
+            if (MessageCodec.slotTag[i] == MessageCodec.PAINT_GRANT) {
+                MapLocation tower = new MapLocation(MessageCodec.slotX[i], MessageCodec.slotY[i]);
+                if (MessageCodec.slotCommand[i] == 0) {
+                    // guess at a paint amount to take
+                    for (int transfer = 300; transfer > 0; transfer -= 50) {
+                        if (rc.canTransferPaint(tower, -transfer)) {
+                            rc.transferPaint(tower, -transfer);
                         }
                     }
-                else if (message.command == UnpackedMessage.PAINT_DENIED) {
-                    SplasherMemory.addRejectedTower(message.message.getSenderID(), rc.getRoundNum());
+                } else {
+                    // slotCommand is the amount that Splasher may take
+                    int transfer = Math.min(MessageCodec.slotCommand[i], 300 - rc.getPaint());
+                    if (rc.canTransferPaint(tower, -transfer)) {
+                        rc.transferPaint(tower, -transfer);
+                    }
                 }
+            } else if (MessageCodec.slotTag[i] == MessageCodec.ORDER &&
+                    MessageCodec.slotCommand[i] == MessageCodec.PAINT_DENIED) {
+                SplasherMemory.addRejectedTower(MessageCodec.slotSender[i], rc.getRoundNum());
             }
         }
+        if (Profiler.ENABLED) Profiler.end(Profiler.MESSAGES);
 
         // if it's retreating, run the retreating function. Alo make sure that it actually needs to be retreating
         if (isRetreating) {
@@ -480,73 +601,98 @@ public class RobotPlayer {
             }
             SplasherRetreat.retreat(rc);
         }
+        splasherNearbyRobots = null;
         // check if we need to be retreating (due to low paint or damage). If we are, set the static variables.
         if (rc.getPaint() < splasherPaintRetreatThreshold) {
             isRetreating = true;
             navigator = null;
             splasherDirection = null;
-            attackThreshold = 19;
+            attackThreshold = Params.SPLASHER_ATTACK_THRESHOLD_AFTER_RETREAT;
             MarkRuin.ruinLocation = null;
             MarkRuin.pathfinder = null;
+            RuinClaims.release();
             return;
         }
 
         // mark a ruin if it sees one
-        int markRuinStatus = MarkRuin.markIfFound(rc, null);
+        splasherMarkRuinStatus = MarkRuin.markIfFound(rc, null);
 
-        // sense tiles, update memory
-        MapInfo[] nearbyTiles = rc.senseNearbyMapInfos();
-        RobotInfo[] nearbyRobots = rc.senseNearbyRobots();
-        SplasherMemory.updateRobotMemory(rc, nearbyRobots);
-        OrbitPathfinder.avoidWithinRadius3 = SplasherMemory.enemyTowers;
+        // sense robots, SplasherMemory is updated from them by the deferrable MEMORY_UPDATE task
+        if (Profiler.ENABLED) Profiler.begin(Profiler.SENSE);
+        RobotInfo[] nearbyRobots = Sense.robots(rc);
+        if (Profiler.ENABLED) Profiler.end(Profiler.SENSE);
+        splasherNearbyRobots = nearbyRobots;
+        OrbitPathfinder.avoidEnemyTowers = true;
 
         // compute a good place to attack, and attack if it's good enough
         if (rc.getActionCooldownTurns() < GameConstants.COOLDOWN_LIMIT &&
                 rc.getPaint() >= UnitType.SPLASHER.attackCost) {
             // if it can attack, look around and maybe attack
-            MapLocation attackLocation = SplasherConvolution.computeAndAttack(rc, nearbyTiles, nearbyRobots,
-                    attackThreshold);
+            if (Profiler.ENABLED) Profiler.begin(Profiler.CONVOLUTION);
+            MapLocation attackLocation;
+            if (TurnScheduler.hasBudget(SplasherPlanner.BUDGET)) {
+                // may step first if a neighboring tile has the better splash
+                attackLocation = SplasherPlanner.planAndAttack(rc, nearbyRobots, attackThreshold,
+                        splasherMarkRuinStatus != 6);
+            } else {
+                // the unrolled version senses the 41 tiles it needs itself
+                attackLocation = SplasherConvolutionUnrolled.computeAndAttack(rc, nearbyRobots, attackThreshold);
+            }
+            if (Profiler.ENABLED) Profiler.end(Profiler.CONVOLUTION);
             if (attackLocation != null) {
-                attackThreshold = 18.0f;
-            } else if (attackThreshold > 3.0f) {
-                attackThreshold -= 0.1f;
+                attackThreshold = Params.SPLASHER_ATTACK_THRESHOLD_AFTER_ATTACK;
+            } else if (attackThreshold > Params.SPLASHER_ATTACK_THRESHOLD_MIN) {
+                attackThreshold -= Params.SPLASHER_ATTACK_THRESHOLD_DECAY;
             }
         }
+    }
 
+    /**
+     * Splasher move task, runs after runSplasher has attacked. Retreating splashers were moved by SplasherRetreat.
+     */
+    static void splasherMove(RobotController rc) throws GameActionException {
+        if (isRetreating) {
+            return;
+        }
         // move in a straight line until hitting a wall, the pick another random direction
-        if (rc.isMovementReady() && markRuinStatus != 6) {
+        if (rc.isMovementReady() && splasherMarkRuinStatus != 6) {
             if (splasherDirection == null) {
                 splasherDirection = directions[rng.nextInt(directions.length)];
             }
             MapLocation next = rc.getLocation().add(splasherDirection);
-            if (rc.canMove(splasherDirection) && SplasherMemory.enemyTowers.stream().noneMatch(enemyTowerLoc ->
-                    enemyTowerLoc.isWithinDistanceSquared(next, 9))) {
+            if (rc.canMove(splasherDirection) && !DangerMap.isDangerous(next)) {
                 rc.move(splasherDirection);
-                path.addLast(rc.getLocation());
             } else {
                 splasherDirection = null;
             }
         }
     }
 
+    /**
+     * Exploration bookkeeping: appends the current location to path if the robot moved since the last entry.
+     */
+    static boolean recordPath(RobotController rc) {
+        MapLocation location = rc.getLocation();
+        if (!location.equals(path.peekLast())) {
+            path.addLast(location);
+        }
+        return true;
+    }
+
 
     static void updateEnemyRobots(RobotController rc) throws GameActionException{
         // Sensing methods can be passed in a radius of -1 to automatically 
         // use the largest possible value.
-        RobotInfo[] enemyRobots = rc.senseNearbyRobots(-1, rc.getTeam().opponent());
-        if (enemyRobots.length != 0){
+        int enemyCount = Sense.enemyCount(rc);
+        if (enemyCount != 0){
             rc.setIndicatorString("There are nearby enemy robots! Scary!");
-            // Save an array of locations with enemy robots in them for possible future use.
-            MapLocation[] enemyLocations = new MapLocation[enemyRobots.length];
-            for (int i = 0; i < enemyRobots.length; i++){
-                enemyLocations[i] = enemyRobots[i].getLocation();
-            }
-            RobotInfo[] allyRobots = rc.senseNearbyRobots(-1, rc.getTeam());
+            int allyCount = Sense.allyCount(rc);
             // Occasionally try to tell nearby allies how many enemy robots we see.
             if (rc.getRoundNum() % 20 == 0){
-                for (RobotInfo ally : allyRobots){
-                    if (rc.canSendMessage(ally.location, enemyRobots.length)){
-                        rc.sendMessage(ally.location, enemyRobots.length);
+                for (int i = 0; i < allyCount; i++){
+                    MapLocation ally = Sense.allies[i].location;
+                    if (rc.canSendMessage(ally, enemyCount)){
+                        rc.sendMessage(ally, enemyCount);
                     }
                 }
             }
@@ -0,0 +1,216 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Claims on ruins, so that units spread over the ruins instead of all walking to the nearest one.
+ *
+ * A unit claims the ruin it picks until the round it expects to be done there: its distance plus
+ * Params.RUIN_CLAIM_BUILD_ROUNDS for soldiers, which paint the whole pattern, or Params.RUIN_CLAIM_MARK_ROUNDS for
+ * splashers, which only mark it. Soldiers renew their claim every turn they keep working on the ruin. The claim
+ * goes out as a MessageCodec CLAIM record (x, y, expiry round, owner) to the nearest friendly tower in message
+ * range, again whenever it was extended by RENEW_ROUNDS.
+ *
+ * Towers relay claims like Gossip relays tower sightings: a claim that changes a tower's table is broadcast to the
+ * other towers. Visiting units are sent the live claims one message per turn, to one visitor that has not been sent
+ * that claim yet, cycling through the table, so that the claims share the tower's message limit with Gossip.
+ *
+ * Everyone keeps the claims in a table of MAX_CLAIMS ruins, and a claim only counts until its expiry round, so the
+ * ruins of units that died or gave up are free again soon. A build claim hides mark claims (the soldier marks the
+ * ruin itself), so soldiers only skip ruins with a build claim, and splashers skip any claimed ruin. When two units
+ * claim the same ruin for the same job, the one that expects to finish first keeps it. The owner is the claimant's
+ * ID modulo 32 plus BUILD for build claims, so two units rarely mistake each other's claims for their own.
+ */
+public class RuinClaims {
+    static final int MAX_CLAIMS = 16;
+    static final int BUILD = 32;
+    // the expiry is sent in 2-round steps in a 10-bit field
+    static final int MAX_EXPIRY = (1 << 11) - 2;
+    // a unit tells a tower about its claim again once it was extended by this many rounds
+    static final int RENEW_ROUNDS = 20;
+
+    // MapMemory index, expiry round (0 for a free entry) and owner of each claim
+    static int[] claimIndex = new int[MAX_CLAIMS];
+    static int[] claimExpiry = new int[MAX_CLAIMS];
+    static int[] claimOwner = new int[MAX_CLAIMS];
+
+    // Unit side: the unit's own claim, and the expiry the towers were last told about (0 if none)
+    static MapLocation ownRuin = null;
+    static int ownExpiry = 0;
+    static boolean ownBuild = false;
+    static int reportedExpiry = 0;
+
+    // Tower side: the next table entry to send to visitors, and the claim (index and expiry) each visitor was sent
+    // last, by ID modulo VISITOR_SLOTS
+    static final int VISITOR_SLOTS = 64;
+    static int cursor = 0;
+    static int[] visitorID = new int[VISITOR_SLOTS];
+    static int[] visitorClaim = new int[VISITOR_SLOTS];
+
+    static int owner(RobotController rc, boolean build) {
+        return (rc.getID() & (BUILD - 1)) | (build ? BUILD : 0);
+    }
+
+    /*
+     * Records a claim, returns true if the table changed. A ruin keeps one claim: a live claim is only replaced by
+     * its owner, by a build claim over a mark claim, or by a claim of the same kind that expires earlier. Without a
+     * free or expired entry the claim that expires first is dropped.
+     */
+    static boolean record(int index, int expiry, int owner, int round) {
+        int slot = -1;
+        for (int i = MAX_CLAIMS; --i >= 0;) {
+            if (claimIndex[i] == index && claimExpiry[i] != 0) {
+                slot = i;
+                break;
+            }
+        }
+        if (slot != -1) {
+            int current = claimOwner[slot];
+            if (claimExpiry[slot] > round && current != owner && ((current & BUILD) > (owner & BUILD) ||
+                    ((current & BUILD) == (owner & BUILD) && claimExpiry[slot] <= expiry))) {
+                return false;
+            }
+            if (claimExpiry[slot] == expiry && current == owner) {
+                return false;
+            }
+        } else {
+            slot = 0;
+            for (int i = MAX_CLAIMS; --i > 0;) {
+                if (claimExpiry[i] < claimExpiry[slot]) {
+                    slot = i;
+                }
+            }
+        }
+        claimIndex[slot] = index;
+        claimExpiry[slot] = expiry;
+        claimOwner[slot] = owner;
+        return true;
+    }
+
+    /*
+     * True if someone else holds a live claim on the ruin. Soldiers (build) ignore mark claims.
+     */
+    static boolean claimedByOther(RobotController rc, MapLocation ruin, boolean build) {
+        int index = MapMemory.index(ruin);
+        int round = rc.getRoundNum();
+        int mine = owner(rc, build);
+        for (int i = MAX_CLAIMS; --i >= 0;) {
+            if (claimIndex[i] == index && claimExpiry[i] > round) {
+                int owner = claimOwner[i];
+                return owner != mine && (!build || (owner & BUILD) != 0);
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Unit: claims the ruin, or renews the claim on it. Claims for another ruin replace the old one.
+     */
+    static void claim(RobotController rc, MapLocation ruin, boolean build) {
+        MapLocation rcLoc = rc.getLocation();
+        int distance = Math.max(Math.abs(ruin.x - rcLoc.x), Math.abs(ruin.y - rcLoc.y));
+        int round = rc.getRoundNum();
+        int expiry = Math.min(MAX_EXPIRY, round + distance +
+                (build ? Params.RUIN_CLAIM_BUILD_ROUNDS : Params.RUIN_CLAIM_MARK_ROUNDS));
+        if (!ruin.equals(ownRuin)) {
+            ownRuin = ruin;
+            reportedExpiry = 0;
+        }
+        ownExpiry = expiry;
+        ownBuild = build;
+        record(MapMemory.index(ruin), expiry, owner(rc, build), round);
+    }
+
+    /*
+     * Unit: gives up its claim. Towers that heard of it keep it until it expires.
+     */
+    static void release() {
+        ownRuin = null;
+        ownExpiry = 0;
+        reportedExpiry = 0;
+    }
+
+    /*
+     * Unit: records the CLAIM records decoded by MessageCodec.receive this turn.
+     */
+    static void merge(RobotController rc) {
+        int round = rc.getRoundNum();
+        for (int i = MessageCodec.slotCount; --i >= 0;) {
+            if (MessageCodec.slotTag[i] == MessageCodec.CLAIM && MessageCodec.slotRound[i] >= round - 1) {
+                record(MessageCodec.slotX[i] * MapMemory.WIDTH + MessageCodec.slotY[i], MessageCodec.slotCommand[i],
+                        MessageCodec.slotSender[i], round);
+            }
+        }
+    }
+
+    /*
+     * Unit: tells the nearest friendly tower about its claim, if it is new or was extended by RENEW_ROUNDS, the
+     * tower is in message range and nothing else is being sent this turn. Runs before Gossip.report, since a
+     * claim goes stale and a sighting does not.
+     */
+    static void report(RobotController rc) {
+        if (ownRuin == null || ownExpiry <= rc.getRoundNum() || MessageCodec.pendingCount != 0 ||
+                (reportedExpiry != 0 && ownExpiry < reportedExpiry + RENEW_ROUNDS)) {
+            return;
+        }
+        MapLocation rcLoc = rc.getLocation();
+        MapLocation tower = MapMemory.nearest(rcLoc, MapMemory.FRIENDLY_TOWER_MASK);
+        if (tower == null || rcLoc.distanceSquaredTo(tower) > GameConstants.MESSAGE_RADIUS_SQUARED ||
+                !rc.canSendMessage(tower)) {
+            return;
+        }
+        MessageCodec.sendClaim(tower, ownRuin, ownExpiry, owner(rc, ownBuild));
+        reportedExpiry = ownExpiry;
+    }
+
+    /*
+     * Tower: records a claim from a unit or another tower, and broadcasts it to the other towers if it is news.
+     */
+    static void learn(RobotController rc, MapLocation ruin, int expiry, int owner) {
+        if (record(MapMemory.index(ruin), expiry, owner, rc.getRoundNum())) {
+            MessageCodec.sendClaim(MessageCodec.BROADCAST, ruin, expiry, owner);
+        }
+    }
+
+    /*
+     * Tower: sends the next live claim in the table to one friendly unit in message range that was not sent it yet,
+     * if the tower has a message left this turn. Moves on to the next claim once every visitor has this one.
+     */
+    static void shareWithVisitors(RobotController rc, RobotInfo[] nearbyRobots) {
+        if (MessageCodec.towerRoom() <= 0) {
+            return;
+        }
+        int round = rc.getRoundNum();
+        int slot = -1;
+        for (int i = 0; i < MAX_CLAIMS; i++) {
+            int next = (cursor + i) % MAX_CLAIMS;
+            if (claimExpiry[next] > round) {
+                slot = next;
+                break;
+            }
+        }
+        if (slot == -1) {
+            return;
+        }
+        int claim = claimIndex[slot] * (MAX_EXPIRY + 1) + claimExpiry[slot];
+        Team team = rc.getTeam();
+        for (RobotInfo robot : nearbyRobots) {
+            if (robot.team != team || robot.type.isTowerType()) {
+                continue;
+            }
+            int visitor = robot.ID % VISITOR_SLOTS;
+            if (visitorID[visitor] == robot.ID && visitorClaim[visitor] == claim) {
+                continue;
+            }
+            if (rc.canSendMessage(robot.location)) {
+                MessageCodec.sendClaim(robot.location, MapMemory.location(claimIndex[slot]), claimExpiry[slot],
+                        claimOwner[slot]);
+                visitorID[visitor] = robot.ID;
+                visitorClaim[visitor] = claim;
+                return;
+            }
+        }
+        // every visitor has this claim
+        cursor = slot + 1;
+    }
+}
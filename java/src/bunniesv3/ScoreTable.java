@@ -0,0 +1,129 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Summed-area table over the 9x9 window around a robot, for "how much weight is in this footprint" questions.
+ * Fill the weights with set/add after reset, call build() once, and every rectangle (or plus-shaped footprint)
+ * is a constant number of lookups instead of a nested loop.
+ *
+ * Weights and sums are ints, so callers scale their weights (SplasherPlanner uses SplasherConvolutionUnrolled.SCALE)
+ * or pack several counts into one int (Soldier packs marked and mismatched pattern tiles).
+ *
+ * Two kinds of queries:
+ *   - box(dx0, dy0, dx1, dy1): offsets from the window center, no bounds checks, for footprints the caller knows
+ *     are inside the window
+ *   - rect, around, plus: map coordinates, clamped to the window, tiles outside count as 0
+ */
+public class ScoreTable {
+    static final int RADIUS = 4;
+    static final int SIZE = 2 * RADIUS + 1;
+    // sums has an extra zero row and column in front, so that queries have no edge cases
+    static final int STRIDE = SIZE + 1;
+    static final int[] ZERO = new int[SIZE * SIZE];
+
+    final int[] weights = new int[SIZE * SIZE];
+    final int[] sums = new int[STRIDE * STRIDE];
+    // map coordinates of the window corner (offset -RADIUS, -RADIUS)
+    int minX;
+    int minY;
+
+    /*
+     * Clears the weights and centers the window on center.
+     */
+    void reset(MapLocation center) {
+        System.arraycopy(ZERO, 0, weights, 0, SIZE * SIZE);
+        minX = center.x - RADIUS;
+        minY = center.y - RADIUS;
+    }
+
+    // dx, dy are offsets from the window center, both in [-RADIUS, RADIUS]
+    void set(int dx, int dy, int weight) {
+        weights[(dx + RADIUS) * SIZE + dy + RADIUS] = weight;
+    }
+
+    // adds to the tile at loc, ignored if it is outside the window
+    void add(MapLocation loc, int weight) {
+        int x = loc.x - minX;
+        int y = loc.y - minY;
+        if (0 <= x && x < SIZE && 0 <= y && y < SIZE) {
+            weights[x * SIZE + y] += weight;
+        }
+    }
+
+    /*
+     * Computes the prefix sums. sums[(x + 1) * STRIDE + y + 1] is the total weight of window tiles [0, x] x [0, y].
+     */
+    void build() {
+        for (int x = 0; x < SIZE; x++) {
+            int row = 0;
+            int w = x * SIZE;
+            int s = (x + 1) * STRIDE + 1;
+            for (int y = 0; y < SIZE; y++) {
+                row += weights[w + y];
+                sums[s + y] = sums[s + y - STRIDE] + row;
+            }
+        }
+    }
+
+    /*
+     * Total weight of the tiles at offsets [dx0, dx1] x [dy0, dy1] from the window center. Not checked against the
+     * window bounds.
+     */
+    int box(int dx0, int dy0, int dx1, int dy1) {
+        int x0 = (dx0 + RADIUS) * STRIDE;
+        int x1 = (dx1 + RADIUS + 1) * STRIDE;
+        int y0 = dy0 + RADIUS;
+        int y1 = dy1 + RADIUS + 1;
+        return sums[x1 + y1] - sums[x0 + y1] - sums[x1 + y0] + sums[x0 + y0];
+    }
+
+    /*
+     * Total weight of the map tiles [x0, x1] x [y0, y1], only counting the part inside the window.
+     */
+    int rect(int x0, int y0, int x1, int y1) {
+        x0 -= minX;
+        x1 -= minX;
+        y0 -= minY;
+        y1 -= minY;
+        if (x0 < 0) x0 = 0;
+        if (y0 < 0) y0 = 0;
+        if (x1 >= SIZE) x1 = SIZE - 1;
+        if (y1 >= SIZE) y1 = SIZE - 1;
+        if (x0 > x1 || y0 > y1) {
+            return 0;
+        }
+        x0 *= STRIDE;
+        x1 = (x1 + 1) * STRIDE;
+        y1++;
+        return sums[x1 + y1] - sums[x0 + y1] - sums[x1 + y0] + sums[x0 + y0];
+    }
+
+    // true if the map tiles [x0, x1] x [y0, y1] are all inside the window
+    boolean covers(int x0, int y0, int x1, int y1) {
+        return x0 >= minX && y0 >= minY && x1 < minX + SIZE && y1 < minY + SIZE;
+    }
+
+    // the (2r + 1) x (2r + 1) square around center
+    int around(MapLocation center, int r) {
+        return rect(center.x - r, center.y - r, center.x + r, center.y + r);
+    }
+
+    // weight of the tile at loc, 0 outside the window
+    int at(MapLocation loc) {
+        int x = loc.x - minX;
+        int y = loc.y - minY;
+        if (0 <= x && x < SIZE && 0 <= y && y < SIZE) {
+            return weights[x * SIZE + y];
+        }
+        return 0;
+    }
+
+    /*
+     * The plus of the tiles at most arm away from center along either axis.
+     */
+    int plus(MapLocation center, int arm) {
+        return rect(center.x - arm, center.y, center.x + arm, center.y)
+                + rect(center.x, center.y - arm, center.x, center.y + arm) - at(center);
+    }
+}
@@ -0,0 +1,214 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Per-turn cache of what the robot senses, so that no sensing call is made twice from the same tile.
+ *
+ * Every field is filled on first use: tiles, robots, allies / enemies (split from robots into preallocated buffers, see
+ * allyCount() / enemyCount()), ruins, and lookups of the tile and robot at a location. The cache belongs to a round and
+ * a location, and any accessor drops it as soon as either changed, so moving invalidates it without the caller doing
+ * anything. Actions that change the tiles without moving (marking a pattern) call invalidate() themselves. Paint put
+ * down by this robot's own attacks is not seen until the next move or round.
+ *
+ * The location lookups are arrays over the 9x9 window around the robot. Entries are valid if their stamp is the
+ * current one, so dropping the cache clears nothing. stamp also tells derived snapshots (Bitboard) when to rebuild.
+ */
+public class Sense {
+    static final int RADIUS = 4;
+    static final int SIZE = 2 * RADIUS + 1;
+    // every robot in vision stands on a different tile of the vision disk
+    static final int MAX_ROBOTS = 69;
+
+    static int round = -1;
+    static MapLocation center = null;
+    static int stamp = 0;
+
+    static MapInfo[] tiles = null;
+    static RobotInfo[] robots = null;
+    // robots() split by team, the first allyCount / enemyCount entries are valid while robotsSplit
+    static boolean robotsSplit = false;
+    static RobotInfo[] allies = new RobotInfo[MAX_ROBOTS];
+    static RobotInfo[] enemies = new RobotInfo[MAX_ROBOTS];
+    static int allyCount = 0;
+    static int enemyCount = 0;
+    static MapLocation[] ruins = null;
+
+    static boolean tilesIndexed = false;
+    static boolean robotsIndexed = false;
+    static MapInfo[] tileAt = new MapInfo[SIZE * SIZE];
+    static int[] tileStamp = new int[SIZE * SIZE];
+    static RobotInfo[] robotAt = new RobotInfo[SIZE * SIZE];
+    static int[] robotStamp = new int[SIZE * SIZE];
+
+    // shared output of the *Within queries, valid until the next one
+    static RobotInfo[] found = new RobotInfo[MAX_ROBOTS];
+
+    // drops the cache if the robot moved or the round changed since it was filled
+    static void check(RobotController rc) {
+        MapLocation loc = rc.getLocation();
+        int now = rc.getRoundNum();
+        if (now != round || !loc.equals(center)) {
+            round = now;
+            center = loc;
+            invalidate();
+        }
+    }
+
+    static void invalidate() {
+        tiles = null;
+        robots = null;
+        robotsSplit = false;
+        ruins = null;
+        tilesIndexed = false;
+        robotsIndexed = false;
+        stamp++;
+    }
+
+    static MapInfo[] tiles(RobotController rc) {
+        check(rc);
+        if (tiles == null) {
+            tiles = rc.senseNearbyMapInfos();
+        }
+        return tiles;
+    }
+
+    static RobotInfo[] robots(RobotController rc) {
+        check(rc);
+        if (robots == null) {
+            robots = rc.senseNearbyRobots();
+        }
+        return robots;
+    }
+
+    // the number of allies in vision, which are the first entries of allies
+    static int allyCount(RobotController rc) {
+        check(rc);
+        if (!robotsSplit) {
+            splitRobots(rc);
+        }
+        return allyCount;
+    }
+
+    // the number of enemies in vision, which are the first entries of enemies
+    static int enemyCount(RobotController rc) {
+        check(rc);
+        if (!robotsSplit) {
+            splitRobots(rc);
+        }
+        return enemyCount;
+    }
+
+    // one pass over robots() for both allies and enemies
+    static void splitRobots(RobotController rc) {
+        RobotInfo[] all = robots(rc);
+        Team team = rc.getTeam();
+        int ai = 0;
+        int ei = 0;
+        for (int i = 0; i < all.length; i++) {
+            RobotInfo robot = all[i];
+            if (robot.team == team) {
+                allies[ai++] = robot;
+            } else {
+                enemies[ei++] = robot;
+            }
+        }
+        allyCount = ai;
+        enemyCount = ei;
+        robotsSplit = true;
+    }
+
+    static MapLocation[] ruins(RobotController rc) {
+        check(rc);
+        if (ruins == null) {
+            try {
+                ruins = rc.senseNearbyRuins(-1);
+            } catch (GameActionException e) {
+                ruins = new MapLocation[0];
+            }
+        }
+        return ruins;
+    }
+
+    // window index of loc, or -1 if it is outside the 9x9 window
+    static int index(MapLocation loc) {
+        int x = loc.x - center.x + RADIUS;
+        int y = loc.y - center.y + RADIUS;
+        if (x < 0 || x >= SIZE || y < 0 || y >= SIZE) {
+            return -1;
+        }
+        return x * SIZE + y;
+    }
+
+    /*
+     * Same as rc.senseMapInfo(loc), including the exception for tiles that are off the map or out of vision, but
+     * answered from tiles() when the tile is in it.
+     */
+    static MapInfo tile(RobotController rc, MapLocation loc) throws GameActionException {
+        MapInfo[] all = tiles(rc);
+        if (!tilesIndexed) {
+            int s = stamp;
+            for (int i = all.length; --i >= 0;) {
+                int index = index(all[i].getMapLocation());
+                tileAt[index] = all[i];
+                tileStamp[index] = s;
+            }
+            tilesIndexed = true;
+        }
+        int index = index(loc);
+        if (index >= 0 && tileStamp[index] == stamp) {
+            return tileAt[index];
+        }
+        return rc.senseMapInfo(loc);
+    }
+
+    /*
+     * Same as rc.senseRobotAtLocation(loc), answered from robots() for locations in vision.
+     */
+    static RobotInfo robotAt(RobotController rc, MapLocation loc) throws GameActionException {
+        RobotInfo[] all = robots(rc);
+        if (!robotsIndexed) {
+            int s = stamp;
+            for (int i = all.length; --i >= 0;) {
+                int index = index(all[i].location);
+                if (index >= 0) {
+                    robotAt[index] = all[i];
+                    robotStamp[index] = s;
+                }
+            }
+            robotsIndexed = true;
+        }
+        int index = index(loc);
+        // senseNearbyRobots() leaves out the robot itself
+        if (index >= 0 && !loc.equals(center) && center.distanceSquaredTo(loc) <= VisionDelta.VISION_RADIUS_SQUARED) {
+            return robotStamp[index] == stamp ? robotAt[index] : null;
+        }
+        return rc.senseRobotAtLocation(loc);
+    }
+
+    /*
+     * Copies the robots among the first count of the list within distanceSquared of the robot into found, returns how
+     * many there are. A negative distanceSquared means the whole vision disk.
+     */
+    static int within(RobotInfo[] list, int count, int distanceSquared) {
+        if (distanceSquared < 0) {
+            distanceSquared = VisionDelta.VISION_RADIUS_SQUARED;
+        }
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            RobotInfo robot = list[i];
+            if (center.distanceSquaredTo(robot.location) <= distanceSquared) {
+                found[n++] = robot;
+            }
+        }
+        return n;
+    }
+
+    static int enemiesWithin(RobotController rc, int distanceSquared) {
+        return within(enemies, enemyCount(rc), distanceSquared);
+    }
+
+    static int alliesWithin(RobotController rc, int distanceSquared) {
+        return within(allies, allyCount(rc), distanceSquared);
+    }
+}
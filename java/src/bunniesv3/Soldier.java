@@ -3,8 +3,7 @@ package bunniesv3;
 import battlecode.common.*;
 
 public class Soldier extends RobotPlayer {
-    static MapLocation towerMain = null;
-    static int paintAmountRequest = 100;
+    static int paintAmountRequest = Params.SOLDIER_PAINT_REQUEST;
     static Direction constantLocation = Direction.SOUTH;
 
     public static Direction getShortestPathDir(RobotController rc, MapLocation goal) {
@@ -30,31 +29,28 @@ public class Soldier extends RobotPlayer {
         return Direction.CENTER;
         }
 
-    public static MapLocation getTowerLoc() {
-        return towerMain;
-    }
-
-    public static void setTowerLoc(MapLocation newTowerLoc) {
-        towerMain = newTowerLoc;
+    // nearest friendly tower this robot remembers, or null
+    public static MapLocation getTowerLoc(MapLocation from) {
+        return MapMemory.nearest(from, MapMemory.FRIENDLY_TOWER_MASK);
     }
 
+    // records the ruin (and the tower on it, if any) in MapMemory, returns true if it is a friendly tower
     public static boolean checkTowerLoc(RobotController rc, MapInfo newTower) throws GameActionException {
-        
-        if (rc.senseRobotAtLocation(newTower.getMapLocation()) == null) {
+        RobotInfo robot = Sense.robotAt(rc, newTower.getMapLocation());
+        if (robot == null) {
+            MapMemory.setStructure(newTower.getMapLocation(), MapMemory.RUIN);
             return false;
         }
-        if (rc.getTeam() == rc.senseRobotAtLocation(newTower.getMapLocation()).getTeam()) {
-            Soldier.setTowerLoc(newTower.getMapLocation());
-            return true;
-        }
-        return false;
+        MapMemory.setStructure(newTower.getMapLocation(),
+                MapMemory.towerCategory(robot.getType(), robot.getTeam() != rc.getTeam()));
+        return rc.getTeam() == robot.getTeam();
     }
 
     public static void retreatForPaint(RobotController rc) throws GameActionException {
-        MapLocation closeTower = Soldier.getTowerLoc();
+        MapLocation closeTower = Soldier.getTowerLoc(rc.getLocation());
         if (closeTower == null)
             return;
-        Direction moveDir = Soldier.getShortestPathDir(rc, Soldier.getTowerLoc());
+        Direction moveDir = Soldier.getShortestPathDir(rc, closeTower);
         if (rc.canMove(moveDir))
             rc.move(moveDir);
         if (rc.canTransferPaint(closeTower, -paintAmountRequest)) {
@@ -62,56 +58,39 @@ public class Soldier extends RobotPlayer {
         }
     }
 
-    public static Boolean paintNewTower(RobotController rc, MapInfo curRuin) throws GameActionException {
-        Boolean isMarking = false;
+    static final int PATTERN_TILES = 24;
+
+    // Marks the ruin's pattern if no one has, paints it with PatternPlanner and builds the tower once it is done.
+    // Returns true if the robot painted or moved for the pattern.
+    public static Boolean paintNewTower(RobotController rc, MapInfo curRuin, MapInfo[] nearbyTiles)
+            throws GameActionException {
         MapLocation targetLoc = curRuin.getMapLocation();
         Direction dir = rc.getLocation().directionTo(targetLoc);
-        Direction moveDir = Soldier.getShortestPathDir(rc, targetLoc);
         // Mark the pattern we need to draw to build a tower here if we haven't already.
         MapLocation shouldBeMarked = curRuin.getMapLocation().subtract(dir);
-        if (rc.senseMapInfo(shouldBeMarked).getMark() == PaintType.EMPTY && rc.canMarkTowerPattern(UnitType.LEVEL_ONE_PAINT_TOWER, targetLoc)){
+        if (Sense.tile(rc, shouldBeMarked).getMark() == PaintType.EMPTY &&
+                rc.canMarkTowerPattern(UnitType.LEVEL_ONE_PAINT_TOWER, targetLoc)){
             rc.markTowerPattern(UnitType.LEVEL_ONE_PAINT_TOWER, targetLoc);
-            System.out.println("Trying to build a tower at " + targetLoc);
-        }
-        // Fill in any spots in the pattern with the appropriate paint.
-        String[] attackTiles = new String[25];
-        int curAttack = 0;
-        for (MapInfo patternTile : rc.senseNearbyMapInfos(targetLoc, 8)){
-            
-            if (patternTile.getMark() != patternTile.getPaint() && patternTile.getMark() != PaintType.EMPTY){
-            //if (patternTile.getMark() != patternTile.getPaint() && patternTile.getMark() != PaintType.EMPTY){
-                boolean useSecondaryColor = patternTile.getMark() == PaintType.ALLY_SECONDARY;
-                if (rc.canAttack(patternTile.getMapLocation()) && 
-        		(!rc.senseMapInfo(patternTile.getMapLocation()).getPaint().equals(PaintType.ENEMY_PRIMARY) && 
-				!rc.senseMapInfo(patternTile.getMapLocation()).getPaint().equals(PaintType.ENEMY_SECONDARY))) {
-                    rc.attack(patternTile.getMapLocation(), useSecondaryColor);
-                    isMarking = true;
-                    //attackTiles += attackTiles + ", " + patternTile.getMapLocation().toString();
-                }
-            }
-            attackTiles[curAttack] = patternTile.getMapLocation().toString();
-            curAttack += 1;
+            // the marks are new, the cached tiles do not have them
+            Sense.invalidate();
         }
+        PatternPlanner.scan(rc, targetLoc);
+        boolean acted = PatternPlanner.step(rc);
         // Complete the ruin if we can.
-        if (rc.canCompleteTowerPattern(UnitType.LEVEL_ONE_PAINT_TOWER, targetLoc)){
+        if (PatternPlanner.todo != 0 || PatternPlanner.enemyPaint != 0 ||
+                Integer.bitCount(PatternPlanner.marked) != PATTERN_TILES) {
+            // the pattern is not done yet, none of the checks below can pass
+        } else if (rc.canCompleteTowerPattern(UnitType.LEVEL_ONE_PAINT_TOWER, targetLoc)){
             rc.completeTowerPattern(UnitType.LEVEL_ONE_PAINT_TOWER, targetLoc);
             rc.setTimelineMarker("Tower built", 0, 255, 0);
-            System.out.println("Built a tower at " + targetLoc + "!");
-        }
-        if (rc.canCompleteTowerPattern(UnitType.LEVEL_ONE_MONEY_TOWER, targetLoc)){
+        } else if (rc.canCompleteTowerPattern(UnitType.LEVEL_ONE_MONEY_TOWER, targetLoc)){
             rc.completeTowerPattern(UnitType.LEVEL_ONE_MONEY_TOWER, targetLoc);
             rc.setTimelineMarker("Tower built", 0, 255, 0);
-            System.out.println("Built a tower at " + targetLoc + "!");
-        }
-        if (rc.canCompleteTowerPattern(UnitType.LEVEL_ONE_DEFENSE_TOWER, targetLoc)){
+        } else if (rc.canCompleteTowerPattern(UnitType.LEVEL_ONE_DEFENSE_TOWER, targetLoc)){
             rc.completeTowerPattern(UnitType.LEVEL_ONE_DEFENSE_TOWER, targetLoc);
             rc.setTimelineMarker("Tower built", 0, 255, 0);
-            System.out.println("Built a tower at " + targetLoc + "!");
         }
-        
-        if (rc.canMove(moveDir))
-            rc.move(moveDir);
-        return isMarking;
+        return acted;
     }
 
     public static void attackCheckered(RobotController rc, MapLocation attackLoc) throws GameActionException {
@@ -119,31 +98,15 @@ public class Soldier extends RobotPlayer {
     }
 
     public static Direction methodicalMovement(RobotController rc) throws GameActionException {
-        MapInfo emptyPaintLoc = null;
-        for (MapInfo nextLoc : rc.senseNearbyMapInfos(20)) {
-            if (nextLoc.getPaint().equals(PaintType.EMPTY) && nextLoc.isPassable() && !nextLoc.hasRuin()) {
-                if (emptyPaintLoc == null) 
-                    emptyPaintLoc = nextLoc;
-                else {
-                    if (rc.getLocation().distanceSquaredTo(nextLoc.getMapLocation()) <= rc.getLocation().distanceSquaredTo(emptyPaintLoc.getMapLocation())) {
-                        emptyPaintLoc = nextLoc;
-                    }
-                }
-            }
-
-            if (nextLoc.getPaint().equals(PaintType.EMPTY) && nextLoc.isPassable()) {
-                if (emptyPaintLoc == null) 
-                    emptyPaintLoc = nextLoc;
-                else if (!emptyPaintLoc.getPaint().equals(PaintType.EMPTY)) {
-                    if (rc.getLocation().distanceSquaredTo(nextLoc.getMapLocation()) <= rc.getLocation().distanceSquaredTo(emptyPaintLoc.getMapLocation())) {
-                        emptyPaintLoc = nextLoc;
-                    }
-                }
-            }
-        }
+        // nearest unpainted tile that can be walked on (ruins and walls cannot)
+        Bitboard.update(rc);
+        long[] layers = Bitboard.layers;
+        MapLocation emptyPaintLoc = Bitboard.nearest(
+                layers[2 * Bitboard.EMPTY] & layers[2 * Bitboard.PASSABLE],
+                layers[2 * Bitboard.EMPTY + 1] & layers[2 * Bitboard.PASSABLE + 1]);
         try {
             rc.setIndicatorString("Trying to move to: " + emptyPaintLoc.toString());
-            OrbitPathfinder pathing = new OrbitPathfinder(rc, emptyPaintLoc.getMapLocation());
+            OrbitPathfinder pathing = new OrbitPathfinder(rc, emptyPaintLoc);
             pathing.step();
         } catch (Exception e) {
             rc.setIndicatorString("Unable to find valid location :(");
@@ -178,18 +141,31 @@ public class Soldier extends RobotPlayer {
         return Direction.CENTER;
     }
 
+    // returns tile if a tile of its 5x5 pattern still needs work: unpainted, or painted differently from its mark,
+    // and not covered in enemy paint. Ruins that already hold a tower need none.
     public static MapInfo checkMarking(RobotController rc, MapInfo tile) throws GameActionException {
-        for (MapInfo patternTile : rc.senseNearbyMapInfos(tile.getMapLocation(), 8)) {
-        	if ((rc.senseMapInfo(patternTile.getMapLocation()).getPaint() != rc.senseMapInfo(patternTile.getMapLocation()).getMark()
-            && (!rc.senseMapInfo(patternTile.getMapLocation()).getPaint().equals(PaintType.ENEMY_PRIMARY) 
-    		&& !rc.senseMapInfo(patternTile.getMapLocation()).getPaint().equals(PaintType.ENEMY_SECONDARY))) 
-            || rc.senseMapInfo(patternTile.getMapLocation()).getPaint() == PaintType.EMPTY) {
-                if (!patternTile.getMapLocation().equals(tile.getMapLocation())) {
-                    return tile;
-                }
-            }
+        MapLocation rcLoc = rc.getLocation();
+        MapLocation ruinLoc = tile.getMapLocation();
+        if (Sense.robotAt(rc, ruinLoc) != null) {
+            return null;
+        }
+        Bitboard.update(rc);
+        long[] l = Bitboard.layers;
+        Bitboard.square(ruinLoc.x - rcLoc.x, ruinLoc.y - rcLoc.y, 2);
+        long lo = Bitboard.maskLo & l[2 * Bitboard.SEEN] & ~l[2 * Bitboard.ENEMY_PAINT]
+                & (l[2 * Bitboard.EMPTY] | ~((l[2 * Bitboard.ALLY_PRIMARY] & l[2 * Bitboard.MARK_PRIMARY])
+                        | (l[2 * Bitboard.ALLY_SECONDARY] & l[2 * Bitboard.MARK_SECONDARY])));
+        long hi = Bitboard.maskHi & l[2 * Bitboard.SEEN + 1] & ~l[2 * Bitboard.ENEMY_PAINT + 1]
+                & (l[2 * Bitboard.EMPTY + 1] | ~((l[2 * Bitboard.ALLY_PRIMARY + 1] & l[2 * Bitboard.MARK_PRIMARY + 1])
+                        | (l[2 * Bitboard.ALLY_SECONDARY + 1] & l[2 * Bitboard.MARK_SECONDARY + 1])));
+        // the ruin itself does not count
+        int ruinBit = (ruinLoc.x - rcLoc.x + Bitboard.RADIUS) * Bitboard.SIZE + ruinLoc.y - rcLoc.y + Bitboard.RADIUS;
+        if (ruinBit < 64) {
+            lo &= ~(1L << ruinBit);
+        } else {
+            hi &= ~(1L << ruinBit);
         }
-        return null;
+        return (lo | hi) != 0 ? tile : null;
     }
 
     public static void attackEnemyTower(RobotController rc, MapInfo enemyTower) throws GameActionException {
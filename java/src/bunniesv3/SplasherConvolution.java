@@ -13,7 +13,9 @@ public class SplasherConvolution {
             // empty
             {{0, 0}}, // tile is impassible
             // empty, ally1, ally2,   enemy1, enemy2
-            {{1, 1}, {0, 0}, {-.7f, -1.5f}, {0, 0}, {0, 0}} // tile is passable
+            {{Params.SPLASHER_FRINGE_EMPTY, Params.SPLASHER_FRINGE_EMPTY}, {0, 0},
+                    {Params.SPLASHER_FRINGE_ALLY_SECONDARY, Params.SPLASHER_FRINGE_ALLY_SECONDARY_MARKED},
+                    {0, 0}, {0, 0}} // tile is passable
     };
     static final float[][][] centerDamageArray = new float[][][] {
             // empty
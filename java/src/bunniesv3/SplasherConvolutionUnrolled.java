@@ -0,0 +1,1122 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * GENERATED by tools/bunniesv3/SplasherConvolutionGenerator.java, do not edit by hand.
+ * Run ./gradlew generateSplasherConvolution after changing the weights in SplasherConvolution.
+ *
+ * Same scoring as SplasherConvolution.computeAndAttack, written out tile by tile with int scores
+ * (weights times 10), no arrays and no per-call allocation besides MapLocations.
+ */
+public class SplasherConvolutionUnrolled {
+    static final int SCALE = 10;
+
+    static MapLocation computeAndAttack(RobotController rc, RobotInfo[] nearbyRobots, float threshold) {
+        MapLocation rcLoc = rc.getLocation();
+        int rcX = rcLoc.x;
+        int rcY = rcLoc.y;
+        Team team = rc.getTeam();
+        int s0 = 0;
+        int s1 = 0;
+        int s2 = 0;
+        int s3 = 0;
+        int s4 = 0;
+        int s5 = 0;
+        int s6 = 0;
+        int s7 = 0;
+        int s8 = 0;
+        int s9 = 0;
+        int s10 = 0;
+        int s11 = 0;
+        int s12 = 0;
+
+        // the first enemy tower in sight decides the attack on its own, like in SplasherConvolution
+        int towerIndex = -1;
+        for (int i = nearbyRobots.length; --i >= 0;) {
+            RobotInfo robot = nearbyRobots[i];
+            if (robot.type.isTowerType() && robot.team != team) {
+                towerIndex = (robot.location.x - rcX + 4) * 9 + robot.location.y - rcY + 4;
+                break;
+            }
+        }
+        if (towerIndex != -1) {
+            switch (towerIndex) {
+                case 4: s0 += 1000; break;
+                case 12: s0 += 1000; s1 += 1000; break;
+                case 13: s0 += 1000; s2 += 1000; break;
+                case 14: s0 += 1000; s3 += 1000; break;
+                case 20: s1 += 1000; s4 += 1000; s0 += 1000; break;
+                case 21: s0 += 1000; s1 += 1000; s2 += 1000; s5 += 1000; break;
+                case 22: s0 += 1000; s1 += 1000; s2 += 1000; s3 += 1000; s6 += 1000; break;
+                case 23: s0 += 1000; s2 += 1000; s3 += 1000; s7 += 1000; break;
+                case 24: s3 += 1000; s8 += 1000; s0 += 1000; break;
+                case 28: s4 += 1000; s1 += 1000; break;
+                case 29: s1 += 1000; s4 += 1000; s5 += 1000; s2 += 1000; break;
+                case 30: s0 += 1000; s1 += 1000; s2 += 1000; s4 += 1000; s5 += 1000; s6 += 1000; s9 += 1000; s3 += 1000; break;
+                case 31: s0 += 1000; s1 += 1000; s2 += 1000; s3 += 1000; s5 += 1000; s6 += 1000; s7 += 1000; s10 += 1000; break;
+                case 32: s0 += 1000; s2 += 1000; s3 += 1000; s6 += 1000; s7 += 1000; s8 += 1000; s11 += 1000; s1 += 1000; break;
+                case 33: s3 += 1000; s7 += 1000; s8 += 1000; s2 += 1000; break;
+                case 34: s8 += 1000; s3 += 1000; break;
+                case 36: s4 += 1000; break;
+                case 37: s4 += 1000; s5 += 1000; break;
+                case 38: s1 += 1000; s4 += 1000; s5 += 1000; s9 += 1000; s6 += 1000; break;
+                case 39: s1 += 1000; s2 += 1000; s4 += 1000; s5 += 1000; s6 += 1000; s9 += 1000; s10 += 1000; s7 += 1000; break;
+                case 40: s1 += 1000; s2 += 1000; s3 += 1000; s5 += 1000; s6 += 1000; s7 += 1000; s9 += 1000; s10 += 1000; s11 += 1000; s12 += 1000; s8 += 1000; s0 += 1000; s4 += 1000; break;
+                case 41: s2 += 1000; s3 += 1000; s6 += 1000; s7 += 1000; s8 += 1000; s10 += 1000; s11 += 1000; s5 += 1000; break;
+                case 42: s3 += 1000; s7 += 1000; s8 += 1000; s11 += 1000; s6 += 1000; break;
+                case 43: s8 += 1000; s7 += 1000; break;
+                case 44: s8 += 1000; break;
+                case 46: s4 += 1000; s9 += 1000; break;
+                case 47: s4 += 1000; s5 += 1000; s9 += 1000; s10 += 1000; break;
+                case 48: s4 += 1000; s5 += 1000; s6 += 1000; s9 += 1000; s10 += 1000; s12 += 1000; s11 += 1000; s1 += 1000; break;
+                case 49: s5 += 1000; s6 += 1000; s7 += 1000; s9 += 1000; s10 += 1000; s11 += 1000; s12 += 1000; s2 += 1000; break;
+                case 50: s6 += 1000; s7 += 1000; s8 += 1000; s10 += 1000; s11 += 1000; s12 += 1000; s3 += 1000; s9 += 1000; break;
+                case 51: s7 += 1000; s8 += 1000; s11 += 1000; s10 += 1000; break;
+                case 52: s8 += 1000; s11 += 1000; break;
+                case 56: s9 += 1000; s12 += 1000; s4 += 1000; break;
+                case 57: s9 += 1000; s10 += 1000; s12 += 1000; s5 += 1000; break;
+                case 58: s9 += 1000; s10 += 1000; s11 += 1000; s12 += 1000; s6 += 1000; break;
+                case 59: s10 += 1000; s11 += 1000; s12 += 1000; s7 += 1000; break;
+                case 60: s11 += 1000; s8 += 1000; s12 += 1000; break;
+                case 66: s12 += 1000; s9 += 1000; break;
+                case 67: s12 += 1000; s10 += 1000; break;
+                case 68: s12 += 1000; s11 += 1000; break;
+                case 76: s12 += 1000; break;
+            }
+        } else {
+            try {
+                MapLocation loc;
+                MapInfo tile;
+                PaintType paint;
+
+                // (-4, 0)
+                int c0 = 0;
+                int f0 = 0;
+                loc = new MapLocation(rcX - 4, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            f0 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                f0 = -15;
+                            } else {
+                                f0 = -7;
+                            }
+                        }
+                    }
+                }
+
+                // (-3, -1)
+                int c1 = 0;
+                int f1 = 0;
+                loc = new MapLocation(rcX - 3, rcY - 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c1 = 10; f1 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c1 = -15; f1 = -15;
+                            } else {
+                                c1 = -7; f1 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c1 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c1 = 40;
+                        }
+                    }
+                }
+
+                // (-3, 0)
+                int c2 = 0;
+                int f2 = 0;
+                loc = new MapLocation(rcX - 3, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c2 = 10; f2 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c2 = -15; f2 = -15;
+                            } else {
+                                c2 = -7; f2 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c2 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c2 = 40;
+                        }
+                    }
+                }
+
+                // (-3, 1)
+                int c3 = 0;
+                int f3 = 0;
+                loc = new MapLocation(rcX - 3, rcY + 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c3 = 10; f3 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c3 = -15; f3 = -15;
+                            } else {
+                                c3 = -7; f3 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c3 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c3 = 40;
+                        }
+                    }
+                }
+
+                // (-2, -2)
+                int c4 = 0;
+                int f4 = 0;
+                loc = new MapLocation(rcX - 2, rcY - 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c4 = 10; f4 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c4 = -15; f4 = -15;
+                            } else {
+                                c4 = -7; f4 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c4 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c4 = 40;
+                        }
+                    }
+                }
+
+                // (-2, -1)
+                int c5 = 0;
+                int f5 = 0;
+                loc = new MapLocation(rcX - 2, rcY - 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c5 = 10; f5 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c5 = -15; f5 = -15;
+                            } else {
+                                c5 = -7; f5 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c5 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c5 = 40;
+                        }
+                    }
+                }
+
+                // (-2, 0)
+                int c6 = 0;
+                int f6 = 0;
+                loc = new MapLocation(rcX - 2, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c6 = 10; f6 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c6 = -15; f6 = -15;
+                            } else {
+                                c6 = -7; f6 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c6 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c6 = 40;
+                        }
+                    }
+                }
+
+                // (-2, 1)
+                int c7 = 0;
+                int f7 = 0;
+                loc = new MapLocation(rcX - 2, rcY + 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c7 = 10; f7 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c7 = -15; f7 = -15;
+                            } else {
+                                c7 = -7; f7 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c7 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c7 = 40;
+                        }
+                    }
+                }
+
+                // (-2, 2)
+                int c8 = 0;
+                int f8 = 0;
+                loc = new MapLocation(rcX - 2, rcY + 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c8 = 10; f8 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c8 = -15; f8 = -15;
+                            } else {
+                                c8 = -7; f8 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c8 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c8 = 40;
+                        }
+                    }
+                }
+
+                // (-1, -3)
+                int c9 = 0;
+                int f9 = 0;
+                loc = new MapLocation(rcX - 1, rcY - 3);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c9 = 10; f9 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c9 = -15; f9 = -15;
+                            } else {
+                                c9 = -7; f9 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c9 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c9 = 40;
+                        }
+                    }
+                }
+
+                // (-1, -2)
+                int c10 = 0;
+                int f10 = 0;
+                loc = new MapLocation(rcX - 1, rcY - 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c10 = 10; f10 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c10 = -15; f10 = -15;
+                            } else {
+                                c10 = -7; f10 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c10 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c10 = 40;
+                        }
+                    }
+                }
+
+                // (-1, -1)
+                int c11 = 0;
+                int f11 = 0;
+                loc = new MapLocation(rcX - 1, rcY - 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c11 = 10; f11 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c11 = -15; f11 = -15;
+                            } else {
+                                c11 = -7; f11 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c11 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c11 = 40;
+                        }
+                    }
+                }
+
+                // (-1, 0)
+                int c12 = 0;
+                int f12 = 0;
+                loc = new MapLocation(rcX - 1, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c12 = 10; f12 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c12 = -15; f12 = -15;
+                            } else {
+                                c12 = -7; f12 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c12 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c12 = 40;
+                        }
+                    }
+                }
+
+                // (-1, 1)
+                int c13 = 0;
+                int f13 = 0;
+                loc = new MapLocation(rcX - 1, rcY + 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c13 = 10; f13 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c13 = -15; f13 = -15;
+                            } else {
+                                c13 = -7; f13 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c13 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c13 = 40;
+                        }
+                    }
+                }
+
+                // (-1, 2)
+                int c14 = 0;
+                int f14 = 0;
+                loc = new MapLocation(rcX - 1, rcY + 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c14 = 10; f14 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c14 = -15; f14 = -15;
+                            } else {
+                                c14 = -7; f14 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c14 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c14 = 40;
+                        }
+                    }
+                }
+
+                // (-1, 3)
+                int c15 = 0;
+                int f15 = 0;
+                loc = new MapLocation(rcX - 1, rcY + 3);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c15 = 10; f15 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c15 = -15; f15 = -15;
+                            } else {
+                                c15 = -7; f15 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c15 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c15 = 40;
+                        }
+                    }
+                }
+
+                // (0, -4)
+                int c16 = 0;
+                int f16 = 0;
+                loc = new MapLocation(rcX, rcY - 4);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            f16 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                f16 = -15;
+                            } else {
+                                f16 = -7;
+                            }
+                        }
+                    }
+                }
+
+                // (0, -3)
+                int c17 = 0;
+                int f17 = 0;
+                loc = new MapLocation(rcX, rcY - 3);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c17 = 10; f17 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c17 = -15; f17 = -15;
+                            } else {
+                                c17 = -7; f17 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c17 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c17 = 40;
+                        }
+                    }
+                }
+
+                // (0, -2)
+                int c18 = 0;
+                int f18 = 0;
+                loc = new MapLocation(rcX, rcY - 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c18 = 10; f18 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c18 = -15; f18 = -15;
+                            } else {
+                                c18 = -7; f18 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c18 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c18 = 40;
+                        }
+                    }
+                }
+
+                // (0, -1)
+                int c19 = 0;
+                int f19 = 0;
+                loc = new MapLocation(rcX, rcY - 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c19 = 10; f19 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c19 = -15; f19 = -15;
+                            } else {
+                                c19 = -7; f19 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c19 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c19 = 40;
+                        }
+                    }
+                }
+
+                // (0, 0)
+                int c20 = 0;
+                int f20 = 0;
+                loc = new MapLocation(rcX, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c20 = 10; f20 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c20 = -15; f20 = -15;
+                            } else {
+                                c20 = -7; f20 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c20 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c20 = 40;
+                        }
+                    }
+                }
+
+                // (0, 1)
+                int c21 = 0;
+                int f21 = 0;
+                loc = new MapLocation(rcX, rcY + 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c21 = 10; f21 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c21 = -15; f21 = -15;
+                            } else {
+                                c21 = -7; f21 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c21 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c21 = 40;
+                        }
+                    }
+                }
+
+                // (0, 2)
+                int c22 = 0;
+                int f22 = 0;
+                loc = new MapLocation(rcX, rcY + 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c22 = 10; f22 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c22 = -15; f22 = -15;
+                            } else {
+                                c22 = -7; f22 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c22 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c22 = 40;
+                        }
+                    }
+                }
+
+                // (0, 3)
+                int c23 = 0;
+                int f23 = 0;
+                loc = new MapLocation(rcX, rcY + 3);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c23 = 10; f23 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c23 = -15; f23 = -15;
+                            } else {
+                                c23 = -7; f23 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c23 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c23 = 40;
+                        }
+                    }
+                }
+
+                // (0, 4)
+                int c24 = 0;
+                int f24 = 0;
+                loc = new MapLocation(rcX, rcY + 4);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            f24 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                f24 = -15;
+                            } else {
+                                f24 = -7;
+                            }
+                        }
+                    }
+                }
+
+                // (1, -3)
+                int c25 = 0;
+                int f25 = 0;
+                loc = new MapLocation(rcX + 1, rcY - 3);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c25 = 10; f25 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c25 = -15; f25 = -15;
+                            } else {
+                                c25 = -7; f25 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c25 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c25 = 40;
+                        }
+                    }
+                }
+
+                // (1, -2)
+                int c26 = 0;
+                int f26 = 0;
+                loc = new MapLocation(rcX + 1, rcY - 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c26 = 10; f26 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c26 = -15; f26 = -15;
+                            } else {
+                                c26 = -7; f26 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c26 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c26 = 40;
+                        }
+                    }
+                }
+
+                // (1, -1)
+                int c27 = 0;
+                int f27 = 0;
+                loc = new MapLocation(rcX + 1, rcY - 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c27 = 10; f27 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c27 = -15; f27 = -15;
+                            } else {
+                                c27 = -7; f27 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c27 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c27 = 40;
+                        }
+                    }
+                }
+
+                // (1, 0)
+                int c28 = 0;
+                int f28 = 0;
+                loc = new MapLocation(rcX + 1, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c28 = 10; f28 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c28 = -15; f28 = -15;
+                            } else {
+                                c28 = -7; f28 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c28 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c28 = 40;
+                        }
+                    }
+                }
+
+                // (1, 1)
+                int c29 = 0;
+                int f29 = 0;
+                loc = new MapLocation(rcX + 1, rcY + 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c29 = 10; f29 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c29 = -15; f29 = -15;
+                            } else {
+                                c29 = -7; f29 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c29 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c29 = 40;
+                        }
+                    }
+                }
+
+                // (1, 2)
+                int c30 = 0;
+                int f30 = 0;
+                loc = new MapLocation(rcX + 1, rcY + 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c30 = 10; f30 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c30 = -15; f30 = -15;
+                            } else {
+                                c30 = -7; f30 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c30 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c30 = 40;
+                        }
+                    }
+                }
+
+                // (1, 3)
+                int c31 = 0;
+                int f31 = 0;
+                loc = new MapLocation(rcX + 1, rcY + 3);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c31 = 10; f31 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c31 = -15; f31 = -15;
+                            } else {
+                                c31 = -7; f31 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c31 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c31 = 40;
+                        }
+                    }
+                }
+
+                // (2, -2)
+                int c32 = 0;
+                int f32 = 0;
+                loc = new MapLocation(rcX + 2, rcY - 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c32 = 10; f32 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c32 = -15; f32 = -15;
+                            } else {
+                                c32 = -7; f32 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c32 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c32 = 40;
+                        }
+                    }
+                }
+
+                // (2, -1)
+                int c33 = 0;
+                int f33 = 0;
+                loc = new MapLocation(rcX + 2, rcY - 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c33 = 10; f33 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c33 = -15; f33 = -15;
+                            } else {
+                                c33 = -7; f33 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c33 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c33 = 40;
+                        }
+                    }
+                }
+
+                // (2, 0)
+                int c34 = 0;
+                int f34 = 0;
+                loc = new MapLocation(rcX + 2, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c34 = 10; f34 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c34 = -15; f34 = -15;
+                            } else {
+                                c34 = -7; f34 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c34 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c34 = 40;
+                        }
+                    }
+                }
+
+                // (2, 1)
+                int c35 = 0;
+                int f35 = 0;
+                loc = new MapLocation(rcX + 2, rcY + 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c35 = 10; f35 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c35 = -15; f35 = -15;
+                            } else {
+                                c35 = -7; f35 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c35 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c35 = 40;
+                        }
+                    }
+                }
+
+                // (2, 2)
+                int c36 = 0;
+                int f36 = 0;
+                loc = new MapLocation(rcX + 2, rcY + 2);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c36 = 10; f36 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c36 = -15; f36 = -15;
+                            } else {
+                                c36 = -7; f36 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c36 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c36 = 40;
+                        }
+                    }
+                }
+
+                // (3, -1)
+                int c37 = 0;
+                int f37 = 0;
+                loc = new MapLocation(rcX + 3, rcY - 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c37 = 10; f37 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c37 = -15; f37 = -15;
+                            } else {
+                                c37 = -7; f37 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c37 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c37 = 40;
+                        }
+                    }
+                }
+
+                // (3, 0)
+                int c38 = 0;
+                int f38 = 0;
+                loc = new MapLocation(rcX + 3, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c38 = 10; f38 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c38 = -15; f38 = -15;
+                            } else {
+                                c38 = -7; f38 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c38 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c38 = 40;
+                        }
+                    }
+                }
+
+                // (3, 1)
+                int c39 = 0;
+                int f39 = 0;
+                loc = new MapLocation(rcX + 3, rcY + 1);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            c39 = 10; f39 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                c39 = -15; f39 = -15;
+                            } else {
+                                c39 = -7; f39 = -7;
+                            }
+                        } else if (paint == PaintType.ENEMY_PRIMARY) {
+                            c39 = 25;
+                        } else if (paint == PaintType.ENEMY_SECONDARY) {
+                            c39 = 40;
+                        }
+                    }
+                }
+
+                // (4, 0)
+                int c40 = 0;
+                int f40 = 0;
+                loc = new MapLocation(rcX + 4, rcY);
+                if (rc.onTheMap(loc)) {
+                    tile = rc.senseMapInfo(loc);
+                    if (tile.isPassable()) {
+                        paint = tile.getPaint();
+                        if (paint == PaintType.EMPTY) {
+                            f40 = 10;
+                        } else if (paint == PaintType.ALLY_SECONDARY) {
+                            if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                                f40 = -15;
+                            } else {
+                                f40 = -7;
+                            }
+                        }
+                    }
+                }
+
+                s0 = f0 + c1 + c2 + c3 + f4 + c5 + c6 + c7 + f8 + c11 + c12 + c13 + f20;
+                s1 = f1 + c4 + c5 + c6 + f9 + c10 + c11 + c12 + f13 + c18 + c19 + c20 + f27;
+                s2 = f2 + c5 + c6 + c7 + f10 + c11 + c12 + c13 + f14 + c19 + c20 + c21 + f28;
+                s3 = f3 + c6 + c7 + c8 + f11 + c12 + c13 + c14 + f15 + c20 + c21 + c22 + f29;
+                s4 = f4 + c9 + c10 + c11 + f16 + c17 + c18 + c19 + f20 + c25 + c26 + c27 + f32;
+                s5 = f5 + c10 + c11 + c12 + f17 + c18 + c19 + c20 + f21 + c26 + c27 + c28 + f33;
+                s6 = f6 + c11 + c12 + c13 + f18 + c19 + c20 + c21 + f22 + c27 + c28 + c29 + f34;
+                s7 = f7 + c12 + c13 + c14 + f19 + c20 + c21 + c22 + f23 + c28 + c29 + c30 + f35;
+                s8 = f8 + c13 + c14 + c15 + f20 + c21 + c22 + c23 + f24 + c29 + c30 + c31 + f36;
+                s9 = f11 + c18 + c19 + c20 + f25 + c26 + c27 + c28 + f29 + c32 + c33 + c34 + f37;
+                s10 = f12 + c19 + c20 + c21 + f26 + c27 + c28 + c29 + f30 + c33 + c34 + c35 + f38;
+                s11 = f13 + c20 + c21 + c22 + f27 + c28 + c29 + c30 + f31 + c34 + c35 + c36 + f39;
+                s12 = f20 + c27 + c28 + c29 + f32 + c33 + c34 + c35 + f36 + c37 + c38 + c39 + f40;
+            } catch (GameActionException e) {
+                return null;
+            }
+        }
+
+        // attack the best center that reaches the threshold, falling back to the next best
+        int minScore = Math.round(threshold * SCALE);
+        while (true) {
+            int best = minScore - 1;
+            int bestIndex = -1;
+            if (s0 > best) { best = s0; bestIndex = 0; }
+            if (s1 > best) { best = s1; bestIndex = 1; }
+            if (s2 > best) { best = s2; bestIndex = 2; }
+            if (s3 > best) { best = s3; bestIndex = 3; }
+            if (s4 > best) { best = s4; bestIndex = 4; }
+            if (s5 > best) { best = s5; bestIndex = 5; }
+            if (s6 > best) { best = s6; bestIndex = 6; }
+            if (s7 > best) { best = s7; bestIndex = 7; }
+            if (s8 > best) { best = s8; bestIndex = 8; }
+            if (s9 > best) { best = s9; bestIndex = 9; }
+            if (s10 > best) { best = s10; bestIndex = 10; }
+            if (s11 > best) { best = s11; bestIndex = 11; }
+            if (s12 > best) { best = s12; bestIndex = 12; }
+            MapLocation target;
+            switch (bestIndex) {
+                case 0: target = new MapLocation(rcX - 2, rcY); s0 = Integer.MIN_VALUE; break;
+                case 1: target = new MapLocation(rcX - 1, rcY - 1); s1 = Integer.MIN_VALUE; break;
+                case 2: target = new MapLocation(rcX - 1, rcY); s2 = Integer.MIN_VALUE; break;
+                case 3: target = new MapLocation(rcX - 1, rcY + 1); s3 = Integer.MIN_VALUE; break;
+                case 4: target = new MapLocation(rcX, rcY - 2); s4 = Integer.MIN_VALUE; break;
+                case 5: target = new MapLocation(rcX, rcY - 1); s5 = Integer.MIN_VALUE; break;
+                case 6: target = new MapLocation(rcX, rcY); s6 = Integer.MIN_VALUE; break;
+                case 7: target = new MapLocation(rcX, rcY + 1); s7 = Integer.MIN_VALUE; break;
+                case 8: target = new MapLocation(rcX, rcY + 2); s8 = Integer.MIN_VALUE; break;
+                case 9: target = new MapLocation(rcX + 1, rcY - 1); s9 = Integer.MIN_VALUE; break;
+                case 10: target = new MapLocation(rcX + 1, rcY); s10 = Integer.MIN_VALUE; break;
+                case 11: target = new MapLocation(rcX + 1, rcY + 1); s11 = Integer.MIN_VALUE; break;
+                case 12: target = new MapLocation(rcX + 2, rcY); s12 = Integer.MIN_VALUE; break;
+                default: return null;
+            }
+            if (rc.canAttack(target)) {
+                try {
+                    rc.attack(target);
+                    return target;
+                } catch (GameActionException ignored) { }
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Plans the splasher's move and attack together. SplasherConvolutionUnrolled only scores the 13 attack centers
+ * around the current tile; this scores every center reachable from the current tile or one of its 8 neighbors
+ * (the 7x7 square of centers around the robot) from the tiles in Sense, and then picks
+ *   - move-then-attack, if some neighbor has a better splash in reach than the current tile, or
+ *   - attack-then-move, attacking from here and steering splasherDirection towards the neighbor whose best splash
+ *     does not overlap the one just made.
+ *
+ * Scores use the same int weights as SplasherConvolutionUnrolled (SplasherConvolution times SCALE). Every attack
+ * costs the same paint, so the best score per attack is the most tiles converted per paint spent.
+ *
+ * A splash paints the 3x3 square around its center (where the center weights apply) plus the 4 tiles two steps
+ * away along the axes (fringe weights). The center weights go into a ScoreTable, so each 3x3 sum is one box query
+ * instead of re-adding 9 tiles per center.
+ *
+ * The caller checks the bytecode budget, see BUDGET.
+ */
+public class SplasherPlanner {
+    static final int SCALE = SplasherConvolutionUnrolled.SCALE;
+    // bytecodes a plan needs, including the sensing; below that the splasher only attacks from where it stands
+    static final int BUDGET = 6000;
+    // a move has to win by this much, so the splasher does not trade its exploration direction for nothing
+    static final int MOVE_MARGIN = 10;
+    static final int ENEMY_PAINT_MOVE_PENALTY = 20;
+    static final int TOWER_SCORE = 1000;
+    // fringe weights of SplasherConvolution, scaled
+    static final int FRINGE_EMPTY = Math.round(Params.SPLASHER_FRINGE_EMPTY * SCALE);
+    static final int FRINGE_ALLY_SECONDARY = Math.round(Params.SPLASHER_FRINGE_ALLY_SECONDARY * SCALE);
+    static final int FRINGE_ALLY_SECONDARY_MARKED = Math.round(Params.SPLASHER_FRINGE_ALLY_SECONDARY_MARKED * SCALE);
+    // center weights of SplasherConvolution, scaled; indexed [paint type][secondary mark] there
+    static final float[][] CENTER_WEIGHTS = SplasherConvolution.centerDamageArray[1];
+    static final int CENTER_EMPTY = Math.round(CENTER_WEIGHTS[0][0] * SCALE);
+    static final int CENTER_ALLY_SECONDARY = Math.round(CENTER_WEIGHTS[2][0] * SCALE);
+    static final int CENTER_ALLY_SECONDARY_MARKED = Math.round(CENTER_WEIGHTS[2][1] * SCALE);
+    static final int CENTER_ENEMY_PRIMARY = Math.round(CENTER_WEIGHTS[3][0] * SCALE);
+    static final int CENTER_ENEMY_SECONDARY = Math.round(CENTER_WEIGHTS[4][0] * SCALE);
+
+    // 11x11 grid around the robot, index (dx + 5) * 11 + dy + 5. The vision disk only reaches 4, the extra ring
+    // is there so that the fringe of a center 3 away can be read without bounds checks, and is always 0.
+    static final int SIZE = 11;
+    static final int GRID = SIZE * SIZE;
+    static final int MIDDLE = 5 * SIZE + 5;
+    static final int[] ZERO = new int[GRID];
+
+    static ScoreTable centerTable = new ScoreTable();
+    static int[] fringe = new int[GRID];
+    static int[] score = new int[GRID];
+    static int[] enemyPaint = new int[GRID];
+    // a tile was sensed this plan if its stamp is the current one, so off-map tiles are never attack centers
+    static int[] seen = new int[GRID];
+    static int stamp = 0;
+
+    // origin 0 is the current tile, origin i > 0 is one step in RobotPlayer.directions[i - 1]
+    static final int[] ORIGIN_OFFSET = new int[] {0, 1, SIZE + 1, SIZE, SIZE - 1, -1, -SIZE - 1, -SIZE, -SIZE + 1};
+    // grid indices of the 13 attack centers in reach of each origin
+    static final int[][] ORIGIN_CENTERS = originCenters();
+    static int[] originBestScore = new int[9];
+    static int[] originBestCenter = new int[9];
+
+    static int[][] originCenters() {
+        int[][] centers = new int[9][13];
+        for (int origin = 0; origin < 9; origin++) {
+            int n = 0;
+            for (int dx = -2; dx <= 2; dx++) {
+                for (int dy = -2; dy <= 2; dy++) {
+                    if (dx * dx + dy * dy <= UnitType.SPLASHER.actionRadiusSquared) {
+                        centers[origin][n++] = MIDDLE + ORIGIN_OFFSET[origin] + dx * SIZE + dy;
+                    }
+                }
+            }
+        }
+        return centers;
+    }
+
+    /*
+     * Scores the window, then moves and/or attacks. Returns the attacked location, or null if no splash reached
+     * minScore (in which case nothing was done). Only moves if allowMove.
+     */
+    static MapLocation planAndAttack(RobotController rc, RobotInfo[] nearbyRobots, float threshold, boolean allowMove)
+            throws GameActionException {
+        MapLocation rcLoc = rc.getLocation();
+        score(rc, rcLoc, nearbyRobots);
+
+        int minScore = Math.round(threshold * SCALE);
+        int bestOrigin = 0;
+        int bestValue = originBestScore[0];
+        if (allowMove && rc.isMovementReady()) {
+            int safe = DangerMap.safeDirections(rcLoc);
+            for (int origin = 1; origin < 9; origin++) {
+                int value = originBestScore[origin] - MOVE_MARGIN - enemyPaint[MIDDLE + ORIGIN_OFFSET[origin]];
+                if (value > bestValue && value >= minScore) {
+                    Direction dir = RobotPlayer.directions[origin - 1];
+                    if (rc.canMove(dir) && DangerMap.isSafe(safe, dir)) {
+                        bestValue = value;
+                        bestOrigin = origin;
+                    }
+                }
+            }
+        }
+        if (bestValue < minScore) {
+            return null;
+        }
+
+        if (bestOrigin != 0) {
+            rc.move(RobotPlayer.directions[bestOrigin - 1]);
+            return attackFrom(rc, rcLoc, bestOrigin, minScore);
+        }
+        MapLocation target = attackFrom(rc, rcLoc, 0, minScore);
+        if (target != null) {
+            steer(rcLoc, target, minScore);
+        }
+        return target;
+    }
+
+    /*
+     * Fills score[] for the 7x7 centers around rcLoc and the best center per origin.
+     */
+    static void score(RobotController rc, MapLocation rcLoc, RobotInfo[] nearbyRobots) {
+        int rcX = rcLoc.x;
+        int rcY = rcLoc.y;
+        stamp++;
+        centerTable.reset(rcLoc);
+        System.arraycopy(ZERO, 0, fringe, 0, GRID);
+        System.arraycopy(ZERO, 0, enemyPaint, 0, GRID);
+
+        MapInfo[] tiles = Sense.tiles(rc);
+        for (int i = tiles.length; --i >= 0;) {
+            MapInfo tile = tiles[i];
+            MapLocation loc = tile.getMapLocation();
+            int dx = loc.x - rcX;
+            int dy = loc.y - rcY;
+            int index = dx * SIZE + dy + MIDDLE;
+            seen[index] = stamp;
+            if (!tile.isPassable()) {
+                continue;
+            }
+            PaintType paint = tile.getPaint();
+            if (paint == PaintType.EMPTY) {
+                centerTable.set(dx, dy, CENTER_EMPTY);
+                fringe[index] = FRINGE_EMPTY;
+            } else if (paint == PaintType.ALLY_SECONDARY) {
+                if (tile.getMark() == PaintType.ALLY_SECONDARY) {
+                    centerTable.set(dx, dy, CENTER_ALLY_SECONDARY_MARKED);
+                    fringe[index] = FRINGE_ALLY_SECONDARY_MARKED;
+                } else {
+                    centerTable.set(dx, dy, CENTER_ALLY_SECONDARY);
+                    fringe[index] = FRINGE_ALLY_SECONDARY;
+                }
+            } else if (paint == PaintType.ENEMY_PRIMARY) {
+                centerTable.set(dx, dy, CENTER_ENEMY_PRIMARY);
+                enemyPaint[index] = ENEMY_PAINT_MOVE_PENALTY;
+            } else if (paint == PaintType.ENEMY_SECONDARY) {
+                centerTable.set(dx, dy, CENTER_ENEMY_SECONDARY);
+                enemyPaint[index] = ENEMY_PAINT_MOVE_PENALTY;
+            }
+        }
+        Team team = rc.getTeam();
+        for (int i = nearbyRobots.length; --i >= 0;) {
+            RobotInfo robot = nearbyRobots[i];
+            if (robot.team != team && robot.type.isTowerType()) {
+                centerTable.add(robot.location, TOWER_SCORE);
+                fringe[(robot.location.x - rcX) * SIZE + robot.location.y - rcY + MIDDLE] += TOWER_SCORE;
+            }
+        }
+
+        centerTable.build();
+        // 3x3 box of center weights plus the four fringe tiles, for centers in [-3, 3]
+        for (int dx = -3; dx <= 3; dx++) {
+            int i = dx * SIZE + MIDDLE - 3;
+            for (int dy = -3; dy <= 3; dy++, i++) {
+                score[i] = centerTable.box(dx - 1, dy - 1, dx + 1, dy + 1)
+                        + fringe[i - 2 * SIZE] + fringe[i + 2 * SIZE] + fringe[i - 2] + fringe[i + 2];
+            }
+        }
+
+        for (int origin = 0; origin < 9; origin++) {
+            int[] centers = ORIGIN_CENTERS[origin];
+            int best = Integer.MIN_VALUE;
+            int bestCenter = -1;
+            for (int i = centers.length; --i >= 0;) {
+                int index = centers[i];
+                if (seen[index] == stamp && score[index] > best) {
+                    best = score[index];
+                    bestCenter = index;
+                }
+            }
+            originBestScore[origin] = best;
+            originBestCenter[origin] = bestCenter;
+        }
+    }
+
+    /*
+     * Attacks the best center in reach of origin (relative to the plan's location), falling back to the next best
+     * if the engine refuses it.
+     */
+    static MapLocation attackFrom(RobotController rc, MapLocation planLoc, int origin, int minScore) {
+        int[] centers = ORIGIN_CENTERS[origin];
+        int tried = -1;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            int best = minScore - 1;
+            int bestCenter = -1;
+            for (int i = centers.length; --i >= 0;) {
+                int index = centers[i];
+                if (index != tried && seen[index] == stamp && score[index] > best) {
+                    best = score[index];
+                    bestCenter = index;
+                }
+            }
+            if (bestCenter == -1) {
+                return null;
+            }
+            MapLocation target = planLoc.translate(bestCenter / SIZE - 5, bestCenter % SIZE - 5);
+            if (rc.canAttack(target)) {
+                try {
+                    rc.attack(target);
+                    return target;
+                } catch (GameActionException ignored) { }
+            }
+            score[bestCenter] = Integer.MIN_VALUE;
+            tried = bestCenter;
+        }
+        return null;
+    }
+
+    /*
+     * After attacking from where it stands, points splasherDirection at the neighbor with the best splash that
+     * does not overlap the one just made, so the next turn starts there.
+     */
+    static void steer(MapLocation planLoc, MapLocation target, int minScore) {
+        int attacked = (target.x - planLoc.x) * SIZE + target.y - planLoc.y + MIDDLE;
+        int attackedX = attacked / SIZE;
+        int attackedY = attacked % SIZE;
+        int best = minScore - 1;
+        int bestOrigin = 0;
+        for (int origin = 1; origin < 9; origin++) {
+            int index = originBestCenter[origin];
+            if (index < 0 || originBestScore[origin] <= best) {
+                continue;
+            }
+            int dx = index / SIZE - attackedX;
+            int dy = index % SIZE - attackedY;
+            // further apart than that, the two splashes share at most a couple of fringe tiles
+            if (dx * dx + dy * dy > 8) {
+                best = originBestScore[origin];
+                bestOrigin = origin;
+            }
+        }
+        if (bestOrigin != 0) {
+            RobotPlayer.splasherDirection = RobotPlayer.directions[bestOrigin - 1];
+        }
+    }
+}
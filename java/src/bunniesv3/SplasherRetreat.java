@@ -3,17 +3,19 @@ package bunniesv3;
 import battlecode.common.*;
 
 public class SplasherRetreat {
-    public static OrbitPathfinder connectedTileNavigator = null;
+    public static Navigator connectedTileNavigator = null;
+    // long trips back to a paint tower are where wall following detours the most
+    static int navigationMode = Navigator.BFS;
 
     public static void retreat(RobotController rc) {
         MapLocation rcLoc = rc.getLocation();
-        SplasherMemory.updateRobotMemory(rc, rc.senseNearbyRobots());
-        OrbitPathfinder.avoidWithinRadius3 = SplasherMemory.enemyTowers;
+        SplasherMemory.updateRobotMemory(rc, Sense.robots(rc));
+        OrbitPathfinder.avoidEnemyTowers = true;
         if (RobotPlayer.navigator == null && connectedTileNavigator == null) {
             // remember where the closest paint tower is
             MapLocation nearestPaintTower = SplasherMemory.getNearestFriendlyPaintTower(rc.getLocation());
             if (nearestPaintTower != null) {
-                RobotPlayer.navigator = new OrbitPathfinder(rc, nearestPaintTower);
+                RobotPlayer.navigator = RobotPlayer.newNavigator(rc, nearestPaintTower, navigationMode);
             } else {
                 // if no tower found, continue normal movement, look for tower
                 if (rc.isMovementReady()) {
@@ -29,8 +31,8 @@ public class SplasherRetreat {
                     } else {
                         RobotPlayer.splasherDirection = null;
                     }
-                    SplasherMemory.updateRobotMemory(rc, rc.senseNearbyRobots());
-                    OrbitPathfinder.avoidWithinRadius3 = SplasherMemory.enemyTowers;
+                    SplasherMemory.updateRobotMemory(rc, Sense.robots(rc));
+                    OrbitPathfinder.avoidEnemyTowers = true;
                 }
             }
         }
@@ -38,23 +40,23 @@ public class SplasherRetreat {
         int closestTowerDistance = rcLoc.distanceSquaredTo(nearestPaintTower);
         if (closestTowerDistance <= 2 && connectedTileNavigator == null) {
             try {
-                if (!rc.senseMapInfo(rcLoc).getPaint().isAlly()) {
+                if (!Sense.tile(rc, rcLoc).getPaint().isAlly()) {
                     // if the robot is on non-ally paint, it cannot communicate with the tower
                     // find connected paint and go there
                     for (Direction dir : Constants.directions) {
-                        if (rc.senseMapInfo(nearestPaintTower.add(dir)).getPaint().isAlly()) {
+                        if (Sense.tile(rc, nearestPaintTower.add(dir)).getPaint().isAlly()) {
                             // found a connected tile
-                            connectedTileNavigator = new OrbitPathfinder(rc, nearestPaintTower.add(dir));
+                            connectedTileNavigator = RobotPlayer.newNavigator(rc, nearestPaintTower.add(dir), navigationMode);
                             break;
                         }
                     }
                     if (connectedTileNavigator == null) {
                         // if we haven't found a connecting tile, it is an unfriendly tower
-                        SplasherMemory.addRejectedTower(rc.senseRobotAtLocation(nearestPaintTower).ID, rc.getRoundNum());
+                        SplasherMemory.addRejectedTower(Sense.robotAt(rc, nearestPaintTower).ID, rc.getRoundNum());
                     }
                     return;
                 } else { // if message can be sent:
-                    UnpackedMessage.encodeAndSend(rc, nearestPaintTower, UnpackedMessage.REQUEST_PAINT, rc.getLocation());
+                    MessageCodec.sendRequest(nearestPaintTower, MessageCodec.REQUEST_PAINT, rc.getLocation());
                 }
             } catch (GameActionException ignored) { }
             // stay put and wait reply
@@ -69,7 +71,7 @@ public class SplasherRetreat {
         else if (RobotPlayer.navigator != null) {
             if (!nearestPaintTower.equals(RobotPlayer.navigator.getDest())) {
                 // if the closest tower is different than before
-                RobotPlayer.navigator = new OrbitPathfinder(rc, nearestPaintTower);
+                RobotPlayer.navigator = RobotPlayer.newNavigator(rc, nearestPaintTower, navigationMode);
             }
             RobotPlayer.navigator.step();
         }
@@ -0,0 +1,22 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * How a tower picks its single-target shot. Tower.attackPattern0 fires the AoE attack first, then asks the scorer
+ * about every enemy in range and shoots the highest score. Scorers are swapped through Tower.targetScorerMode, so
+ * two scoring rules can be played against each other as two otherwise identical packages in a tournament.
+ */
+public interface TargetScorer {
+    int EXPECTED_VALUE = 0; // ExpectedValueScorer
+    int LOWEST_HEALTH = 1; // LowestHealthScorer, the original one-shot-else-lowest-health rule
+
+    /*
+     * Score of shooting enemy for damage, after this turn's AoE attack already dealt aoeDamage to it (0 if the AoE
+     * did not fire). Higher is better, Integer.MIN_VALUE means the shot is wasted.
+     */
+    int score(RobotInfo enemy, int aoeDamage, int damage);
+
+    // the enemy that was shot this turn, or null if there was no shot
+    void attacked(RobotInfo enemy);
+}
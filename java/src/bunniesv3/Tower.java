@@ -5,122 +5,153 @@ import battlecode.common.*;
 class Tower extends RobotPlayer {
 	
 	public static void runTurnBasedActions(RobotController rc) throws GameActionException {
-		if (getTowerLevel(rc) != 3 && rc.getMoney() >= rc.getType().getNextLevel().moneyCost + (getTowerType(rc) == "Money" ? 1 : 2) * UnitType.MOPPER.moneyCost) {
+		if (getTowerLevel(rc) != 3 && rc.getMoney() >= upgradeThreshold(rc)) {
 			state = "UPGRADE_SAVING";
 			if (rc.canUpgradeTower(rc.getLocation())) {
+				ProductionPlanner.spent(rc.getType().getNextLevel().moneyCost, 0);
 				rc.upgradeTower(rc.getLocation());
 				state = "DEFAULT";
 			}
 		}
-		else if (turnCount % 100 == 99 || state == "BUILD_SAVING") {
-			state = "BUILD_SAVING";
-			if (rc.getMoney() >= 1300) {
-				state = "DEFAULT";
-			}
+		// saving up for units is ProductionPlanner's job
+	}
+	
+	// The money at which the tower upgrades: the upgrade plus one or two moppers to spare. Only call below level 3.
+	static int upgradeThreshold(RobotController rc) throws GameActionException {
+		return rc.getType().getNextLevel().moneyCost + (getTowerType(rc) == "Money" ? 1 : 2) * UnitType.MOPPER.moneyCost;
+	}
+	
+	// how the single-target shot is picked, see TargetScorer
+	static int targetScorerMode = TargetScorer.EXPECTED_VALUE;
+	static TargetScorer targetScorer = newTargetScorer(targetScorerMode);
+	
+	static TargetScorer newTargetScorer(int mode) {
+		if (mode == TargetScorer.LOWEST_HEALTH) {
+			return new LowestHealthScorer();
 		}
+		return new ExpectedValueScorer();
 	}
 	
 	public static void attackPattern0(RobotController rc, MapInfo[] nearbyTiles, RobotInfo[] nearbyRobots) throws GameActionException {
-
-		int rcAttackStrength = rc.getType().attackStrength;
+		UnitType type = rc.getType();
+		int damage = type.attackStrength;
 		
-		// Does AoE attack no matter what.
-		rc.attack(null);
+		// AoE attack first, it hits every enemy in range, so the single shot is scored on what is left of them.
+		int aoeDamage = 0;
+		try {
+			rc.attack(null);
+			aoeDamage = type.aoeAttackStrength;
+		} catch (GameActionException e) { }
 		
-		// Aims at the enemy robot it can one-shot with the highest paint count.
-		// Aims at the enemy robot with the lowest health if there are none it can one-shot.
+		// One pass over the robots: distance instead of rc.canAttack per robot, canAttack once for the pick.
+		MapLocation rcLoc = rc.getLocation();
+		Team team = rc.getTeam();
+		int range = type.actionRadiusSquared;
+		int enemyCount = 0;
 		RobotInfo targetRobot = null;
-		for (RobotInfo robot : nearbyRobots){
-        	if (robot.team != rc.getTeam() && rc.canAttack(robot.location)) {
-        		if (targetRobot == null) {
-        			targetRobot = robot;
-        		}
-        		else if (robot.health <= rcAttackStrength && targetRobot.health <= rcAttackStrength) {
-        			
-        			if (robot.paintAmount > targetRobot.paintAmount) {
-        				targetRobot = robot;
-        			}
-        		}
-        		else if (robot.health < targetRobot.health) {
-        			targetRobot = robot;
-        		}
-        	}
-        }
-		if (targetRobot != null && rc.canAttack(targetRobot.location)) {
-			rc.attack(targetRobot.location);
-			rc.setIndicatorString("ATTACKED ROBOT AT (" + targetRobot.location.x + ", " + targetRobot.location.y + ")");
-			// Builds a mopper in the direction of the target enemy, if possible, if it last sensed three or more enemies.
-			if (nearbyRobots.length >= 3) {
-				Direction dir = rc.getLocation().directionTo(targetRobot.location);
-				MapLocation nextLoc = rc.getLocation().add(dir);
-				rc.buildRobot(UnitType.MOPPER, nextLoc);
-	            System.out.println("BUILT A MOPPER");
-	            rc.setIndicatorString("BUILT A MOPPER");
+		int bestScore = Integer.MIN_VALUE;
+		for (int i = nearbyRobots.length; --i >= 0;) {
+			RobotInfo robot = nearbyRobots[i];
+			if (robot.team == team) {
+				continue;
+			}
+			enemyCount++;
+			if (rcLoc.distanceSquaredTo(robot.location) > range) {
+				continue;
+			}
+			int score = targetScorer.score(robot, aoeDamage, damage);
+			if (score > bestScore) {
+				bestScore = score;
+				targetRobot = robot;
 			}
 		}
-		
+		if (targetRobot == null || !rc.canAttack(targetRobot.location)) {
+			targetScorer.attacked(null);
+			return;
+		}
+		rc.attack(targetRobot.location);
+		targetScorer.attacked(targetRobot);
+		rc.setIndicatorString("ATTACKED ROBOT AT (" + targetRobot.location.x + ", " + targetRobot.location.y + ")");
+		// Builds a mopper towards the target enemy, if possible, if it sensed three or more enemies.
+		if (enemyCount >= 3) {
+			ProductionPlanner.buildToward(rc, ProductionPlanner.MOPPER, targetRobot.location, false);
+		}
 	}
 	
+	// Builds a robot of the given type (ProductionPlanner.SOLDIER, MOPPER or SPLASHER) on the free tile that
+	// suits it best. Returns null if it could not.
 	public static RobotInfo createRobot(RobotController rc, int robotType) throws GameActionException {
-		
-		// Pick a direction to build in.
-        Direction dir = directions[rng.nextInt(directions.length)];
-        MapLocation nextLoc = rc.getLocation().add(dir);
-        // Pick a robot type to build.
-        if (robotType == 0 && rc.canBuildRobot(UnitType.SOLDIER, nextLoc)){
-            rc.buildRobot(UnitType.SOLDIER, nextLoc);
-            System.out.println("BUILT A SOLDIER");
-            rc.setIndicatorString("BUILT A SOLDIER");
-        }
-        else if (robotType == 1 && rc.canBuildRobot(UnitType.MOPPER, nextLoc)){
-            rc.buildRobot(UnitType.MOPPER, nextLoc);
-            System.out.println("BUILT A MOPPER");
-            rc.setIndicatorString("BUILT A MOPPER");
-        }
-        else if (robotType == 2 && rc.canBuildRobot(UnitType.SPLASHER, nextLoc)){
-            rc.buildRobot(UnitType.SPLASHER, nextLoc);
-            System.out.println("BUILT A SPLASHER");
-            rc.setIndicatorString("BUILT A SPLASHER");
-        }
-        return rc.senseRobotAtLocation(nextLoc);
+		return ProductionPlanner.build(rc, robotType, true);
 	}
 	
-	public static void createRobot(RobotController rc) throws GameActionException {
-		createRobot(rc, rng.nextInt(3));
-	}
+	// The round of the last actOnMessages call and how many records of that round it handled. Messages sent later
+	// in that round by units that act after the tower come after those records, and are only read on the next turn.
+	static int handledRound = -1;
+	static int handledCount = 0;
 	
-	public static void actOnMessages(RobotController rc, UnpackedMessage[] unpackedMessages,
-									 MapInfo[] nearbyTiles, RobotInfo[] nearbyRobots) throws GameActionException {
+	// Acts on the records decoded by MessageCodec.receive this turn, each record only once: readMessages returns
+	// the last rounds, so records of the previous round that were already handled then are skipped.
+	public static void actOnMessages(RobotController rc, MapInfo[] nearbyTiles, RobotInfo[] nearbyRobots)
+			throws GameActionException {
 		robotInNeed = null;
-		for (UnpackedMessage m : unpackedMessages) {
-			System.out.println("m: " + m);
-			if (m != null && turnCount - m.senderTurn <= 1) {
-				switch (m.command) {
-					case 0: break; // Save Chips
-					case 1: break; // Send Robots
-					case 2: break; // Send Soldiers
-					case 3: sendMoppers(rc, m.locInfo, nearbyTiles, nearbyRobots); break; // Send Moppers
-					case 4: break; // Send Splashers
-					case UnpackedMessage.REQUEST_PAINT: considerPaintRequest(rc, m.locInfo); break;
+		int round = rc.getRoundNum();
+		int previousSeen = 0;
+		int currentCount = 0;
+		for (int i = 0; i < MessageCodec.slotCount; i++) {
+			int recordRound = MessageCodec.slotRound[i];
+			if (round - recordRound > 1 || recordRound < handledRound) {
+				continue;
+			}
+			if (recordRound == handledRound && recordRound != round && previousSeen++ < handledCount) {
+				continue;
+			}
+			if (recordRound == round) {
+				currentCount++;
+			}
+			if (MessageCodec.slotTag[i] == MessageCodec.REQUEST) {
+				switch (MessageCodec.slotCommand[i]) {
+					case MessageCodec.SAVE_CHIPS: break;
+					case MessageCodec.SEND_ROBOTS: break;
+					case MessageCodec.SEND_SOLDIERS: break;
+					case MessageCodec.SEND_MOPPERS:
+						sendMoppers(rc, new MapLocation(MessageCodec.slotX[i], MessageCodec.slotY[i]), nearbyTiles,
+								nearbyRobots);
+						break;
+					case MessageCodec.SEND_SPLASHERS: break;
+					case MessageCodec.REQUEST_PAINT:
+						considerPaintRequest(rc, new MapLocation(MessageCodec.slotX[i], MessageCodec.slotY[i]));
+						break;
 				}
+			} else if (MessageCodec.slotTag[i] == MessageCodec.TOWER) {
+				Gossip.learn(rc, new MapLocation(MessageCodec.slotX[i], MessageCodec.slotY[i]), MessageCodec.slotCommand[i],
+						MessageCodec.slotSender[i]);
+			} else if (MessageCodec.slotTag[i] == MessageCodec.CLAIM) {
+				RuinClaims.learn(rc, new MapLocation(MessageCodec.slotX[i], MessageCodec.slotY[i]),
+						MessageCodec.slotCommand[i], MessageCodec.slotSender[i]);
 			}
 		}
+		handledRound = round;
+		handledCount = currentCount;
 		allowPaintRequest(rc);
 	}
 
 	public static RobotInfo robotInNeed = null;
 	
 	public static void considerPaintRequest(RobotController rc, MapLocation loc) throws GameActionException {
-		System.out.println(loc);
-		RobotInfo robot = rc.senseRobotAtLocation(loc);
+		// the requester may have moved away or died since
+		if (!rc.canSenseLocation(loc)) {
+			return;
+		}
+		RobotInfo robot = Sense.robotAt(rc, loc);
+		if (robot == null || robot.team != rc.getTeam()) {
+			return;
+		}
 		if (rc.getPaint() >= 150 && (float) robot.getPaintAmount() / robot.getType().paintCapacity <= 0.7) {
 			if (robotInNeed == null) {
 				robotInNeed = robot;
 			}
 			else if (robotInNeed.type.paintCapacity - robotInNeed.paintAmount < robot.type.paintCapacity - robot.paintAmount) {
-				try {
-					UnpackedMessage.encodeAndSend(rc, robotInNeed.location, UnpackedMessage.PAINT_DENIED);
-				} catch (GameActionException ignored) { }
+				MessageCodec.sendOrder(robotInNeed.location, MessageCodec.PAINT_DENIED);
 				robotInNeed = robot;
 			}
 		}
@@ -129,10 +160,8 @@ class Tower extends RobotPlayer {
 	public static void allowPaintRequest(RobotController rc) throws GameActionException {
 		if (robotInNeed != null) {
 			rc.setIndicatorString("Robot in Need at " + robotInNeed.location);
-			try {
-				UnpackedMessage.encodeAndSend(rc, robotInNeed.location, UnpackedMessage.TAKE_PAINT, rc.getLocation(),
-						Math.min(robotInNeed.type.paintCapacity - robotInNeed.paintAmount, rc.getPaint() - 100));
-			} catch (GameActionException ignored) { }
+			MessageCodec.sendPaintGrant(robotInNeed.location, rc.getLocation(),
+					Math.min(robotInNeed.type.paintCapacity - robotInNeed.paintAmount, rc.getPaint() - 100));
 		}
 	}
 	
@@ -140,14 +169,16 @@ class Tower extends RobotPlayer {
 		boolean nearbyRobot = false;
 		for (RobotInfo robot : nearbyRobots) {
 			if (robot.getTeam() == rc.getTeam() && robot.getType() == UnitType.MOPPER) {
-				UnpackedMessage.encodeAndSend(rc, robot.getLocation(), UnpackedMessage.GO_TO, target);
+				MessageCodec.sendOrder(robot.getLocation(), MessageCodec.GO_TO, target);
 				nearbyRobot = true;
 				break;
 			}
 		}
 		if (nearbyRobot == false) {
-			RobotInfo newRobotInfo = createRobot(rc, 1);
-			UnpackedMessage.encodeAndSend(rc, newRobotInfo.getLocation(), UnpackedMessage.GO_TO, target);
+			RobotInfo newRobotInfo = createRobot(rc, ProductionPlanner.MOPPER);
+			if (newRobotInfo != null) {
+				MessageCodec.sendOrder(newRobotInfo.getLocation(), MessageCodec.GO_TO, target);
+			}
 		}
 
 	}
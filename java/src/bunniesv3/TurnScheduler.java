@@ -0,0 +1,173 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Runs a unit's turn as a list of prioritized tasks, so that running low on bytecodes costs the unit its
+ * bookkeeping instead of its turn.
+ *
+ * Every unit registers its tasks once, in init. Each turn the CRITICAL tasks (attack, move) run first, in
+ * registration order, whatever the budget. The DEFERRABLE tasks (memory update, message processing, exploration
+ * bookkeeping) run after them, and only if Clock.getBytecodesLeft() still covers their estimate plus RESERVE.
+ * A deferrable task that was skipped, or that returned false because it stopped early, is pending: pending tasks
+ * get the budget first on the next turn, so that one expensive task cannot starve the ones registered after it.
+ * The scheduler only reruns a task; a task that stops early keeps whatever it needs to resume in its own statics
+ * (see Gossip.merge), others simply start over.
+ *
+ * Statics are not shared between robots, so the counters are per robot. With REPORT on, dump() prints them tagged
+ * with the unit type, and SchedulerSummary adds them up per unit type from the match output. Every use is written
+ * as if (REPORT) ..., like Profiler.ENABLED, so that shipped builds neither count nor print.
+ */
+public class TurnScheduler {
+    static final boolean REPORT = false;
+
+    // Task kinds, also the index of the per-kind counters
+    static final int ATTACK = 0;
+    static final int MOVE = 1;
+    static final int MEMORY_UPDATE = 2;
+    static final int MESSAGES = 3;
+    static final int BOOKKEEPING = 4;
+    static final String[] KIND_NAMES = new String[] {"ATTACK", "MOVE", "MEMORY_UPDATE", "MESSAGES", "BOOKKEEPING"};
+    static final int KIND_COUNT = KIND_NAMES.length;
+
+    static final int CRITICAL = 0;
+    static final int DEFERRABLE = 1;
+
+    // kept free for the end of the turn: Gossip.report, MessageCodec.flush and the profiler
+    static final int RESERVE = 800;
+    // same checkpoints as the profiler, since robots can die or the match can end early
+    static final int DUMP_INTERVAL = Profiler.DUMP_INTERVAL;
+
+    interface Task {
+        // returns false if the task stopped early and wants to continue next turn
+        boolean run(RobotController rc) throws GameActionException;
+    }
+
+    static final int MAX_TASKS = 8;
+    static int taskCount = 0;
+    static Task[] tasks = new Task[MAX_TASKS];
+    static int[] taskKinds = new int[MAX_TASKS];
+    static int[] taskPriorities = new int[MAX_TASKS];
+    static int[] taskEstimates = new int[MAX_TASKS];
+    // deferred or stopped early, and not finished since: runs before the other deferrable tasks next turn
+    static boolean[] taskPending = new boolean[MAX_TASKS];
+
+    static int lastRound = -1;
+    static int turns = 0;
+    static int skippedTurns = 0;
+    // times a task of that kind was not started because the budget was too tight
+    static int[] deferred = new int[KIND_COUNT];
+    // times a task of that kind stopped early to continue on a later turn
+    static int[] resumed = new int[KIND_COUNT];
+
+    /*
+     * Adds a task. Tasks are kept sorted by priority, and in registration order within a priority.
+     * estimate is the bytecodes the task needs, only used for DEFERRABLE tasks.
+     */
+    static void register(int kind, int priority, int estimate, Task task) {
+        if (taskCount == MAX_TASKS) {
+            throw new IllegalStateException("too many tasks");
+        }
+        int i = taskCount++;
+        for (; i > 0 && taskPriorities[i - 1] > priority; i--) {
+            tasks[i] = tasks[i - 1];
+            taskKinds[i] = taskKinds[i - 1];
+            taskPriorities[i] = taskPriorities[i - 1];
+            taskEstimates[i] = taskEstimates[i - 1];
+        }
+        tasks[i] = task;
+        taskKinds[i] = kind;
+        taskPriorities[i] = priority;
+        taskEstimates[i] = estimate;
+    }
+
+    // true if a task can still spend cost bytecodes this turn without eating into the reserve
+    static boolean hasBudget(int cost) {
+        return Clock.getBytecodesLeft() >= cost + RESERVE;
+    }
+
+    /*
+     * Runs this turn's tasks: the critical ones, then the pending deferrable ones, then the other deferrable ones.
+     * An exception in one task is printed and does not stop the others.
+     */
+    static void runTurn(RobotController rc) {
+        if (REPORT) {
+            int round = rc.getRoundNum();
+            if (lastRound >= 0 && round - lastRound > 1) {
+                skippedTurns += round - lastRound - 1;
+            }
+            lastRound = round;
+            turns++;
+        }
+
+        // taskPending as of the start of the turn, one bit per task
+        int pending = 0;
+        for (int i = 0; i < taskCount; i++) {
+            if (taskPending[i]) {
+                pending |= 1 << i;
+            }
+        }
+        for (int i = 0; i < taskCount; i++) {
+            if (taskPriorities[i] == CRITICAL) {
+                runTask(rc, i);
+            }
+        }
+        for (int i = 0; i < taskCount; i++) {
+            if (taskPriorities[i] == DEFERRABLE && (pending & (1 << i)) != 0) {
+                runTask(rc, i);
+            }
+        }
+        for (int i = 0; i < taskCount; i++) {
+            if (taskPriorities[i] == DEFERRABLE && (pending & (1 << i)) == 0) {
+                runTask(rc, i);
+            }
+        }
+    }
+
+    // runs task i, or marks it pending if it is deferrable and the budget does not cover it
+    static void runTask(RobotController rc, int i) {
+        int kind = taskKinds[i];
+        if (taskPriorities[i] == DEFERRABLE && !hasBudget(taskEstimates[i])) {
+            if (REPORT) deferred[kind]++;
+            taskPending[i] = true;
+            return;
+        }
+        boolean done = true;
+        try {
+            done = tasks[i].run(rc);
+        } catch (GameActionException e) {
+            System.out.println("GameActionException in " + KIND_NAMES[kind]);
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.out.println("Exception in " + KIND_NAMES[kind]);
+            e.printStackTrace();
+        }
+        if (REPORT && !done) {
+            resumed[kind]++;
+        }
+        taskPending[i] = !done;
+    }
+
+    /*
+     * Called right before Clock.yield(). Prints the counters on checkpoint rounds and on the last round.
+     */
+    static void endTurn(RobotController rc) {
+        int round = rc.getRoundNum();
+        if (round % DUMP_INTERVAL == 0 || round >= GameConstants.GAME_MAX_NUMBER_OF_ROUNDS - 1) {
+            dump(rc);
+        }
+    }
+
+    static void dump(RobotController rc) {
+        StringBuilder line = new StringBuilder("[sched] ");
+        line.append(rc.getType()).append(" #").append(rc.getID()).append(" r").append(rc.getRoundNum());
+        line.append(" turns=").append(turns).append(" skipped=").append(skippedTurns);
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            if (deferred[kind] != 0 || resumed[kind] != 0) {
+                line.append(' ').append(KIND_NAMES[kind]).append("=deferred:").append(deferred[kind])
+                        .append(",resumed:").append(resumed[kind]);
+            }
+        }
+        System.out.println(line);
+    }
+}
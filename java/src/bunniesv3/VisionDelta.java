@@ -0,0 +1,82 @@
+package bunniesv3;
+
+import battlecode.common.*;
+
+/*
+ * Helpers for updating memory from only the part of the vision disk that changed.
+ * After a one-tile move, only the tiles on the leading edge of the vision circle are new; EDGE_DX/EDGE_DY list them
+ * (relative to the new location) for every move, indexed by (dx + 1) * 3 + (dy + 1).
+ * That is 9 tiles for a cardinal move and 13 for a diagonal one, instead of the 69 in the full disk.
+ */
+public class VisionDelta {
+    static final int VISION_RADIUS_SQUARED = 20;
+
+    static final int[][] EDGE_DX = new int[][] {
+            {-4, -4, -4, -4, -4, -3, -3, -2, -2, -1, 0, 1, 2}, // SOUTHWEST
+            {-4, -4, -4, -4, -4, -3, -3, -2, -2}, // WEST
+            {-4, -4, -4, -4, -4, -3, -3, -2, -2, -1, 0, 1, 2}, // NORTHWEST
+            {-4, -3, -2, -1, 0, 1, 2, 3, 4}, // SOUTH
+            {}, // CENTER
+            {-4, -3, -2, -1, 0, 1, 2, 3, 4}, // NORTH
+            {-2, -1, 0, 1, 2, 2, 3, 3, 4, 4, 4, 4, 4}, // SOUTHEAST
+            {2, 2, 3, 3, 4, 4, 4, 4, 4}, // EAST
+            {-2, -1, 0, 1, 2, 2, 3, 3, 4, 4, 4, 4, 4}, // NORTHEAST
+    };
+    static final int[][] EDGE_DY = new int[][] {
+            {-2, -1, 0, 1, 2, -3, -2, -4, -3, -4, -4, -4, -4}, // SOUTHWEST
+            {-2, -1, 0, 1, 2, -3, 3, -4, 4}, // WEST
+            {-2, -1, 0, 1, 2, 2, 3, 3, 4, 4, 4, 4, 4}, // NORTHWEST
+            {-2, -3, -4, -4, -4, -4, -4, -3, -2}, // SOUTH
+            {}, // CENTER
+            {2, 3, 4, 4, 4, 4, 4, 3, 2}, // NORTH
+            {-4, -4, -4, -4, -4, -3, -3, -2, -2, -1, 0, 1, 2}, // SOUTHEAST
+            {-4, 4, -3, 3, -2, -1, 0, 1, 2}, // EAST
+            {4, 4, 4, 4, 3, 4, 2, 3, -2, -1, 0, 1, 2}, // NORTHEAST
+    };
+
+    // Robots from one senseNearbyRobots() call, laid out on the 9x9 window around the robot so that
+    // "which robot is on this tile" does not need rc.senseRobotAtLocation per tile.
+    // Entries are only valid if their stamp matches the stamp of the last markRobots call.
+    static RobotInfo[] robotGrid = new RobotInfo[81];
+    static int[] robotStamps = new int[81];
+    static int stamp = 0;
+    static int centerX;
+    static int centerY;
+
+    static int edgeIndex(MapLocation from, MapLocation to) {
+        return (to.x - from.x + 1) * 3 + (to.y - from.y + 1);
+    }
+
+    // true if to is from or one of its neighbors, i.e. the delta tables apply
+    static boolean isStep(MapLocation from, MapLocation to) {
+        int dx = to.x - from.x;
+        int dy = to.y - from.y;
+        return -1 <= dx && dx <= 1 && -1 <= dy && dy <= 1;
+    }
+
+    static void markRobots(MapLocation center, RobotInfo[] robots) {
+        stamp++;
+        centerX = center.x;
+        centerY = center.y;
+        for (RobotInfo robot : robots) {
+            int dx = robot.location.x - centerX;
+            int dy = robot.location.y - centerY;
+            if (-4 <= dx && dx <= 4 && -4 <= dy && dy <= 4) {
+                int index = (dx + 4) * 9 + dy + 4;
+                robotGrid[index] = robot;
+                robotStamps[index] = stamp;
+            }
+        }
+    }
+
+    // robot on loc according to the last markRobots call, or null
+    static RobotInfo robotAt(MapLocation loc) {
+        int dx = loc.x - centerX;
+        int dy = loc.y - centerY;
+        if (dx < -4 || dx > 4 || dy < -4 || dy > 4) {
+            return null;
+        }
+        int index = (dx + 4) * 9 + dy + 4;
+        return robotStamps[index] == stamp ? robotGrid[index] : null;
+    }
+}
@@ -0,0 +1,94 @@
+package bunniesv3;
+
+import battlecode.common.*;
+import harness.FixtureRobotController;
+import harness.FixtureWorld;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/*
+ * Records queued with the send* methods come out of flush() and back through receive() with the same fields.
+ */
+public class MessageCodecTest {
+    static final MapLocation TOWER = new MapLocation(10, 10);
+    static final MapLocation UNIT = new MapLocation(12, 11);
+
+    // sends what the tower queued to the unit and decodes it there, returns the number of slots
+    static int deliver(FixtureWorld world, FixtureRobotController tower, FixtureRobotController unit) {
+        tower.sent.clear();
+        MessageCodec.flush(tower.rc);
+        for (int word : tower.sent) {
+            world.addMessage(word, tower.rc.getID(), tower.round);
+        }
+        return MessageCodec.receive(unit.rc);
+    }
+
+    @Test
+    public void testRecordsRoundTrip() {
+        FixtureWorld world = FixtureWorld.blank(60, 60);
+        FixtureRobotController tower = world.controllerFor(UnitType.LEVEL_ONE_PAINT_TOWER, Team.A, TOWER);
+        FixtureRobotController unit = world.controllerFor(UnitType.SOLDIER, Team.A, UNIT);
+        MessageCodec.sendRequest(UNIT, MessageCodec.REQUEST_PAINT, new MapLocation(59, 3));
+        MessageCodec.sendOrder(UNIT, MessageCodec.GO_TO, new MapLocation(0, 59));
+        MessageCodec.sendPaintGrant(UNIT, TOWER, 1000);
+        MessageCodec.sendTower(UNIT, new MapLocation(5, 6), MapMemory.FRIENDLY_DEFENSE_TOWER);
+
+        assertEquals(4, deliver(world, tower, unit));
+        assertEquals(4, tower.sent.size());
+        assertEquals(0, MessageCodec.pendingCount);
+        assertSlot(0, MessageCodec.REQUEST, MessageCodec.REQUEST_PAINT, 59, 3);
+        assertSlot(1, MessageCodec.ORDER, MessageCodec.GO_TO, 0, 59);
+        // grants above the field width are capped
+        assertSlot(2, MessageCodec.PAINT_GRANT, MessageCodec.MAX_PAINT_GRANT, TOWER.x, TOWER.y);
+        assertSlot(3, MessageCodec.TOWER, MapMemory.FRIENDLY_DEFENSE_TOWER, 5, 6);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(tower.rc.getID(), MessageCodec.slotSender[i]);
+        }
+    }
+
+    @Test
+    public void testShortRecordsShareOneMessage() {
+        FixtureWorld world = FixtureWorld.blank(60, 60);
+        FixtureRobotController tower = world.controllerFor(UnitType.LEVEL_ONE_MONEY_TOWER, Team.A, TOWER);
+        FixtureRobotController unit = world.controllerFor(UnitType.MOPPER, Team.A, UNIT);
+        MessageCodec.sendTower(UNIT, new MapLocation(59, 0), MapMemory.ENEMY_DEFENSE_TOWER);
+        MessageCodec.sendTower(UNIT, new MapLocation(1, 59), MapMemory.RUIN);
+        MessageCodec.sendOrder(UNIT, MessageCodec.GO_TO, new MapLocation(59, 59));
+        MessageCodec.sendOrder(UNIT, MessageCodec.PAINT_DENIED);
+        assertEquals(GameConstants.MAX_MESSAGES_SENT_TOWER - 2, MessageCodec.towerRoom());
+
+        assertEquals(4, deliver(world, tower, unit));
+        assertEquals(2, tower.sent.size());
+        assertEquals(GameConstants.MAX_MESSAGES_SENT_TOWER, MessageCodec.towerRoom());
+        assertSlot(0, MessageCodec.TOWER, MapMemory.ENEMY_DEFENSE_TOWER, 59, 0);
+        assertSlot(1, MessageCodec.TOWER, MapMemory.RUIN, 1, 59);
+        assertSlot(2, MessageCodec.ORDER, MessageCodec.GO_TO, 59, 59);
+        assertSlot(3, MessageCodec.ORDER, MessageCodec.PAINT_DENIED, 0, 0);
+    }
+
+    @Test
+    public void testClaimRoundTrip() {
+        FixtureWorld world = FixtureWorld.blank(60, 60);
+        FixtureRobotController tower = world.controllerFor(UnitType.LEVEL_ONE_PAINT_TOWER, Team.A, TOWER);
+        FixtureRobotController unit = world.controllerFor(UnitType.SOLDIER, Team.A, UNIT);
+        int owner = (RuinClaims.BUILD - 1) | RuinClaims.BUILD;
+        MessageCodec.sendClaim(MessageCodec.BROADCAST, new MapLocation(59, 58), RuinClaims.MAX_EXPIRY, owner);
+        MessageCodec.sendClaim(MessageCodec.BROADCAST, new MapLocation(0, 1), 101, 0);
+
+        assertEquals(2, deliver(world, tower, unit));
+        // the expiry goes in the command, the owner in place of the sender
+        assertSlot(0, MessageCodec.CLAIM, RuinClaims.MAX_EXPIRY, 59, 58);
+        assertEquals(owner, MessageCodec.slotSender[0]);
+        // odd expiries are rounded up to the next 2-round step
+        assertSlot(1, MessageCodec.CLAIM, 102, 0, 1);
+        assertEquals(0, MessageCodec.slotSender[1]);
+    }
+
+    static void assertSlot(int slot, int tag, int command, int x, int y) {
+        assertEquals("tag of slot " + slot, tag, MessageCodec.slotTag[slot]);
+        assertEquals("command of slot " + slot, command, MessageCodec.slotCommand[slot]);
+        assertEquals("x of slot " + slot, x, MessageCodec.slotX[slot]);
+        assertEquals("y of slot " + slot, y, MessageCodec.slotY[slot]);
+    }
+}
@@ -0,0 +1,83 @@
+package bunniesv3;
+
+import battlecode.common.*;
+import harness.FixtureRobotController;
+import harness.FixtureWorld;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/*
+ * REACH matches the soldier's attack range, and step() stands where the most cells left to paint are in reach, then
+ * paints the one farthest from the center.
+ */
+public class PatternPlannerTest {
+    static final MapLocation CENTER = new MapLocation(20, 20);
+
+    static int bit(int dx, int dy) {
+        return 1 << ((dx + 2) * 5 + dy + 2);
+    }
+
+    @Test
+    public void testReachTable() {
+        int radiusSquared = UnitType.SOLDIER.actionRadiusSquared;
+        for (int px = -3; px <= 3; px++) {
+            for (int py = -3; py <= 3; py++) {
+                int expected = 0;
+                for (int dx = -2; dx <= 2; dx++) {
+                    for (int dy = -2; dy <= 2; dy++) {
+                        if ((dx - px) * (dx - px) + (dy - py) * (dy - py) <= radiusSquared) {
+                            expected |= bit(dx, dy);
+                        }
+                    }
+                }
+                assertEquals("REACH from (" + px + ", " + py + ")", expected,
+                        PatternPlanner.reach(CENTER, CENTER.translate(px, py)));
+            }
+        }
+        assertEquals(0, PatternPlanner.reach(CENTER, CENTER.translate(4, 0)));
+        assertEquals(0, PatternPlanner.reach(CENTER, CENTER.translate(0, -4)));
+    }
+
+    @Test
+    public void testStepMovesToMostCellsInReach() throws GameActionException {
+        FixtureWorld world = FixtureWorld.blank(40, 40);
+        FixtureRobotController soldier = world.controllerFor(UnitType.SOLDIER, Team.A, CENTER.translate(-2, 0));
+        // the Sense cache may still hold the tiles of another world at the same location and round
+        Sense.invalidate();
+        PatternPlanner.center = CENTER;
+        PatternPlanner.secondary = 0;
+        PatternPlanner.enemyPaint = 0;
+        // the column east of the center without its middle: none is in reach from (-2, 0), all four are from
+        // (-1, 0), and at most three from any other neighbor
+        int column = bit(1, -2) | bit(1, -1) | bit(1, 1) | bit(1, 2);
+        PatternPlanner.todo = column;
+        PatternPlanner.marked = column;
+
+        assertTrue(PatternPlanner.step(soldier.rc));
+        assertEquals(CENTER.translate(-1, 0), soldier.location);
+        assertEquals(1, soldier.attacks);
+        // of the two cells farthest from the center, the one with the higher cell number goes first
+        assertEquals(column & ~bit(1, 2), PatternPlanner.todo);
+    }
+
+    @Test
+    public void testStepPaintsInPlaceWhenNoMoveHelps() throws GameActionException {
+        FixtureWorld world = FixtureWorld.blank(40, 40);
+        FixtureRobotController soldier = world.controllerFor(UnitType.SOLDIER, Team.A, CENTER);
+        // the Sense cache may still hold the tiles of another world at the same location and round
+        Sense.invalidate();
+        PatternPlanner.center = CENTER;
+        PatternPlanner.secondary = 0;
+        PatternPlanner.enemyPaint = 0;
+        // every cell is in reach from the center
+        int cells = bit(-2, -2) | bit(0, 1) | bit(2, 0);
+        PatternPlanner.todo = cells;
+        PatternPlanner.marked = cells;
+
+        assertTrue(PatternPlanner.step(soldier.rc));
+        assertEquals(CENTER, soldier.location);
+        assertEquals(0, soldier.moves);
+        assertEquals(cells & ~bit(-2, -2), PatternPlanner.todo);
+    }
+}
@@ -0,0 +1,90 @@
+package bunniesv3;
+
+import battlecode.common.*;
+import harness.FixtureRobotController;
+import harness.FixtureWorld;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/*
+ * A claim reported by one unit and decoded by another ends up in the other unit's table as the same ruin, expiry
+ * and owner. The claim tables are static, so they are cleared in between, as if the two units were separate bots.
+ */
+public class RuinClaimsTest {
+    static final MapLocation TOWER = new MapLocation(10, 10);
+    static final MapLocation RUIN = new MapLocation(20, 21);
+
+    FixtureWorld world;
+    FixtureRobotController claimant;
+    FixtureRobotController other;
+
+    // claimant claims RUIN and reports it, other receives the report; returns the claimant's claim as it was sent,
+    // with the expiry rounded up to the 2-round step it goes out in
+    int[] claimAndDeliver(boolean build) {
+        world = FixtureWorld.blank(60, 60);
+        claimant = world.controllerFor(UnitType.SOLDIER, Team.A, new MapLocation(12, 11));
+        other = world.controllerFor(UnitType.SPLASHER, Team.A, new MapLocation(13, 13));
+        clearTable();
+        MapMemory.add(TOWER, MapMemory.FRIENDLY_PAINT_TOWER);
+        try {
+            RuinClaims.claim(claimant.rc, RUIN, build);
+            RuinClaims.report(claimant.rc);
+            MessageCodec.flush(claimant.rc);
+        } finally {
+            MapMemory.remove(TOWER, MapMemory.FRIENDLY_PAINT_TOWER);
+        }
+        assertEquals(1, claimant.sent.size());
+        int[] sent = new int[] {(RuinClaims.ownExpiry + 1) & ~1, RuinClaims.owner(claimant.rc, build)};
+
+        clearTable();
+        world.addMessage(claimant.sent.get(0), claimant.rc.getID(), claimant.round);
+        MessageCodec.receive(other.rc);
+        RuinClaims.merge(other.rc);
+        return sent;
+    }
+
+    static void clearTable() {
+        Arrays.fill(RuinClaims.claimIndex, 0);
+        Arrays.fill(RuinClaims.claimExpiry, 0);
+        Arrays.fill(RuinClaims.claimOwner, 0);
+        RuinClaims.release();
+    }
+
+    static int slotOf(MapLocation ruin) {
+        for (int i = 0; i < RuinClaims.MAX_CLAIMS; i++) {
+            if (RuinClaims.claimExpiry[i] != 0 && RuinClaims.claimIndex[i] == MapMemory.index(ruin)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testBuildClaimRoundTrip() {
+        int[] sent = claimAndDeliver(true);
+        int slot = slotOf(RUIN);
+        assertTrue("the claim was not recorded", slot >= 0);
+        assertEquals(sent[0], RuinClaims.claimExpiry[slot]);
+        assertEquals(sent[1], RuinClaims.claimOwner[slot]);
+        assertTrue((sent[1] & RuinClaims.BUILD) != 0);
+        // a build claim keeps both soldiers and splashers away, but not its owner
+        assertTrue(RuinClaims.claimedByOther(other.rc, RUIN, true));
+        assertTrue(RuinClaims.claimedByOther(other.rc, RUIN, false));
+        assertFalse(RuinClaims.claimedByOther(claimant.rc, RUIN, true));
+    }
+
+    @Test
+    public void testMarkClaimRoundTrip() {
+        int[] sent = claimAndDeliver(false);
+        int slot = slotOf(RUIN);
+        assertTrue("the claim was not recorded", slot >= 0);
+        assertEquals(sent[0], RuinClaims.claimExpiry[slot]);
+        assertEquals(sent[1], RuinClaims.claimOwner[slot]);
+        // soldiers ignore mark claims
+        assertFalse(RuinClaims.claimedByOther(other.rc, RUIN, true));
+        assertTrue(RuinClaims.claimedByOther(other.rc, RUIN, false));
+    }
+}
@@ -0,0 +1,62 @@
+package bytecode;
+
+import java.io.*;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/*
+ * The checked-in bytecode costs, one "<package>.<case label>=<bytecodes>" line per measured case.
+ * Regenerate with ./gradlew test -PupdateBytecodeBaseline=true after an intended change and commit the file.
+ */
+public class BytecodeBaseline {
+    public static final String DEFAULT_PATH = "test/bytecode/baseline.properties";
+
+    final File file;
+    final TreeMap<String, Integer> costs = new TreeMap<>();
+
+    BytecodeBaseline(File file) throws IOException {
+        this.file = file;
+        if (file.exists()) {
+            Properties properties = new Properties();
+            try (Reader reader = new FileReader(file)) {
+                properties.load(reader);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                costs.put(key, Integer.parseInt(properties.getProperty(key).trim()));
+            }
+        }
+    }
+
+    static String key(String packageName, BytecodeCase bytecodeCase) {
+        return packageName + "." + bytecodeCase.label;
+    }
+
+    // true if the file is missing or only has its header, i.e. the baseline was never generated
+    boolean isEmpty() {
+        return costs.isEmpty();
+    }
+
+    Integer get(String packageName, BytecodeCase bytecodeCase) {
+        return costs.get(key(packageName, bytecodeCase));
+    }
+
+    void put(String packageName, BytecodeCase bytecodeCase, int cost) {
+        costs.put(key(packageName, bytecodeCase), cost);
+    }
+
+    void remove(String packageName, BytecodeCase bytecodeCase) {
+        costs.remove(key(packageName, bytecodeCase));
+    }
+
+    // written by hand instead of Properties.store so that the file is sorted and has no timestamp
+    void save() throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.println("# Bytecode cost per call of the hot paths in bytecode.BytecodeCase, checked by BytecodeCostTest.");
+            writer.println("# Regenerate with ./gradlew test -PupdateBytecodeBaseline=true");
+            for (Map.Entry<String, Integer> entry : costs.entrySet()) {
+                writer.println(entry.getKey() + "=" + entry.getValue());
+            }
+        }
+    }
+}
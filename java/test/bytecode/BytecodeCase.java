@@ -0,0 +1,129 @@
+package bytecode;
+
+import battlecode.common.*;
+import harness.FixtureRobotController;
+import harness.FixtureWorld;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/*
+ * The hot paths whose bytecode cost is tracked. Every case runs against the same fixture (Pathfinding0 with paint
+ * and robots scattered from SEED), calls the method once to run static initializers and fill caches, then
+ * measures a second, identical call. The per-turn sensing cache is dropped before both calls. A case returns -1 for
+ * packages that do not have the method.
+ */
+public enum BytecodeCase {
+    SPLASHER_CONVOLUTION("SplasherConvolution.computeAndAttack") {
+        int run(BytecodeHarness harness, Fixture fixture) throws Throwable {
+            Method method = harness.botMethod("SplasherConvolution", "computeAndAttack",
+                    RobotController.class, MapInfo[].class, RobotInfo[].class, float.class);
+            if (method == null) return -1;
+            FixtureRobotController splasher = fixture.splasher;
+            MapInfo[] tiles = splasher.rc.senseNearbyMapInfos();
+            RobotInfo[] robots = splasher.rc.senseNearbyRobots();
+            // the threshold is out of reach so that both calls only score and never attack
+            return measureTwice(harness, method, null, splasher, fixture.start, splasher.rc, tiles, robots, 1000f);
+        }
+    },
+    SPLASHER_CONVOLUTION_UNROLLED("SplasherConvolutionUnrolled.computeAndAttack") {
+        int run(BytecodeHarness harness, Fixture fixture) throws Throwable {
+            Method method = harness.botMethod("SplasherConvolutionUnrolled", "computeAndAttack",
+                    RobotController.class, RobotInfo[].class, float.class);
+            if (method == null) return -1;
+            FixtureRobotController splasher = fixture.splasher;
+            RobotInfo[] robots = splasher.rc.senseNearbyRobots();
+            return measureTwice(harness, method, null, splasher, fixture.start, splasher.rc, robots, 1000f);
+        }
+    },
+    SPLASHER_PLANNER("SplasherPlanner.planAndAttack") {
+        int run(BytecodeHarness harness, Fixture fixture) throws Throwable {
+            Method method = harness.botMethod("SplasherPlanner", "planAndAttack",
+                    RobotController.class, RobotInfo[].class, float.class, boolean.class);
+            if (method == null) return -1;
+            FixtureRobotController splasher = fixture.splasher;
+            RobotInfo[] robots = splasher.rc.senseNearbyRobots();
+            return measureTwice(harness, method, null, splasher, fixture.start, splasher.rc, robots, 1000f, true);
+        }
+    },
+    MOPPER_UPDATE_MAP_MEMORY("Mopper.updateMapMemory") {
+        int run(BytecodeHarness harness, Fixture fixture) throws Throwable {
+            Method method = harness.botMethod("Mopper", "updateMapMemory", RobotController.class);
+            if (method == null) return -1;
+            return measureTwice(harness, method, null, fixture.mopper, fixture.start, fixture.mopper.rc);
+        }
+    },
+    ORBIT_PATHFINDER_STEP("OrbitPathfinder.step") {
+        int run(BytecodeHarness harness, Fixture fixture) throws Throwable {
+            Method method = harness.botMethod("OrbitPathfinder", "step");
+            if (method == null) return -1;
+            FixtureRobotController soldier = fixture.soldier;
+            Class<?>[] types = new Class<?>[] {RobotController.class, MapLocation.class};
+            int cost = 0;
+            for (int i = 0; i < 2; i++) {
+                soldier.reset(fixture.start);
+                harness.newTurn();
+                Object pathfinder = harness.newBotObject("OrbitPathfinder", types, soldier.rc, fixture.dest);
+                cost = harness.measure(method, pathfinder);
+            }
+            return cost;
+        }
+    },
+    TOWER_ATTACK_PATTERN0("Tower.attackPattern0") {
+        int run(BytecodeHarness harness, Fixture fixture) throws Throwable {
+            Method method = harness.botMethod("Tower", "attackPattern0",
+                    RobotController.class, MapInfo[].class, RobotInfo[].class);
+            if (method == null) return -1;
+            FixtureRobotController tower = fixture.tower;
+            MapInfo[] tiles = tower.rc.senseNearbyMapInfos();
+            RobotInfo[] robots = tower.rc.senseNearbyRobots();
+            return measureTwice(harness, method, null, tower, fixture.towerLocation, tower.rc, tiles, robots);
+        }
+    };
+
+    static final long SEED = 25;
+    static final String MAP = "Pathfinding0";
+
+    public final String label;
+
+    BytecodeCase(String label) {
+        this.label = label;
+    }
+
+    abstract int run(BytecodeHarness harness, Fixture fixture) throws Throwable;
+
+    static int measureTwice(BytecodeHarness harness, Method method, Object target, FixtureRobotController robot,
+                            MapLocation start, Object... args) throws Throwable {
+        robot.reset(start);
+        harness.newTurn();
+        harness.measure(method, target, args);
+        robot.reset(start);
+        harness.newTurn();
+        return harness.measure(method, target, args);
+    }
+
+    /*
+     * One robot of each kind on a shared world. Build a new one per package so that no state leaks between them.
+     */
+    static class Fixture {
+        final FixtureWorld world;
+        final MapLocation start;
+        final MapLocation dest;
+        final MapLocation towerLocation;
+        final FixtureRobotController splasher;
+        final FixtureRobotController mopper;
+        final FixtureRobotController soldier;
+        final FixtureRobotController tower;
+
+        Fixture() throws IOException {
+            world = FixtureWorld.load(MAP, FixtureWorld.DEFAULT_MAP_DIR).scatterPaint(SEED, 0.5).scatterRobots(SEED, 40);
+            start = world.freeTileNearCenter();
+            dest = new MapLocation(world.width - 1 - start.x / 2, world.height - 1 - start.y / 2);
+            splasher = world.controllerFor(UnitType.SPLASHER, Team.A, start);
+            mopper = world.controllerFor(UnitType.MOPPER, Team.A, start);
+            soldier = world.controllerFor(UnitType.SOLDIER, Team.A, start);
+            towerLocation = world.freeTileNearCenter();
+            tower = world.controllerFor(UnitType.LEVEL_ONE_PAINT_TOWER, Team.A, towerLocation);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package bytecode;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/*
+ * Fails when a hot path costs more bytecodes than the checked-in baseline allows. Costs are deterministic, so the
+ * tolerance only exists to let small refactors through without regenerating the baseline every time.
+ *
+ * Every case a package has must have a baseline entry, and every entry must still be measurable, so that an empty or
+ * stale baseline fails instead of passing silently. Cases a package does not have (no such method) need no entry.
+ */
+public class BytecodeCostTest {
+    static final String[] PACKAGES = new String[] {"bunniesv0", "bunniesv1", "bunniesv2", "bunniesv3"};
+    static final double TOLERANCE = Double.parseDouble(System.getProperty("bytecode.tolerance", "0.05"));
+    static final String REGENERATE = "regenerate with ./gradlew test -PupdateBytecodeBaseline=true and commit " +
+            BytecodeBaseline.DEFAULT_PATH;
+
+    @Test
+    public void testHotPathsWithinBaseline() throws Throwable {
+        String classesDir = System.getProperty("bytecode.classes", "build/classes");
+        boolean update = Boolean.parseBoolean(System.getProperty("bytecode.updateBaseline", "false"));
+        BytecodeBaseline baseline = new BytecodeBaseline(
+                new File(System.getProperty("bytecode.baseline", BytecodeBaseline.DEFAULT_PATH)));
+        // one failure instead of one per case, the per-case messages would all say the same
+        assertTrue("no bytecode baseline was generated yet, " + REGENERATE, update || !baseline.isEmpty());
+
+        List<String> failures = new ArrayList<>();
+        for (String packageName : PACKAGES) {
+            BytecodeHarness harness;
+            try {
+                harness = new BytecodeHarness(classesDir, packageName);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // the harness reaches into the engine's instrumenter by reflection, which changes between versions
+                throw new AssertionError("could not set up the engine's instrumenter for " + packageName +
+                        " (engine version changed, or engine not on the test classpath?): " + e, e);
+            }
+            BytecodeCase.Fixture fixture = new BytecodeCase.Fixture();
+            for (BytecodeCase bytecodeCase : BytecodeCase.values()) {
+                String key = BytecodeBaseline.key(packageName, bytecodeCase);
+                int cost = bytecodeCase.run(harness, fixture);
+                Integer expected = baseline.get(packageName, bytecodeCase);
+                if (cost < 0) {
+                    if (update) {
+                        baseline.remove(packageName, bytecodeCase);
+                    } else if (expected != null) {
+                        failures.add(key + ": has a baseline of " + expected + " but could not be measured " +
+                                "(method renamed or removed?), " + REGENERATE);
+                    }
+                    continue;
+                }
+                if (update) {
+                    baseline.put(packageName, bytecodeCase, cost);
+                } else if (expected == null) {
+                    failures.add(key + ": no baseline (measured " + cost + "), " + REGENERATE);
+                } else if (cost > expected * (1 + TOLERANCE)) {
+                    failures.add(key + ": " + cost + " bytecodes, baseline " + expected);
+                }
+            }
+        }
+        if (update) {
+            baseline.save();
+        }
+        assertTrue("bytecode regressions (tolerance " + TOLERANCE + "):\n" + String.join("\n", failures),
+                failures.isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+package bytecode;
+
+import battlecode.instrumenter.TeamClassLoaderFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/*
+ * Runs one bot package through the engine's instrumenter, so that calls into it are charged bytecodes exactly
+ * like in a match. Each harness has its own instrumented class loader, so statics start fresh per package.
+ *
+ * Bot classes are only reachable through reflection (they live in the instrumented loader), which costs nothing:
+ * only code inside the instrumented classes is counted.
+ */
+public class BytecodeHarness {
+    // far more than a turn, so that the monitor never tries to pause the "robot"
+    static final int BYTECODE_LIMIT = 1_000_000_000;
+
+    final String packageName;
+    final ClassLoader loader;
+    final Class<?> monitor;
+    final Method getBytecodeNum;
+
+    public BytecodeHarness(String classesDir, String packageName) throws ReflectiveOperationException {
+        this.packageName = packageName;
+        TeamClassLoaderFactory factory = new TeamClassLoaderFactory(classesDir);
+        Method createLoader = findMethod(TeamClassLoaderFactory.class, "createLoader");
+        loader = (ClassLoader) createLoader.invoke(factory, defaultArguments(createLoader.getParameterTypes()));
+        // the instrumented code reports to the RobotMonitor of its own loader, not to the one on our classpath
+        monitor = loader.loadClass("battlecode.instrumenter.inject.RobotMonitor");
+        Method init = findMethod(monitor, "init");
+        init.invoke(null, defaultArguments(init.getParameterTypes()));
+        monitor.getMethod("setBytecodeLimit", int.class).invoke(null, BYTECODE_LIMIT);
+        getBytecodeNum = monitor.getMethod("getBytecodeNum");
+    }
+
+    int bytecodeNum() throws ReflectiveOperationException {
+        return (Integer) getBytecodeNum.invoke(null);
+    }
+
+    /*
+     * Returns the bot class, or null if this package does not have it.
+     */
+    Class<?> botClass(String simpleName) {
+        try {
+            return loader.loadClass(packageName + "." + simpleName);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Returns the static or instance method with exactly these parameter types, or null if there is none.
+     */
+    Method botMethod(String simpleName, String methodName, Class<?>... parameterTypes) {
+        Class<?> botClass = botClass(simpleName);
+        if (botClass == null) {
+            return null;
+        }
+        try {
+            Method method = botClass.getDeclaredMethod(methodName, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    Object newBotObject(String simpleName, Class<?>[] parameterTypes, Object... args)
+            throws ReflectiveOperationException {
+        Constructor<?> constructor = botClass(simpleName).getDeclaredConstructor(parameterTypes);
+        constructor.setAccessible(true);
+        return constructor.newInstance(args);
+    }
+
+    /*
+     * Drops the package's per-turn sensing cache (Sense), if it has one, so that the next measured call pays for its
+     * own sensing like the first call of a turn does.
+     */
+    void newTurn() throws ReflectiveOperationException {
+        Method invalidate = botMethod("Sense", "invalidate");
+        if (invalidate != null) {
+            invalidate.invoke(null);
+        }
+    }
+
+    /*
+     * Calls the method and returns how many bytecodes it was charged. Exceptions thrown by the bot are rethrown.
+     */
+    int measure(Method method, Object target, Object... args) throws Throwable {
+        int before = bytecodeNum();
+        try {
+            method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        return bytecodeNum() - before;
+    }
+
+    static Method findMethod(Class<?> type, String name) throws NoSuchMethodException {
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + "." + name);
+    }
+
+    // zeros, and no-op implementations for callbacks such as the monitor's pauser and killer
+    static Object[] defaultArguments(Class<?>[] types) {
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == boolean.class) {
+                args[i] = false;
+            } else if (type == int.class) {
+                args[i] = 0;
+            } else if (type == long.class) {
+                args[i] = 0L;
+            } else if (type.isInterface()) {
+                args[i] = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                        (proxy, method, methodArgs) -> null);
+            }
+        }
+        return args;
+    }
+}
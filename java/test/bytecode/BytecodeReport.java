@@ -0,0 +1,40 @@
+package bytecode;
+
+import java.io.File;
+
+/*
+ * Prints the bytecode cost of every BytecodeCase for each package given on the command line, next to the
+ * checked-in baseline. Run with ./gradlew bytecodeReport.
+ */
+public class BytecodeReport {
+    public static void main(String[] args) throws Throwable {
+        String classesDir = System.getProperty("bytecode.classes", "build/classes");
+        BytecodeBaseline baseline = new BytecodeBaseline(
+                new File(System.getProperty("bytecode.baseline", BytecodeBaseline.DEFAULT_PATH)));
+        String[] packages = args.length > 0 ? args : BytecodeCostTest.PACKAGES;
+
+        for (String packageName : packages) {
+            BytecodeHarness harness = new BytecodeHarness(classesDir, packageName);
+            BytecodeCase.Fixture fixture = new BytecodeCase.Fixture();
+            System.out.println();
+            System.out.println(packageName);
+            System.out.printf("  %-46s %10s %10s %8s%n", "method", "bytecodes", "baseline", "change");
+            for (BytecodeCase bytecodeCase : BytecodeCase.values()) {
+                String cost;
+                int measured = -1;
+                try {
+                    measured = bytecodeCase.run(harness, fixture);
+                    cost = measured < 0 ? "-" : Integer.toString(measured);
+                } catch (Throwable t) {
+                    cost = "error";
+                    System.err.println(packageName + " " + bytecodeCase.label + ": " + t);
+                }
+                Integer expected = baseline.get(packageName, bytecodeCase);
+                String change = measured < 0 || expected == null || expected == 0 ? "" :
+                        String.format("%+.1f%%", 100.0 * (measured - expected) / expected);
+                System.out.printf("  %-46s %10s %10s %8s%n", bytecodeCase.label, cost,
+                        expected == null ? "-" : expected.toString(), change);
+            }
+        }
+    }
+}
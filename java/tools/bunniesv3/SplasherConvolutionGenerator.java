@@ -0,0 +1,236 @@
+package bunniesv3;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Writes SplasherConvolutionUnrolled.java from the weights and lookup tables in SplasherConvolution, so that
+ * retuning fringeDamageArray/centerDamageArray only needs ./gradlew generateSplasherConvolution. ParamTuner
+ * generates its candidates' copies with their own fringe weights through write(PrintWriter, float[][][]).
+ *
+ * Weights are multiplied by SCALE and rounded, so the generated code works in ints.
+ */
+public class SplasherConvolutionGenerator {
+    static final int SCALE = 10;
+    static final String[] PAINT_NAMES = new String[] {
+            "EMPTY", "ALLY_PRIMARY", "ALLY_SECONDARY", "ENEMY_PRIMARY", "ENEMY_SECONDARY"
+    };
+    static final int TOWER_SCORE = 100 * SCALE;
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 0 ? args[0] : "src/bunniesv3/SplasherConvolutionUnrolled.java");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+            write(writer, SplasherConvolution.fringeDamageArray);
+        }
+        System.out.println("Wrote " + out);
+    }
+
+    // writes the source of SplasherConvolutionUnrolled, with fringeDamageArray in place of SplasherConvolution's
+    public static void write(PrintWriter out, float[][][] fringeDamageArray) {
+        new SplasherConvolutionGenerator(out, fringeDamageArray).generate();
+    }
+
+    private final PrintWriter out;
+    private final float[][][] fringeDamageArray;
+
+    SplasherConvolutionGenerator(PrintWriter out, float[][][] fringeDamageArray) {
+        this.out = out;
+        this.fringeDamageArray = fringeDamageArray;
+    }
+
+    static int scaled(float weight) {
+        return Math.round(weight * SCALE);
+    }
+
+    // tiles (as 9x9 indices, robot at 4,4) that feed at least one attack center, in a fixed order
+    static List<int[]> contributingTiles() {
+        List<int[]> tiles = new ArrayList<>();
+        for (int x = 0; x < 9; x++) {
+            for (int y = 0; y < 9; y++) {
+                if (SplasherConvolution.attackCanReach[x][y] && (SplasherConvolution.offsetPairToCenter[x][y].length > 0
+                        || SplasherConvolution.offsetPairToFringes[x][y].length > 0)) {
+                    tiles.add(new int[] {x, y});
+                }
+            }
+        }
+        return tiles;
+    }
+
+    static String offset(String base, int delta) {
+        if (delta == 0) return base;
+        return base + (delta > 0 ? " + " + delta : " - " + (-delta));
+    }
+
+    void generate() {
+        List<int[]> tiles = contributingTiles();
+        int[][] attackPositions = SplasherConvolution.attackPositions;
+
+        out.println("package bunniesv3;");
+        out.println();
+        out.println("import battlecode.common.*;");
+        out.println();
+        out.println("/*");
+        out.println(" * GENERATED by tools/bunniesv3/SplasherConvolutionGenerator.java, do not edit by hand.");
+        out.println(" * Run ./gradlew generateSplasherConvolution after changing the weights in SplasherConvolution.");
+        out.println(" *");
+        out.println(" * Same scoring as SplasherConvolution.computeAndAttack, written out tile by tile with int scores");
+        out.println(" * (weights times " + SCALE + "), no arrays and no per-call allocation besides MapLocations.");
+        out.println(" */");
+        out.println("public class SplasherConvolutionUnrolled {");
+        out.println("    static final int SCALE = " + SCALE + ";");
+        out.println();
+        out.println("    static MapLocation computeAndAttack(RobotController rc, RobotInfo[] nearbyRobots, float threshold) {");
+        out.println("        MapLocation rcLoc = rc.getLocation();");
+        out.println("        int rcX = rcLoc.x;");
+        out.println("        int rcY = rcLoc.y;");
+        out.println("        Team team = rc.getTeam();");
+        for (int n = 0; n < attackPositions.length; n++) {
+            out.println("        int s" + n + " = 0;");
+        }
+        out.println();
+        out.println("        // the first enemy tower in sight decides the attack on its own, like in SplasherConvolution");
+        out.println("        int towerIndex = -1;");
+        out.println("        for (int i = nearbyRobots.length; --i >= 0;) {");
+        out.println("            RobotInfo robot = nearbyRobots[i];");
+        out.println("            if (robot.type.isTowerType() && robot.team != team) {");
+        out.println("                towerIndex = (robot.location.x - rcX + 4) * 9 + robot.location.y - rcY + 4;");
+        out.println("                break;");
+        out.println("            }");
+        out.println("        }");
+        out.println("        if (towerIndex != -1) {");
+        out.println("            switch (towerIndex) {");
+        for (int[] tile : tiles) {
+            int x = tile[0], y = tile[1];
+            List<Integer> centers = new ArrayList<>();
+            for (int n : SplasherConvolution.offsetPairToCenter[x][y]) centers.add(n);
+            for (int n : SplasherConvolution.offsetPairToFringes[x][y]) centers.add(n);
+            StringBuilder line = new StringBuilder("                case " + (x * 9 + y) + ":");
+            for (int n : centers) {
+                line.append(" s").append(n).append(" += ").append(TOWER_SCORE).append(";");
+            }
+            line.append(" break;");
+            out.println(line);
+        }
+        out.println("            }");
+        out.println("        } else {");
+        out.println("            try {");
+        out.println("                MapLocation loc;");
+        out.println("                MapInfo tile;");
+        out.println("                PaintType paint;");
+        for (int k = 0; k < tiles.size(); k++) {
+            int x = tiles.get(k)[0], y = tiles.get(k)[1];
+            boolean isCenter = SplasherConvolution.offsetPairToCenter[x][y].length > 0;
+            boolean isFringe = SplasherConvolution.offsetPairToFringes[x][y].length > 0;
+            out.println();
+            out.println("                // (" + (x - 4) + ", " + (y - 4) + ")");
+            out.println("                int c" + k + " = 0;");
+            out.println("                int f" + k + " = 0;");
+            out.println("                loc = new MapLocation(" + offset("rcX", x - 4) + ", " + offset("rcY", y - 4) + ");");
+            out.println("                if (rc.onTheMap(loc)) {");
+            out.println("                    tile = rc.senseMapInfo(loc);");
+            writeWeights("                    ", k, isCenter, isFringe);
+            out.println("                }");
+        }
+        out.println();
+        for (int n = 0; n < attackPositions.length; n++) {
+            StringBuilder sum = new StringBuilder();
+            for (int k = 0; k < tiles.size(); k++) {
+                int x = tiles.get(k)[0], y = tiles.get(k)[1];
+                for (int center : SplasherConvolution.offsetPairToCenter[x][y]) {
+                    if (center == n) sum.append(sum.length() == 0 ? "" : " + ").append("c").append(k);
+                }
+                for (int fringe : SplasherConvolution.offsetPairToFringes[x][y]) {
+                    if (fringe == n) sum.append(sum.length() == 0 ? "" : " + ").append("f").append(k);
+                }
+            }
+            out.println("                s" + n + " = " + (sum.length() == 0 ? "0" : sum) + ";");
+        }
+        out.println("            } catch (GameActionException e) {");
+        out.println("                return null;");
+        out.println("            }");
+        out.println("        }");
+        out.println();
+        out.println("        // attack the best center that reaches the threshold, falling back to the next best");
+        out.println("        int minScore = Math.round(threshold * SCALE);");
+        out.println("        while (true) {");
+        out.println("            int best = minScore - 1;");
+        out.println("            int bestIndex = -1;");
+        for (int n = 0; n < attackPositions.length; n++) {
+            out.println("            if (s" + n + " > best) { best = s" + n + "; bestIndex = " + n + "; }");
+        }
+        out.println("            MapLocation target;");
+        out.println("            switch (bestIndex) {");
+        for (int n = 0; n < attackPositions.length; n++) {
+            out.println("                case " + n + ": target = new MapLocation(" + offset("rcX", attackPositions[n][0]) + ", "
+                    + offset("rcY", attackPositions[n][1]) + "); s" + n + " = Integer.MIN_VALUE; break;");
+        }
+        out.println("                default: return null;");
+        out.println("            }");
+        out.println("            if (rc.canAttack(target)) {");
+        out.println("                try {");
+        out.println("                    rc.attack(target);");
+        out.println("                    return target;");
+        out.println("                } catch (GameActionException ignored) { }");
+        out.println("            }");
+        out.println("        }");
+        out.println("    }");
+        out.println("}");
+    }
+
+    /*
+     * Emits the if/else chain that sets c<k>/f<k> from the tile's paint and mark. Only paint types with a
+     * nonzero weight get a branch, and getMark() is only called for paint types whose weight depends on it.
+     */
+    void writeWeights(String indent, int k, boolean isCenter, boolean isFringe) {
+        float[][] passable = fringeDamageArray[1];
+        float[][] passableCenter = SplasherConvolution.centerDamageArray[1];
+        int wallCenter = scaled(SplasherConvolution.centerDamageArray[0][0][0]);
+        int wallFringe = scaled(fringeDamageArray[0][0][0]);
+
+        out.println(indent + "if (tile.isPassable()) {");
+        out.println(indent + "    paint = tile.getPaint();");
+        boolean first = true;
+        for (int p = 0; p < PAINT_NAMES.length; p++) {
+            int c0 = isCenter ? scaled(passableCenter[p][0]) : 0;
+            int c1 = isCenter ? scaled(passableCenter[p][1]) : 0;
+            int f0 = isFringe ? scaled(passable[p][0]) : 0;
+            int f1 = isFringe ? scaled(passable[p][1]) : 0;
+            if (c0 == 0 && c1 == 0 && f0 == 0 && f1 == 0) {
+                continue;
+            }
+            String condition = (first ? "if" : "} else if") + " (paint == PaintType." + PAINT_NAMES[p] + ") {";
+            out.println(indent + "    " + condition);
+            if (c0 == c1 && f0 == f1) {
+                out.println(indent + "        " + assignments(k, c0, f0));
+            } else {
+                out.println(indent + "        if (tile.getMark() == PaintType.ALLY_SECONDARY) {");
+                out.println(indent + "            " + assignments(k, c1, f1));
+                out.println(indent + "        } else {");
+                out.println(indent + "            " + assignments(k, c0, f0));
+                out.println(indent + "        }");
+            }
+            first = false;
+        }
+        if (!first) {
+            out.println(indent + "    }");
+        }
+        if (wallCenter != 0 || wallFringe != 0) {
+            out.println(indent + "} else {");
+            out.println(indent + "    " + assignments(k, isCenter ? wallCenter : 0, isFringe ? wallFringe : 0));
+        }
+        out.println(indent + "}");
+    }
+
+    static String assignments(int k, int center, int fringe) {
+        StringBuilder line = new StringBuilder();
+        if (center != 0) line.append("c").append(k).append(" = ").append(center).append(";");
+        if (fringe != 0) line.append(line.length() == 0 ? "" : " ").append("f").append(k).append(" = ").append(fringe).append(";");
+        return line.toString();
+    }
+}
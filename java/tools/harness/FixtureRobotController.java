@@ -0,0 +1,253 @@
+package harness;
+
+import battlecode.common.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * RobotController stand-in backed by a FixtureWorld. It is a dynamic proxy so that it keeps compiling when the
+ * engine adds methods: the sensing, movement and attack calls the bots use are answered from the world, every
+ * other call returns 0/false/null.
+ *
+ * Movement and actions are always ready unless the caller says otherwise, and there is no cooldown, so the same
+ * controller can be reused for many calls after reset(). Messages and broadcasts always go through and are collected
+ * in sent, nothing is delivered.
+ */
+public class FixtureRobotController implements InvocationHandler {
+    static final int VISION_RADIUS_SQUARED = 20;
+
+    final FixtureWorld world;
+    public final RobotController rc;
+
+    RobotInfo robot;
+    public MapLocation location;
+    public int round = 1;
+    public int paint;
+    public boolean movementReady = true;
+    public boolean actionReady = true;
+    public int moves = 0;
+    public int attacks = 0;
+    public final List<Integer> sent = new ArrayList<>();
+
+    FixtureRobotController(FixtureWorld world, RobotInfo robot) {
+        this.world = world;
+        this.robot = robot;
+        location = robot.location;
+        paint = robot.paintAmount;
+        rc = (RobotController) Proxy.newProxyInstance(RobotController.class.getClassLoader(),
+                new Class<?>[] {RobotController.class}, this);
+    }
+
+    /*
+     * Puts the robot back on loc (replacing whatever robot is registered there) and clears the move and attack
+     * counters.
+     */
+    public void reset(MapLocation loc) {
+        setLocation(loc);
+        movementReady = true;
+        actionReady = true;
+        moves = 0;
+        attacks = 0;
+    }
+
+    void setLocation(MapLocation loc) {
+        int old = world.index(location);
+        if (world.robots[old] != null && world.robots[old].ID == robot.ID) {
+            world.robots[old] = null;
+        }
+        location = loc;
+        robot = new RobotInfo(robot.ID, robot.team, robot.type, robot.health, loc, paint);
+        world.robots[world.index(loc)] = robot;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getLocation": return location;
+            case "getID": return robot.ID;
+            case "getTeam": return robot.team;
+            case "getType": return robot.type;
+            case "getHealth": return robot.health;
+            case "getPaint": return paint;
+            case "getRoundNum": return round;
+            case "getMapWidth": return world.width;
+            case "getMapHeight": return world.height;
+            case "isMovementReady": return movementReady;
+            case "isActionReady": return actionReady;
+            case "getMovementCooldownTurns": return movementReady ? 0 : GameConstants.COOLDOWN_LIMIT;
+            case "getActionCooldownTurns": return actionReady ? 0 : GameConstants.COOLDOWN_LIMIT;
+            case "onTheMap": return world.onTheMap((MapLocation) args[0]);
+            case "canSenseLocation": return canSense((MapLocation) args[0]);
+            case "sensePassability": return senseMapInfo((MapLocation) args[0]).isPassable();
+            case "senseMapInfo": return senseMapInfo((MapLocation) args[0]);
+            case "senseNearbyMapInfos": return senseNearbyMapInfos(args);
+            case "senseNearbyRobots": return senseNearbyRobots(args);
+            case "senseNearbyRuins": return senseNearbyRuins(args);
+            case "canSenseRobotAtLocation":
+            case "isLocationOccupied":
+                return canSense((MapLocation) args[0]) && world.robots[world.index((MapLocation) args[0])] != null;
+            case "senseRobotAtLocation":
+                requireSensable((MapLocation) args[0]);
+                return world.robots[world.index((MapLocation) args[0])];
+            case "canMove": return canMove((Direction) args[0]);
+            case "move":
+                if (!canMove((Direction) args[0])) {
+                    throw new GameActionException(GameActionExceptionType.CANT_MOVE_THERE, "fixture: can't move");
+                }
+                setLocation(location.add((Direction) args[0]));
+                movementReady = false;
+                moves++;
+                return null;
+            case "canAttack": return canAttack((MapLocation) args[0]);
+            case "attack":
+                if (!canAttack((MapLocation) args[0])) {
+                    throw new GameActionException(GameActionExceptionType.CANT_DO_THAT, "fixture: can't attack");
+                }
+                actionReady = false;
+                attacks++;
+                return null;
+            case "canSendMessage":
+            case "canBroadcastMessage":
+                return true;
+            case "sendMessage":
+                sent.add((Integer) args[1]);
+                return null;
+            case "broadcastMessage":
+                sent.add((Integer) args[0]);
+                return null;
+            case "readMessages": return world.messages.toArray(new Message[0]);
+            case "getAllLocationsWithinRadiusSquared": {
+                List<MapLocation> locations = new ArrayList<>();
+                MapLocation center = (MapLocation) args[0];
+                int radiusSquared = (Integer) args[1];
+                for (int i = 0; i < world.wall.length; i++) {
+                    if (world.location(i).distanceSquaredTo(center) <= radiusSquared) {
+                        locations.add(world.location(i));
+                    }
+                }
+                return locations.toArray(new MapLocation[0]);
+            }
+            case "equals": return proxy == args[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            case "toString": return "FixtureRobotController#" + robot.ID;
+            default: return zero(method.getReturnType());
+        }
+    }
+
+    static Object zero(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        return null;
+    }
+
+    boolean canSense(MapLocation loc) {
+        return world.onTheMap(loc) && location.distanceSquaredTo(loc) <= VISION_RADIUS_SQUARED;
+    }
+
+    void requireSensable(MapLocation loc) throws GameActionException {
+        if (!canSense(loc)) {
+            throw new GameActionException(GameActionExceptionType.CANT_SENSE_THAT, "fixture: can't sense " + loc);
+        }
+    }
+
+    MapInfo senseMapInfo(MapLocation loc) throws GameActionException {
+        requireSensable(loc);
+        return world.mapInfo(loc);
+    }
+
+    boolean canMove(Direction direction) {
+        MapLocation next = location.add(direction);
+        if (!movementReady || !world.onTheMap(next)) {
+            return false;
+        }
+        int i = world.index(next);
+        return !world.wall[i] && !world.ruin[i] && world.robots[i] == null;
+    }
+
+    boolean canAttack(MapLocation loc) {
+        return actionReady && world.onTheMap(loc) &&
+                location.distanceSquaredTo(loc) <= robot.type.actionRadiusSquared;
+    }
+
+    // the overloads take (), (radiusSquared) or (center, radiusSquared)
+    MapInfo[] senseNearbyMapInfos(Object[] args) {
+        MapLocation center = location;
+        int radiusSquared = VISION_RADIUS_SQUARED;
+        if (args != null && args.length == 1) {
+            radiusSquared = (Integer) args[0];
+        } else if (args != null && args.length == 2) {
+            center = (MapLocation) args[0];
+            radiusSquared = (Integer) args[1];
+        }
+        if (radiusSquared < 0 || radiusSquared > VISION_RADIUS_SQUARED) {
+            radiusSquared = VISION_RADIUS_SQUARED;
+        }
+        List<MapInfo> tiles = new ArrayList<>();
+        for (MapLocation loc : nearbyLocations(center, radiusSquared)) {
+            tiles.add(world.mapInfo(loc));
+        }
+        return tiles.toArray(new MapInfo[0]);
+    }
+
+    // the overloads take (), (radiusSquared), (radiusSquared, team) or (center, radiusSquared, team)
+    RobotInfo[] senseNearbyRobots(Object[] args) {
+        MapLocation center = location;
+        int radiusSquared = VISION_RADIUS_SQUARED;
+        Team team = null;
+        if (args != null && args.length >= 1 && args[0] instanceof MapLocation) {
+            center = (MapLocation) args[0];
+            radiusSquared = (Integer) args[1];
+            team = (Team) args[2];
+        } else if (args != null && args.length >= 1) {
+            radiusSquared = (Integer) args[0];
+            team = args.length > 1 ? (Team) args[1] : null;
+        }
+        if (radiusSquared < 0 || radiusSquared > VISION_RADIUS_SQUARED) {
+            radiusSquared = VISION_RADIUS_SQUARED;
+        }
+        List<RobotInfo> found = new ArrayList<>();
+        for (MapLocation loc : nearbyLocations(center, radiusSquared)) {
+            RobotInfo other = world.robots[world.index(loc)];
+            if (other != null && other.ID != robot.ID && (team == null || other.team == team)) {
+                found.add(other);
+            }
+        }
+        return found.toArray(new RobotInfo[0]);
+    }
+
+    MapLocation[] senseNearbyRuins(Object[] args) {
+        int radiusSquared = args != null && args.length == 1 ? (Integer) args[0] : -1;
+        if (radiusSquared < 0 || radiusSquared > VISION_RADIUS_SQUARED) {
+            radiusSquared = VISION_RADIUS_SQUARED;
+        }
+        List<MapLocation> ruins = new ArrayList<>();
+        for (MapLocation loc : nearbyLocations(location, radiusSquared)) {
+            if (world.ruin[world.index(loc)]) {
+                ruins.add(loc);
+            }
+        }
+        return ruins.toArray(new MapLocation[0]);
+    }
+
+    // on-map locations within radiusSquared of center, column by column
+    List<MapLocation> nearbyLocations(MapLocation center, int radiusSquared) {
+        List<MapLocation> locations = new ArrayList<>();
+        int r = (int) Math.sqrt(radiusSquared);
+        for (int x = center.x - r; x <= center.x + r; x++) {
+            for (int y = center.y - r; y <= center.y + r; y++) {
+                MapLocation loc = new MapLocation(x, y);
+                if (world.onTheMap(loc) && center.distanceSquaredTo(loc) <= radiusSquared) {
+                    locations.add(loc);
+                }
+            }
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,160 @@
+package harness;
+
+import battlecode.common.*;
+import battlecode.world.GameMapIO;
+import battlecode.world.LiveMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * A frozen game state for running bot code outside a match: terrain and starting towers from a .map25 file,
+ * plus paint, marks and robots scattered from a fixed seed so that every run sees exactly the same tiles.
+ *
+ * Robots are given a RobotController through controllerFor(), which answers sensing calls from this state.
+ * Nothing is simulated: there are no cooldowns, paint or rounds beyond what the caller sets.
+ */
+public class FixtureWorld {
+    public static final File DEFAULT_MAP_DIR = new File("maps");
+
+    public final int width;
+    public final int height;
+    final boolean[] wall;
+    final boolean[] ruin;
+    final PaintType[] paint;
+    final PaintType[] mark;
+    final RobotInfo[] robots;
+    final List<Message> messages = new ArrayList<>();
+    int nextID = 20000;
+
+    FixtureWorld(int width, int height) {
+        this.width = width;
+        this.height = height;
+        wall = new boolean[width * height];
+        ruin = new boolean[width * height];
+        paint = new PaintType[width * height];
+        mark = new PaintType[width * height];
+        robots = new RobotInfo[width * height];
+        Arrays.fill(paint, PaintType.EMPTY);
+        Arrays.fill(mark, PaintType.EMPTY);
+    }
+
+    /*
+     * Loads walls, ruins and starting robots of a map from mapDir (usually java/maps).
+     */
+    public static FixtureWorld load(String mapName, File mapDir) throws IOException {
+        LiveMap map = GameMapIO.loadMap(mapName, mapDir, false);
+        FixtureWorld world = new FixtureWorld(map.getWidth(), map.getHeight());
+        boolean[] walls = map.getWallArray();
+        boolean[] ruins = map.getRuinArray();
+        for (int i = 0; i < walls.length; i++) {
+            MapLocation loc = map.indexToLocation(i);
+            int index = world.index(loc);
+            world.wall[index] = walls[i];
+            world.ruin[index] = ruins[i];
+        }
+        for (RobotInfo robot : map.getInitialBodies()) {
+            world.robots[world.index(robot.location)] = robot;
+        }
+        return world;
+    }
+
+    /*
+     * An empty map of the given size: no walls, ruins, paint or robots.
+     */
+    public static FixtureWorld blank(int width, int height) {
+        return new FixtureWorld(width, height);
+    }
+
+    /*
+     * Paints roughly fraction of the passable tiles, split evenly between the five paint types, and marks a few.
+     */
+    public FixtureWorld scatterPaint(long seed, double fraction) {
+        Random random = new Random(seed);
+        PaintType[] types = PaintType.values();
+        for (int i = 0; i < paint.length; i++) {
+            if (wall[i] || ruin[i]) {
+                continue;
+            }
+            if (random.nextDouble() < fraction) {
+                paint[i] = types[random.nextInt(types.length)];
+            }
+            if (random.nextDouble() < fraction / 4) {
+                mark[i] = random.nextBoolean() ? PaintType.ALLY_PRIMARY : PaintType.ALLY_SECONDARY;
+            }
+        }
+        return this;
+    }
+
+    /*
+     * Places count robots of random teams and robot types on free passable tiles.
+     */
+    public FixtureWorld scatterRobots(long seed, int count) {
+        Random random = new Random(seed);
+        UnitType[] types = new UnitType[] {UnitType.SOLDIER, UnitType.SPLASHER, UnitType.MOPPER};
+        for (int placed = 0; placed < count; ) {
+            int index = random.nextInt(paint.length);
+            if (wall[index] || ruin[index] || robots[index] != null) {
+                continue;
+            }
+            UnitType type = types[random.nextInt(types.length)];
+            Team team = random.nextBoolean() ? Team.A : Team.B;
+            robots[index] = new RobotInfo(nextID++, team, type, type.health, location(index), type.paintCapacity / 2);
+            placed++;
+        }
+        return this;
+    }
+
+    /*
+     * Queues a message that every controller returns from readMessages().
+     */
+    public void addMessage(int bytes, int senderID, int round) {
+        messages.add(new Message(bytes, senderID, round));
+    }
+
+    /*
+     * The passable, unoccupied tile closest to the center of the map, for placing the robot under test.
+     */
+    public MapLocation freeTileNearCenter() {
+        MapLocation center = new MapLocation(width / 2, height / 2);
+        MapLocation best = null;
+        for (int i = 0; i < paint.length; i++) {
+            MapLocation loc = location(i);
+            if (!wall[i] && !ruin[i] && robots[i] == null &&
+                    (best == null || center.distanceSquaredTo(loc) < center.distanceSquaredTo(best))) {
+                best = loc;
+            }
+        }
+        return best;
+    }
+
+    /*
+     * Puts a robot on the map and returns a controller for it.
+     */
+    public FixtureRobotController controllerFor(UnitType type, Team team, MapLocation loc) {
+        RobotInfo robot = new RobotInfo(nextID++, team, type, type.health, loc, type.paintCapacity);
+        robots[index(loc)] = robot;
+        return new FixtureRobotController(this, robot);
+    }
+
+    public boolean onTheMap(MapLocation loc) {
+        return loc.x >= 0 && loc.y >= 0 && loc.x < width && loc.y < height;
+    }
+
+    int index(MapLocation loc) {
+        return loc.y * width + loc.x;
+    }
+
+    MapLocation location(int index) {
+        return new MapLocation(index % width, index / width);
+    }
+
+    MapInfo mapInfo(MapLocation loc) {
+        int i = index(loc);
+        return new MapInfo(loc, !wall[i] && !ruin[i], wall[i], paint[i], mark[i], ruin[i], false);
+    }
+}
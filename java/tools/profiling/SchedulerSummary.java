@@ -0,0 +1,94 @@
+package profiling;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Adds up the TurnScheduler counters of a match per team and unit type. Reads the match output (set
+ * TurnScheduler.REPORT to true, run the match with -PoutputVerbose=true and save what it prints), keeps the last
+ * "[sched]" line of every robot, since later checkpoints include the earlier ones, and prints turns, skipped turns and
+ * deferred / resumed tasks per kind.
+ *
+ * Usage: ./gradlew schedulerSummary -Plog=<match output>
+ */
+public class SchedulerSummary {
+    // the engine prefixes robot output with [A: #id@round] or [B: ...]
+    static final Pattern TEAM = Pattern.compile("\\[(A|B):");
+    static final Pattern LINE = Pattern.compile("\\[sched\\] (\\w+) #(\\d+) r(\\d+) turns=(\\d+) skipped=(\\d+)(.*)");
+    static final Pattern KIND = Pattern.compile("(\\w+)=deferred:(\\d+),resumed:(\\d+)");
+
+    // one robot's last checkpoint
+    static class Robot {
+        String group;
+        int round = -1;
+        int turns;
+        int skipped;
+        Map<String, int[]> kinds = new TreeMap<>();
+    }
+
+    static class Total {
+        int robots = 0;
+        long turns = 0;
+        long skipped = 0;
+        Map<String, long[]> kinds = new TreeMap<>();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("usage: SchedulerSummary <match output>");
+        }
+        Map<String, Robot> robots = new HashMap<>();
+        for (String text : Files.readAllLines(new File(args[0]).toPath(), StandardCharsets.UTF_8)) {
+            Matcher line = LINE.matcher(text);
+            if (!line.find()) {
+                continue;
+            }
+            Matcher team = TEAM.matcher(text);
+            String group = (team.find() ? team.group(1) + " " : "") + line.group(1);
+            Robot robot = robots.computeIfAbsent(group + "#" + line.group(2), k -> new Robot());
+            int round = Integer.parseInt(line.group(3));
+            if (round < robot.round) {
+                continue;
+            }
+            robot.group = group;
+            robot.round = round;
+            robot.turns = Integer.parseInt(line.group(4));
+            robot.skipped = Integer.parseInt(line.group(5));
+            robot.kinds.clear();
+            Matcher kind = KIND.matcher(line.group(6));
+            while (kind.find()) {
+                robot.kinds.put(kind.group(1),
+                        new int[] {Integer.parseInt(kind.group(2)), Integer.parseInt(kind.group(3))});
+            }
+        }
+
+        Map<String, Total> totals = new TreeMap<>();
+        for (Robot robot : robots.values()) {
+            Total total = totals.computeIfAbsent(robot.group, k -> new Total());
+            total.robots++;
+            total.turns += robot.turns;
+            total.skipped += robot.skipped;
+            for (Map.Entry<String, int[]> kind : robot.kinds.entrySet()) {
+                long[] sum = total.kinds.computeIfAbsent(kind.getKey(), k -> new long[2]);
+                sum[0] += kind.getValue()[0];
+                sum[1] += kind.getValue()[1];
+            }
+        }
+
+        System.out.printf("%-16s %7s %9s %8s  %s%n", "unit", "robots", "turns", "skipped", "deferred/resumed per task");
+        for (Map.Entry<String, Total> entry : totals.entrySet()) {
+            Total total = entry.getValue();
+            StringBuilder kinds = new StringBuilder();
+            for (Map.Entry<String, long[]> kind : total.kinds.entrySet()) {
+                if (kinds.length() > 0) kinds.append(", ");
+                kinds.append(kind.getKey()).append(' ').append(kind.getValue()[0]).append('/').append(kind.getValue()[1]);
+            }
+            System.out.printf(Locale.ROOT, "%-16s %7d %9d %8d  %s%n", entry.getKey(), total.robots, total.turns,
+                    total.skipped, kinds);
+        }
+    }
+}
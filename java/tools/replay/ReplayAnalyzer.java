@@ -0,0 +1,467 @@
+package replay;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * Per-team time series from .bc25 replays, so that bot versions can be compared without watching the client.
+ *
+ * A replay is a gzipped flatbuffer (schema/battlecode.fbs in the engine): a GameWrapper whose events are a
+ * GameHeader, then for every match a MatchHeader, one Round per round and a MatchFooter, then a GameFooter. The
+ * compressed file is streamed into a decompression buffer that belongs to the worker thread and is reused for every
+ * replay it handles. Flatbuffers are read in place, so the events are walked without creating an object per round,
+ * turn or action. Rows are written out in chunks while the replay is read, so the rows of different replays can
+ * interleave in rounds.csv; every row starts with its replay and match, so they can be told apart.
+ *
+ * Robots are tracked from the match header's initial bodies (the starting towers) and the spawn actions of every
+ * round.
+ *
+ * Per team and round (rounds.csv):
+ *   tilesPainted  paint actions this round
+ *   paintSpent    paint units lost between their turns, which is mostly painting (transfers to towers also count)
+ *   coverage      the engine's teamCoverageAmounts for the round
+ *   towers        towers alive
+ *   soldiers, moppers, splashers  units alive
+ * Per team and match (summary.csv): win, rounds, first round a tower was built (-1 if never), totals and paint
+ * spent per painted tile.
+ *
+ * Replays are analyzed on a pool of worker threads, one replay per task, so a tournament's worth of replays runs in
+ * parallel.
+ *
+ * Usage: ./gradlew analyzeReplays [-PreplayDir=<dir>] [-Pworkers=<n>]
+ * Arguments: <output dir> <workers> <replay file or directory>...
+ */
+public class ReplayAnalyzer {
+    // Schema slots, i.e. field numbers in declaration order (a union field takes two: its type, then its value).
+    // All of the schema knowledge is here; update these when the engine's schema changes.
+    static final int GAME_EVENTS = 0;
+    static final int EVENT_TYPE = 0;
+    static final int EVENT_VALUE = 1;
+    static final int GAME_HEADER = 1;
+    static final int MATCH_HEADER = 2;
+    static final int ROUND = 3;
+    static final int MATCH_FOOTER = 4;
+    static final int HEADER_TEAMS = 1;
+    static final int MATCH_HEADER_MAP = 0;
+    static final int MAP_INITIAL_BODIES = 3;
+    static final int INITIAL_BODIES_SPAWNS = 0;
+    static final int TEAM_PACKAGE = 1;
+    static final int TEAM_ID = 2;
+    static final int FOOTER_WINNER = 0;
+    static final int FOOTER_TOTAL_ROUNDS = 2;
+    static final int ROUND_TEAM_IDS = 0;
+    static final int ROUND_COVERAGE = 2;
+    static final int ROUND_TURNS = 4;
+    static final int ROUND_DIED = 5;
+    static final int ROUND_ID = 6;
+    static final int TURN_ROBOT = 0;
+    static final int TURN_PAINT = 2;
+    static final int TURN_ACTION_TYPES = 8;
+    static final int TURN_ACTIONS = 9;
+    static final int PAINT_ACTION = 4;
+    static final int SPAWN_ACTION = 12;
+    static final int SPAWN_ID = 0;
+    static final int SPAWN_TEAM = 3;
+    static final int SPAWN_TYPE = 4;
+    // RobotType
+    static final int PAINT_TOWER = 1;
+    static final int DEFENSE_TOWER = 3;
+    static final int SOLDIER = 4;
+    static final int SPLASHER = 5;
+    static final int MOPPER = 6;
+
+    static final int MAX_ID = 1 << 16;
+
+    static final String ROUNDS_HEADER =
+            "replay,match,round,team,package,tilesPainted,paintSpent,coverage,towers,soldiers,moppers,splashers";
+    static final String SUMMARY_HEADER =
+            "replay,match,team,package,won,rounds,firstTowerRound,tilesPainted,paintSpent,paintPerTile,towersBuilt," +
+            "unitsBuilt";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("usage: ReplayAnalyzer <output dir> <workers> <replay or dir>...");
+        }
+        File out = new File(args[0]);
+        int workers = Math.max(1, Integer.parseInt(args[1]));
+        List<File> replays = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            collect(new File(args[i]), replays);
+        }
+        if (replays.isEmpty()) {
+            System.out.println("No .bc25 files found");
+            return;
+        }
+        out.mkdirs();
+
+        try (Writer rounds = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(new File(out, "rounds.csv")), StandardCharsets.UTF_8));
+             Writer summary = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(new File(out, "summary.csv")), StandardCharsets.UTF_8))) {
+            rounds.write(ROUNDS_HEADER + "\n");
+            summary.write(SUMMARY_HEADER + "\n");
+            ExecutorService pool = Executors.newFixedThreadPool(workers);
+            List<Future<?>> futures = new ArrayList<>();
+            for (File replay : replays) {
+                futures.add(pool.submit(() -> {
+                    new Analysis(replay, rounds, summary).run();
+                    return null;
+                }));
+            }
+            int failed = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.out.println("Could not analyze " + replays.get(i) + ": " + e.getCause());
+                }
+            }
+            pool.shutdown();
+            System.out.println("Analyzed " + (replays.size() - failed) + " of " + replays.size() + " replays into " + out);
+        }
+    }
+
+    static void collect(File file, List<File> replays) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    collect(child, replays);
+                }
+            }
+        } else if (file.getName().endsWith(".bc25")) {
+            replays.add(file);
+        }
+    }
+
+    // decompression buffer of each worker, grown as needed and reused
+    static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[1 << 20]);
+
+    static ByteBuffer inflate(File replay) throws IOException {
+        byte[] buffer = BUFFERS.get();
+        int size = 0;
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(replay)), 1 << 16)) {
+            int read;
+            while ((read = in.read(buffer, size, buffer.length - size)) != -1) {
+                size += read;
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    BUFFERS.set(buffer);
+                }
+            }
+        }
+        return ByteBuffer.wrap(buffer, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /*
+     * Minimal flatbuffer access: tables are positions in the buffer, fields are found through the table's vtable.
+     */
+    static int fieldOffset(ByteBuffer b, int table, int slot) {
+        int vtable = table - b.getInt(table);
+        int entry = 4 + 2 * slot;
+        if (entry >= (b.getShort(vtable) & 0xffff)) {
+            return 0;
+        }
+        return b.getShort(vtable + entry) & 0xffff;
+    }
+
+    static int intField(ByteBuffer b, int table, int slot, int absent) {
+        int o = fieldOffset(b, table, slot);
+        return o == 0 ? absent : b.getInt(table + o);
+    }
+
+    static int ushortField(ByteBuffer b, int table, int slot, int absent) {
+        int o = fieldOffset(b, table, slot);
+        return o == 0 ? absent : b.getShort(table + o) & 0xffff;
+    }
+
+    static int byteField(ByteBuffer b, int table, int slot, int absent) {
+        int o = fieldOffset(b, table, slot);
+        return o == 0 ? absent : b.get(table + o);
+    }
+
+    // position of the referenced table, vector or string, or -1 if the field is absent
+    static int reference(ByteBuffer b, int table, int slot) {
+        int o = fieldOffset(b, table, slot);
+        if (o == 0) {
+            return -1;
+        }
+        int at = table + o;
+        return at + b.getInt(at);
+    }
+
+    static int length(ByteBuffer b, int vector) {
+        return vector < 0 ? 0 : b.getInt(vector);
+    }
+
+    static int tableAt(ByteBuffer b, int vector, int i) {
+        int at = vector + 4 + 4 * i;
+        return at + b.getInt(at);
+    }
+
+    static int intAt(ByteBuffer b, int vector, int i) {
+        return b.getInt(vector + 4 + 4 * i);
+    }
+
+    static int byteAt(ByteBuffer b, int vector, int i) {
+        return b.get(vector + 4 + i) & 0xff;
+    }
+
+    static String string(ByteBuffer b, int string) {
+        if (string < 0) {
+            return "";
+        }
+        byte[] bytes = new byte[b.getInt(string)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = b.get(string + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static boolean isTower(int type) {
+        return type >= PAINT_TOWER && type <= DEFENSE_TOWER;
+    }
+
+    /*
+     * One replay. Robot state is kept in arrays indexed by robot ID, which the engine keeps below 2^16.
+     */
+    static class Analysis {
+        final File replay;
+        final String name;
+        final Writer roundsOut;
+        final Writer summaryOut;
+        final StringBuilder rows = new StringBuilder();
+
+        // the two teams of the game header, by index 0 / 1
+        int[] teamIds = new int[] {1, 2};
+        String[] packages = new String[] {"A", "B"};
+
+        final byte[] robotTeam = new byte[MAX_ID];
+        final byte[] robotType = new byte[MAX_ID];
+        final int[] lastPaint = new int[MAX_ID];
+
+        int match = 0;
+        int[] towers = new int[2];
+        int[][] units = new int[2][MOPPER + 1];
+        int[] painted = new int[2];
+        int[] spent = new int[2];
+        long[] paintedTotal = new long[2];
+        long[] spentTotal = new long[2];
+        int[] towersBuilt = new int[2];
+        int[] unitsBuilt = new int[2];
+        int[] firstTower = new int[2];
+        int lastRound = 0;
+
+        Analysis(File replay, Writer roundsOut, Writer summaryOut) {
+            this.replay = replay;
+            this.name = replay.getName().replace(".bc25", "");
+            this.roundsOut = roundsOut;
+            this.summaryOut = summaryOut;
+        }
+
+        void run() throws IOException {
+            ByteBuffer b = inflate(replay);
+            int game = b.getInt(0);
+            int events = reference(b, game, GAME_EVENTS);
+            for (int i = 0, n = length(b, events); i < n; i++) {
+                int event = tableAt(b, events, i);
+                int type = byteField(b, event, EVENT_TYPE, 0) & 0xff;
+                int value = reference(b, event, EVENT_VALUE);
+                if (value < 0) {
+                    continue;
+                }
+                switch (type) {
+                    case GAME_HEADER: readGameHeader(b, value); break;
+                    case MATCH_HEADER: startMatch(); readMatchHeader(b, value); break;
+                    case ROUND: readRound(b, value); break;
+                    case MATCH_FOOTER: endMatch(b, value); break;
+                    default: break;
+                }
+                if (rows.length() > (1 << 16)) {
+                    flushRows();
+                }
+            }
+            flushRows();
+        }
+
+        void readGameHeader(ByteBuffer b, int header) {
+            int teams = reference(b, header, HEADER_TEAMS);
+            for (int i = 0, n = Math.min(2, length(b, teams)); i < n; i++) {
+                int team = tableAt(b, teams, i);
+                teamIds[i] = byteField(b, team, TEAM_ID, i + 1);
+                packages[i] = string(b, reference(b, team, TEAM_PACKAGE));
+            }
+        }
+
+        int teamIndex(int teamId) {
+            return teamId == teamIds[0] ? 0 : teamId == teamIds[1] ? 1 : -1;
+        }
+
+        void startMatch() {
+            match++;
+            Arrays.fill(robotTeam, (byte) -1);
+            Arrays.fill(robotType, (byte) 0);
+            Arrays.fill(lastPaint, 0);
+            for (int t = 0; t < 2; t++) {
+                towers[t] = 0;
+                Arrays.fill(units[t], 0);
+                paintedTotal[t] = 0;
+                spentTotal[t] = 0;
+                towersBuilt[t] = 0;
+                unitsBuilt[t] = 0;
+                firstTower[t] = -1;
+            }
+            lastRound = 0;
+        }
+
+        // the starting towers, spawned as of round 0 so that they do not count as built
+        void readMatchHeader(ByteBuffer b, int header) {
+            int map = reference(b, header, MATCH_HEADER_MAP);
+            int bodies = map < 0 ? -1 : reference(b, map, MAP_INITIAL_BODIES);
+            int spawns = bodies < 0 ? -1 : reference(b, bodies, INITIAL_BODIES_SPAWNS);
+            for (int i = 0, n = length(b, spawns); i < n; i++) {
+                spawn(b, tableAt(b, spawns, i), -1, 0);
+            }
+        }
+
+        void readRound(ByteBuffer b, int round) {
+            if (match == 0) {
+                startMatch();
+            }
+            int roundId = intField(b, round, ROUND_ID, lastRound + 1);
+            lastRound = roundId;
+            painted[0] = painted[1] = 0;
+            spent[0] = spent[1] = 0;
+
+            int turns = reference(b, round, ROUND_TURNS);
+            for (int i = 0, n = length(b, turns); i < n; i++) {
+                int turn = tableAt(b, turns, i);
+                int id = intField(b, turn, TURN_ROBOT, -1);
+                if (id < 0 || id >= MAX_ID) {
+                    continue;
+                }
+                int team = robotTeam[id];
+                int paint = intField(b, turn, TURN_PAINT, 0);
+                if (team >= 0 && !isTower(robotType[id]) && paint < lastPaint[id]) {
+                    spent[team] += lastPaint[id] - paint;
+                }
+                lastPaint[id] = paint;
+
+                int types = reference(b, turn, TURN_ACTION_TYPES);
+                int actions = reference(b, turn, TURN_ACTIONS);
+                for (int j = 0, m = length(b, types); j < m; j++) {
+                    int action = byteAt(b, types, j);
+                    if (action == PAINT_ACTION) {
+                        if (team >= 0) {
+                            painted[team]++;
+                        }
+                    } else if (action == SPAWN_ACTION && actions >= 0) {
+                        spawn(b, tableAt(b, actions, j), team, roundId);
+                    }
+                }
+            }
+
+            int died = reference(b, round, ROUND_DIED);
+            for (int i = 0, n = length(b, died); i < n; i++) {
+                int id = intAt(b, died, i);
+                if (id < 0 || id >= MAX_ID || robotTeam[id] < 0) {
+                    continue;
+                }
+                int team = robotTeam[id];
+                int type = robotType[id];
+                if (isTower(type)) {
+                    towers[team]--;
+                } else if (type <= MOPPER) {
+                    units[team][type]--;
+                }
+                robotTeam[id] = -1;
+            }
+
+            int roundTeams = reference(b, round, ROUND_TEAM_IDS);
+            int coverage = reference(b, round, ROUND_COVERAGE);
+            for (int t = 0; t < 2; t++) {
+                int covered = 0;
+                for (int i = 0, n = length(b, roundTeams); i < n && i < length(b, coverage); i++) {
+                    if (intAt(b, roundTeams, i) == teamIds[t]) {
+                        covered = intAt(b, coverage, i);
+                    }
+                }
+                paintedTotal[t] += painted[t];
+                spentTotal[t] += spent[t];
+                rows.append(name).append(',').append(match).append(',').append(roundId).append(',')
+                        .append(t == 0 ? 'A' : 'B').append(',').append(packages[t]).append(',')
+                        .append(painted[t]).append(',').append(spent[t]).append(',').append(covered).append(',')
+                        .append(towers[t]).append(',').append(units[t][SOLDIER]).append(',')
+                        .append(units[t][MOPPER]).append(',').append(units[t][SPLASHER]).append('\n');
+            }
+        }
+
+        // spawner is the team of the robot whose turn spawned it, which beats the action's own team field
+        void spawn(ByteBuffer b, int action, int spawner, int round) {
+            int id = ushortField(b, action, SPAWN_ID, -1);
+            if (id < 0 || id >= MAX_ID) {
+                return;
+            }
+            int team = spawner >= 0 ? spawner : teamIndex(byteField(b, action, SPAWN_TEAM, 0));
+            if (team < 0) {
+                return;
+            }
+            int type = byteField(b, action, SPAWN_TYPE, 0);
+            if (robotTeam[id] == team && robotType[id] == type && isTower(type) && round <= 1) {
+                // a starting tower the match header already listed
+                return;
+            }
+            robotTeam[id] = (byte) team;
+            robotType[id] = (byte) type;
+            lastPaint[id] = 0;
+            if (isTower(type)) {
+                towers[team]++;
+                // the starting towers come from the match header, or appear in round 1 in replays without one
+                if (round > 1) {
+                    towersBuilt[team]++;
+                    if (firstTower[team] < 0) {
+                        firstTower[team] = round;
+                    }
+                }
+            } else if (type >= SOLDIER && type <= MOPPER) {
+                units[team][type]++;
+                unitsBuilt[team]++;
+            }
+        }
+
+        void endMatch(ByteBuffer b, int footer) throws IOException {
+            int winner = teamIndex(byteField(b, footer, FOOTER_WINNER, 0));
+            int rounds = intField(b, footer, FOOTER_TOTAL_ROUNDS, lastRound);
+            StringBuilder lines = new StringBuilder();
+            for (int t = 0; t < 2; t++) {
+                double perTile = paintedTotal[t] == 0 ? 0 : (double) spentTotal[t] / paintedTotal[t];
+                lines.append(name).append(',').append(match).append(',').append(t == 0 ? 'A' : 'B').append(',')
+                        .append(packages[t]).append(',').append(winner == t ? 1 : 0).append(',').append(rounds)
+                        .append(',').append(firstTower[t]).append(',').append(paintedTotal[t]).append(',')
+                        .append(spentTotal[t]).append(',').append(String.format(Locale.ROOT, "%.2f", perTile))
+                        .append(',').append(towersBuilt[t]).append(',').append(unitsBuilt[t]).append('\n');
+            }
+            synchronized (summaryOut) {
+                summaryOut.write(lines.toString());
+            }
+        }
+
+        // writes the rows read so far; other workers' rows may come between two chunks of this replay
+        void flushRows() throws IOException {
+            if (rows.length() == 0) {
+                return;
+            }
+            synchronized (roundsOut) {
+                roundsOut.write(rows.toString());
+            }
+            rows.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * The compiled classes of one bot package, read once, from which every simulated robot gets its own copy.
+ *
+ * Like in a match, each robot loads the package through a fresh class loader, so its statics (memory, RNG, task
+ * list) are its own. The loader is child-first for the package only; battlecode.* and the JDK come from the parent,
+ * so RobotController and the other API types are shared with the simulator. The class bytes are read from disk once
+ * and defined again for every robot, which is the main cost of spawning one.
+ *
+ * The package has to split its loop like bunniesv3 does: a static init(RobotController) run before the first turn
+ * and a static runTurn(RobotController) for one turn without the Clock.yield().
+ */
+public class BotPackage {
+    final String name;
+    final Map<String, byte[]> classes;
+
+    BotPackage(String name, Map<String, byte[]> classes) {
+        this.name = name;
+        this.classes = classes;
+    }
+
+    public static BotPackage load(File classesDir, String name) throws IOException {
+        File dir = new File(classesDir, name.replace('.', '/'));
+        File[] files = dir.listFiles((d, file) -> file.endsWith(".class"));
+        if (files == null || files.length == 0) {
+            throw new IOException("no classes for " + name + " in " + dir);
+        }
+        Map<String, byte[]> classes = new HashMap<>();
+        for (File file : files) {
+            String simpleName = file.getName().substring(0, file.getName().length() - ".class".length());
+            classes.put(name + "." + simpleName, Files.readAllBytes(file.toPath()));
+        }
+        if (!classes.containsKey(name + ".RobotPlayer")) {
+            throw new IOException(name + " has no RobotPlayer");
+        }
+        return new BotPackage(name, classes);
+    }
+
+    /*
+     * A fresh copy of the package for one robot.
+     */
+    Bot newBot() throws ReflectiveOperationException {
+        Loader loader = new Loader();
+        Class<?> player = loader.loadClass(name + ".RobotPlayer");
+        Class<?> rc = battlecode.common.RobotController.class;
+        Method init = player.getDeclaredMethod("init", rc);
+        Method runTurn = player.getDeclaredMethod("runTurn", rc);
+        init.setAccessible(true);
+        runTurn.setAccessible(true);
+        return new Bot(init, runTurn);
+    }
+
+    // one robot's entry points into its copy of the package
+    static class Bot {
+        final Method init;
+        final Method runTurn;
+
+        Bot(Method init, Method runTurn) {
+            this.init = init;
+            this.runTurn = runTurn;
+        }
+    }
+
+    class Loader extends ClassLoader {
+        Loader() {
+            super(BotPackage.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+            byte[] bytes = classes.get(className);
+            if (bytes == null) {
+                return super.loadClass(className, resolve);
+            }
+            synchronized (getClassLoadingLock(className)) {
+                Class<?> loaded = findLoadedClass(className);
+                if (loaded == null) {
+                    loaded = defineClass(className, bytes, 0, bytes.length);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package simulator;
+
+import battlecode.common.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * One robot of a SimWorld: its state, its copy of the bot package and the controller it plays through.
+ */
+class SimRobot {
+    final int id;
+    // 0 for team A, 1 for team B
+    final int team;
+    UnitType type;
+    MapLocation location;
+    int health;
+    int paint;
+
+    int movementCooldown = 0;
+    int actionCooldown = 0;
+    // towers attack one target and once around them per turn, instead of having a cooldown for it
+    boolean attacked = false;
+    boolean aoeAttacked = false;
+    int messagesSent = 0;
+    final List<Message> inbox = new ArrayList<>();
+
+    final BotPackage.Bot bot;
+    final SimRobotController controller;
+    boolean initialized = false;
+    boolean dead = false;
+
+    SimRobot(SimWorld world, int id, int team, UnitType type, MapLocation location, int paint, BotPackage.Bot bot) {
+        this.id = id;
+        this.team = team;
+        this.type = type;
+        this.location = location;
+        this.health = type.health;
+        this.paint = paint;
+        this.bot = bot;
+        controller = new SimRobotController(world, this);
+    }
+
+    Team gameTeam() {
+        return team == 0 ? Team.A : Team.B;
+    }
+
+    RobotInfo info() {
+        return new RobotInfo(id, gameTeam(), type, health, location, paint);
+    }
+}
@@ -0,0 +1,455 @@
+package simulator;
+
+import battlecode.common.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * RobotController of one SimRobot. Like harness.FixtureRobotController it is a dynamic proxy, so that it keeps
+ * compiling when the engine adds methods: the calls the bots make are answered from the SimWorld, with the same
+ * GameActionExceptions the engine throws for illegal actions, and every other call returns 0/false/null.
+ */
+class SimRobotController implements InvocationHandler {
+    final SimWorld world;
+    final SimRobot robot;
+    final RobotController rc;
+
+    SimRobotController(SimWorld world, SimRobot robot) {
+        this.world = world;
+        this.robot = robot;
+        rc = (RobotController) Proxy.newProxyInstance(RobotController.class.getClassLoader(),
+                new Class<?>[] {RobotController.class}, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getRoundNum": return world.round;
+            case "getMapWidth": return world.width;
+            case "getMapHeight": return world.height;
+            case "getNumberTowers": return world.towerCount(robot.team);
+            case "getID": return robot.id;
+            case "getTeam": return robot.gameTeam();
+            case "getLocation": return robot.location;
+            case "getHealth": return robot.health;
+            case "getPaint": return robot.paint;
+            case "getMoney":
+            case "getChips":
+                return world.money[robot.team];
+            case "getType": return robot.type;
+            case "onTheMap": return world.onTheMap((MapLocation) args[0]);
+            case "canSenseLocation": return canSense((MapLocation) args[0]);
+            case "isLocationOccupied":
+                requireSensable((MapLocation) args[0]);
+                return world.robotAt[world.index((MapLocation) args[0])] != null;
+            case "canSenseRobotAtLocation":
+                return canSense((MapLocation) args[0]) && world.robotAt[world.index((MapLocation) args[0])] != null;
+            case "senseRobotAtLocation": {
+                requireSensable((MapLocation) args[0]);
+                SimRobot other = world.robotAt[world.index((MapLocation) args[0])];
+                return other == null ? null : other.info();
+            }
+            case "canSenseRobot": return senseRobot((Integer) args[0]) != null;
+            case "senseRobot": {
+                SimRobot other = senseRobot((Integer) args[0]);
+                if (other == null) {
+                    throw new GameActionException(GameActionExceptionType.CANT_SENSE_THAT, "can't sense robot");
+                }
+                return other.info();
+            }
+            case "senseNearbyRobots": return senseNearbyRobots(args);
+            case "sensePassability": return senseMapInfo((MapLocation) args[0]).isPassable();
+            case "senseNearbyRuins": return senseNearbyRuins(args);
+            case "senseMapInfo": return senseMapInfo((MapLocation) args[0]);
+            case "senseNearbyMapInfos": return senseNearbyMapInfos(args);
+            case "adjacentLocation": return robot.location.add((Direction) args[0]);
+            case "getAllLocationsWithinRadiusSquared": {
+                MapLocation center = (MapLocation) args[0];
+                int radiusSquared = (Integer) args[1];
+                List<MapLocation> locations = new ArrayList<>();
+                for (int i = 0; i < world.wall.length; i++) {
+                    if (world.location(i).distanceSquaredTo(center) <= radiusSquared) {
+                        locations.add(world.location(i));
+                    }
+                }
+                return locations.toArray(new MapLocation[0]);
+            }
+            case "isActionReady": return robot.actionCooldown < GameConstants.COOLDOWN_LIMIT;
+            case "getActionCooldownTurns": return robot.actionCooldown;
+            case "isMovementReady": return robot.movementCooldown < GameConstants.COOLDOWN_LIMIT;
+            case "getMovementCooldownTurns": return robot.movementCooldown;
+            case "canMove": return canMove((Direction) args[0]);
+            case "move":
+                require(canMove((Direction) args[0]), GameActionExceptionType.CANT_MOVE_THERE);
+                world.move(robot, robot.location.add((Direction) args[0]));
+                robot.movementCooldown += GameConstants.MOVEMENT_COOLDOWN;
+                return null;
+            case "canBuildRobot": return canBuildRobot((UnitType) args[0], (MapLocation) args[1]);
+            case "buildRobot": {
+                UnitType type = (UnitType) args[0];
+                require(canBuildRobot(type, (MapLocation) args[1]), GameActionExceptionType.CANT_DO_THAT);
+                world.money[robot.team] -= type.moneyCost;
+                robot.paint -= type.paintCost;
+                robot.actionCooldown += SimWorld.actionCooldown(robot.type);
+                world.spawn(robot.team, type, (MapLocation) args[1], type.paintCapacity);
+                return null;
+            }
+            case "canMark": return canMark((MapLocation) args[0]);
+            case "mark":
+                require(canMark((MapLocation) args[0]), GameActionExceptionType.CANT_DO_THAT);
+                world.marks[robot.team][world.index((MapLocation) args[0])] = (byte) ((Boolean) args[1] ? 2 : 1);
+                return null;
+            case "canRemoveMark": return canMark((MapLocation) args[0]);
+            case "removeMark":
+                require(canMark((MapLocation) args[0]), GameActionExceptionType.CANT_DO_THAT);
+                world.marks[robot.team][world.index((MapLocation) args[0])] = 0;
+                return null;
+            case "canMarkTowerPattern": return canMarkTowerPattern((UnitType) args[0], (MapLocation) args[1]);
+            case "markTowerPattern": {
+                UnitType type = (UnitType) args[0];
+                require(canMarkTowerPattern(type, (MapLocation) args[1]), GameActionExceptionType.CANT_DO_THAT);
+                robot.paint -= GameConstants.MARK_PATTERN_PAINT_COST;
+                world.markPattern(robot.team, SimWorld.towerPattern(type), (MapLocation) args[1], false);
+                return null;
+            }
+            case "canCompleteTowerPattern":
+                return canCompleteTowerPattern((UnitType) args[0], (MapLocation) args[1]);
+            case "completeTowerPattern": {
+                UnitType type = (UnitType) args[0];
+                require(canCompleteTowerPattern(type, (MapLocation) args[1]), GameActionExceptionType.CANT_DO_THAT);
+                world.money[robot.team] -= type.moneyCost;
+                world.spawn(robot.team, type, (MapLocation) args[1], 0);
+                return null;
+            }
+            case "getTowerPattern": return SimWorld.towerPattern((UnitType) args[0]);
+            case "canMarkResourcePattern": return canMarkResourcePattern((MapLocation) args[0]);
+            case "markResourcePattern":
+                require(canMarkResourcePattern((MapLocation) args[0]), GameActionExceptionType.CANT_DO_THAT);
+                robot.paint -= GameConstants.MARK_PATTERN_PAINT_COST;
+                world.markPattern(robot.team, SimWorld.RESOURCE_PATTERN, (MapLocation) args[0], true);
+                return null;
+            case "canCompleteResourcePattern": return canCompleteResourcePattern((MapLocation) args[0]);
+            case "completeResourcePattern":
+                require(canCompleteResourcePattern((MapLocation) args[0]), GameActionExceptionType.CANT_DO_THAT);
+                world.resourcePatterns.get(robot.team).add((MapLocation) args[0]);
+                return null;
+            case "getResourcePattern": return SimWorld.RESOURCE_PATTERN;
+            case "canUpgradeTower": return canUpgradeTower((MapLocation) args[0]);
+            case "upgradeTower": {
+                require(canUpgradeTower((MapLocation) args[0]), GameActionExceptionType.CANT_DO_THAT);
+                SimRobot tower = world.robotAt[world.index((MapLocation) args[0])];
+                UnitType next = tower.type.getNextLevel();
+                world.money[robot.team] -= next.moneyCost;
+                tower.health += next.health - tower.type.health;
+                tower.type = next;
+                return null;
+            }
+            case "canAttack": return canAttack((MapLocation) args[0]);
+            case "attack":
+                require(canAttack((MapLocation) args[0]), GameActionExceptionType.CANT_DO_THAT);
+                world.attack(robot, (MapLocation) args[0], args.length > 1 && (Boolean) args[1]);
+                return null;
+            case "canMopSwing": return canMopSwing((Direction) args[0]);
+            case "mopSwing":
+                require(canMopSwing((Direction) args[0]), GameActionExceptionType.CANT_DO_THAT);
+                world.mopSwing(robot, (Direction) args[0]);
+                return null;
+            case "canSendMessage": return canSendMessage((MapLocation) args[0]);
+            case "sendMessage": {
+                require(canSendMessage((MapLocation) args[0]), GameActionExceptionType.CANT_DO_THAT);
+                robot.messagesSent++;
+                SimRobot to = world.robotAt[world.index((MapLocation) args[0])];
+                to.inbox.add(new Message((Integer) args[1], robot.id, world.round));
+                return null;
+            }
+            case "canBroadcastMessage": return canBroadcastMessage();
+            case "broadcastMessage":
+                require(canBroadcastMessage(), GameActionExceptionType.CANT_DO_THAT);
+                robot.messagesSent++;
+                for (SimRobot other : world.robots) {
+                    if (other != robot && !other.dead && other.team == robot.team && other.type.isTowerType() &&
+                            other.location.distanceSquaredTo(robot.location) <= GameConstants.BROADCAST_RADIUS_SQUARED) {
+                        other.inbox.add(new Message((Integer) args[0], robot.id, world.round));
+                    }
+                }
+                return null;
+            case "readMessages": return readMessages((Integer) args[0]);
+            case "canTransferPaint": return canTransferPaint((MapLocation) args[0], (Integer) args[1]);
+            case "transferPaint": {
+                int amount = (Integer) args[1];
+                require(canTransferPaint((MapLocation) args[0], amount), GameActionExceptionType.CANT_DO_THAT);
+                SimRobot other = world.robotAt[world.index((MapLocation) args[0])];
+                robot.paint -= amount;
+                other.paint += amount;
+                robot.actionCooldown += SimWorld.actionCooldown(robot.type);
+                return null;
+            }
+            case "disintegrate":
+                world.kill(robot);
+                return null;
+            case "resign":
+                world.resigned[robot.team] = true;
+                return null;
+            case "equals": return proxy == args[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            case "toString": return "SimRobotController#" + robot.id;
+            default: return zero(method.getReturnType());
+        }
+    }
+
+    static Object zero(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        return null;
+    }
+
+    static void require(boolean allowed, GameActionExceptionType type) throws GameActionException {
+        if (!allowed) {
+            throw new GameActionException(type, "simulator: not allowed");
+        }
+    }
+
+    boolean canSense(MapLocation loc) {
+        return loc != null && world.onTheMap(loc) &&
+                robot.location.distanceSquaredTo(loc) <= SimWorld.VISION_RADIUS_SQUARED;
+    }
+
+    void requireSensable(MapLocation loc) throws GameActionException {
+        require(canSense(loc), GameActionExceptionType.CANT_SENSE_THAT);
+    }
+
+    MapInfo senseMapInfo(MapLocation loc) throws GameActionException {
+        requireSensable(loc);
+        return world.mapInfo(loc, robot.team);
+    }
+
+    SimRobot senseRobot(int id) {
+        for (SimRobot other : world.robots) {
+            if (other.id == id && !other.dead && canSense(other.location)) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    boolean actionReady() {
+        return robot.actionCooldown < GameConstants.COOLDOWN_LIMIT;
+    }
+
+    boolean canMove(Direction dir) {
+        MapLocation next = robot.location.add(dir);
+        if (robot.type.isTowerType() || robot.movementCooldown >= GameConstants.COOLDOWN_LIMIT ||
+                !world.onTheMap(next)) {
+            return false;
+        }
+        int i = world.index(next);
+        return world.passable(i) && world.robotAt[i] == null;
+    }
+
+    boolean canBuildRobot(UnitType type, MapLocation loc) {
+        if (!robot.type.isTowerType() || !type.isRobotType() || !actionReady() || loc == null ||
+                !world.onTheMap(loc) || robot.location.distanceSquaredTo(loc) > GameConstants.BUILD_ROBOT_RADIUS_SQUARED) {
+            return false;
+        }
+        int i = world.index(loc);
+        return world.passable(i) && world.robotAt[i] == null && world.money[robot.team] >= type.moneyCost &&
+                robot.paint >= type.paintCost;
+    }
+
+    boolean canMark(MapLocation loc) {
+        return robot.type.isRobotType() && canSense(loc) &&
+                robot.location.distanceSquaredTo(loc) <= SimWorld.MARK_RADIUS_SQUARED && world.passable(world.index(loc));
+    }
+
+    // a unit within TOWER_PATTERN_RADIUS_SQUARED of a free ruin
+    boolean nearFreeRuin(UnitType type, MapLocation loc) {
+        if (!robot.type.isRobotType() || loc == null || !world.onTheMap(loc) || SimWorld.towerPattern(type) == null ||
+                robot.location.distanceSquaredTo(loc) > SimWorld.TOWER_PATTERN_RADIUS_SQUARED) {
+            return false;
+        }
+        int i = world.index(loc);
+        return world.ruin[i] && world.robotAt[i] == null;
+    }
+
+    boolean canMarkTowerPattern(UnitType type, MapLocation loc) {
+        return nearFreeRuin(type, loc) && robot.paint >= GameConstants.MARK_PATTERN_PAINT_COST &&
+                world.patternFits(robot.team, SimWorld.towerPattern(type), loc, false, false);
+    }
+
+    boolean canCompleteTowerPattern(UnitType type, MapLocation loc) {
+        return type.level == 1 && nearFreeRuin(type, loc) && world.money[robot.team] >= type.moneyCost &&
+                world.towerCount(robot.team) < GameConstants.MAX_NUMBER_OF_TOWERS &&
+                world.patternFits(robot.team, SimWorld.towerPattern(type), loc, true, false);
+    }
+
+    // a unit within TOWER_PATTERN_RADIUS_SQUARED of the center, like for tower patterns
+    boolean nearPatternCenter(MapLocation loc) {
+        return robot.type.isRobotType() && loc != null && world.onTheMap(loc) &&
+                robot.location.distanceSquaredTo(loc) <= SimWorld.TOWER_PATTERN_RADIUS_SQUARED;
+    }
+
+    boolean canMarkResourcePattern(MapLocation loc) {
+        return nearPatternCenter(loc) && robot.paint >= GameConstants.MARK_PATTERN_PAINT_COST &&
+                world.patternFits(robot.team, SimWorld.RESOURCE_PATTERN, loc, false, true);
+    }
+
+    boolean canCompleteResourcePattern(MapLocation loc) {
+        return nearPatternCenter(loc) && world.money[robot.team] >= GameConstants.RESOURCE_PATTERN_COMPLETE_COST &&
+                !world.resourcePatterns.get(robot.team).contains(loc) &&
+                world.patternFits(robot.team, SimWorld.RESOURCE_PATTERN, loc, true, true);
+    }
+
+    boolean canUpgradeTower(MapLocation loc) {
+        if (!canSense(loc)) {
+            return false;
+        }
+        SimRobot tower = world.robotAt[world.index(loc)];
+        return tower != null && tower.team == robot.team && tower.type.isTowerType() && tower.type.canUpgradeType() &&
+                world.money[robot.team] >= tower.type.getNextLevel().moneyCost;
+    }
+
+    boolean canAttack(MapLocation loc) {
+        if (robot.type.isTowerType()) {
+            if (loc == null) {
+                return !robot.aoeAttacked;
+            }
+            return !robot.attacked && world.onTheMap(loc) &&
+                    robot.location.distanceSquaredTo(loc) <= robot.type.actionRadiusSquared;
+        }
+        return loc != null && actionReady() && world.onTheMap(loc) && !world.wall[world.index(loc)] &&
+                robot.location.distanceSquaredTo(loc) <= robot.type.actionRadiusSquared &&
+                robot.paint >= robot.type.attackCost;
+    }
+
+    boolean canMopSwing(Direction dir) {
+        return robot.type == UnitType.MOPPER && actionReady() && dir != null && dir != Direction.CENTER &&
+                dir.dx * dir.dy == 0;
+    }
+
+    // units message towers and towers message units, within MESSAGE_RADIUS_SQUARED
+    boolean canSendMessage(MapLocation loc) {
+        if (!canSense(loc) || robot.messagesSent >= maxMessages() ||
+                robot.location.distanceSquaredTo(loc) > GameConstants.MESSAGE_RADIUS_SQUARED) {
+            return false;
+        }
+        SimRobot to = world.robotAt[world.index(loc)];
+        return to != null && to.team == robot.team && to.type.isTowerType() != robot.type.isTowerType();
+    }
+
+    boolean canBroadcastMessage() {
+        return robot.type.isTowerType() && robot.messagesSent < maxMessages();
+    }
+
+    int maxMessages() {
+        return robot.type.isTowerType() ? GameConstants.MAX_MESSAGES_SENT_TOWER : GameConstants.MAX_MESSAGES_SENT_ROBOT;
+    }
+
+    // messages of the given round, or of every round still kept for -1
+    Message[] readMessages(int round) {
+        List<Message> messages = new ArrayList<>();
+        for (Message message : robot.inbox) {
+            if (round == -1 || message.getRound() == round) {
+                messages.add(message);
+            }
+        }
+        return messages.toArray(new Message[0]);
+    }
+
+    // positive amounts go from this robot to the other one, negative ones the other way
+    boolean canTransferPaint(MapLocation loc, int amount) {
+        if (!actionReady() || !canSense(loc) ||
+                robot.location.distanceSquaredTo(loc) > GameConstants.PAINT_TRANSFER_RADIUS_SQUARED) {
+            return false;
+        }
+        SimRobot other = world.robotAt[world.index(loc)];
+        if (other == null || other == robot || other.team != robot.team) {
+            return false;
+        }
+        if (amount >= 0) {
+            return robot.paint >= amount && other.paint + amount <= other.type.paintCapacity;
+        }
+        return other.type.isTowerType() && other.paint >= -amount && robot.paint - amount <= robot.type.paintCapacity;
+    }
+
+    // the overloads take (), (radiusSquared), (center) or (center, radiusSquared)
+    MapInfo[] senseNearbyMapInfos(Object[] args) {
+        MapLocation center = robot.location;
+        int radiusSquared = SimWorld.VISION_RADIUS_SQUARED;
+        if (args != null && args.length == 1) {
+            if (args[0] instanceof MapLocation) {
+                center = (MapLocation) args[0];
+            } else {
+                radiusSquared = (Integer) args[0];
+            }
+        } else if (args != null && args.length == 2) {
+            center = (MapLocation) args[0];
+            radiusSquared = (Integer) args[1];
+        }
+        List<MapInfo> tiles = new ArrayList<>();
+        for (MapLocation loc : nearbyLocations(center, radiusSquared)) {
+            if (canSense(loc)) {
+                tiles.add(world.mapInfo(loc, robot.team));
+            }
+        }
+        return tiles.toArray(new MapInfo[0]);
+    }
+
+    // the overloads take (), (radiusSquared), (radiusSquared, team) or (center, radiusSquared, team)
+    RobotInfo[] senseNearbyRobots(Object[] args) {
+        MapLocation center = robot.location;
+        int radiusSquared = SimWorld.VISION_RADIUS_SQUARED;
+        Team team = null;
+        if (args != null && args.length >= 1 && args[0] instanceof MapLocation) {
+            center = (MapLocation) args[0];
+            radiusSquared = (Integer) args[1];
+            team = (Team) args[2];
+        } else if (args != null && args.length >= 1) {
+            radiusSquared = (Integer) args[0];
+            team = args.length > 1 ? (Team) args[1] : null;
+        }
+        List<RobotInfo> found = new ArrayList<>();
+        for (MapLocation loc : nearbyLocations(center, radiusSquared)) {
+            SimRobot other = world.robotAt[world.index(loc)];
+            if (other != null && other != robot && canSense(loc) && (team == null || other.gameTeam() == team)) {
+                found.add(other.info());
+            }
+        }
+        return found.toArray(new RobotInfo[0]);
+    }
+
+    MapLocation[] senseNearbyRuins(Object[] args) {
+        int radiusSquared = args != null && args.length == 1 ? (Integer) args[0] : -1;
+        List<MapLocation> ruins = new ArrayList<>();
+        for (MapLocation loc : nearbyLocations(robot.location, radiusSquared)) {
+            if (world.ruin[world.index(loc)]) {
+                ruins.add(loc);
+            }
+        }
+        return ruins.toArray(new MapLocation[0]);
+    }
+
+    // on-map locations within radiusSquared of center, capped to vision; negative means all of vision
+    List<MapLocation> nearbyLocations(MapLocation center, int radiusSquared) {
+        if (radiusSquared < 0 || radiusSquared > SimWorld.VISION_RADIUS_SQUARED) {
+            radiusSquared = SimWorld.VISION_RADIUS_SQUARED;
+        }
+        List<MapLocation> locations = new ArrayList<>();
+        int r = (int) Math.sqrt(radiusSquared);
+        for (int x = center.x - r; x <= center.x + r; x++) {
+            for (int y = center.y - r; y <= center.y + r; y++) {
+                MapLocation loc = new MapLocation(x, y);
+                if (world.onTheMap(loc) && center.distanceSquaredTo(loc) <= radiusSquared) {
+                    locations.add(loc);
+                }
+            }
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,480 @@
+package simulator;
+
+import battlecode.common.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * The state of one simulated game and the subset of the game rules that the bots run into: movement and action
+ * cooldowns, painting by the three unit types, tower attacks, paint drain off own paint, tower income, marking and
+ * completing tower and resource patterns, resource pattern income, building and upgrading, paint transfers and
+ * messages.
+ *
+ * This is not the engine. The numbers come from battlecode.common where it has them, the rest are constants below.
+ * Bytecodes are not counted, so every deferrable task of a turn runs. Health loss without paint and the
+ * paint-connection requirement for messages are not modeled, and the patterns are the simulator's own, so a scenario
+ * says how a heuristic behaves, not exactly how a match would go.
+ *
+ * Robots act in spawn order, once per round; robots built during a round act from the next one.
+ */
+public class SimWorld {
+    // rules that battlecode.common does not expose
+    static final int VISION_RADIUS_SQUARED = 20;
+    static final int TOWER_PATTERN_RADIUS_SQUARED = 2;
+    static final int MARK_RADIUS_SQUARED = 20;
+    static final int SPLASH_RADIUS_SQUARED = 4;
+    static final int SPLASH_OVERWRITE_RADIUS_SQUARED = 2;
+    static final int START_TOWER_PAINT = 500;
+    static final int MOP_STEAL = 10;
+    static final int MOP_GAIN = 5;
+    static final int SWING_DRAIN = 5;
+    static final int EMPTY_PAINT_DRAIN = 1;
+    static final int ENEMY_PAINT_DRAIN = 2;
+    // money per round for each active resource pattern
+    static final int RESOURCE_PATTERN_INCOME = 3;
+
+    // tower patterns around the ruin, true where the tile takes secondary paint
+    static final boolean[][] PAINT_PATTERN = pattern(
+            "x...x",
+            ".x.x.",
+            "..x..",
+            ".x.x.",
+            "x...x");
+    static final boolean[][] MONEY_PATTERN = pattern(
+            ".xxx.",
+            "xx.xx",
+            "x...x",
+            "xx.xx",
+            ".xxx.");
+    static final boolean[][] DEFENSE_PATTERN = pattern(
+            "..x..",
+            ".xxx.",
+            "xx.xx",
+            ".xxx.",
+            "..x..");
+
+    static final boolean[][] RESOURCE_PATTERN = pattern(
+            "xx.xx",
+            "x...x",
+            "..x..",
+            "x...x",
+            "xx.xx");
+
+    static boolean[][] pattern(String... rows) {
+        boolean[][] pattern = new boolean[5][5];
+        for (int y = 0; y < 5; y++) {
+            for (int x = 0; x < 5; x++) {
+                pattern[x][y] = rows[y].charAt(x) == 'x';
+            }
+        }
+        return pattern;
+    }
+
+    static boolean[][] towerPattern(UnitType type) {
+        switch (type.getBaseType()) {
+            case LEVEL_ONE_PAINT_TOWER: return PAINT_PATTERN;
+            case LEVEL_ONE_MONEY_TOWER: return MONEY_PATTERN;
+            case LEVEL_ONE_DEFENSE_TOWER: return DEFENSE_PATTERN;
+            default: return null;
+        }
+    }
+
+    static int actionCooldown(UnitType type) {
+        switch (type) {
+            case SPLASHER: return 50;
+            case MOPPER: return 30;
+            default: return 10;
+        }
+    }
+
+    final int width;
+    final int height;
+    final boolean[] wall;
+    final boolean[] ruin;
+    // 0 empty, 1 + 2 * team + (1 if secondary)
+    final byte[] paint;
+    // per team: 0 none, 1 primary, 2 secondary
+    final byte[][] marks;
+    // per team: the centers of active resource patterns
+    final List<List<MapLocation>> resourcePatterns = List.of(new ArrayList<>(), new ArrayList<>());
+    final SimRobot[] robotAt;
+    final List<SimRobot> robots = new ArrayList<>();
+    final BotPackage[] packages;
+    final int[] money = new int[2];
+    final boolean[] resigned = new boolean[2];
+    int round = 0;
+    int nextID = 10000;
+    int botErrors = 0;
+
+    SimWorld(int width, int height, BotPackage teamA, BotPackage teamB) {
+        this.width = width;
+        this.height = height;
+        wall = new boolean[width * height];
+        ruin = new boolean[width * height];
+        paint = new byte[width * height];
+        marks = new byte[2][width * height];
+        robotAt = new SimRobot[width * height];
+        packages = new BotPackage[] {teamA, teamB};
+        money[0] = money[1] = GameConstants.DEFAULT_MONEY_AMOUNT;
+    }
+
+    /*
+     * A random map with rotational symmetry: wall blobs, ruins, and a paint and a money tower per team in opposite
+     * corners. The same seed always gives the same map.
+     */
+    static SimWorld generate(long seed, BotPackage teamA, BotPackage teamB) throws ReflectiveOperationException {
+        Random random = new Random(seed);
+        int width = GameConstants.MAP_MIN_WIDTH + random.nextInt(21);
+        int height = GameConstants.MAP_MIN_HEIGHT + random.nextInt(21);
+        SimWorld world = new SimWorld(width, height, teamA, teamB);
+        int blobs = width * height / 80;
+        for (int i = 0; i < blobs; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            for (int j = 2 + random.nextInt(5); j > 0; j--) {
+                world.setSymmetric(world.wall, x, y);
+                x = Math.max(0, Math.min(width - 1, x + random.nextInt(3) - 1));
+                y = Math.max(0, Math.min(height - 1, y + random.nextInt(3) - 1));
+            }
+        }
+        int ruins = 2 + random.nextInt(4);
+        for (int placed = 0, tries = 0; placed < ruins && tries < 1000; tries++) {
+            int x = 2 + random.nextInt(width - 4);
+            int y = 2 + random.nextInt(height - 4);
+            if (world.clearAround(x, y)) {
+                world.setSymmetric(world.ruin, x, y);
+                placed++;
+            }
+        }
+        // starting towers on ruins of their own, a corner's width from the edge
+        int x = 3 + random.nextInt(3);
+        int y = 3 + random.nextInt(3);
+        world.placeStartingTower(x, y, UnitType.LEVEL_ONE_PAINT_TOWER);
+        world.placeStartingTower(x + 3, y + 1, UnitType.LEVEL_ONE_MONEY_TOWER);
+        return world;
+    }
+
+    void setSymmetric(boolean[] layer, int x, int y) {
+        layer[index(x, y)] = true;
+        layer[index(width - 1 - x, height - 1 - y)] = true;
+    }
+
+    // no wall or ruin in the 5x5 pattern area around (x, y), nor around its mirror
+    boolean clearAround(int x, int y) {
+        for (int dx = -2; dx <= 2; dx++) {
+            for (int dy = -2; dy <= 2; dy++) {
+                int i = index(x + dx, y + dy);
+                int j = index(width - 1 - x - dx, height - 1 - y - dy);
+                if (wall[i] || ruin[i] || wall[j] || ruin[j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    void placeStartingTower(int x, int y, UnitType type) throws ReflectiveOperationException {
+        int mirrorX = width - 1 - x;
+        int mirrorY = height - 1 - y;
+        for (int[] tile : new int[][] {{x, y}, {mirrorX, mirrorY}}) {
+            wall[index(tile[0], tile[1])] = false;
+            ruin[index(tile[0], tile[1])] = true;
+        }
+        spawn(0, type, new MapLocation(x, y), START_TOWER_PAINT);
+        spawn(1, type, new MapLocation(mirrorX, mirrorY), START_TOWER_PAINT);
+    }
+
+    SimRobot spawn(int team, UnitType type, MapLocation loc, int startPaint) throws ReflectiveOperationException {
+        SimRobot robot = new SimRobot(this, nextID++, team, type, loc, startPaint, packages[team].newBot());
+        robots.add(robot);
+        robotAt[index(loc)] = robot;
+        return robot;
+    }
+
+    /*
+     * Plays one round. Returns false once the game is over: a team resigned or has no robots left.
+     */
+    boolean step() {
+        round++;
+        for (int team = 0; team < 2; team++) {
+            // a resource pattern stops paying once its paint is broken
+            int t = team;
+            resourcePatterns.get(team).removeIf(center -> !patternFits(t, RESOURCE_PATTERN, center, true, true));
+            money[team] += RESOURCE_PATTERN_INCOME * resourcePatterns.get(team).size();
+        }
+        for (int i = 0, n = robots.size(); i < n; i++) {
+            SimRobot robot = robots.get(i);
+            if (!robot.dead) {
+                startTurn(robot);
+                runTurn(robot);
+            }
+        }
+        robots.removeIf(robot -> robot.dead);
+        int[] alive = new int[2];
+        for (SimRobot robot : robots) {
+            alive[robot.team]++;
+        }
+        return alive[0] > 0 && alive[1] > 0 && !resigned[0] && !resigned[1];
+    }
+
+    void startTurn(SimRobot robot) {
+        robot.movementCooldown = Math.max(0, robot.movementCooldown - GameConstants.COOLDOWN_LIMIT);
+        robot.actionCooldown = Math.max(0, robot.actionCooldown - GameConstants.COOLDOWN_LIMIT);
+        robot.attacked = false;
+        robot.aoeAttacked = false;
+        robot.messagesSent = 0;
+        robot.inbox.removeIf(message -> message.getRound() < round - GameConstants.MESSAGE_ROUND_DURATION);
+        if (robot.type.isTowerType()) {
+            money[robot.team] += robot.type.moneyPerTurn;
+            robot.paint = Math.min(robot.type.paintCapacity, robot.paint + robot.type.paintPerTurn);
+        } else {
+            int owner = paintTeam(index(robot.location));
+            int drain = owner == robot.team ? 0 : owner == -1 ? EMPTY_PAINT_DRAIN : ENEMY_PAINT_DRAIN;
+            robot.paint = Math.max(0, robot.paint - drain);
+        }
+    }
+
+    void runTurn(SimRobot robot) {
+        try {
+            if (!robot.initialized) {
+                robot.initialized = true;
+                robot.bot.init.invoke(null, robot.controller.rc);
+            }
+            robot.bot.runTurn.invoke(null, robot.controller.rc);
+        } catch (InvocationTargetException e) {
+            // the bot catches its own exceptions, so this is an Error or a bug in the simulator's answers
+            botErrors++;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    int index(int x, int y) {
+        return y * width + x;
+    }
+
+    int index(MapLocation loc) {
+        return loc.y * width + loc.x;
+    }
+
+    MapLocation location(int index) {
+        return new MapLocation(index % width, index / width);
+    }
+
+    boolean onTheMap(MapLocation loc) {
+        return loc.x >= 0 && loc.y >= 0 && loc.x < width && loc.y < height;
+    }
+
+    boolean passable(int index) {
+        return !wall[index] && !ruin[index];
+    }
+
+    // the team whose paint is on the tile, -1 if it is empty
+    int paintTeam(int index) {
+        int p = paint[index];
+        return p == 0 ? -1 : (p - 1) / 2;
+    }
+
+    void setPaint(int index, int team, boolean secondary) {
+        paint[index] = (byte) (1 + 2 * team + (secondary ? 1 : 0));
+    }
+
+    // the tile as the team sees it
+    MapInfo mapInfo(MapLocation loc, int team) {
+        int i = index(loc);
+        int p = paint[i];
+        PaintType paintType = PaintType.EMPTY;
+        if (p != 0) {
+            boolean secondary = (p - 1) % 2 == 1;
+            if ((p - 1) / 2 == team) {
+                paintType = secondary ? PaintType.ALLY_SECONDARY : PaintType.ALLY_PRIMARY;
+            } else {
+                paintType = secondary ? PaintType.ENEMY_SECONDARY : PaintType.ENEMY_PRIMARY;
+            }
+        }
+        int m = marks[team][i];
+        PaintType mark = m == 0 ? PaintType.EMPTY : m == 1 ? PaintType.ALLY_PRIMARY : PaintType.ALLY_SECONDARY;
+        return new MapInfo(loc, passable(i), wall[i], paintType, mark, ruin[i],
+                resourcePatterns.get(team).contains(loc));
+    }
+
+    int towerCount(int team) {
+        int count = 0;
+        for (SimRobot robot : robots) {
+            if (!robot.dead && robot.team == team && robot.type.isTowerType()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void damage(SimRobot target, int amount) {
+        target.health -= amount;
+        if (target.health <= 0) {
+            kill(target);
+        }
+    }
+
+    // a destroyed tower leaves its ruin behind
+    void kill(SimRobot robot) {
+        robot.dead = true;
+        int i = index(robot.location);
+        if (robotAt[i] == robot) {
+            robotAt[i] = null;
+        }
+    }
+
+    void move(SimRobot robot, MapLocation to) {
+        robotAt[index(robot.location)] = null;
+        robot.location = to;
+        robotAt[index(to)] = robot;
+    }
+
+    /*
+     * Paints like an attack of robot at target, which the caller has checked it can do.
+     */
+    void attack(SimRobot robot, MapLocation target, boolean secondary) {
+        robot.paint -= robot.type.attackCost;
+        if (robot.type.isTowerType()) {
+            if (target == null) {
+                robot.aoeAttacked = true;
+                for (SimRobot other : new ArrayList<>(robots)) {
+                    if (!other.dead && other.team != robot.team && other.type.isRobotType() &&
+                            other.location.distanceSquaredTo(robot.location) <= robot.type.actionRadiusSquared) {
+                        damage(other, robot.type.aoeAttackStrength);
+                    }
+                }
+            } else {
+                robot.attacked = true;
+                SimRobot other = robotAt[index(target)];
+                if (other != null && other.team != robot.team) {
+                    damage(other, robot.type.attackStrength);
+                }
+            }
+            return;
+        }
+        robot.actionCooldown += actionCooldown(robot.type);
+        int i = index(target);
+        switch (robot.type) {
+            case SOLDIER: {
+                SimRobot other = robotAt[i];
+                if (other != null && other.team != robot.team && other.type.isTowerType()) {
+                    damage(other, robot.type.attackStrength);
+                } else if (passable(i) && paintTeam(i) != 1 - robot.team) {
+                    setPaint(i, robot.team, secondary);
+                }
+                break;
+            }
+            case SPLASHER:
+                for (int dx = -2; dx <= 2; dx++) {
+                    for (int dy = -2; dy <= 2; dy++) {
+                        int d = dx * dx + dy * dy;
+                        MapLocation loc = target.translate(dx, dy);
+                        if (d > SPLASH_RADIUS_SQUARED || !onTheMap(loc)) {
+                            continue;
+                        }
+                        int j = index(loc);
+                        SimRobot other = robotAt[j];
+                        if (other != null && other.team != robot.team && other.type.isTowerType()) {
+                            damage(other, robot.type.attackStrength);
+                        }
+                        if (passable(j) && (paintTeam(j) != 1 - robot.team || d <= SPLASH_OVERWRITE_RADIUS_SQUARED)) {
+                            setPaint(j, robot.team, secondary);
+                        }
+                    }
+                }
+                break;
+            case MOPPER: {
+                if (paintTeam(i) == 1 - robot.team) {
+                    paint[i] = 0;
+                }
+                SimRobot other = robotAt[i];
+                if (other != null && other.team != robot.team && other.type.isRobotType()) {
+                    int taken = Math.min(MOP_STEAL, other.paint);
+                    other.paint -= taken;
+                    robot.paint = Math.min(robot.type.paintCapacity, robot.paint + Math.min(MOP_GAIN, taken));
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    // enemy units on the two rows of three tiles in front of the mopper lose paint
+    void mopSwing(SimRobot robot, Direction dir) {
+        robot.actionCooldown += actionCooldown(robot.type);
+        Direction side = dir.rotateLeft().rotateLeft();
+        for (int step = 1; step <= 2; step++) {
+            MapLocation center = robot.location.translate(dir.dx * step, dir.dy * step);
+            for (int offset = -1; offset <= 1; offset++) {
+                MapLocation loc = center.translate(side.dx * offset, side.dy * offset);
+                if (!onTheMap(loc)) {
+                    continue;
+                }
+                SimRobot other = robotAt[index(loc)];
+                if (other != null && other.team != robot.team && other.type.isRobotType()) {
+                    other.paint = Math.max(0, other.paint - SWING_DRAIN);
+                }
+            }
+        }
+    }
+
+    // true if all tiles of the pattern around center fit it, as marks (checkPaint false) or as the team's paint.
+    // Tower patterns have 24 tiles around the ruin, resource patterns (withCenter) all 25 on passable tiles.
+    boolean patternFits(int team, boolean[][] pattern, MapLocation center, boolean checkPaint, boolean withCenter) {
+        for (int dx = -2; dx <= 2; dx++) {
+            for (int dy = -2; dy <= 2; dy++) {
+                if (dx == 0 && dy == 0 && !withCenter) {
+                    continue;
+                }
+                MapLocation loc = center.translate(dx, dy);
+                if (!onTheMap(loc) || (withCenter && !passable(index(loc)))) {
+                    return false;
+                }
+                if (!checkPaint) {
+                    continue;
+                }
+                int i = index(loc);
+                int expected = 1 + 2 * team + (pattern[dx + 2][dy + 2] ? 1 : 0);
+                if (paint[i] != expected) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    void markPattern(int team, boolean[][] pattern, MapLocation center, boolean withCenter) {
+        for (int dx = -2; dx <= 2; dx++) {
+            for (int dy = -2; dy <= 2; dy++) {
+                if (dx != 0 || dy != 0 || withCenter) {
+                    marks[team][index(center.translate(dx, dy))] = (byte) (pattern[dx + 2][dy + 2] ? 2 : 1);
+                }
+            }
+        }
+    }
+
+    int paintedTiles(int team) {
+        int count = 0;
+        for (int i = paint.length; --i >= 0;) {
+            if (paint[i] != 0 && (paint[i] - 1) / 2 == team) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int units(int team) {
+        int count = 0;
+        for (SimRobot robot : robots) {
+            if (!robot.dead && robot.team == team && robot.type.isRobotType()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,175 @@
+package simulator;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+ * Plays many short games in process, without the engine, to compare navigation and painting heuristics at a scale
+ * that real matches cannot reach. See SimWorld for which rules are simulated.
+ *
+ * Scenario i is a map generated from seed + i, played for at most the given number of rounds, so a run is
+ * reproducible from its seed. Scenarios are independent and run on a ForkJoinPool, one scenario per task.
+ * The bots' standard output and error are dropped while scenarios run.
+ *
+ * Writes one CSV row per scenario (seed, map size, rounds played, painted tiles, towers, units and active resource
+ * patterns per team, bot errors) and prints the averages.
+ *
+ * Each robot loading its own copy of the bot (see BotPackage) dominates the cost: on one core a 30-round scenario
+ * takes about a tenth of a second, so keep scenarios short and spread them over the cores.
+ *
+ * Usage: ./gradlew simulate [-PsimTeamA=bunniesv3] [-PsimTeamB=bunniesv3] [-Pscenarios=1000] [-Prounds=200]
+ *        [-Pseed=1] [-Pworkers=n]
+ * Arguments: <classes dir> <teamA> <teamB> <scenarios> <rounds> <seed> <workers> <output csv>
+ */
+public class Simulator {
+    static final String HEADER =
+            "seed,width,height,rounds,paintedA,paintedB,towersA,towersB,unitsA,unitsB,patternsA,patternsB,errors";
+
+    // the outcome of one scenario
+    static class Result {
+        final long seed;
+        final int width;
+        final int height;
+        int rounds;
+        final int[] painted = new int[2];
+        final int[] towers = new int[2];
+        final int[] units = new int[2];
+        final int[] patterns = new int[2];
+        int errors;
+
+        Result(long seed, SimWorld world) {
+            this.seed = seed;
+            width = world.width;
+            height = world.height;
+        }
+
+        String row() {
+            return seed + "," + width + "," + height + "," + rounds + "," + painted[0] + "," + painted[1] + "," +
+                    towers[0] + "," + towers[1] + "," + units[0] + "," + units[1] + "," + patterns[0] + "," +
+                    patterns[1] + "," + errors;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 8) {
+            throw new IllegalArgumentException(
+                    "usage: Simulator <classes dir> <teamA> <teamB> <scenarios> <rounds> <seed> <workers> <output csv>");
+        }
+        File classes = new File(args[0]);
+        BotPackage teamA = BotPackage.load(classes, args[1]);
+        BotPackage teamB = args[2].equals(args[1]) ? teamA : BotPackage.load(classes, args[2]);
+        int scenarios = Integer.parseInt(args[3]);
+        int rounds = Integer.parseInt(args[4]);
+        long seed = Long.parseLong(args[5]);
+        int workers = Math.max(1, Integer.parseInt(args[6]));
+        File out = new File(args[7]);
+        liftBytecodeLimit();
+
+        PrintStream console = System.out;
+        PrintStream errors = System.err;
+        long start = System.nanoTime();
+        List<Result> results;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(discard);
+        System.setErr(discard);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            results = pool.submit(() -> IntStream.range(0, scenarios).parallel()
+                    .mapToObj(i -> play(seed + i, teamA, teamB, rounds))
+                    .collect(Collectors.toList())).get();
+        } finally {
+            pool.shutdown();
+            System.setOut(console);
+            System.setErr(errors);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(out))) {
+            writer.println(HEADER);
+            for (Result result : results) {
+                writer.println(result.row());
+            }
+        }
+        print(args[1], args[2], results, seconds);
+        System.out.println("Results in " + out.getPath());
+    }
+
+    static Result play(long seed, BotPackage teamA, BotPackage teamB, int rounds) {
+        try {
+            SimWorld world = SimWorld.generate(seed, teamA, teamB);
+            Result result = new Result(seed, world);
+            while (world.round < rounds && world.step()) {
+            }
+            result.rounds = world.round;
+            for (int team = 0; team < 2; team++) {
+                result.painted[team] = world.paintedTiles(team);
+                result.towers[team] = world.towerCount(team);
+                result.units[team] = world.units(team);
+                result.patterns[team] = world.resourcePatterns.get(team).size();
+            }
+            result.errors = world.botErrors;
+            return result;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("could not load the bots for scenario " + seed, e);
+        }
+    }
+
+    static void print(String teamA, String teamB, List<Result> results, double seconds) {
+        double[] painted = new double[2];
+        double[] towers = new double[2];
+        double[] units = new double[2];
+        double[] patterns = new double[2];
+        long errors = 0;
+        for (Result result : results) {
+            for (int team = 0; team < 2; team++) {
+                painted[team] += result.painted[team];
+                towers[team] += result.towers[team];
+                units[team] += result.units[team];
+                patterns[team] += result.patterns[team];
+            }
+            errors += result.errors;
+        }
+        int n = Math.max(1, results.size());
+        System.out.printf(Locale.ROOT, "%d scenarios in %.1f s (%.0f per second)%n", results.size(), seconds,
+                results.size() / seconds);
+        System.out.printf("%-20s %10s %8s %8s %8s%n", "team", "painted", "towers", "units", "patterns");
+        System.out.printf(Locale.ROOT, "%-20s %10.1f %8.2f %8.2f %8.2f%n", "A " + teamA, painted[0] / n,
+                towers[0] / n, units[0] / n, patterns[0] / n);
+        System.out.printf(Locale.ROOT, "%-20s %10.1f %8.2f %8.2f %8.2f%n", "B " + teamB, painted[1] / n,
+                towers[1] / n, units[1] / n, patterns[1] / n);
+        if (errors > 0) {
+            System.out.println(errors + " turns ended in an error that escaped the bot");
+        }
+    }
+
+    /*
+     * Without instrumentation nothing counts bytecodes, but Clock.getBytecodesLeft() still reads the limit from the
+     * engine's RobotMonitor. A huge limit makes every deferrable task run. Does nothing if the engine has no such
+     * monitor.
+     */
+    static void liftBytecodeLimit() {
+        try {
+            Class<?> monitor = Class.forName("battlecode.instrumenter.inject.RobotMonitor");
+            for (Method method : monitor.getMethods()) {
+                if (method.getName().equals("init")) {
+                    Object[] arguments = new Object[method.getParameterCount()];
+                    Class<?>[] types = method.getParameterTypes();
+                    for (int i = 0; i < arguments.length; i++) {
+                        arguments[i] = SimRobotController.zero(types[i]);
+                    }
+                    method.invoke(null, arguments);
+                }
+            }
+            monitor.getMethod("setBytecodeLimit", int.class).invoke(null, Integer.MAX_VALUE / 2);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.out.println("Could not lift the bytecode limit, deferrable tasks may be skipped: " + e);
+        }
+    }
+}
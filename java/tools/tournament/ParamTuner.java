@@ -0,0 +1,555 @@
+package tournament;
+
+import bunniesv3.SplasherConvolutionGenerator;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Tunes the constants in a player's Params class (see PARAMETERS) with a genetic search over headless matches.
+ *
+ * The first generation is the player's current Params, the best configurations of the leaderboard, and mutations of
+ * the current Params. Every candidate is compiled as its own copy of the player's package (tuned<generation>x<n>),
+ * with its Params and a SplasherConvolutionUnrolled generated from its fringe weights. Each candidate plays every
+ * opponent on every map, as team A and as team B, once per seed, each generation's matches in parallel through
+ * TournamentRunner. Fitness is the win rate, ties go to fewer rounds to win; crashed or timed out matches count as
+ * losses. The next generation keeps the ELITE best candidates (their results carry over) and is filled up with
+ * children of two parents picked by tournament selection: uniform crossover, then a gaussian step on some of the
+ * parameters.
+ *
+ * Every evaluated configuration goes into the leaderboard file, best first, so that later runs start from the best
+ * ones found so far. Leaderboard rows from before a parameter existed get its current value. The run's best
+ * configuration is written to <out>/Params.java, and with apply also over the player's Params.java and
+ * SplasherConvolutionUnrolled.java.
+ *
+ * Configured through system properties (the tune Gradle task sets them):
+ *   tuning.classpath    classpath of the engine (the main runtime classpath), also used to compile the candidates
+ *   tuning.classes      directory with the compiled players
+ *   tuning.player       the package whose Params are tuned
+ *   tuning.source       source directory of that package
+ *   tuning.opponents    comma-separated packages, the player itself plays its current Params
+ *   tuning.maps         comma-separated map names
+ *   tuning.seeds        seeds per opponent, map and side, defaults to 1
+ *   tuning.population   candidates per generation, defaults to 8
+ *   tuning.generations  defaults to 5
+ *   tuning.seed         seed of the search, defaults to 1
+ *   tuning.workers      parallel matches, defaults to the number of cores
+ *   tuning.childHeap    -Xmx of each match JVM
+ *   tuning.out          output directory for the candidates, the tournament files, the replays and Params.java
+ *   tuning.leaderboard  leaderboard file
+ *   tuning.apply        true to write the best configuration into the player's sources
+ */
+public class ParamTuner {
+    static final int ELITE = 2;
+    // chance that a child's parameter is mutated, at least one always is
+    static final double MUTATION_RATE = 0.25;
+    // standard deviation of a mutation, as a fraction of the parameter's range
+    static final double MUTATION_STEP = 0.15;
+
+    // one constant in Params, searched within [min, max]
+    static class Parameter {
+        final String name;
+        final String description;
+        final double min;
+        final double max;
+        final boolean integer;
+
+        Parameter(String name, String description, double min, double max, boolean integer) {
+            this.name = name;
+            this.description = description;
+            this.min = min;
+            this.max = max;
+            this.integer = integer;
+        }
+
+        // clamped to the range, and rounded to an int or to two decimals
+        double round(double value) {
+            value = Math.max(min, Math.min(max, value));
+            return integer ? Math.round(value) : Math.round(value * 100) / 100.0;
+        }
+
+        String format(double value) {
+            return integer ? Long.toString(Math.round(value)) : Float.toString((float) value);
+        }
+
+        // as written in Params.java
+        String literal(double value) {
+            return integer ? format(value) : format(value) + "f";
+        }
+    }
+
+    static final Parameter[] PARAMETERS = new Parameter[] {
+            new Parameter("SPLASHER_ATTACK_THRESHOLD", "splash score a new splasher needs before it attacks",
+                    5, 30, false),
+            new Parameter("SPLASHER_ATTACK_THRESHOLD_AFTER_ATTACK", "splash score needed right after an attack",
+                    5, 30, false),
+            new Parameter("SPLASHER_ATTACK_THRESHOLD_AFTER_RETREAT", "splash score needed after refilling paint",
+                    5, 30, false),
+            new Parameter("SPLASHER_ATTACK_THRESHOLD_DECAY",
+                    "drop of the needed splash score per turn without an attack", 0, 1, false),
+            new Parameter("SPLASHER_ATTACK_THRESHOLD_MIN", "the needed splash score does not decay below this",
+                    0, 15, false),
+            new Parameter("SPLASHER_PAINT_RETREAT_THRESHOLD", "splashers go refill below this much paint",
+                    50, 250, true),
+            new Parameter("MOPPER_PAINT_RETREAT_THRESHOLD", "moppers go refill below this much paint", 0, 80, true),
+            new Parameter("SOLDIER_PAINT_REQUEST", "paint a soldier takes from a tower at once", 25, 200, true),
+            new Parameter("SPLASHER_DENIED_TOWER_COOLDOWN",
+                    "rounds a splasher skips a paint tower that denied it paint", 0, 200, true),
+            new Parameter("SPLASHER_FRINGE_EMPTY", "splash score of an empty tile on the fringe of a splash",
+                    -1, 3, false),
+            new Parameter("SPLASHER_FRINGE_ALLY_SECONDARY", "splash score of an ally secondary tile on the fringe",
+                    -3, 1, false),
+            new Parameter("SPLASHER_FRINGE_ALLY_SECONDARY_MARKED",
+                    "splash score of an ally secondary tile on the fringe that is marked secondary", -3, 1, false),
+            new Parameter("RUIN_CLAIM_BUILD_ROUNDS",
+                    "rounds a soldier's claim on a ruin lasts beyond its distance to the ruin", 10, 80, true),
+            new Parameter("RUIN_CLAIM_MARK_ROUNDS",
+                    "rounds a splasher's claim on a ruin lasts beyond its distance to the ruin", 0, 30, true),
+            new Parameter("RESOURCE_PATTERN_RANGE",
+                    "soldiers without a ruin look this far (distance squared) for a resource pattern center", 8, 200,
+                    true),
+    };
+
+    // one configuration and its results
+    static class Candidate {
+        final double[] values;
+        String name = null;
+        int games = 0;
+        int wins = 0;
+        long winRounds = 0;
+        String opponents = "";
+
+        Candidate(double[] values) {
+            this.values = values;
+        }
+
+        boolean evaluated() {
+            return games > 0;
+        }
+
+        double winRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        // NaN without wins
+        double averageRoundsToWin() {
+            return wins == 0 ? Double.NaN : (double) winRounds / wins;
+        }
+
+        double value(String parameter) {
+            for (int i = 0; i < PARAMETERS.length; i++) {
+                if (PARAMETERS[i].name.equals(parameter)) {
+                    return values[i];
+                }
+            }
+            throw new IllegalArgumentException("unknown parameter " + parameter);
+        }
+    }
+
+    // higher win rate first, then fewer rounds to win
+    static final Comparator<Candidate> BEST_FIRST = (a, b) -> {
+        if (a.winRate() != b.winRate()) {
+            return Double.compare(b.winRate(), a.winRate());
+        }
+        double roundsA = a.wins == 0 ? Double.MAX_VALUE : a.averageRoundsToWin();
+        double roundsB = b.wins == 0 ? Double.MAX_VALUE : b.averageRoundsToWin();
+        return Double.compare(roundsA, roundsB);
+    };
+
+    final String classpath;
+    final File out;
+    final File classes;
+    final Path source;
+    final String player;
+
+    ParamTuner(String classpath, File out, Path source, String player) {
+        this.classpath = classpath;
+        this.out = out;
+        this.classes = new File(out, "classes");
+        this.source = source;
+        this.player = player;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String player = System.getProperty("tuning.player", "");
+        List<String> opponents = TournamentRunner.split(System.getProperty("tuning.opponents", ""));
+        List<String> maps = TournamentRunner.split(System.getProperty("tuning.maps", ""));
+        int seeds = Integer.parseInt(System.getProperty("tuning.seeds", "1"));
+        int size = Integer.parseInt(System.getProperty("tuning.population", "8"));
+        int generations = Integer.parseInt(System.getProperty("tuning.generations", "5"));
+        Random random = new Random(Long.parseLong(System.getProperty("tuning.seed", "1")));
+        int workers = Integer.parseInt(System.getProperty("tuning.workers",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+        File leaderboardFile = new File(System.getProperty("tuning.leaderboard", "tuning-leaderboard.csv"));
+        boolean apply = Boolean.parseBoolean(System.getProperty("tuning.apply", "false"));
+        if (player.isEmpty() || opponents.isEmpty() || maps.isEmpty() || seeds < 1 || size <= ELITE ||
+                generations < 1) {
+            throw new IllegalArgumentException("need a player, an opponent, a map, a seed, more than " + ELITE +
+                    " candidates and a generation, got " + player + " " + opponents + " " + maps + " " + seeds + " " +
+                    size + " " + generations);
+        }
+
+        File out = new File(System.getProperty("tuning.out", "build/tuning"));
+        ParamTuner tuner = new ParamTuner(System.getProperty("tuning.classpath"), out,
+                new File(System.getProperty("tuning.source", "src/" + player)).toPath(), player);
+        tuner.copyPlayers(new File(System.getProperty("tuning.classes")), opponents);
+        String childHeap = System.getProperty("tuning.childHeap", "1g");
+
+        double[] current = currentValues(player);
+        List<Candidate> leaderboard = readLeaderboard(leaderboardFile, current);
+        List<Candidate> population = firstGeneration(current, leaderboard, size, random);
+        List<Candidate> evaluated = new ArrayList<>();
+        for (int generation = 0; generation < generations; generation++) {
+            List<Candidate> fresh = new ArrayList<>();
+            for (Candidate candidate : population) {
+                if (!candidate.evaluated()) {
+                    candidate.name = "tuned" + generation + "x" + fresh.size();
+                    fresh.add(candidate);
+                }
+            }
+            System.out.println("Generation " + generation + ": compiling " + fresh.size() + " candidates");
+            tuner.compile(fresh);
+            TournamentRunner runner = new TournamentRunner(tuner.classpath, tuner.classes.getPath(),
+                    new File(out, "generation-" + generation), childHeap);
+            List<TournamentRunner.Match> matches = schedule(fresh, opponents, maps, seeds);
+            System.out.println("Generation " + generation + ": playing " + matches.size() + " matches on " +
+                    workers + " workers");
+            runner.runAll(matches, workers);
+            tally(fresh, matches, String.join(" ", opponents));
+            evaluated.addAll(fresh);
+
+            population.sort(BEST_FIRST);
+            print(generation, population);
+            if (generation + 1 < generations) {
+                population = nextGeneration(population, size, random);
+            }
+        }
+
+        evaluated.sort(BEST_FIRST);
+        Candidate best = evaluated.get(0);
+        leaderboard.addAll(evaluated);
+        leaderboard.sort(BEST_FIRST);
+        writeLeaderboard(leaderboardFile, leaderboard);
+        File params = new File(out, "Params.java");
+        writeParams(params, player, best.values);
+        System.out.printf(Locale.ROOT, "Best: %s, win rate %.3f over %d games. Params in %s%n", best.name,
+                best.winRate(), best.games, params.getPath());
+        System.out.println("Leaderboard in " + leaderboardFile.getPath());
+        if (apply) {
+            writeParams(tuner.source.resolve("Params.java").toFile(), player, best.values);
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(
+                    tuner.source.resolve("SplasherConvolutionUnrolled.java"), StandardCharsets.UTF_8))) {
+                writer.print(unrolled(player, best.values));
+            }
+            System.out.println("Wrote the best configuration to " + tuner.source);
+        }
+    }
+
+    // the values of the player's compiled Params, the starting point of the search
+    static double[] currentValues(String player) throws ReflectiveOperationException {
+        Class<?> params = Class.forName(player + ".Params");
+        double[] values = new double[PARAMETERS.length];
+        for (int i = 0; i < PARAMETERS.length; i++) {
+            Field field = params.getDeclaredField(PARAMETERS[i].name);
+            field.setAccessible(true);
+            // through the string, so that 19.8f becomes 19.8 like in the leaderboard
+            values[i] = Double.parseDouble(field.get(null).toString());
+        }
+        return values;
+    }
+
+    /*
+     * The current values, the best distinct configurations of the leaderboard (up to a quarter of the population)
+     * and mutations of the current values.
+     */
+    static List<Candidate> firstGeneration(double[] current, List<Candidate> leaderboard, int size, Random random) {
+        List<Candidate> population = new ArrayList<>();
+        population.add(new Candidate(current.clone()));
+        for (Candidate row : leaderboard) {
+            if (population.size() > size / 4) {
+                break;
+            }
+            if (!contains(population, row.values)) {
+                population.add(new Candidate(row.values.clone()));
+            }
+        }
+        while (population.size() < size) {
+            double[] values = mutate(current.clone(), random);
+            if (!contains(population, values)) {
+                population.add(new Candidate(values));
+            }
+        }
+        return population;
+    }
+
+    // population is sorted best first
+    static List<Candidate> nextGeneration(List<Candidate> population, int size, Random random) {
+        List<Candidate> next = new ArrayList<>(population.subList(0, ELITE));
+        int attempts = 0;
+        while (next.size() < size) {
+            double[] first = select(population, random).values;
+            double[] second = select(population, random).values;
+            double[] values = new double[PARAMETERS.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextBoolean() ? first[i] : second[i];
+            }
+            mutate(values, random);
+            // a small search space can run out of new children
+            if (!contains(next, values) || ++attempts > 100 * size) {
+                next.add(new Candidate(values));
+            }
+        }
+        return next;
+    }
+
+    // the better of two random candidates
+    static Candidate select(List<Candidate> population, Random random) {
+        Candidate a = population.get(random.nextInt(population.size()));
+        Candidate b = population.get(random.nextInt(population.size()));
+        return BEST_FIRST.compare(a, b) <= 0 ? a : b;
+    }
+
+    static double[] mutate(double[] values, Random random) {
+        int forced = random.nextInt(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (i == forced || random.nextDouble() < MUTATION_RATE) {
+                Parameter parameter = PARAMETERS[i];
+                double step = random.nextGaussian() * MUTATION_STEP * (parameter.max - parameter.min);
+                values[i] = parameter.round(values[i] + step);
+            }
+        }
+        return values;
+    }
+
+    static boolean contains(List<Candidate> candidates, double[] values) {
+        for (Candidate candidate : candidates) {
+            if (Arrays.equals(candidate.values, values)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the opponents are played from tuning.classes, so they sit next to the candidates in one class directory
+    void copyPlayers(File from, List<String> players) throws IOException {
+        for (String player : players) {
+            Path root = new File(from, player).toPath();
+            if (!Files.isDirectory(root)) {
+                throw new IllegalArgumentException("no compiled player " + player + " in " + from);
+            }
+            Path target = new File(classes, player).toPath();
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : files.collect(Collectors.toList())) {
+                    Path copy = target.resolve(root.relativize(file).toString());
+                    if (Files.isDirectory(file)) {
+                        Files.createDirectories(copy);
+                    } else {
+                        Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Copies the player's sources into one package per candidate, with the candidate's Params and
+     * SplasherConvolutionUnrolled, and compiles them all at once.
+     */
+    void compile(List<Candidate> candidates) throws IOException {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<Path> sources;
+        try (Stream<Path> files = Files.list(source)) {
+            sources = files.filter(file -> file.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+        List<String> arguments = new ArrayList<>(Arrays.asList("-nowarn", "-encoding", "UTF-8", "--release", "21",
+                "-cp", classpath, "-d", classes.getPath()));
+        for (Candidate candidate : candidates) {
+            Path directory = new File(out, "src/" + candidate.name).toPath();
+            Files.createDirectories(directory);
+            for (Path file : sources) {
+                String name = file.getFileName().toString();
+                String text;
+                if (name.equals("Params.java")) {
+                    text = params(player, candidate.values);
+                } else if (name.equals("SplasherConvolutionUnrolled.java")) {
+                    text = unrolled(player, candidate.values);
+                } else {
+                    text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                }
+                Path copy = directory.resolve(name);
+                Files.write(copy, rename(text, candidate.name).getBytes(StandardCharsets.UTF_8));
+                arguments.add(copy.toString());
+            }
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("compiling the candidates needs a JDK, not a JRE");
+        }
+        if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("the candidates did not compile, see the sources in " +
+                    new File(out, "src").getPath());
+        }
+    }
+
+    String rename(String text, String name) {
+        return text.replaceAll("\\b" + player + "\\b", name);
+    }
+
+    // every candidate against every opponent, on each map, on both sides, for seeds 1..seeds
+    static List<TournamentRunner.Match> schedule(List<Candidate> candidates, List<String> opponents,
+            List<String> maps, int seeds) {
+        List<TournamentRunner.Match> matches = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            for (String opponent : opponents) {
+                for (String map : maps) {
+                    for (int seed = 1; seed <= seeds; seed++) {
+                        matches.add(new TournamentRunner.Match(candidate.name, opponent, map, seed));
+                        matches.add(new TournamentRunner.Match(opponent, candidate.name, map, seed));
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    static void tally(List<Candidate> candidates, List<TournamentRunner.Match> matches, String opponents) {
+        Map<String, Candidate> byName = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            byName.put(candidate.name, candidate);
+            candidate.opponents = opponents;
+        }
+        for (TournamentRunner.Match match : matches) {
+            Candidate candidate = byName.containsKey(match.teamA) ? byName.get(match.teamA) : byName.get(match.teamB);
+            candidate.games++;
+            if (candidate.name.equals(match.winner)) {
+                candidate.wins++;
+                candidate.winRounds += match.round;
+            }
+        }
+    }
+
+    static void print(int generation, List<Candidate> population) {
+        System.out.println();
+        System.out.printf("%-14s %6s %6s %8s %12s%n", "generation " + generation, "games", "wins", "winRate",
+                "roundsToWin");
+        for (Candidate candidate : population) {
+            System.out.printf(Locale.ROOT, "%-14s %6d %6d %8.3f %12.1f%n", candidate.name, candidate.games,
+                    candidate.wins, candidate.winRate(), candidate.averageRoundsToWin());
+        }
+        System.out.println();
+    }
+
+    static String header() {
+        StringBuilder header = new StringBuilder("winRate,games,wins,averageRoundsToWin,opponents");
+        for (Parameter parameter : PARAMETERS) {
+            header.append(',').append(parameter.name);
+        }
+        return header.toString();
+    }
+
+    static List<Candidate> readLeaderboard(File file, double[] current) throws IOException {
+        List<Candidate> rows = new ArrayList<>();
+        if (!file.exists()) {
+            return rows;
+        }
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            return rows;
+        }
+        List<String> columns = Arrays.asList(lines.get(0).split(",", -1));
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] cells = line.split(",", -1);
+            double[] values = current.clone();
+            for (int i = 0; i < PARAMETERS.length; i++) {
+                int column = columns.indexOf(PARAMETERS[i].name);
+                if (column >= 0) {
+                    values[i] = Double.parseDouble(cells[column]);
+                }
+            }
+            Candidate row = new Candidate(values);
+            row.games = Integer.parseInt(cells[columns.indexOf("games")]);
+            row.wins = Integer.parseInt(cells[columns.indexOf("wins")]);
+            double roundsToWin = Double.parseDouble(cells[columns.indexOf("averageRoundsToWin")]);
+            row.winRounds = row.wins == 0 ? 0 : Math.round(roundsToWin * row.wins);
+            row.opponents = cells[columns.indexOf("opponents")];
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static void writeLeaderboard(File file, List<Candidate> rows) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.println(header());
+            for (Candidate row : rows) {
+                StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%.3f,%d,%d,%.1f,%s",
+                        row.winRate(), row.games, row.wins, row.averageRoundsToWin(), row.opponents));
+                for (int i = 0; i < PARAMETERS.length; i++) {
+                    line.append(',').append(PARAMETERS[i].format(row.values[i]));
+                }
+                writer.println(line);
+            }
+        }
+    }
+
+    static void writeParams(File file, String player, double[] values) throws IOException {
+        Files.write(file.toPath(), params(player, values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // the source of the player's Params.java with the given values
+    static String params(String player, double[] values) {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.println("package " + player + ";");
+        out.println();
+        out.println("/*");
+        out.println(" * Tunable constants, written by tools/tournament/ParamTuner.java " +
+                "(./gradlew tune -PapplyParams=true).");
+        out.println(" * ParamTuner starts its search from these values, so editing them by hand is fine; " +
+                "new constants also need an");
+        out.println(" * entry in ParamTuner.PARAMETERS. Rerun ./gradlew generateSplasherConvolution " +
+                "after changing a splash weight.");
+        out.println(" */");
+        out.println("public class Params {");
+        for (int i = 0; i < PARAMETERS.length; i++) {
+            Parameter parameter = PARAMETERS[i];
+            out.println("    // " + parameter.description);
+            out.println("    static final " + (parameter.integer ? "int " : "float ") + parameter.name + " = " +
+                    parameter.literal(values[i]) + ";");
+        }
+        out.println("}");
+        out.flush();
+        return text.toString();
+    }
+
+    // the source of the player's SplasherConvolutionUnrolled with the given fringe weights
+    static String unrolled(String player, double[] values) {
+        Candidate candidate = new Candidate(values);
+        float empty = (float) candidate.value("SPLASHER_FRINGE_EMPTY");
+        float allySecondary = (float) candidate.value("SPLASHER_FRINGE_ALLY_SECONDARY");
+        float allySecondaryMarked = (float) candidate.value("SPLASHER_FRINGE_ALLY_SECONDARY_MARKED");
+        // the layout of SplasherConvolution.fringeDamageArray
+        float[][][] fringeDamageArray = new float[][][] {
+                {{0, 0}},
+                {{empty, empty}, {0, 0}, {allySecondary, allySecondaryMarked}, {0, 0}, {0, 0}}
+        };
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        SplasherConvolutionGenerator.write(out, fringeDamageArray);
+        out.flush();
+        return text.toString().replaceAll("\\bbunniesv3\\b", player);
+    }
+}
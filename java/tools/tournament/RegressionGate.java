@@ -0,0 +1,209 @@
+package tournament;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/*
+ * Checks that a new version of the bot does not do worse against the older ones than the last accepted version did.
+ *
+ * The candidate plays every opponent on every map, as team A and as team B, once per seed (seeds 1..n are passed to
+ * the players as bc.testing.seed, so the same pairing plays out differently). The matches run through
+ * TournamentRunner, in parallel forked JVMs.
+ *
+ * For every opponent the candidate's win rate and average rounds to win (over its wins only) are compared with the
+ * baseline file, the results of the last accepted run. The gate fails (exit code 1) if against any opponent
+ *   - the win rate dropped by more than maxWinRateDrop, or is below minWinRate, or
+ *   - winning takes more than maxRoundsIncrease (a fraction) more rounds than in the baseline.
+ * Opponents missing from the baseline are only held to minWinRate. Matches that crashed or timed out count as
+ * losses. With updateBaseline the results are written to the baseline file when the gate passes.
+ *
+ * Configured through system properties (the regressionGate Gradle task sets them):
+ *   regression.classpath          classpath of the engine (the main runtime classpath)
+ *   regression.classes            directory with the compiled players
+ *   regression.candidate          the package under test
+ *   regression.opponents          comma-separated packages
+ *   regression.maps               comma-separated map names
+ *   regression.seeds              seeds per pairing, map and side, defaults to 2
+ *   regression.workers            parallel matches, defaults to the number of cores
+ *   regression.childHeap          -Xmx of each match JVM
+ *   regression.out                output directory for regression.csv, the tournament files and the replays
+ *   regression.baseline           baseline file, regression.csv of an accepted run
+ *   regression.maxWinRateDrop     defaults to 0.05
+ *   regression.minWinRate         defaults to 0.5
+ *   regression.maxRoundsIncrease  defaults to 0.1
+ *   regression.updateBaseline     true to accept a passing run as the new baseline
+ */
+public class RegressionGate {
+    static final String HEADER = "opponent,games,wins,winRate,averageRoundsToWin,baselineWinRate," +
+            "baselineRoundsToWin,status";
+
+    // the candidate's results against one opponent
+    static class Result {
+        final String opponent;
+        int games = 0;
+        int wins = 0;
+        long winRounds = 0;
+        // NaN if the opponent is not in the baseline
+        double baselineWinRate = Double.NaN;
+        double baselineRoundsToWin = Double.NaN;
+        String status = "ok";
+
+        Result(String opponent) {
+            this.opponent = opponent;
+        }
+
+        double winRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        // NaN without wins
+        double averageRoundsToWin() {
+            return wins == 0 ? Double.NaN : (double) winRounds / wins;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String candidate = System.getProperty("regression.candidate", "");
+        List<String> opponents = TournamentRunner.split(System.getProperty("regression.opponents", ""));
+        opponents.remove(candidate);
+        List<String> maps = TournamentRunner.split(System.getProperty("regression.maps", ""));
+        int seeds = Integer.parseInt(System.getProperty("regression.seeds", "2"));
+        int workers = Integer.parseInt(System.getProperty("regression.workers",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+        double maxWinRateDrop = Double.parseDouble(System.getProperty("regression.maxWinRateDrop", "0.05"));
+        double minWinRate = Double.parseDouble(System.getProperty("regression.minWinRate", "0.5"));
+        double maxRoundsIncrease = Double.parseDouble(System.getProperty("regression.maxRoundsIncrease", "0.1"));
+        File baseline = new File(System.getProperty("regression.baseline", "regression-baseline.csv"));
+        boolean updateBaseline = Boolean.parseBoolean(System.getProperty("regression.updateBaseline", "false"));
+        if (candidate.isEmpty() || opponents.isEmpty() || maps.isEmpty() || seeds < 1) {
+            throw new IllegalArgumentException("need a candidate, an opponent, a map and a seed, got " + candidate +
+                    " " + opponents + " " + maps + " " + seeds);
+        }
+
+        File out = new File(System.getProperty("regression.out", "build/regression"));
+        TournamentRunner runner = new TournamentRunner(System.getProperty("regression.classpath"),
+                System.getProperty("regression.classes"), out, System.getProperty("regression.childHeap", "1g"));
+        List<TournamentRunner.Match> matches = schedule(candidate, opponents, maps, seeds);
+        System.out.println("Playing " + candidate + " in " + matches.size() + " matches on " + workers + " workers");
+        runner.runAll(matches, workers);
+        List<String> players = new ArrayList<>(opponents);
+        players.add(0, candidate);
+        runner.write(players, matches);
+
+        Map<String, Result> results = tally(candidate, opponents, matches);
+        readBaseline(baseline, results);
+        boolean passed = judge(results.values(), maxWinRateDrop, minWinRate, maxRoundsIncrease);
+        File report = new File(out, "regression.csv");
+        write(report, results.values());
+        print(candidate, results.values(), passed);
+        System.out.println("Report in " + report.getPath());
+
+        if (!passed) {
+            System.exit(1);
+        }
+        if (updateBaseline) {
+            write(baseline, results.values());
+            System.out.println("Baseline updated: " + baseline.getPath());
+        }
+    }
+
+    // the candidate against each opponent, on each map, on both sides, for seeds 1..seeds
+    static List<TournamentRunner.Match> schedule(String candidate, List<String> opponents, List<String> maps,
+            int seeds) {
+        List<TournamentRunner.Match> matches = new ArrayList<>();
+        for (String opponent : opponents) {
+            for (String map : maps) {
+                for (int seed = 1; seed <= seeds; seed++) {
+                    matches.add(new TournamentRunner.Match(candidate, opponent, map, seed));
+                    matches.add(new TournamentRunner.Match(opponent, candidate, map, seed));
+                }
+            }
+        }
+        return matches;
+    }
+
+    static Map<String, Result> tally(String candidate, List<String> opponents, List<TournamentRunner.Match> matches) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String opponent : opponents) {
+            results.put(opponent, new Result(opponent));
+        }
+        for (TournamentRunner.Match match : matches) {
+            Result result = results.get(match.teamA.equals(candidate) ? match.teamB : match.teamA);
+            result.games++;
+            if (candidate.equals(match.winner)) {
+                result.wins++;
+                result.winRounds += match.round;
+            }
+        }
+        return results;
+    }
+
+    static void readBaseline(File baseline, Map<String, Result> results) throws IOException {
+        if (!baseline.isFile()) {
+            System.out.println("No baseline at " + baseline.getPath() + ", only checking the minimum win rate");
+            return;
+        }
+        List<String> lines = Files.readAllLines(baseline.toPath(), StandardCharsets.UTF_8);
+        for (int i = 1; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split(",");
+            Result result = fields.length >= 5 ? results.get(fields[0]) : null;
+            if (result != null) {
+                result.baselineWinRate = Double.parseDouble(fields[3]);
+                result.baselineRoundsToWin = fields[4].isEmpty() ? Double.NaN : Double.parseDouble(fields[4]);
+            }
+        }
+    }
+
+    // sets every result's status, returns true if none regressed
+    static boolean judge(Collection<Result> results, double maxWinRateDrop, double minWinRate,
+            double maxRoundsIncrease) {
+        boolean passed = true;
+        for (Result result : results) {
+            double winRate = result.winRate();
+            double rounds = result.averageRoundsToWin();
+            if (winRate < minWinRate) {
+                result.status = "below minimum win rate";
+            } else if (!Double.isNaN(result.baselineWinRate) && winRate < result.baselineWinRate - maxWinRateDrop) {
+                result.status = "win rate regressed";
+            } else if (!Double.isNaN(result.baselineRoundsToWin) && !Double.isNaN(rounds) &&
+                    rounds > result.baselineRoundsToWin * (1 + maxRoundsIncrease)) {
+                result.status = "rounds to win regressed";
+            } else {
+                continue;
+            }
+            passed = false;
+        }
+        return passed;
+    }
+
+    static void write(File file, Collection<Result> results) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.println(HEADER);
+            for (Result result : results) {
+                writer.printf(Locale.ROOT, "%s,%d,%d,%.3f,%s,%s,%s,%s%n", result.opponent, result.games, result.wins,
+                        result.winRate(), format(result.averageRoundsToWin()), format(result.baselineWinRate),
+                        format(result.baselineRoundsToWin), result.status);
+            }
+        }
+    }
+
+    static void print(String candidate, Collection<Result> results, boolean passed) {
+        System.out.println();
+        System.out.println(candidate + " against:");
+        System.out.printf("%-20s %6s %6s %8s %10s %10s %10s  %s%n", "opponent", "games", "wins", "winRate",
+                "rounds", "baseRate", "baseRounds", "status");
+        for (Result result : results) {
+            System.out.printf(Locale.ROOT, "%-20s %6d %6d %8.3f %10s %10s %10s  %s%n", result.opponent, result.games,
+                    result.wins, result.winRate(), format(result.averageRoundsToWin()),
+                    format(result.baselineWinRate), format(result.baselineRoundsToWin), result.status);
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    // empty for NaN, so that the CSV can be read back
+    static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.3f", value);
+    }
+}
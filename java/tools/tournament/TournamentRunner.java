@@ -0,0 +1,303 @@
+package tournament;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Plays every pairing of the given players on every given map, with both side assignments, each match in its own
+ * headless battlecode.server.Main JVM. Matches run on a pool of worker threads that each wait on one forked JVM,
+ * so throughput grows with the number of cores until memory runs out.
+ *
+ * Configured through system properties (the tournament Gradle task sets them):
+ *   tournament.classpath   classpath of the engine (the main runtime classpath)
+ *   tournament.classes     directory with the compiled players
+ *   tournament.players     comma-separated packages
+ *   tournament.maps        comma-separated map names
+ *   tournament.challenger  optional, only play the challenger against everyone else
+ *   tournament.workers     parallel matches, defaults to the number of cores
+ *   tournament.out         output directory for matches.csv, matrix.csv, matrix.json and the replays
+ *   tournament.childHeap   -Xmx of each match JVM
+ * A match can carry a seed, which its JVM passes to the players as the bc.testing.seed property (see RegressionGate).
+ * --add-opens flags given to this JVM are passed on to the match JVMs.
+ */
+public class TournamentRunner {
+    static final Pattern WIN = Pattern.compile("\\((A|B)\\) wins \\(round (\\d+)\\)");
+    static final long MATCH_TIMEOUT_MINUTES = 20;
+
+    static class Match {
+        final String teamA;
+        final String teamB;
+        final String map;
+        // passed to the players as bc.testing.seed, 0 for none
+        final long seed;
+        String winner = null; // null if the match crashed or timed out
+        int round = 0;
+        double seconds = 0;
+
+        Match(String teamA, String teamB, String map) {
+            this(teamA, teamB, map, 0);
+        }
+
+        Match(String teamA, String teamB, String map, long seed) {
+            this.teamA = teamA;
+            this.teamB = teamB;
+            this.map = map;
+            this.seed = seed;
+        }
+    }
+
+    // one cell of the result matrix: player's results against one opponent over all maps and sides
+    static class Record {
+        int games = 0;
+        int wins = 0;
+        long rounds = 0;
+
+        double winRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        double averageRounds() {
+            return games == 0 ? 0 : (double) rounds / games;
+        }
+    }
+
+    final String classpath;
+    final String classes;
+    final File out;
+    final String childHeap;
+    final List<String> forwardedJvmArgs = new ArrayList<>();
+
+    TournamentRunner(String classpath, String classes, File out, String childHeap) {
+        this.classpath = classpath;
+        this.classes = classes;
+        this.out = out;
+        this.childHeap = childHeap;
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith("--add-opens")) {
+                forwardedJvmArgs.add(arg);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> players = split(System.getProperty("tournament.players", ""));
+        List<String> maps = split(System.getProperty("tournament.maps", ""));
+        String challenger = System.getProperty("tournament.challenger", "");
+        int workers = Integer.parseInt(System.getProperty("tournament.workers",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+        if (players.size() < 2 || maps.isEmpty()) {
+            throw new IllegalArgumentException("need at least two players and one map, got " + players + " " + maps);
+        }
+
+        TournamentRunner runner = new TournamentRunner(System.getProperty("tournament.classpath"),
+                System.getProperty("tournament.classes"),
+                new File(System.getProperty("tournament.out", "build/tournament")),
+                System.getProperty("tournament.childHeap", "1g"));
+        List<Match> matches = schedule(players, maps, challenger);
+        System.out.println("Playing " + matches.size() + " matches on " + workers + " workers");
+        runner.runAll(matches, workers);
+        runner.write(players, matches);
+    }
+
+    static List<String> split(String list) {
+        List<String> items = new ArrayList<>();
+        for (String item : list.split(",")) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    /*
+     * Every unordered pair of players (or the challenger against each other player), on every map, once as
+     * team A and once as team B.
+     */
+    static List<Match> schedule(List<String> players, List<String> maps, String challenger) {
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            for (int j = i + 1; j < players.size(); j++) {
+                String first = players.get(i);
+                String second = players.get(j);
+                if (!challenger.isEmpty() && !first.equals(challenger) && !second.equals(challenger)) {
+                    continue;
+                }
+                for (String map : maps) {
+                    matches.add(new Match(first, second, map));
+                    matches.add(new Match(second, first, map));
+                }
+            }
+        }
+        return matches;
+    }
+
+    void runAll(List<Match> matches, int workers) throws InterruptedException {
+        new File(out, "replays").mkdirs();
+        new File(out, "logs").mkdirs();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        int[] finished = new int[] {0};
+        for (Match match : matches) {
+            pool.submit(() -> {
+                try {
+                    play(match);
+                } catch (Exception e) {
+                    System.err.println(describe(match) + " failed: " + e);
+                }
+                synchronized (finished) {
+                    finished[0]++;
+                    System.out.printf("[%d/%d] %s: %s%n", finished[0], matches.size(), describe(match),
+                            match.winner == null ? "no result" : match.winner + " in " + match.round + " rounds");
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    static String describe(Match match) {
+        String name = match.teamA + "-vs-" + match.teamB + "-on-" + match.map;
+        return match.seed == 0 ? name : name + "-seed-" + match.seed;
+    }
+
+    void play(Match match) throws IOException, InterruptedException {
+        String name = describe(match);
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-Xmx" + childHeap);
+        command.addAll(forwardedJvmArgs);
+        command.add("-Dbc.server.wait-for-client=false");
+        command.add("-Dbc.server.mode=headless");
+        command.add("-Dbc.server.map-path=maps");
+        command.add("-Dbc.server.robot-player-to-system-out=false");
+        command.add("-Dbc.server.debug=false");
+        command.add("-Dbc.engine.debug-methods=false");
+        command.add("-Dbc.engine.show-indicators=false");
+        command.add("-Dbc.game.team-a=" + match.teamA);
+        command.add("-Dbc.game.team-b=" + match.teamB);
+        command.add("-Dbc.game.team-a.url=" + classes);
+        command.add("-Dbc.game.team-b.url=" + classes);
+        command.add("-Dbc.game.team-a.package=" + match.teamA);
+        command.add("-Dbc.game.team-b.package=" + match.teamB);
+        command.add("-Dbc.game.maps=" + match.map);
+        command.add("-Dbc.server.validate-maps=false");
+        command.add("-Dbc.server.alternate-order=false");
+        if (match.seed != 0) {
+            command.add("-Dbc.testing.seed=" + match.seed);
+        }
+        command.add("-Dbc.server.save-file=" + new File(out, "replays/" + name + ".bc25").getPath());
+        command.add("-cp");
+        command.add(classpath);
+        command.add("battlecode.server.Main");
+        command.add("-c=-");
+
+        File log = new File(out, "logs/" + name + ".txt");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        if (!process.waitFor(MATCH_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            return;
+        }
+        match.seconds = (System.nanoTime() - start) / 1e9;
+        for (String line : Files.readAllLines(log.toPath(), StandardCharsets.UTF_8)) {
+            Matcher matcher = WIN.matcher(line);
+            if (matcher.find()) {
+                match.winner = matcher.group(1).equals("A") ? match.teamA : match.teamB;
+                match.round = Integer.parseInt(matcher.group(2));
+            }
+        }
+    }
+
+    void write(List<String> players, List<Match> matches) throws IOException {
+        Map<String, Map<String, Record>> matrix = new TreeMap<>();
+        for (Match match : matches) {
+            if (match.winner == null) {
+                continue;
+            }
+            record(matrix, match.teamA, match.teamB, match);
+            record(matrix, match.teamB, match.teamA, match);
+        }
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(new File(out, "matches.csv")))) {
+            writer.println("teamA,teamB,map,seed,winner,round,seconds");
+            for (Match match : matches) {
+                writer.printf(Locale.ROOT, "%s,%s,%s,%d,%s,%d,%.1f%n", match.teamA, match.teamB, match.map, match.seed,
+                        match.winner == null ? "" : match.winner, match.round, match.seconds);
+            }
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(new File(out, "matrix.csv")))) {
+            writer.println("player,opponent,games,wins,winRate,averageRounds");
+            for (Map.Entry<String, Map<String, Record>> row : matrix.entrySet()) {
+                for (Map.Entry<String, Record> cell : row.getValue().entrySet()) {
+                    Record r = cell.getValue();
+                    writer.printf(Locale.ROOT, "%s,%s,%d,%d,%.3f,%.1f%n", row.getKey(), cell.getKey(), r.games, r.wins,
+                            r.winRate(), r.averageRounds());
+                }
+            }
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(new File(out, "matrix.json")))) {
+            writer.println("{");
+            writer.println("  \"players\": [" + quoteAll(players) + "],");
+            writer.println("  \"matrix\": {");
+            int rows = 0;
+            for (Map.Entry<String, Map<String, Record>> row : matrix.entrySet()) {
+                writer.println("    \"" + row.getKey() + "\": {");
+                int cells = 0;
+                for (Map.Entry<String, Record> cell : row.getValue().entrySet()) {
+                    Record r = cell.getValue();
+                    writer.printf(Locale.ROOT,
+                            "      \"%s\": {\"games\": %d, \"wins\": %d, \"winRate\": %.3f, \"averageRounds\": %.1f}%s%n",
+                            cell.getKey(), r.games, r.wins, r.winRate(), r.averageRounds(),
+                            ++cells < row.getValue().size() ? "," : "");
+                }
+                writer.println("    }" + (++rows < matrix.size() ? "," : ""));
+            }
+            writer.println("  }");
+            writer.println("}");
+        }
+
+        // summary, best overall win rate first
+        System.out.println();
+        System.out.printf("%-20s %6s %6s %8s%n", "player", "games", "wins", "winRate");
+        List<String> ranked = new ArrayList<>(matrix.keySet());
+        Map<String, Record> totals = new HashMap<>();
+        for (String player : ranked) {
+            Record total = new Record();
+            for (Record r : matrix.get(player).values()) {
+                total.games += r.games;
+                total.wins += r.wins;
+                total.rounds += r.rounds;
+            }
+            totals.put(player, total);
+        }
+        ranked.sort((a, b) -> Double.compare(totals.get(b).winRate(), totals.get(a).winRate()));
+        for (String player : ranked) {
+            Record total = totals.get(player);
+            System.out.printf(Locale.ROOT, "%-20s %6d %6d %8.3f%n", player, total.games, total.wins, total.winRate());
+        }
+        System.out.println("Results in " + out.getPath());
+    }
+
+    static void record(Map<String, Map<String, Record>> matrix, String player, String opponent, Match match) {
+        Record r = matrix.computeIfAbsent(player, k -> new TreeMap<>()).computeIfAbsent(opponent, k -> new Record());
+        r.games++;
+        r.rounds += match.round;
+        if (player.equals(match.winner)) {
+            r.wins++;
+        }
+    }
+
+    static String quoteAll(List<String> items) {
+        StringBuilder builder = new StringBuilder();
+        for (String item : items) {
+            if (builder.length() > 0) builder.append(", ");
+            builder.append('"').append(item).append('"');
+        }
+        return builder.toString();
+    }
+}